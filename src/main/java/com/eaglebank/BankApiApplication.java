@@ -1,14 +1,22 @@
 package com.eaglebank;
 
+import com.eaglebank.importer.ImportCommand;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.Arrays;
+
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class BankApiApplication {
 
 	public static void main(String[] args) {
+		if (args.length > 0 && ImportCommand.NAME.equals(args[0])) {
+			System.exit(ImportCommand.run(Arrays.copyOfRange(args, 1, args.length)));
+		}
 		SpringApplication.run(BankApiApplication.class, args);
 
 
@@ -0,0 +1,32 @@
+package com.eaglebank.archive;
+
+import com.eaglebank.entity.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record ArchivedTransaction(
+        UUID id,
+        UUID fromAccountId,
+        UUID toAccountId,
+        BigDecimal amount,
+        LocalDateTime createdTimestamp,
+        TransactionType type,
+        BigDecimal creditedAmount,
+        BigDecimal fxRate,
+        String reference
+) {
+
+    public ArchivedTransaction(UUID id, UUID fromAccountId, UUID toAccountId, BigDecimal amount,
+                               LocalDateTime createdTimestamp, TransactionType type) {
+        this(id, fromAccountId, toAccountId, amount, createdTimestamp, type, null, null, null);
+    }
+
+    /**
+     * What the receiving account was credited, in its own currency.
+     */
+    public BigDecimal received() {
+        return creditedAmount == null ? amount : creditedAmount;
+    }
+}
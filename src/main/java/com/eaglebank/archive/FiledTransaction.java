@@ -0,0 +1,8 @@
+package com.eaglebank.archive;
+
+import java.util.UUID;
+
+/**
+ * A transaction as filed under one of its accounts; a transfer is filed under both.
+ */
+public record FiledTransaction(UUID accountId, ArchivedTransaction transaction) {}
@@ -0,0 +1,73 @@
+package com.eaglebank.archive;
+
+import java.nio.ByteBuffer;
+
+/**
+ * On-disk layout of an archived transaction segment.
+ *
+ * <pre>
+ * header   (64 bytes)  magic, version, period bounds, counts, section offsets
+ * blocks   one deflate-compressed columnar block per account
+ * index    (40 bytes per account, sorted by account id)
+ *          accountMsb, accountLsb, blockOffset, compressedLength,
+ *          uncompressedLength, rowCount, crc32
+ * ids      (8 bytes per transaction, ascending)
+ *          first 32 bits of the transaction id, then the index entry of its block
+ * </pre>
+ *
+ * Readers find every section through the header's offsets; older files put the index
+ * before the blocks. The id section, from version 5, files each transaction under the
+ * block it is counted in, its sender's when it has one. Ids sharing their first 32 bits
+ * are told apart by reading the block.
+ *
+ * Each block stores its rows in ascending timestamp order, column by column:
+ * timestamps (zig-zag delta varints, epoch micros), ids, from ids, to ids
+ * (16 bytes each, all zero when the side is absent), amount scales (1 byte each),
+ * unscaled amounts (zig-zag varints) and, from version 2, transaction types
+ * ({@link com.eaglebank.entity.TransactionType} ordinals, 1 byte each). Version 3 adds
+ * an FX flag per row (1 byte) followed by, for each flagged row in order, the credited
+ * amount and the rate applied, each as a scale byte and a zig-zag unscaled varint.
+ * Version 4 ends with the references: a varint UTF-8 length per row (0 when there is
+ * none) followed by the bytes. Version 1 files have no type column and hold transfers
+ * only; versions 1 and 2 hold single-currency transfers only.
+ */
+final class SegmentFormat {
+
+    static final int MAGIC = 0x45425347; // "EBSG"
+    static final short VERSION = 5;
+    static final short VERSION_TRANSFERS_ONLY = 1;
+    static final short VERSION_SINGLE_CURRENCY = 2;
+    static final short VERSION_NO_REFERENCES = 3;
+    static final short VERSION_NO_ID_INDEX = 4;
+
+    static final int HEADER_SIZE = 64;
+    static final int INDEX_ENTRY_SIZE = 40;
+    static final int ID_ENTRY_SIZE = 8;
+
+    static final String FILE_PREFIX = "transactions-";
+    static final String FILE_SUFFIX = ".seg";
+
+    private SegmentFormat() {
+    }
+
+    static void putVarLong(ByteBuffer buf, long value) {
+        long v = (value << 1) ^ (value >> 63);
+        while ((v & ~0x7FL) != 0) {
+            buf.put((byte) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        buf.put((byte) v);
+    }
+
+    static long getVarLong(ByteBuffer buf) {
+        long v = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buf.get();
+            v |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (v >>> 1) ^ -(v & 1);
+    }
+}
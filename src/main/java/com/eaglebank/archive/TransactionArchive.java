@@ -0,0 +1,289 @@
+package com.eaglebank.archive;
+
+import com.eaglebank.config.ArchiveProperties;
+import com.eaglebank.repository.ArchivedPeriodRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * The set of segment files currently available for reads. Segments are immutable, so the
+ * list is replaced copy-on-write and readers never take a lock.
+ *
+ * <p>With several instances the directory must be shared storage. The archiver records each
+ * month it archives in {@code archived_periods} and deletes its rows only after every instance
+ * has had time to see that record: each checks it every {@code refreshInterval}, and the
+ * archiving instance as soon as it commits. An instance that finds a month it has not loaded
+ * rescans the directory, and {@link #archivedUntil()} fails the read if the segment is not
+ * there rather than answer without those movements.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TransactionArchive {
+
+    private final ArchiveProperties properties;
+    private final ArchivedPeriodRepository archivedPeriodRepository;
+
+    private volatile List<TransactionSegment> segments = List.of();
+    private volatile LocalDateTime recordedUntil;
+
+    @PostConstruct
+    public void load() throws IOException {
+        if (!properties.enabled()) {
+            return;
+        }
+
+        Files.createDirectories(directory());
+        rescan();
+        refresh();
+        log.info("Loaded {} archive segments from {}", segments.size(), directory());
+    }
+
+    /**
+     * Reads how far {@code archived_periods} says the archive reaches, and picks up the new
+     * segments if that has moved.
+     */
+    @Scheduled(fixedDelayString = "${eaglebank.archive.refresh-interval:PT10S}")
+    public void refresh() {
+        if (!properties.enabled()) {
+            return;
+        }
+        recorded(archivedPeriodRepository.findArchivedUntil());
+    }
+
+    /**
+     * Moves the boundary to {@code until} once the record of a period archived up to there has
+     * committed. An older boundary is ignored.
+     */
+    public void recorded(LocalDateTime until) {
+        if (until == null) {
+            return;
+        }
+        synchronized (this) {
+            if (recordedUntil != null && !until.isAfter(recordedUntil)) {
+                return;
+            }
+            recordedUntil = until;
+        }
+        if (!loadedThrough(until)) {
+            try {
+                rescan();
+            } catch (IOException e) {
+                // archivedUntil() retries the rescan and refuses to answer while it fails
+                log.warn("Could not rescan {} for movements archived before {}", directory(), until, e);
+            }
+        }
+    }
+
+    /**
+     * Opens the segments in the directory that are not loaded yet, such as those another
+     * instance has archived since this one started.
+     */
+    public synchronized void rescan() throws IOException {
+        Set<Path> loaded = new HashSet<>();
+        for (TransactionSegment segment : segments) {
+            loaded.add(segment.getPath());
+        }
+
+        List<TransactionSegment> next = new ArrayList<>(segments);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory(),
+                SegmentFormat.FILE_PREFIX + "*" + SegmentFormat.FILE_SUFFIX)) {
+            for (Path file : files) {
+                if (!loaded.contains(file)) {
+                    next.add(TransactionSegment.open(file));
+                }
+            }
+        }
+        next.sort(Comparator.comparing(TransactionSegment::getPeriodStart));
+        segments = List.copyOf(next);
+    }
+
+    public Path directory() {
+        return Paths.get(properties.directory());
+    }
+
+    public Path segmentPath(YearMonth period) {
+        return directory().resolve(SegmentFormat.FILE_PREFIX + period + SegmentFormat.FILE_SUFFIX);
+    }
+
+    /**
+     * End of the newest archived period, or {@code null} when nothing has been archived.
+     * Anything before this instant lives only in segment files. Answered from memory; rows
+     * newer than a boundary this instance has not seen yet are still in the database, since
+     * the archiver gives every instance time to refresh before it deletes them.
+     */
+    public LocalDateTime archivedUntil() {
+        if (!properties.enabled()) {
+            return null;
+        }
+        LocalDateTime recorded = recordedUntil;
+        if (recorded != null && !loadedThrough(recorded)) {
+            try {
+                rescan();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (!loadedThrough(recorded)) {
+                throw new IllegalStateException("Movements before " + recorded + " have been archived, but their "
+                        + "segments are not in " + directory() + "; every instance must share the archive directory");
+            }
+        }
+        return loadedUntil();
+    }
+
+    private LocalDateTime loadedUntil() {
+        List<TransactionSegment> current = segments;
+        return current.isEmpty() ? null : current.get(current.size() - 1).getPeriodEnd();
+    }
+
+    private boolean loadedThrough(LocalDateTime recorded) {
+        LocalDateTime loaded = loadedUntil();
+        return loaded != null && !loaded.isBefore(recorded);
+    }
+
+    /**
+     * Finds an archived transaction by id among the movements of {@code accountIds}. Each
+     * segment looks the id up in its id section, so only the block holding it is inflated.
+     */
+    public Optional<ArchivedTransaction> find(UUID transactionId, Collection<UUID> accountIds) {
+        for (TransactionSegment segment : segments) {
+            Optional<ArchivedTransaction> found = segment.find(transactionId, accountIds);
+            if (found.isPresent()) {
+                return found;
+            }
+        }
+        return Optional.empty();
+    }
+
+    public List<ArchivedTransaction> read(UUID accountId, LocalDateTime from, LocalDateTime to) {
+        List<ArchivedTransaction> result = new ArrayList<>();
+        for (TransactionSegment segment : segments) {
+            if (segment.overlaps(from, to)) {
+                result.addAll(segment.read(accountId, from, to));
+            }
+        }
+        return result;
+    }
+
+    public List<ArchivedTransaction> read(Collection<UUID> accountIds, LocalDateTime from, LocalDateTime to) {
+        Set<UUID> owned = new HashSet<>(accountIds);
+        List<ArchivedTransaction> result = new ArrayList<>();
+        for (TransactionSegment segment : segments) {
+            if (segment.overlaps(from, to)) {
+                result.addAll(read(segment, owned, from, to, null));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The movements of {@code accountIds} in {@code [from, to)}, newest segment first and each
+     * segment's rows in {@code newestFirst} order, which must rank later timestamps first.
+     * Segments are read as the stream reaches them, so a caller that stops once it has
+     * enough never inflates the older ones. With {@code referenceText}, only movements whose
+     * reference contains it, ignoring case.
+     */
+    public Stream<ArchivedTransaction> streamNewestFirst(Collection<UUID> accountIds,
+                                                         LocalDateTime from,
+                                                         LocalDateTime to,
+                                                         String referenceText,
+                                                         Comparator<ArchivedTransaction> newestFirst) {
+        Set<UUID> owned = new HashSet<>(accountIds);
+        List<TransactionSegment> newest = new ArrayList<>(segments);
+        Collections.reverse(newest);
+        return newest.stream()
+                .filter(segment -> segment.overlaps(from, to))
+                .flatMap(segment -> {
+                    List<ArchivedTransaction> rows = read(segment, owned, from, to, referenceText);
+                    rows.sort(newestFirst);
+                    return rows.stream();
+                });
+    }
+
+    private static List<ArchivedTransaction> read(TransactionSegment segment, Set<UUID> owned,
+                                                  LocalDateTime from, LocalDateTime to, String referenceText) {
+        List<ArchivedTransaction> result = new ArrayList<>();
+        for (UUID accountId : owned) {
+            for (ArchivedTransaction txn : segment.read(accountId, from, to, referenceText)) {
+                // Transfers between two of the caller's accounts sit in both blocks
+                if (!owned.contains(txn.fromAccountId()) || accountId.equals(txn.fromAccountId())) {
+                    result.add(txn);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Net amount the account received across every archived period.
+     */
+    public BigDecimal netMovement(UUID accountId) {
+        BigDecimal net = BigDecimal.ZERO;
+        for (TransactionSegment segment : segments) {
+            net = net.add(segment.netMovement(accountId));
+        }
+        return net;
+    }
+
+    /**
+     * Net amount each account with archived movements received across every archived period.
+     */
+    public Map<UUID, BigDecimal> netMovements() {
+        Map<UUID, BigDecimal> nets = new HashMap<>();
+        for (TransactionSegment segment : segments) {
+            segment.addNetMovements(nets);
+        }
+        return nets;
+    }
+
+    public synchronized void register(Path file) throws IOException {
+        TransactionSegment added = TransactionSegment.open(file);
+
+        List<TransactionSegment> next = new ArrayList<>();
+        for (TransactionSegment existing : segments) {
+            if (existing.getPeriodStart().equals(added.getPeriodStart())) {
+                // Old mapping stays valid for in-flight readers until the GC unmaps it
+                existing.close();
+            } else {
+                next.add(existing);
+            }
+        }
+        next.add(added);
+        next.sort(Comparator.comparing(TransactionSegment::getPeriodStart));
+        segments = List.copyOf(next);
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        for (TransactionSegment segment : segments) {
+            segment.close();
+        }
+        segments = List.of();
+    }
+}
@@ -0,0 +1,139 @@
+package com.eaglebank.archive;
+
+import com.eaglebank.config.ArchiveProperties;
+import com.eaglebank.coordination.ExclusiveJob;
+import com.eaglebank.coordination.Lease;
+import com.eaglebank.entity.ArchivedPeriod;
+import com.eaglebank.entity.TransactionType;
+import com.eaglebank.repository.ArchiveRow;
+import com.eaglebank.repository.ArchivedPeriodRepository;
+import com.eaglebank.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.stream.Stream;
+
+/**
+ * Moves whole calendar months that have left the hot window out of Postgres and into
+ * segment files. Months are archived oldest first and the run stops at the first failure,
+ * so archived periods always form one contiguous range ending at
+ * {@link TransactionArchive#archivedUntil()}.
+ *
+ * <p>A month is streamed from the database grouped by account, so only one account's
+ * movements are held at a time. Each archived month is recorded in {@code archived_periods},
+ * which is how other instances learn to load the new segment. Its rows are deleted in a
+ * second transaction, two refresh intervals later, so no instance still reading the month
+ * from the database finds them gone.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "eaglebank.archive", name = "enabled", havingValue = "true")
+public class TransactionArchiver {
+
+    private final TransactionRepository transactionRepository;
+    private final ArchivedPeriodRepository archivedPeriodRepository;
+    private final TransactionArchive archive;
+    private final ArchiveProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    public TransactionArchiver(TransactionRepository transactionRepository,
+                               ArchivedPeriodRepository archivedPeriodRepository,
+                               TransactionArchive archive,
+                               ArchiveProperties properties,
+                               PlatformTransactionManager transactionManager) {
+        this.transactionRepository = transactionRepository;
+        this.archivedPeriodRepository = archivedPeriodRepository;
+        this.archive = archive;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @ExclusiveJob("archive")
+    @Scheduled(cron = "${eaglebank.archive.cron:0 30 2 1 * *}")
+    public void archiveClosedPeriods() {
+        YearMonth firstHotMonth = YearMonth.now().minusMonths(properties.hotWindowMonths());
+
+        LocalDateTime oldest = transactionRepository.findOldestTimestamp();
+        if (oldest == null) {
+            return;
+        }
+
+        for (YearMonth period = YearMonth.from(oldest); period.isBefore(firstHotMonth); period = period.plusMonths(1)) {
+            try {
+                archivePeriod(period);
+            } catch (RuntimeException e) {
+                log.error("Archiving {} failed, later periods will be retried on the next run", period, e);
+                return;
+            }
+        }
+    }
+
+    public void archivePeriod(YearMonth period) {
+        LocalDateTime start = period.atDay(1).atStartOfDay();
+        LocalDateTime end = period.plusMonths(1).atDay(1).atStartOfDay();
+
+        Lease lease = Lease.current();
+        Path file = archive.segmentPath(period);
+        Boolean recorded = transactionTemplate.execute(status -> {
+            if (lease != null) {
+                lease.verify();
+            }
+
+            // The segment is readable before the record commits; reads for this range go to the
+            // archive from then on, and its rows stay behind until the delete below
+            long archived;
+            try (Stream<ArchiveRow> rows = transactionRepository.streamForArchive(start, end)) {
+                archived = TransactionSegmentWriter.write(file, start, end, rows.map(TransactionArchiver::filed));
+                if (archived == 0) {
+                    return false;
+                }
+                archive.register(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            archivedPeriodRepository.save(ArchivedPeriod.builder()
+                    .periodStart(start)
+                    .periodEnd(end)
+                    .fileName(file.getFileName().toString())
+                    .transactions(archived)
+                    .archivedTimestamp(LocalDateTime.now())
+                    .build());
+            return true;
+        });
+        if (!Boolean.TRUE.equals(recorded)) {
+            return;
+        }
+        archive.recorded(end);
+
+        // Every other instance refreshes within one interval; the second covers a slow one
+        try {
+            Thread.sleep(properties.refreshInterval().multipliedBy(2).toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted before deleting the rows archived for " + period, e);
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (lease != null) {
+                lease.verify();
+            }
+            int deleted = transactionRepository.deleteCreatedBetween(start, end);
+            log.info("Archived {} transactions for {} into {}", deleted, period, file);
+        });
+    }
+
+    private static FiledTransaction filed(ArchiveRow row) {
+        return new FiledTransaction(row.getAccountId(), new ArchivedTransaction(row.getId(),
+                row.getFromAccountId(), row.getToAccountId(), row.getAmount(), row.getCreatedTimestamp(),
+                TransactionType.valueOf(row.getType()), row.getCreditedAmount(), row.getFxRate(), row.getReference()));
+    }
+}
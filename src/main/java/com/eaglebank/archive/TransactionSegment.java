@@ -0,0 +1,437 @@
+package com.eaglebank.archive;
+
+import com.eaglebank.entity.TransactionType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Read-only view over a memory-mapped segment file. A lookup is a binary search over
+ * the fixed-width account index followed by inflating that account's block only.
+ */
+public final class TransactionSegment implements Closeable {
+
+    static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    static final Comparator<UUID> ACCOUNT_ORDER = Comparator
+            .comparingLong(UUID::getMostSignificantBits)
+            .thenComparingLong(UUID::getLeastSignificantBits);
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final LocalDateTime periodStart;
+    private final LocalDateTime periodEnd;
+    private final int accountCount;
+    private final long rowCount;
+    private final int indexOffset;
+    private final int idIndexOffset;
+    private final short version;
+
+    private TransactionSegment(Path path, FileChannel channel, MappedByteBuffer buffer) {
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+
+        if (buffer.capacity() < SegmentFormat.HEADER_SIZE || buffer.getInt(0) != SegmentFormat.MAGIC) {
+            throw new IllegalStateException("Not a transaction segment: " + path);
+        }
+        this.version = buffer.getShort(4);
+        if (version < SegmentFormat.VERSION_TRANSFERS_ONLY || version > SegmentFormat.VERSION) {
+            throw new IllegalStateException("Unsupported segment version " + version + ": " + path);
+        }
+
+        this.periodStart = LocalDateTime.ofEpochSecond(buffer.getLong(8), 0, ZoneOffset.UTC);
+        this.periodEnd = LocalDateTime.ofEpochSecond(buffer.getLong(16), 0, ZoneOffset.UTC);
+        this.accountCount = buffer.getInt(24);
+        this.rowCount = buffer.getLong(28);
+        this.indexOffset = Math.toIntExact(buffer.getLong(36));
+        this.idIndexOffset = version > SegmentFormat.VERSION_NO_ID_INDEX ? Math.toIntExact(buffer.getLong(52)) : -1;
+    }
+
+    public static TransactionSegment open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new TransactionSegment(path, channel, buffer);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public LocalDateTime getPeriodStart() {
+        return periodStart;
+    }
+
+    public LocalDateTime getPeriodEnd() {
+        return periodEnd;
+    }
+
+    public int getAccountCount() {
+        return accountCount;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public boolean overlaps(LocalDateTime from, LocalDateTime to) {
+        return (from == null || periodEnd.isAfter(from)) && (to == null || periodStart.isBefore(to));
+    }
+
+    /**
+     * Returns the account's transactions in {@code [from, to)}, oldest first.
+     * Either bound may be {@code null} for an open range.
+     */
+    public List<ArchivedTransaction> read(UUID accountId, LocalDateTime from, LocalDateTime to) {
+        return read(accountId, from, to, null);
+    }
+
+    /**
+     * As {@link #read(UUID, LocalDateTime, LocalDateTime)}, keeping only rows whose reference
+     * contains {@code referenceText}, ignoring case, when it is not {@code null}. References
+     * are checked before any other column is turned into objects, and segments from before
+     * references were stored are not inflated at all.
+     */
+    public List<ArchivedTransaction> read(UUID accountId, LocalDateTime from, LocalDateTime to, String referenceText) {
+        if (referenceText != null && version <= SegmentFormat.VERSION_NO_REFERENCES) {
+            return List.of();
+        }
+        int entry = findEntry(accountId);
+        if (entry < 0) {
+            return List.of();
+        }
+
+        int rows = buffer.getInt(indexOffset + entry * SegmentFormat.INDEX_ENTRY_SIZE + 32);
+        return decodeBlock(readBlock(entry, accountId), rows, from, to,
+                referenceText == null ? null : referenceText.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Finds a transaction by id if one of {@code accountIds} sent or received it. The id
+     * section leads straight to the block holding it; segments written before it existed
+     * are searched block by block through the caller's accounts instead.
+     */
+    public Optional<ArchivedTransaction> find(UUID transactionId, Collection<UUID> accountIds) {
+        if (idIndexOffset < 0) {
+            for (UUID accountId : accountIds) {
+                Optional<ArchivedTransaction> found = findIn(findEntry(accountId), transactionId);
+                if (found.isPresent()) {
+                    return found;
+                }
+            }
+            return Optional.empty();
+        }
+
+        long prefix = TransactionSegmentWriter.idKey(transactionId, 0);
+        for (int i = firstIdAtOrAfter(prefix); i < rowCount; i++) {
+            long key = buffer.getLong(idIndexOffset + i * SegmentFormat.ID_ENTRY_SIZE);
+            if ((key & ~TransactionSegmentWriter.BLOCK_MASK) != prefix) {
+                break;
+            }
+            Optional<ArchivedTransaction> found = findIn((int) (key & TransactionSegmentWriter.BLOCK_MASK), transactionId)
+                    .filter(txn -> isAmong(txn.fromAccountId(), accountIds) || isAmong(txn.toAccountId(), accountIds));
+            if (found.isPresent()) {
+                return found;
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Optional<ArchivedTransaction> findIn(int entry, UUID transactionId) {
+        if (entry < 0) {
+            return Optional.empty();
+        }
+        int pos = indexOffset + entry * SegmentFormat.INDEX_ENTRY_SIZE;
+        UUID accountId = new UUID(buffer.getLong(pos), buffer.getLong(pos + 8));
+        return decodeBlock(readBlock(entry, accountId), buffer.getInt(pos + 32), null, null, null).stream()
+                .filter(txn -> txn.id().equals(transactionId))
+                .findFirst();
+    }
+
+    private static boolean isAmong(UUID accountId, Collection<UUID> accountIds) {
+        // Immutable collections refuse to look for null, the side a deposit or withdrawal lacks
+        return accountId != null && accountIds.contains(accountId);
+    }
+
+    private int firstIdAtOrAfter(long key) {
+        int low = 0;
+        int high = Math.toIntExact(rowCount);
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (buffer.getLong(idIndexOffset + mid * SegmentFormat.ID_ENTRY_SIZE) < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Amount the account received minus the amount it sent within this segment, in the
+     * account's currency, decoded straight from the id and amount columns without
+     * materialising rows.
+     */
+    public BigDecimal netMovement(UUID accountId) {
+        int entry = findEntry(accountId);
+        if (entry < 0) {
+            return BigDecimal.ZERO;
+        }
+
+        int rows = buffer.getInt(indexOffset + entry * SegmentFormat.INDEX_ENTRY_SIZE + 32);
+        ByteBuffer block = readBlock(entry, accountId);
+        for (int i = 0; i < rows; i++) {
+            SegmentFormat.getVarLong(block);
+        }
+
+        int fromAt = block.position() + rows * 16;
+        int toAt = fromAt + rows * 16;
+        int scalesAt = toAt + rows * 16;
+        block.position(scalesAt + rows);
+
+        long[] unscaled = new long[rows];
+        for (int i = 0; i < rows; i++) {
+            unscaled[i] = SegmentFormat.getVarLong(block);
+        }
+        BigDecimal[] credited = new BigDecimal[rows];
+        readFx(block, rows, credited, new BigDecimal[rows]);
+
+        long msb = accountId.getMostSignificantBits();
+        long lsb = accountId.getLeastSignificantBits();
+        BigDecimal net = BigDecimal.ZERO;
+        for (int i = 0; i < rows; i++) {
+            boolean sent = block.getLong(fromAt + i * 16) == msb && block.getLong(fromAt + i * 16 + 8) == lsb;
+            boolean received = block.getLong(toAt + i * 16) == msb && block.getLong(toAt + i * 16 + 8) == lsb;
+            if (sent) {
+                net = net.subtract(BigDecimal.valueOf(unscaled[i], block.get(scalesAt + i)));
+            }
+            if (received) {
+                net = net.add(credited[i] != null ? credited[i] : BigDecimal.valueOf(unscaled[i], block.get(scalesAt + i)));
+            }
+        }
+        return net;
+    }
+
+    /**
+     * Adds the net movement of every account in this segment to {@code nets}.
+     */
+    void addNetMovements(Map<UUID, BigDecimal> nets) {
+        for (int entry = 0; entry < accountCount; entry++) {
+            int pos = indexOffset + entry * SegmentFormat.INDEX_ENTRY_SIZE;
+            UUID accountId = new UUID(buffer.getLong(pos), buffer.getLong(pos + 8));
+            nets.merge(accountId, netMovement(accountId), BigDecimal::add);
+        }
+    }
+
+    private ByteBuffer readBlock(int entry, UUID accountId) {
+        int pos = indexOffset + entry * SegmentFormat.INDEX_ENTRY_SIZE;
+        int blockOffset = Math.toIntExact(buffer.getLong(pos + 16));
+        int compressedLength = buffer.getInt(pos + 24);
+        int uncompressedLength = buffer.getInt(pos + 28);
+        int crc = buffer.getInt(pos + 36);
+
+        ByteBuffer block = inflate(buffer.slice(blockOffset, compressedLength), uncompressedLength);
+        CRC32 check = new CRC32();
+        check.update(block.duplicate());
+        if ((int) check.getValue() != crc) {
+            throw new IllegalStateException("Corrupt block for account " + accountId + " in " + path);
+        }
+        return block;
+    }
+
+    private int findEntry(UUID accountId) {
+        long msb = accountId.getMostSignificantBits();
+        long lsb = accountId.getLeastSignificantBits();
+
+        int low = 0;
+        int high = accountCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int pos = indexOffset + mid * SegmentFormat.INDEX_ENTRY_SIZE;
+            int cmp = Long.compare(buffer.getLong(pos), msb);
+            if (cmp == 0) {
+                cmp = Long.compare(buffer.getLong(pos + 8), lsb);
+            }
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private ByteBuffer inflate(ByteBuffer compressed, int uncompressedLength) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            ByteBuffer out = ByteBuffer.allocate(uncompressedLength);
+            while (out.hasRemaining() && !inflater.finished()) {
+                if (inflater.inflate(out) == 0 && inflater.needsInput()) {
+                    break;
+                }
+            }
+            out.flip();
+            return out;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt segment block in " + path, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private List<ArchivedTransaction> decodeBlock(ByteBuffer block, int rows, LocalDateTime from, LocalDateTime to,
+                                                  String referenceText) {
+        long fromMicros = from == null ? Long.MIN_VALUE : TransactionSegmentWriter.toEpochMicros(from);
+        long toMicros = to == null ? Long.MAX_VALUE : TransactionSegmentWriter.toEpochMicros(to);
+
+        // Timestamps are ascending, so the matching rows form one contiguous run
+        long[] micros = new long[rows];
+        long previous = 0;
+        int first = rows;
+        int last = rows;
+        for (int i = 0; i < rows; i++) {
+            previous += SegmentFormat.getVarLong(block);
+            micros[i] = previous;
+            if (first == rows && previous >= fromMicros) {
+                first = i;
+            }
+            if (last == rows && previous >= toMicros) {
+                last = i;
+            }
+        }
+        if (first >= last) {
+            return List.of();
+        }
+
+        int idsAt = block.position();
+        int fromAt = idsAt + rows * 16;
+        int toAt = fromAt + rows * 16;
+        int scalesAt = toAt + rows * 16;
+        block.position(scalesAt + rows);
+        for (int i = 0; i < first; i++) {
+            SegmentFormat.getVarLong(block);
+        }
+
+        long[] unscaled = new long[last - first];
+        for (int i = first; i < last; i++) {
+            unscaled[i - first] = SegmentFormat.getVarLong(block);
+        }
+        for (int i = last; i < rows; i++) {
+            SegmentFormat.getVarLong(block);
+        }
+        int typesAt = block.position();
+        BigDecimal[] credited = new BigDecimal[rows];
+        BigDecimal[] rates = new BigDecimal[rows];
+        readFx(block, rows, credited, rates);
+        String[] references = readReferences(block, rows, first, last);
+
+        List<ArchivedTransaction> result = new ArrayList<>(last - first);
+        for (int i = first; i < last; i++) {
+            if (referenceText != null
+                    && (references[i] == null || !references[i].toLowerCase(Locale.ROOT).contains(referenceText))) {
+                continue;
+            }
+            result.add(new ArchivedTransaction(
+                    uuidAt(block, idsAt + i * 16),
+                    uuidAt(block, fromAt + i * 16),
+                    uuidAt(block, toAt + i * 16),
+                    new BigDecimal(BigInteger.valueOf(unscaled[i - first]), block.get(scalesAt + i)),
+                    EPOCH.plusNanos(micros[i] * 1_000),
+                    version == SegmentFormat.VERSION_TRANSFERS_ONLY
+                            ? TransactionType.TRANSFER
+                            : TYPES[block.get(typesAt + i)],
+                    credited[i],
+                    rates[i],
+                    references[i]
+            ));
+        }
+        return result;
+    }
+
+    /**
+     * Fills in the credited amount and rate of every row that crossed currencies, leaving the
+     * rest {@code null}. Expects the block positioned at the type column.
+     */
+    private void readFx(ByteBuffer block, int rows, BigDecimal[] credited, BigDecimal[] rates) {
+        if (version < SegmentFormat.VERSION_NO_REFERENCES) {
+            return;
+        }
+        int flagsAt = block.position() + rows;
+        block.position(flagsAt + rows);
+        for (int i = 0; i < rows; i++) {
+            if (block.get(flagsAt + i) != 0) {
+                credited[i] = readDecimal(block);
+                rates[i] = readDecimal(block);
+            }
+        }
+    }
+
+    /**
+     * Decodes the references of rows {@code [first, last)} only. Expects the block positioned
+     * just past the FX columns.
+     */
+    private String[] readReferences(ByteBuffer block, int rows, int first, int last) {
+        String[] references = new String[rows];
+        if (version <= SegmentFormat.VERSION_NO_REFERENCES) {
+            return references;
+        }
+        for (int i = 0; i < last; i++) {
+            int length = (int) SegmentFormat.getVarLong(block);
+            if (length > 0 && i >= first) {
+                references[i] = new String(block.array(), block.arrayOffset() + block.position(), length,
+                        StandardCharsets.UTF_8);
+            }
+            block.position(block.position() + length);
+        }
+        return references;
+    }
+
+    private static BigDecimal readDecimal(ByteBuffer block) {
+        int scale = block.get();
+        return BigDecimal.valueOf(SegmentFormat.getVarLong(block), scale);
+    }
+
+    private static UUID uuidAt(ByteBuffer buf, int pos) {
+        long msb = buf.getLong(pos);
+        long lsb = buf.getLong(pos + 8);
+        // All-zero ids mark an absent side, e.g. the sender of a deposit
+        return msb == 0 && lsb == 0 ? null : new UUID(msb, lsb);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
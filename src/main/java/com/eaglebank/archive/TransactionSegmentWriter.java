@@ -0,0 +1,340 @@
+package com.eaglebank.archive;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes an immutable segment file for one closed period. The file is written to a
+ * temporary sibling, forced to disk and then atomically moved into place, so readers
+ * never observe a partially written segment.
+ *
+ * <p>Blocks are written as each account's rows arrive, so only one account's rows are held
+ * at a time; the index, which must be sorted by account, follows the blocks. The id section
+ * comes last and is the only thing kept for the whole period, 8 bytes per transaction.
+ */
+public final class TransactionSegmentWriter {
+
+    private static final int MAX_ROW_BYTES = 10 + 48 + 1 + 10 + 1 + 1 + 2 * (1 + 10) + 10;
+    private static final UUID NONE = new UUID(0, 0);
+    private static final byte[] EMPTY = new byte[0];
+    private static final int ID_CHUNK = 8192;
+    static final long BLOCK_MASK = 0xFFFF_FFFFL;
+
+    private TransactionSegmentWriter() {
+    }
+
+    public static void write(Path target,
+                             LocalDateTime periodStart,
+                             LocalDateTime periodEnd,
+                             List<ArchivedTransaction> transactions) throws IOException {
+
+        // Every transaction is filed under both of its accounts so a read is a single slice
+        List<FiledTransaction> filed = new ArrayList<>();
+        for (ArchivedTransaction txn : transactions) {
+            if (txn.fromAccountId() != null) {
+                filed.add(new FiledTransaction(txn.fromAccountId(), txn));
+            }
+            if (txn.toAccountId() != null && !txn.toAccountId().equals(txn.fromAccountId())) {
+                filed.add(new FiledTransaction(txn.toAccountId(), txn));
+            }
+        }
+        filed.sort(Comparator.comparing(FiledTransaction::accountId, TransactionSegment.ACCOUNT_ORDER));
+        write(target, periodStart, periodEnd, filed.stream());
+    }
+
+    /**
+     * Writes the segment from rows grouped by account, in any account order. Every
+     * transaction must be filed under each of its accounts. Nothing is written when there
+     * are no rows.
+     *
+     * @return the number of transactions written
+     */
+    public static long write(Path target,
+                             LocalDateTime periodStart,
+                             LocalDateTime periodEnd,
+                             Stream<FiledTransaction> filed) throws IOException {
+
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.createDirectories(target.toAbsolutePath().getParent());
+
+        List<IndexEntry> index = new ArrayList<>();
+        long transactions;
+
+        try (FileChannel channel = FileChannel.open(tmp,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            transactions = writeTo(channel, periodStart, periodEnd, filed, index);
+        } catch (IOException | RuntimeException e) {
+            // A failed read of the rows leaves no half-written file behind
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+
+        if (index.isEmpty()) {
+            Files.delete(tmp);
+            return 0;
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return transactions;
+    }
+
+    private static long writeTo(FileChannel channel,
+                                LocalDateTime periodStart,
+                                LocalDateTime periodEnd,
+                                Stream<FiledTransaction> filed,
+                                List<IndexEntry> index) throws IOException {
+        Set<UUID> written = new HashSet<>();
+        long transactions = 0;
+        long[] ids = new long[ID_CHUNK];
+
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        channel.position(SegmentFormat.HEADER_SIZE);
+        try {
+            UUID account = null;
+            List<ArchivedTransaction> rows = new ArrayList<>();
+            Iterator<FiledTransaction> iterator = filed.iterator();
+            while (iterator.hasNext()) {
+                FiledTransaction next = iterator.next();
+                if (!next.accountId().equals(account)) {
+                    if (account != null) {
+                        index.add(writeBlock(channel, deflater, account, rows));
+                        rows = new ArrayList<>();
+                    }
+                    account = next.accountId();
+                    if (!written.add(account)) {
+                        throw new IllegalArgumentException("Rows for account " + account + " are not grouped together");
+                    }
+                }
+                rows.add(next.transaction());
+                // Counted once, under the sending side when there is one
+                if (next.transaction().fromAccountId() == null || account.equals(next.transaction().fromAccountId())) {
+                    if (transactions == ids.length) {
+                        ids = Arrays.copyOf(ids, Math.multiplyExact(ids.length, 2));
+                    }
+                    // Numbered in write order for now, the block being filled being the next one
+                    ids[(int) transactions++] = idKey(next.transaction().id(), index.size());
+                }
+            }
+            if (account != null) {
+                index.add(writeBlock(channel, deflater, account, rows));
+            }
+        } finally {
+            deflater.end();
+        }
+
+        if (!index.isEmpty()) {
+            List<UUID> writeOrder = index.stream().map(IndexEntry::accountId).toList();
+            index.sort(Comparator.comparing(IndexEntry::accountId, TransactionSegment.ACCOUNT_ORDER));
+            Map<UUID, Integer> entries = new HashMap<>();
+            for (int i = 0; i < index.size(); i++) {
+                entries.put(index.get(i).accountId(), i);
+            }
+            for (int i = 0; i < transactions; i++) {
+                ids[i] = (ids[i] & ~BLOCK_MASK) | entries.get(writeOrder.get((int) (ids[i] & BLOCK_MASK)));
+            }
+            Arrays.sort(ids, 0, (int) transactions);
+
+            long indexOffset = channel.position();
+            long idIndexOffset = indexOffset + (long) index.size() * SegmentFormat.INDEX_ENTRY_SIZE;
+            ByteBuffer indexBuffer = ByteBuffer.allocate(index.size() * SegmentFormat.INDEX_ENTRY_SIZE);
+            for (IndexEntry entry : index) {
+                entry.writeTo(indexBuffer);
+            }
+            indexBuffer.flip();
+
+            ByteBuffer header = ByteBuffer.allocate(SegmentFormat.HEADER_SIZE);
+            header.putInt(SegmentFormat.MAGIC);
+            header.putShort(SegmentFormat.VERSION);
+            header.putShort((short) 0);
+            header.putLong(periodStart.toEpochSecond(ZoneOffset.UTC));
+            header.putLong(periodEnd.toEpochSecond(ZoneOffset.UTC));
+            header.putInt(index.size());
+            header.putLong(transactions);
+            header.putLong(indexOffset);
+            header.putLong(SegmentFormat.HEADER_SIZE);
+            header.putLong(idIndexOffset);
+            header.rewind();
+
+            while (indexBuffer.hasRemaining()) {
+                channel.write(indexBuffer, indexOffset + indexBuffer.position());
+            }
+            writeIds(channel, idIndexOffset, ids, (int) transactions);
+            channel.write(header, 0);
+            channel.force(true);
+        }
+        return transactions;
+    }
+
+    private static void writeIds(FileChannel channel, long offset, long[] ids, int count) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(ID_CHUNK * SegmentFormat.ID_ENTRY_SIZE);
+        for (int from = 0; from < count; from += ID_CHUNK) {
+            chunk.clear();
+            chunk.asLongBuffer().put(ids, from, Math.min(ID_CHUNK, count - from));
+            chunk.limit(Math.min(ID_CHUNK, count - from) * SegmentFormat.ID_ENTRY_SIZE);
+            long position = offset + (long) from * SegmentFormat.ID_ENTRY_SIZE;
+            while (chunk.hasRemaining()) {
+                position += channel.write(chunk, position);
+            }
+        }
+    }
+
+    /**
+     * The id's first 32 bits, which are random in both random and shard ids, followed by the
+     * block number, so a sort orders the section by id prefix.
+     */
+    static long idKey(UUID id, int block) {
+        return (id.getMostSignificantBits() & ~BLOCK_MASK) | block;
+    }
+
+    private static IndexEntry writeBlock(FileChannel channel, Deflater deflater, UUID account,
+                                         List<ArchivedTransaction> rows) throws IOException {
+        rows.sort(Comparator.comparing(ArchivedTransaction::createdTimestamp));
+
+        ByteBuffer raw = encodeBlock(rows);
+        CRC32 crc = new CRC32();
+        crc.update(raw.duplicate());
+
+        long offset = channel.position();
+        ByteBuffer compressed = deflate(deflater, raw);
+        int compressedLength = compressed.remaining();
+        while (compressed.hasRemaining()) {
+            channel.write(compressed);
+        }
+        return new IndexEntry(account, offset, compressedLength, raw.remaining(), rows.size(), (int) crc.getValue());
+    }
+
+    private static ByteBuffer encodeBlock(List<ArchivedTransaction> rows) {
+        byte[][] references = new byte[rows.size()][];
+        int referenceBytes = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            String reference = rows.get(i).reference();
+            references[i] = reference == null ? EMPTY : reference.getBytes(StandardCharsets.UTF_8);
+            referenceBytes += references[i].length;
+        }
+        ByteBuffer buf = ByteBuffer.allocate(rows.size() * MAX_ROW_BYTES + referenceBytes);
+
+        long previous = 0;
+        for (ArchivedTransaction txn : rows) {
+            long micros = toEpochMicros(txn.createdTimestamp());
+            SegmentFormat.putVarLong(buf, micros - previous);
+            previous = micros;
+        }
+        for (ArchivedTransaction txn : rows) {
+            putUuid(buf, txn.id());
+        }
+        for (ArchivedTransaction txn : rows) {
+            putUuid(buf, txn.fromAccountId());
+        }
+        for (ArchivedTransaction txn : rows) {
+            putUuid(buf, txn.toAccountId());
+        }
+        for (ArchivedTransaction txn : rows) {
+            buf.put((byte) normalize(txn.amount()).scale());
+        }
+        for (ArchivedTransaction txn : rows) {
+            SegmentFormat.putVarLong(buf, normalize(txn.amount()).unscaledValue().longValueExact());
+        }
+        for (ArchivedTransaction txn : rows) {
+            buf.put((byte) txn.type().ordinal());
+        }
+        for (ArchivedTransaction txn : rows) {
+            buf.put((byte) (txn.creditedAmount() == null ? 0 : 1));
+        }
+        for (ArchivedTransaction txn : rows) {
+            if (txn.creditedAmount() != null) {
+                putDecimal(buf, txn.creditedAmount());
+                putDecimal(buf, txn.fxRate());
+            }
+        }
+        for (byte[] reference : references) {
+            SegmentFormat.putVarLong(buf, reference.length);
+            buf.put(reference);
+        }
+
+        buf.flip();
+        return buf;
+    }
+
+    private static ByteBuffer deflate(Deflater deflater, ByteBuffer raw) {
+        deflater.reset();
+        deflater.setInput(raw.duplicate());
+        deflater.finish();
+
+        ByteBuffer out = ByteBuffer.allocate(raw.remaining() + 64);
+        while (!deflater.finished()) {
+            if (!out.hasRemaining()) {
+                ByteBuffer bigger = ByteBuffer.allocate(out.capacity() * 2);
+                out.flip();
+                bigger.put(out);
+                out = bigger;
+            }
+            deflater.deflate(out);
+        }
+        out.flip();
+        return out;
+    }
+
+    private static void putUuid(ByteBuffer buf, UUID id) {
+        if (id == null) {
+            id = NONE;
+        }
+        buf.putLong(id.getMostSignificantBits());
+        buf.putLong(id.getLeastSignificantBits());
+    }
+
+    private static void putDecimal(ByteBuffer buf, BigDecimal value) {
+        BigDecimal normalized = normalize(value);
+        buf.put((byte) normalized.scale());
+        SegmentFormat.putVarLong(buf, normalized.unscaledValue().longValueExact());
+    }
+
+    private static BigDecimal normalize(BigDecimal amount) {
+        if (amount.scale() < 0) {
+            return amount.setScale(0);
+        }
+        if (amount.scale() > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Unsupported amount scale: " + amount);
+        }
+        return amount;
+    }
+
+    static long toEpochMicros(LocalDateTime timestamp) {
+        return ChronoUnit.MICROS.between(TransactionSegment.EPOCH, timestamp);
+    }
+
+    private record IndexEntry(UUID accountId, long blockOffset, int compressedLength, int uncompressedLength,
+                              int rows, int crc) {
+
+        void writeTo(ByteBuffer index) {
+            index.putLong(accountId.getMostSignificantBits());
+            index.putLong(accountId.getLeastSignificantBits());
+            index.putLong(blockOffset);
+            index.putInt(compressedLength);
+            index.putInt(uncompressedLength);
+            index.putInt(rows);
+            index.putInt(crc);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.eaglebank.audit;
+
+public enum AuditAction {
+    USER_CREATED,
+    USER_UPDATED,
+    USER_DELETED,
+    ACCOUNT_CREATED,
+    ACCOUNT_UPDATED,
+    ACCOUNT_DELETED,
+    TRANSFER_SENT(true),
+    TRANSFER_RECEIVED(true),
+    DEPOSIT(true),
+    WITHDRAWAL(true),
+    ADJUSTMENT(true),
+    OPENING(true),
+    INTEREST(true);
+
+    private final boolean money;
+
+    AuditAction() {
+        this(false);
+    }
+
+    AuditAction(boolean money) {
+        this.money = money;
+    }
+
+    /**
+     * Whether the action moves money, so is also in the journal and is never lost.
+     */
+    public boolean money() {
+        return money;
+    }
+}
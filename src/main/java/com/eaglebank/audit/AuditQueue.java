@@ -0,0 +1,89 @@
+package com.eaglebank.audit;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded multi-producer, single-consumer ring of audit records that never takes a lock.
+ *
+ * <p>Each slot carries a sequence number. A producer claims the slot at the tail by moving
+ * the tail on with a compare-and-set, writes the record and then publishes it by setting the
+ * slot's sequence; the consumer takes a slot only once it is published, and hands it back by
+ * setting the sequence a lap ahead. A full ring fails the offer instead of waiting.
+ */
+final class AuditQueue {
+
+    private final AuditRecord[] records;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // Only the consumer moves it; atomic so size() can read it from anywhere
+    private final AtomicLong head = new AtomicLong();
+
+    AuditQueue(int capacity) {
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.records = new AuditRecord[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @return {@code false}, leaving the queue unchanged, when it is full
+     */
+    boolean offer(AuditRecord record) {
+        long position = tail.get();
+        while (true) {
+            int slot = (int) (position & mask);
+            long lag = sequences.get(slot) - position;
+            if (lag == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    records[slot] = record;
+                    sequences.set(slot, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (lag < 0) {
+                // The slot still holds the record from a lap ago
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Moves up to {@code max} records into {@code into}, oldest first. Consumer only.
+     *
+     * @return the number moved
+     */
+    int drain(List<AuditRecord> into, int max) {
+        long position = head.get();
+        int drained = 0;
+        while (drained < max) {
+            int slot = (int) (position & mask);
+            if (sequences.get(slot) != position + 1) {
+                // Empty, or claimed but not yet published
+                break;
+            }
+            into.add(records[slot]);
+            records[slot] = null;
+            sequences.set(slot, position + records.length);
+            position++;
+            drained++;
+        }
+        head.set(position);
+        return drained;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    int capacity() {
+        return records.length;
+    }
+}
@@ -0,0 +1,37 @@
+package com.eaglebank.audit;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Who changed what, from what, to what, and when.
+ *
+ * @param actor         the authenticated user's email, or {@code system} for scheduled work
+ * @param subjectId     the user or account changed
+ * @param transactionId the movement, for money records
+ * @param before        the subject's audited fields as they were, only the balance for money
+ *                      records; empty for creations
+ * @param after         the same fields as they became; empty for deletions
+ * @param fromJournal   written by the journal sweep rather than captured as it happened
+ */
+public record AuditRecord(
+        LocalDateTime occurredAt,
+        String actor,
+        AuditAction action,
+        UUID subjectId,
+        UUID transactionId,
+        Map<String, Object> before,
+        Map<String, Object> after,
+        boolean fromJournal
+) {
+    /**
+     * Identifies a money record across the live path and the journal sweep: one per account
+     * per movement, as the journal has one posting per account per movement.
+     */
+    public MoneyKey moneyKey() {
+        return new MoneyKey(transactionId, subjectId);
+    }
+
+    public record MoneyKey(UUID transactionId, UUID accountId) {}
+}
@@ -0,0 +1,39 @@
+package com.eaglebank.audit;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Where the writer puts audit records. Only the writer thread calls it, except for
+ * {@link #write}, which a caller also uses when the queue is full and the overflow policy
+ * has it write its own record.
+ *
+ * <p>The sink also keeps one journal checkpoint per shard: the database transaction id below
+ * which every committed posting has its money record in the sink. After a crash, the sweep
+ * rebuilds whatever was lost from there.
+ */
+public interface AuditSink {
+
+    String name();
+
+    /**
+     * Writes the batch, all or nothing as far as the sink allows. A record written twice, by
+     * the live path and by the sweep after a crash, is kept once where the sink can tell.
+     */
+    void write(List<AuditRecord> records) throws IOException;
+
+    OptionalLong checkpoint(int shard) throws IOException;
+
+    /**
+     * Moves the shard's checkpoint on to {@code position}, once every record written so far
+     * is durable.
+     */
+    void checkpoint(int shard, long position) throws IOException;
+
+    /**
+     * Makes everything written so far durable.
+     */
+    default void flush() throws IOException {
+    }
+}
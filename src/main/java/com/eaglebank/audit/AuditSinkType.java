@@ -0,0 +1,8 @@
+package com.eaglebank.audit;
+
+public enum AuditSinkType {
+    // Batch inserts into audit_entries
+    DATABASE,
+    // JSON lines in rolling files under eaglebank.audit.directory
+    FILE
+}
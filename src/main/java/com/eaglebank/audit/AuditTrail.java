@@ -0,0 +1,156 @@
+package com.eaglebank.audit;
+
+import com.eaglebank.config.AuditProperties;
+import com.eaglebank.event.MoneyMovementEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Where the service layer records its mutations. Records are queued once the mutation
+ * commits, so a rolled back change leaves none, and written in batches by {@link AuditWriter}
+ * off the request thread.
+ *
+ * <p>When the queue is full, a user or account record follows the overflow policy. A money
+ * record is never held up: the movement is already in the journal, committed alongside it,
+ * and the writer's journal sweep writes every one the queue did not deliver.
+ */
+@Slf4j
+@Component
+public class AuditTrail {
+
+    static final String SYSTEM = "system";
+    private static final long OFFER_RETRY_NANOS = 50_000;
+
+    private final AuditProperties properties;
+    private final ObjectProvider<AuditSink> sink;
+    private final AuditQueue queue;
+
+    private final Counter dropped;
+    private final Counter callerWritten;
+    private final Counter handedOff;
+
+    public AuditTrail(AuditProperties properties, ObjectProvider<AuditSink> sink, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.sink = sink;
+        this.queue = new AuditQueue(properties.queueCapacity());
+
+        this.dropped = meterRegistry.counter("audit.records.dropped");
+        this.callerWritten = meterRegistry.counter("audit.records.caller_written");
+        this.handedOff = meterRegistry.counter("audit.records.handed_off");
+        meterRegistry.gauge("audit.queue.size", queue, AuditQueue::size);
+    }
+
+    /**
+     * Records a change to a user or account, to be written once the current transaction
+     * commits, or straight away outside one.
+     */
+    public void record(AuditAction action, UUID subjectId, Map<String, Object> before, Map<String, Object> after) {
+        if (!properties.enabled()) {
+            return;
+        }
+        AuditRecord record = new AuditRecord(LocalDateTime.now(), actor(), action, subjectId, null,
+                before, after, false);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(record);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(record);
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMoneyMovement(MoneyMovementEvent event) {
+        if (!properties.enabled()) {
+            return;
+        }
+        AuditAction action = switch (event.type()) {
+            case ADJUSTMENT_CREDIT, ADJUSTMENT_DEBIT -> AuditAction.ADJUSTMENT;
+            default -> AuditAction.valueOf(event.type().name());
+        };
+        BigDecimal change = event.type().debits() ? event.amount().negate() : event.amount();
+        submit(new AuditRecord(event.occurredAt(), actor(), action, event.accountId(), event.transactionId(),
+                Map.of("balance", event.balanceAfter().subtract(change)),
+                Map.of("balance", event.balanceAfter()), false));
+    }
+
+    void submit(AuditRecord record) {
+        if (queue.offer(record)) {
+            return;
+        }
+        if (record.action().money()) {
+            handedOff.increment();
+            return;
+        }
+        switch (properties.overflow()) {
+            case DROP -> dropped.increment();
+            case CALLER_WRITES -> writeNow(record);
+            case BLOCK -> {
+                if (!offerWithin(record, properties.offerTimeout().toNanos())) {
+                    writeNow(record);
+                }
+            }
+        }
+    }
+
+    int drain(List<AuditRecord> into, int max) {
+        return queue.drain(into, max);
+    }
+
+    int queued() {
+        return queue.size();
+    }
+
+    private boolean offerWithin(AuditRecord record, long timeoutNanos) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        while (System.nanoTime() < deadline) {
+            LockSupport.parkNanos(OFFER_RETRY_NANOS);
+            if (queue.offer(record)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeNow(AuditRecord record) {
+        AuditSink target = sink.getIfAvailable();
+        if (target == null) {
+            dropped.increment();
+            return;
+        }
+        try {
+            target.write(List.of(record));
+            callerWritten.increment();
+        } catch (Exception e) {
+            dropped.increment();
+            log.warn("Could not write the audit record of {} {}: {}", record.action(), record.subjectId(), e.toString());
+        }
+    }
+
+    private static String actor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return SYSTEM;
+        }
+        return authentication.getName();
+    }
+}
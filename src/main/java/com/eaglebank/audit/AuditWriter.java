@@ -0,0 +1,299 @@
+package com.eaglebank.audit;
+
+import com.eaglebank.config.AuditProperties;
+import com.eaglebank.entity.TransactionType;
+import com.eaglebank.journal.ContraAccount;
+import com.eaglebank.repository.AuditPosting;
+import com.eaglebank.repository.JournalPostingRepository;
+import com.eaglebank.repository.PostingKey;
+import com.eaglebank.sharding.Shards;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the {@link AuditTrail} queue on a thread of its own and writes it to the
+ * {@link AuditSink} in batches of up to {@code batchSize}, waiting up to {@code flushInterval}
+ * for a batch to fill. A batch the sink rejects is retried with backoff until it goes in; the
+ * queue fills behind it meanwhile and callers fall back on the overflow policy.
+ *
+ * <p>Money records are also guaranteed by the journal. Every {@code sweepInterval}, once the
+ * queue is empty, the writer reads each shard's postings committed since the sink's
+ * checkpoint, writes the money record of any it has not written itself, then moves the
+ * checkpoint on. That covers records lost in a crash, records the queue turned away, and
+ * movements that publish no event of their own, such as openings and interest.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "eaglebank.audit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AuditWriter {
+
+    private static final Set<UUID> CONTRA_ACCOUNTS = Arrays.stream(ContraAccount.values())
+            .map(ContraAccount::id)
+            .collect(Collectors.toUnmodifiableSet());
+
+    private final AuditTrail trail;
+    private final AuditSink sink;
+    private final JournalPostingRepository journalPostingRepository;
+    private final Shards shards;
+    private final AuditProperties properties;
+    private final TransactionTemplate readOnly;
+
+    private final Counter written;
+    private final Counter fromJournal;
+    private final Counter failed;
+    private final Timer flush;
+
+    // Money records written since the sweep before last, which the sweeps that follow skip.
+    // A movement is swept within two sweeps of committing, unless an older transaction still
+    // running holds the window back; its record is then written again rather than lost
+    private Set<AuditRecord.MoneyKey> writtenSinceSweep = new HashSet<>();
+    private Set<AuditRecord.MoneyKey> writtenBeforeSweep = new HashSet<>();
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public AuditWriter(AuditTrail trail,
+                       AuditSink sink,
+                       JournalPostingRepository journalPostingRepository,
+                       Shards shards,
+                       AuditProperties properties,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry) {
+        this.trail = trail;
+        this.sink = sink;
+        this.journalPostingRepository = journalPostingRepository;
+        this.shards = shards;
+        this.properties = properties;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        this.written = meterRegistry.counter("audit.records.written");
+        this.fromJournal = meterRegistry.counter("audit.records.from_journal");
+        this.failed = meterRegistry.counter("audit.writes.failed");
+        this.flush = Timer.builder("audit.flush")
+                .description("Time to write one batch of audit records")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        thread = new Thread(this::run, "audit-writer");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Audit writer started with the {} sink", sink.name());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    void run() {
+        List<AuditRecord> batch = new ArrayList<>(properties.batchSize());
+        // The first sweep catches up on whatever a previous run left unwritten
+        long nextSweep = System.nanoTime();
+        while (running) {
+            int drained = trail.drain(batch, properties.batchSize());
+            if (!batch.isEmpty() && !writeUntilAccepted(batch)) {
+                break;
+            }
+            if (drained < properties.batchSize()) {
+                if (System.nanoTime() - nextSweep >= 0) {
+                    sweep();
+                    nextSweep = System.nanoTime() + properties.sweepInterval().toNanos();
+                }
+                LockSupport.parkNanos(properties.flushInterval().toNanos());
+            }
+        }
+        drainOnce(batch);
+    }
+
+    /**
+     * Writes {@code batch}, retrying until the sink takes it or the writer stops, and empties
+     * it once written.
+     *
+     * @return {@code false} when the writer stopped first
+     */
+    boolean writeUntilAccepted(List<AuditRecord> batch) {
+        int attempts = 0;
+        while (true) {
+            try {
+                write(batch);
+                return true;
+            } catch (Exception e) {
+                attempts++;
+                failed.increment();
+                log.warn("Writing {} audit records to the {} sink failed, attempt {}: {}",
+                        batch.size(), sink.name(), attempts, e.toString());
+                if (!running) {
+                    return false;
+                }
+                LockSupport.parkNanos(backoff(attempts).toNanos());
+            }
+        }
+    }
+
+    /**
+     * Moves each shard's checkpoint on to the oldest database transaction still running,
+     * writing on the way the money record of every posting before it that was not written
+     * from the queue. A shard that fails keeps its checkpoint and is tried again next sweep.
+     */
+    void sweep() {
+        shards.forEach(shard -> {
+            try {
+                sweepShard(shard);
+            } catch (Exception e) {
+                log.warn("Sweeping the journal of shard {} for audit records failed: {}", shard, e.toString());
+            }
+        });
+        writtenBeforeSweep = writtenSinceSweep;
+        writtenSinceSweep = new HashSet<>();
+    }
+
+    private void sweepShard(int shard) throws IOException {
+        OptionalLong checkpoint = sink.checkpoint(shard);
+        Long xmin = readOnly.execute(status -> journalPostingRepository.findSnapshotXmin());
+        if (xmin == null) {
+            return;
+        }
+        if (checkpoint.isEmpty()) {
+            // A new trail starts from now; what came before predates it
+            sink.checkpoint(shard, xmin);
+            return;
+        }
+        long from = checkpoint.getAsLong();
+        if (xmin <= from) {
+            return;
+        }
+
+        long afterId = 0;
+        while (true) {
+            long after = afterId;
+            List<PostingKey> keys = readOnly.execute(status -> journalPostingRepository.findKeysWrittenBetween(
+                    from, xmin, after, properties.batchSize()));
+            if (keys == null || keys.isEmpty()) {
+                break;
+            }
+            afterId = keys.get(keys.size() - 1).getId();
+
+            List<Long> missing = keys.stream()
+                    .filter(key -> !CONTRA_ACCOUNTS.contains(key.getAccountId()))
+                    .filter(key -> !alreadyWritten(new AuditRecord.MoneyKey(key.getTransactionId(), key.getAccountId())))
+                    .map(PostingKey::getId)
+                    .toList();
+            if (!missing.isEmpty()) {
+                List<AuditPosting> postings = readOnly.execute(status -> journalPostingRepository.findForAudit(missing));
+                List<AuditRecord> records = postings == null ? List.of() : postings.stream().map(AuditWriter::toRecord).toList();
+                sink.write(records);
+                written.increment(records.size());
+                fromJournal.increment(records.size());
+            }
+            if (keys.size() < properties.batchSize()) {
+                break;
+            }
+        }
+        sink.checkpoint(shard, xmin);
+    }
+
+    private void write(List<AuditRecord> batch) throws IOException {
+        long started = System.nanoTime();
+        sink.write(batch);
+        flush.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        written.increment(batch.size());
+        for (AuditRecord record : batch) {
+            if (record.action().money()) {
+                writtenSinceSweep.add(record.moneyKey());
+            }
+        }
+        batch.clear();
+    }
+
+    private boolean alreadyWritten(AuditRecord.MoneyKey key) {
+        return writtenSinceSweep.contains(key) || writtenBeforeSweep.contains(key);
+    }
+
+    private void drainOnce(List<AuditRecord> batch) {
+        // Left in the queue, user and account records would be lost; money records the sweep
+        // rebuilds on the next start
+        try {
+            while (!batch.isEmpty() || trail.drain(batch, properties.batchSize()) > 0) {
+                write(batch);
+            }
+            sink.flush();
+        } catch (Exception e) {
+            log.error("Could not write {} audit records before stopping", batch.size() + trail.queued(), e);
+        }
+    }
+
+    Duration backoff(int attempts) {
+        long initial = properties.flushInterval().toMillis();
+        long max = properties.maxBackoff().toMillis();
+        long delay = initial << Math.min(attempts - 1, 30);
+        return Duration.ofMillis(delay <= 0 ? max : Math.min(delay, max));
+    }
+
+    static AuditRecord toRecord(AuditPosting posting) {
+        BigDecimal after = posting.getBalanceAfter();
+        return new AuditRecord(posting.getCreatedTimestamp(),
+                posting.getActor() == null ? AuditTrail.SYSTEM : posting.getActor(),
+                action(posting),
+                posting.getAccountId(),
+                posting.getTransactionId(),
+                Map.of("balance", after.subtract(posting.getAmount())),
+                Map.of("balance", after),
+                true);
+    }
+
+    static AuditAction action(AuditPosting posting) {
+        boolean credit = posting.getAmount().signum() > 0;
+        if (posting.getType() == null) {
+            // Archived since it was posted, so only the other leg tells what it was
+            UUID other = posting.getCounterpartyAccountId();
+            if (ContraAccount.INTEREST.id().equals(other)) {
+                return AuditAction.INTEREST;
+            }
+            if (ContraAccount.ADJUSTMENTS.id().equals(other)) {
+                return AuditAction.ADJUSTMENT;
+            }
+            return credit ? AuditAction.DEPOSIT : AuditAction.WITHDRAWAL;
+        }
+        return switch (TransactionType.valueOf(posting.getType())) {
+            case TRANSFER -> credit ? AuditAction.TRANSFER_RECEIVED : AuditAction.TRANSFER_SENT;
+            case DEPOSIT -> AuditAction.DEPOSIT;
+            case WITHDRAWAL -> AuditAction.WITHDRAWAL;
+            case ADJUSTMENT -> AuditAction.ADJUSTMENT;
+            case OPENING -> AuditAction.OPENING;
+            case INTEREST -> AuditAction.INTEREST;
+        };
+    }
+}
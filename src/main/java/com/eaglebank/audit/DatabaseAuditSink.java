@@ -0,0 +1,84 @@
+package com.eaglebank.audit;
+
+import com.eaglebank.sharding.Shards;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Batch-inserts audit records into {@code audit_entries} on shard 0, each batch in one
+ * transaction of its own. A money record already there is skipped, so the sweep can rewrite
+ * the records of a crashed writer without duplicating any.
+ */
+@Component
+@ConditionalOnProperty(prefix = "eaglebank.audit", name = "sink", havingValue = "database", matchIfMissing = true)
+public class DatabaseAuditSink implements AuditSink {
+
+    private static final String INSERT = """
+            insert into audit_entries (occurred_at, actor, action, subject_id, transaction_id,
+                                       before_state, after_state, from_journal, recorded_at)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            on conflict (transaction_id, subject_id) do nothing
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Shards shards;
+    private final ObjectWriter writer;
+
+    public DatabaseAuditSink(JdbcTemplate jdbcTemplate, Shards shards, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shards = shards;
+        this.writer = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    @Override
+    public String name() {
+        return "database";
+    }
+
+    @Override
+    public void write(List<AuditRecord> records) throws IOException {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(records.size());
+        for (AuditRecord record : records) {
+            rows.add(new Object[]{
+                    record.occurredAt(),
+                    record.actor(),
+                    record.action().name(),
+                    record.subjectId(),
+                    record.transactionId(),
+                    writer.writeValueAsString(record.before()),
+                    writer.writeValueAsString(record.after()),
+                    record.fromJournal(),
+                    now
+            });
+        }
+        // A new transaction, since callers that write their own record do so after their commit
+        shards.inTransaction(Shards.HOME, status -> jdbcTemplate.batchUpdate(INSERT, rows));
+    }
+
+    @Override
+    public OptionalLong checkpoint(int shard) {
+        List<Long> positions = shards.inTransaction(Shards.HOME, status -> jdbcTemplate.queryForList(
+                "select position from audit_checkpoints where shard = ?", Long.class, shard));
+        return positions == null || positions.isEmpty() ? OptionalLong.empty() : OptionalLong.of(positions.get(0));
+    }
+
+    @Override
+    public void checkpoint(int shard, long position) {
+        // Every write before this one has committed, so there is nothing to force first
+        shards.inTransaction(Shards.HOME, status -> jdbcTemplate.update("""
+                insert into audit_checkpoints (shard, position) values (?, ?)
+                on conflict (shard) do update set position = excluded.position
+                """, shard, position));
+    }
+}
@@ -0,0 +1,193 @@
+package com.eaglebank.audit;
+
+import com.eaglebank.config.AuditProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+/**
+ * Appends audit records as JSON lines to {@code audit-<date>-<n>.jsonl} under the configured
+ * directory, starting a new file at midnight and whenever one passes {@code maxFileSize}.
+ *
+ * <p>Journal checkpoints go in {@code checkpoints.properties}, replaced atomically once the
+ * current file has been forced to disk. A file cannot tell which money records it already
+ * holds, so after a crash the sweep appends the records written since the last checkpoint
+ * again, marked as from the journal; readers keep the first record per transaction and account.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "eaglebank.audit", name = "sink", havingValue = "file")
+public class FileAuditSink implements AuditSink {
+
+    static final String CHECKPOINT_FILE = "checkpoints.properties";
+
+    private final Path directory;
+    private final long maxFileSize;
+    private final FsyncPolicy fsync;
+    private final long fsyncIntervalNanos;
+    private final ObjectWriter writer;
+
+    private FileChannel channel;
+    private LocalDate fileDate;
+    private int fileIndex;
+    private long lastForced = System.nanoTime();
+    private boolean unforced;
+
+    public FileAuditSink(AuditProperties properties, ObjectMapper objectMapper) {
+        this.directory = Path.of(properties.directory());
+        this.maxFileSize = properties.maxFileSize().toBytes();
+        this.fsync = properties.fsync();
+        this.fsyncIntervalNanos = properties.fsyncInterval().toNanos();
+        this.writer = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    @Override
+    public String name() {
+        return "file";
+    }
+
+    @Override
+    public synchronized void write(List<AuditRecord> records) throws IOException {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream(records.size() * 256);
+        for (AuditRecord record : records) {
+            writer.writeValue(lines, record);
+            lines.write('\n');
+        }
+        FileChannel current = channelFor(lines.size());
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+        while (buffer.hasRemaining()) {
+            current.write(buffer);
+        }
+        unforced = true;
+
+        if (fsync == FsyncPolicy.ALWAYS
+                || fsync == FsyncPolicy.INTERVAL && System.nanoTime() - lastForced >= fsyncIntervalNanos) {
+            force();
+        }
+    }
+
+    @Override
+    public synchronized OptionalLong checkpoint(int shard) throws IOException {
+        String position = readCheckpoints().getProperty(Integer.toString(shard));
+        return position == null ? OptionalLong.empty() : OptionalLong.of(Long.parseLong(position));
+    }
+
+    @Override
+    public synchronized void checkpoint(int shard, long position) throws IOException {
+        // The records a checkpoint covers must survive a crash that the checkpoint survives
+        force();
+        Properties checkpoints = readCheckpoints();
+        checkpoints.setProperty(Integer.toString(shard), Long.toString(position));
+
+        Files.createDirectories(directory);
+        Path temporary = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temporary)) {
+            checkpoints.store(out, null);
+        }
+        try (FileChannel file = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            file.force(true);
+        }
+        Files.move(temporary, directory.resolve(CHECKPOINT_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        force();
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            force();
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private FileChannel channelFor(int bytes) throws IOException {
+        LocalDate today = LocalDate.now();
+        if (channel != null && (!today.equals(fileDate) || channel.size() + bytes > maxFileSize && channel.size() > 0)) {
+            force();
+            channel.close();
+            channel = null;
+            fileIndex = today.equals(fileDate) ? fileIndex + 1 : 0;
+            fileDate = today;
+        }
+        if (channel == null) {
+            if (fileDate == null) {
+                fileDate = today;
+                fileIndex = lastIndex(today);
+            }
+            Files.createDirectories(directory);
+            Path file = directory.resolve(fileName(fileDate, fileIndex));
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            if (channel.size() > 0 && channel.size() + bytes > maxFileSize) {
+                // Left full by a previous run
+                channel.close();
+                fileIndex++;
+                channel = FileChannel.open(directory.resolve(fileName(fileDate, fileIndex)),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+            log.info("Writing audit records to {}", directory.resolve(fileName(fileDate, fileIndex)));
+        }
+        return channel;
+    }
+
+    private void force() throws IOException {
+        if (channel != null && unforced) {
+            channel.force(false);
+        }
+        unforced = false;
+        lastForced = System.nanoTime();
+    }
+
+    private int lastIndex(LocalDate date) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        String prefix = "audit-" + date + "-";
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(".jsonl"))
+                    .mapToInt(name -> Integer.parseInt(name.substring(prefix.length(), name.length() - ".jsonl".length())))
+                    .max()
+                    .orElse(0);
+        }
+    }
+
+    private Properties readCheckpoints() throws IOException {
+        Properties checkpoints = new Properties();
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        if (Files.exists(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                checkpoints.load(in);
+            }
+        }
+        return checkpoints;
+    }
+
+    static String fileName(LocalDate date, int index) {
+        return "audit-" + date + "-" + index + ".jsonl";
+    }
+}
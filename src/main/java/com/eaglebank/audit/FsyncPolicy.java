@@ -0,0 +1,15 @@
+package com.eaglebank.audit;
+
+/**
+ * When the file sink forces its writes to disk. Whatever the policy, they are forced before
+ * the sink records a journal checkpoint, so money records are never covered by one before
+ * they are durable.
+ */
+public enum FsyncPolicy {
+    // After every batch
+    ALWAYS,
+    // At most once per fsync-interval
+    INTERVAL,
+    // Left to the operating system
+    NEVER
+}
@@ -0,0 +1,13 @@
+package com.eaglebank.audit;
+
+/**
+ * What a caller does with a record when the audit queue is full.
+ */
+public enum OverflowPolicy {
+    // Wait up to offer-timeout for space, then write it on the caller's thread
+    BLOCK,
+    // Write it on the caller's thread straight away
+    CALLER_WRITES,
+    // Count it and move on
+    DROP
+}
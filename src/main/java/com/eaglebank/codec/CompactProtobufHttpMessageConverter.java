@@ -0,0 +1,183 @@
+package com.eaglebank.codec;
+
+import com.eaglebank.dto.BankAccountResponse;
+import com.eaglebank.dto.TransactionResponse;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes transactions and accounts, singly or as lists, in the compact schema
+ * from {@code proto/eaglebank.proto}. No protobuf runtime is needed on either side of
+ * this converter; any protobuf library can decode the output with that schema.
+ *
+ * <p>Lists are streamed: items are encoded into a reusable scratch buffer and flushed to
+ * the response every {@value #FLUSH_THRESHOLD} bytes, so large pages never sit in memory
+ * twice.
+ */
+public class CompactProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+
+    private static final int FLUSH_THRESHOLD = 16 * 1024;
+
+    private enum Message {
+        TRANSACTION(TransactionResponse.class),
+        ACCOUNT(BankAccountResponse.class);
+
+        private final Class<?> type;
+
+        Message(Class<?> type) {
+            this.type = type;
+        }
+
+        static Message of(Class<?> clazz) {
+            for (Message message : values()) {
+                if (message.type == clazz) {
+                    return message;
+                }
+            }
+            return null;
+        }
+    }
+
+    private record Shape(Message message, boolean list) {
+    }
+
+    public CompactProtobufHttpMessageConverter() {
+        super(PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        // Lists are only supported through the generic variants, which see the element type
+        return Message.of(clazz) != null;
+    }
+
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        // Spring MVC asks with the raw value class when listing producible types
+        return supports(clazz) || List.class.isAssignableFrom(clazz) ? getSupportedMediaTypes() : List.of();
+    }
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return shapeOf(type) != null && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        return shapeOf(type != null ? type : clazz) != null && canWrite(mediaType);
+    }
+
+    @Override
+    public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage)
+            throws IOException {
+        Shape shape = shapeOf(type);
+        if (shape == null) {
+            throw new HttpMessageNotReadableException("Unsupported type " + type, inputMessage);
+        }
+
+        try {
+            ProtoReader in = new ProtoReader(inputMessage.getBody().readAllBytes());
+            if (!shape.list()) {
+                return readItem(shape.message(), in);
+            }
+
+            List<Object> items = new ArrayList<>();
+            int tag;
+            while ((tag = in.readTag()) != 0) {
+                if (ProtoReader.fieldNumber(tag) == ProtoSchema.LIST_ITEM) {
+                    items.add(readItem(shape.message(), in.readMessage()));
+                } else {
+                    in.skip(tag);
+                }
+            }
+            return items;
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            throw new HttpMessageNotReadableException("Malformed protobuf body: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object value, @Nullable Type type, HttpOutputMessage outputMessage)
+            throws IOException {
+        Shape shape = shapeOf(type != null ? type : value.getClass());
+        if (shape == null) {
+            throw new HttpMessageNotWritableException("Unsupported type " + value.getClass());
+        }
+
+        OutputStream body = outputMessage.getBody();
+        try {
+            if (!shape.list()) {
+                ProtoWriter out = new ProtoWriter(128);
+                writeItem(shape.message(), out, value);
+                out.writeTo(body);
+                return;
+            }
+
+            ProtoWriter out = new ProtoWriter(FLUSH_THRESHOLD + 256);
+            ProtoWriter item = new ProtoWriter(256);
+            for (Object element : (List<?>) value) {
+                item.reset();
+                writeItem(shape.message(), item, element);
+                out.writeMessage(ProtoSchema.LIST_ITEM, item);
+                if (out.size() >= FLUSH_THRESHOLD) {
+                    out.writeTo(body);
+                    out.reset();
+                }
+            }
+            out.writeTo(body);
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            throw new HttpMessageNotWritableException("Cannot encode " + shape.message() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static Object readItem(Message message, ProtoReader in) {
+        return switch (message) {
+            case TRANSACTION -> ProtoSchema.readTransaction(in);
+            case ACCOUNT -> ProtoSchema.readAccount(in);
+        };
+    }
+
+    private static void writeItem(Message message, ProtoWriter out, Object value) {
+        switch (message) {
+            case TRANSACTION -> ProtoSchema.writeTransaction(out, (TransactionResponse) value);
+            case ACCOUNT -> ProtoSchema.writeAccount(out, (BankAccountResponse) value);
+        }
+    }
+
+    @Nullable
+    private static Shape shapeOf(@Nullable Type type) {
+        if (type == null) {
+            return null;
+        }
+        ResolvableType resolved = ResolvableType.forType(type);
+        Class<?> raw = resolved.resolve();
+        if (raw == null) {
+            return null;
+        }
+        if (List.class.isAssignableFrom(raw)) {
+            Message element = Message.of(resolved.asCollection().resolveGeneric(0));
+            return element == null ? null : new Shape(element, true);
+        }
+        Message message = Message.of(raw);
+        return message == null ? null : new Shape(message, false);
+    }
+}
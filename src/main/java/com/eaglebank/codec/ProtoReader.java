@@ -0,0 +1,113 @@
+package com.eaglebank.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Cursor over a protobuf-encoded byte range. Unknown fields are skipped, so newer
+ * writers can add fields without breaking older readers.
+ */
+final class ProtoReader {
+
+    private static final int FIXED64 = 1;
+    private static final int FIXED32 = 5;
+
+    private final byte[] buf;
+    private final int limit;
+    private int pos;
+
+    ProtoReader(byte[] buf) {
+        this(buf, 0, buf.length);
+    }
+
+    private ProtoReader(byte[] buf, int offset, int limit) {
+        this.buf = buf;
+        this.pos = offset;
+        this.limit = limit;
+    }
+
+    boolean hasRemaining() {
+        return pos < limit;
+    }
+
+    /**
+     * @return the next tag, or 0 at the end of the message
+     */
+    int readTag() {
+        return hasRemaining() ? (int) readRawVarint() : 0;
+    }
+
+    static int fieldNumber(int tag) {
+        return tag >>> 3;
+    }
+
+    int readUInt32() {
+        return (int) readRawVarint();
+    }
+
+    long readSInt64() {
+        long v = readRawVarint();
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    byte[] readBytes() {
+        int length = readLength();
+        byte[] value = Arrays.copyOfRange(buf, pos, pos + length);
+        pos += length;
+        return value;
+    }
+
+    String readString() {
+        int length = readLength();
+        String value = new String(buf, pos, length, StandardCharsets.UTF_8);
+        pos += length;
+        return value;
+    }
+
+    ProtoReader readMessage() {
+        int length = readLength();
+        ProtoReader nested = new ProtoReader(buf, pos, pos + length);
+        pos += length;
+        return nested;
+    }
+
+    void skip(int tag) {
+        switch (tag & 0x7) {
+            case ProtoWriter.VARINT -> readRawVarint();
+            case FIXED64 -> advance(8);
+            case ProtoWriter.LENGTH_DELIMITED -> advance(readLength());
+            case FIXED32 -> advance(4);
+            default -> throw new IllegalStateException("Unsupported wire type " + (tag & 0x7));
+        }
+    }
+
+    private int readLength() {
+        long length = readRawVarint();
+        if (length < 0 || length > limit - pos) {
+            throw new IllegalStateException("Truncated message");
+        }
+        return (int) length;
+    }
+
+    private void advance(int bytes) {
+        if (bytes > limit - pos) {
+            throw new IllegalStateException("Truncated message");
+        }
+        pos += bytes;
+    }
+
+    private long readRawVarint() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (pos >= limit) {
+                throw new IllegalStateException("Truncated varint");
+            }
+            byte b = buf[pos++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+}
@@ -0,0 +1,186 @@
+package com.eaglebank.codec;
+
+import com.eaglebank.dto.BankAccountResponse;
+import com.eaglebank.dto.TransactionResponse;
+import com.eaglebank.entity.TransactionType;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+/**
+ * Field mapping for the messages in {@code proto/eaglebank.proto}.
+ *
+ * <p>Ids travel as 16 raw bytes, amounts as a zig-zag unscaled value plus scale and
+ * timestamps as zig-zag epoch microseconds (the database's own precision), which removes
+ * the string formatting and parsing that dominates the JSON encoding of these types.
+ * Absent fields decode to {@code null}.
+ */
+final class ProtoSchema {
+
+    static final int LIST_ITEM = 1;
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private ProtoSchema() {
+    }
+
+    static void writeTransaction(ProtoWriter out, TransactionResponse txn) {
+        writeId(out, 1, txn.transactionId());
+        writeId(out, 2, txn.fromAccountId());
+        writeId(out, 3, txn.toAccountId());
+        writeDecimal(out, 4, txn.amount());
+        writeTimestamp(out, 6, txn.createdTimestamp());
+        if (txn.type() != null) {
+            // Proto enums reserve 0 for "unspecified"
+            out.writeUInt32(7, TransactionType.valueOf(txn.type()).ordinal() + 1);
+        }
+        writeDecimal(out, 8, txn.creditedAmount());
+        writeDecimal(out, 10, txn.fxRate());
+        writeString(out, 12, txn.reference());
+    }
+
+    static TransactionResponse readTransaction(ProtoReader in) {
+        String id = null, from = null, to = null;
+        long unscaled = 0;
+        int scale = 0;
+        boolean hasAmount = false;
+        LocalDateTime created = null;
+        String type = null;
+        long creditedUnscaled = 0, rateUnscaled = 0;
+        int creditedScale = 0, rateScale = 0;
+        boolean hasCredited = false, hasRate = false;
+        String reference = null;
+
+        int tag;
+        while ((tag = in.readTag()) != 0) {
+            switch (ProtoReader.fieldNumber(tag)) {
+                case 1 -> id = readId(in);
+                case 2 -> from = readId(in);
+                case 3 -> to = readId(in);
+                case 4 -> {
+                    unscaled = in.readSInt64();
+                    hasAmount = true;
+                }
+                case 5 -> scale = in.readUInt32();
+                case 6 -> created = readTimestamp(in);
+                case 7 -> {
+                    int value = in.readUInt32();
+                    type = value > 0 && value <= TYPES.length ? TYPES[value - 1].name() : null;
+                }
+                case 8 -> {
+                    creditedUnscaled = in.readSInt64();
+                    hasCredited = true;
+                }
+                case 9 -> creditedScale = in.readUInt32();
+                case 10 -> {
+                    rateUnscaled = in.readSInt64();
+                    hasRate = true;
+                }
+                case 11 -> rateScale = in.readUInt32();
+                case 12 -> reference = in.readString();
+                default -> in.skip(tag);
+            }
+        }
+        return new TransactionResponse(id, from, to, hasAmount ? BigDecimal.valueOf(unscaled, scale) : null,
+                created, type,
+                hasCredited ? BigDecimal.valueOf(creditedUnscaled, creditedScale) : null,
+                hasRate ? BigDecimal.valueOf(rateUnscaled, rateScale) : null,
+                reference);
+    }
+
+    static void writeAccount(ProtoWriter out, BankAccountResponse account) {
+        writeId(out, 1, account.accountId());
+        writeString(out, 2, account.accountType());
+        writeString(out, 3, account.sortCode());
+        writeString(out, 4, account.accountNumber());
+        writeDecimal(out, 5, account.balance());
+        writeTimestamp(out, 7, account.createdTimestamp());
+        writeString(out, 8, account.currency());
+    }
+
+    static BankAccountResponse readAccount(ProtoReader in) {
+        String id = null, type = null, sortCode = null, number = null;
+        long unscaled = 0;
+        int scale = 0;
+        boolean hasBalance = false;
+        LocalDateTime created = null;
+        String currency = null;
+
+        int tag;
+        while ((tag = in.readTag()) != 0) {
+            switch (ProtoReader.fieldNumber(tag)) {
+                case 1 -> id = readId(in);
+                case 2 -> type = in.readString();
+                case 3 -> sortCode = in.readString();
+                case 4 -> number = in.readString();
+                case 5 -> {
+                    unscaled = in.readSInt64();
+                    hasBalance = true;
+                }
+                case 6 -> scale = in.readUInt32();
+                case 7 -> created = readTimestamp(in);
+                case 8 -> currency = in.readString();
+                default -> in.skip(tag);
+            }
+        }
+        return new BankAccountResponse(id, type, sortCode, number,
+                hasBalance ? BigDecimal.valueOf(unscaled, scale) : null, created, currency);
+    }
+
+    private static void writeId(ProtoWriter out, int field, String id) {
+        if (id == null) {
+            return;
+        }
+        UUID uuid = UUID.fromString(id);
+        out.writeBytes(field, ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array());
+    }
+
+    private static String readId(ProtoReader in) {
+        ByteBuffer bytes = ByteBuffer.wrap(in.readBytes());
+        if (bytes.remaining() != 16) {
+            throw new IllegalStateException("Id must be 16 bytes but was " + bytes.remaining());
+        }
+        return new UUID(bytes.getLong(), bytes.getLong()).toString();
+    }
+
+    private static void writeString(ProtoWriter out, int field, String value) {
+        if (value != null) {
+            out.writeString(field, value);
+        }
+    }
+
+    /**
+     * Writes {@code field} as the unscaled value and {@code field + 1} as the scale.
+     */
+    private static void writeDecimal(ProtoWriter out, int field, BigDecimal value) {
+        if (value == null) {
+            return;
+        }
+        if (value.scale() < 0) {
+            value = value.setScale(0);
+        }
+        // Throws rather than truncating amounts beyond 63 bits
+        out.writeSInt64(field, value.unscaledValue().longValueExact());
+        out.writeUInt32(field + 1, value.scale());
+    }
+
+    private static void writeTimestamp(ProtoWriter out, int field, LocalDateTime value) {
+        if (value != null) {
+            out.writeSInt64(field, ChronoUnit.MICROS.between(EPOCH, value));
+        }
+    }
+
+    private static LocalDateTime readTimestamp(ProtoReader in) {
+        long micros = in.readSInt64();
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,89 @@
+package com.eaglebank.codec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Growable buffer that encodes fields in the protobuf wire format.
+ */
+final class ProtoWriter {
+
+    static final int VARINT = 0;
+    static final int LENGTH_DELIMITED = 2;
+
+    private byte[] buf;
+    private int size;
+
+    ProtoWriter(int initialCapacity) {
+        this.buf = new byte[initialCapacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void reset() {
+        size = 0;
+    }
+
+    void writeTo(OutputStream out) throws IOException {
+        out.write(buf, 0, size);
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buf, size);
+    }
+
+    void writeUInt32(int field, int value) {
+        writeTag(field, VARINT);
+        writeRawVarint(value & 0xFFFFFFFFL);
+    }
+
+    void writeSInt64(int field, long value) {
+        writeTag(field, VARINT);
+        writeRawVarint((value << 1) ^ (value >> 63));
+    }
+
+    void writeBytes(int field, byte[] value) {
+        writeTag(field, LENGTH_DELIMITED);
+        writeRawVarint(value.length);
+        writeRaw(value, 0, value.length);
+    }
+
+    void writeString(int field, String value) {
+        writeBytes(field, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    void writeMessage(int field, ProtoWriter message) {
+        writeTag(field, LENGTH_DELIMITED);
+        writeRawVarint(message.size);
+        writeRaw(message.buf, 0, message.size);
+    }
+
+    private void writeTag(int field, int wireType) {
+        writeRawVarint(((long) field << 3) | wireType);
+    }
+
+    private void writeRawVarint(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buf[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf[size++] = (byte) value;
+    }
+
+    private void writeRaw(byte[] bytes, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(bytes, offset, buf, size, length);
+        size += length;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length * 2, size + extra));
+        }
+    }
+}
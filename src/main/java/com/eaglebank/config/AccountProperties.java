@@ -0,0 +1,20 @@
+package com.eaglebank.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @param sortCode           the bank's own sort code, assumed when an account is addressed by
+ *                           its number alone
+ * @param directoryMaxEntries account numbers whose id is kept in memory; beyond this the least
+ *                           recently resolved is dropped and costs one query next time
+ */
+@ConfigurationProperties(prefix = "eaglebank.accounts")
+public record AccountProperties(
+        String sortCode,
+        int directoryMaxEntries
+) {
+    public AccountProperties {
+        if (sortCode == null) sortCode = "10-10-10";
+        if (directoryMaxEntries <= 0) directoryMaxEntries = 100_000;
+    }
+}
@@ -0,0 +1,30 @@
+package com.eaglebank.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * @param refreshInterval how often each instance checks {@code archived_periods} for months
+ *                        archived elsewhere; the archiver waits twice this long before deleting
+ *                        a month's rows
+ */
+@ConfigurationProperties(prefix = "eaglebank.archive")
+public record ArchiveProperties(
+        boolean enabled,
+        String directory,
+        int hotWindowMonths,
+        Duration refreshInterval
+) {
+    public ArchiveProperties {
+        if (directory == null || directory.isBlank()) {
+            directory = "data/archive";
+        }
+        if (hotWindowMonths <= 0) {
+            hotWindowMonths = 18;
+        }
+        if (refreshInterval == null) {
+            refreshInterval = Duration.ofSeconds(10);
+        }
+    }
+}
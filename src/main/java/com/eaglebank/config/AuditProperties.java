@@ -0,0 +1,55 @@
+package com.eaglebank.config;
+
+import com.eaglebank.audit.AuditSinkType;
+import com.eaglebank.audit.FsyncPolicy;
+import com.eaglebank.audit.OverflowPolicy;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * @param queueCapacity  records held between the service layer and the writer; rounded up to
+ *                       a power of two
+ * @param flushInterval  how long the writer waits for a batch to fill before writing what it has
+ * @param overflow       what a caller does when the queue is full; money records never wait,
+ *                       they are left to the journal sweep
+ * @param offerTimeout   how long {@code BLOCK} waits for space before writing on the caller's thread
+ * @param sweepInterval  how often committed journal postings are checked for money records the
+ *                       queue never delivered
+ * @param maxFileSize    the file sink starts a new file past this size, and at midnight
+ * @param fsyncInterval  how often {@code INTERVAL} forces the file sink's writes to disk
+ * @param maxBackoff     longest wait between attempts at a batch the sink keeps rejecting
+ */
+@ConfigurationProperties(prefix = "eaglebank.audit")
+public record AuditProperties(
+        Boolean enabled,
+        AuditSinkType sink,
+        int queueCapacity,
+        int batchSize,
+        Duration flushInterval,
+        OverflowPolicy overflow,
+        Duration offerTimeout,
+        Duration sweepInterval,
+        String directory,
+        DataSize maxFileSize,
+        FsyncPolicy fsync,
+        Duration fsyncInterval,
+        Duration maxBackoff
+) {
+    public AuditProperties {
+        if (enabled == null) enabled = true;
+        if (sink == null) sink = AuditSinkType.DATABASE;
+        if (queueCapacity <= 0) queueCapacity = 65_536;
+        if (batchSize <= 0) batchSize = 500;
+        if (flushInterval == null) flushInterval = Duration.ofMillis(200);
+        if (overflow == null) overflow = OverflowPolicy.BLOCK;
+        if (offerTimeout == null) offerTimeout = Duration.ofMillis(50);
+        if (sweepInterval == null) sweepInterval = Duration.ofSeconds(30);
+        if (directory == null || directory.isBlank()) directory = "data/audit";
+        if (maxFileSize == null) maxFileSize = DataSize.ofMegabytes(256);
+        if (fsync == null) fsync = FsyncPolicy.INTERVAL;
+        if (fsyncInterval == null) fsyncInterval = Duration.ofSeconds(1);
+        if (maxBackoff == null) maxBackoff = Duration.ofSeconds(30);
+    }
+}
@@ -0,0 +1,61 @@
+package com.eaglebank.config;
+
+import com.eaglebank.codec.CompactProtobufHttpMessageConverter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Adds binary representations selected by {@code Accept}: CBOR, Smile and the compact
+ * protobuf schema. They are placed after the JSON converter so clients that send no
+ * preference, or {@code *}{@code /*}, keep getting JSON.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class ContentNegotiationConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilders;
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Spring registers its own CBOR and Smile converters when the formats are on the
+        // classpath, but without the application's Jackson settings
+        converters.removeIf(c -> c instanceof MappingJackson2CborHttpMessageConverter
+                || c instanceof MappingJackson2SmileHttpMessageConverter);
+
+        int json = 0;
+        for (int i = 0; i < converters.size(); i++) {
+            if (converters.get(i) instanceof MappingJackson2HttpMessageConverter) {
+                json = i + 1;
+                break;
+            }
+        }
+        converters.addAll(json, binaryConverters(objectMapperBuilders::getObject));
+    }
+
+    public static List<HttpMessageConverter<?>> binaryConverters(Supplier<Jackson2ObjectMapperBuilder> builders) {
+        return List.of(
+                new MappingJackson2CborHttpMessageConverter(builders.get()
+                        .factory(new CBORFactory())
+                        .featuresToDisable(SerializationFeature.INDENT_OUTPUT)
+                        .build()),
+                new MappingJackson2SmileHttpMessageConverter(builders.get()
+                        .factory(new SmileFactory())
+                        .featuresToDisable(SerializationFeature.INDENT_OUTPUT)
+                        .build()),
+                new CompactProtobufHttpMessageConverter()
+        );
+    }
+}
@@ -0,0 +1,30 @@
+package com.eaglebank.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * @param enabled       coordinate scheduled jobs through leases in the database; off for a
+ *                      single instance, where every lease is granted locally
+ * @param instanceId    this instance's name in the lease table; generated when not set
+ * @param leaseTtl      how long a lease lasts without renewal, and so how long a dead
+ *                      instance's work waits before another takes it over
+ * @param renewInterval how often held leases are renewed; well under {@code leaseTtl}
+ * @param retryInterval how long to wait before retrying partitions held by other instances
+ */
+@ConfigurationProperties(prefix = "eaglebank.coordination")
+public record CoordinationProperties(
+        Boolean enabled,
+        String instanceId,
+        Duration leaseTtl,
+        Duration renewInterval,
+        Duration retryInterval
+) {
+    public CoordinationProperties {
+        if (enabled == null) enabled = true;
+        if (leaseTtl == null) leaseTtl = Duration.ofSeconds(30);
+        if (renewInterval == null || renewInterval.compareTo(leaseTtl) >= 0) renewInterval = leaseTtl.dividedBy(3);
+        if (retryInterval == null) retryInterval = Duration.ofSeconds(5);
+    }
+}
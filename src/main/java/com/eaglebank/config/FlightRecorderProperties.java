@@ -0,0 +1,30 @@
+package com.eaglebank.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * @param enabled       keep a continuous flight recording running from startup
+ * @param settings      JFR settings the recording starts from, {@code default} or {@code profile}
+ * @param maxAge        how far back the recording reaches
+ * @param maxSize       disk the recording may use before its oldest chunks are dropped
+ * @param dumpDirectory where dumps taken through the endpoint are written
+ */
+@ConfigurationProperties(prefix = "eaglebank.flight-recorder")
+public record FlightRecorderProperties(
+        Boolean enabled,
+        String settings,
+        Duration maxAge,
+        DataSize maxSize,
+        String dumpDirectory
+) {
+    public FlightRecorderProperties {
+        if (enabled == null) enabled = true;
+        if (settings == null || settings.isBlank()) settings = "default";
+        if (maxAge == null) maxAge = Duration.ofHours(1);
+        if (maxSize == null) maxSize = DataSize.ofMegabytes(256);
+        if (dumpDirectory == null) dumpDirectory = "data/jfr";
+    }
+}
@@ -0,0 +1,34 @@
+package com.eaglebank.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * @param baseCurrency   currency new accounts default to, and the one every rate is quoted against
+ * @param rates          units of each currency per one unit of {@code baseCurrency}; used until
+ *                       {@code ratesFile} is first loaded
+ * @param ratesFile      optional {@code CURRENCY,rate} file, one line per currency, reloaded
+ *                       whenever it changes
+ * @param reloadInterval how often {@code ratesFile} is checked for changes
+ */
+@ConfigurationProperties(prefix = "eaglebank.fx")
+public record FxProperties(
+        String baseCurrency,
+        Map<String, BigDecimal> rates,
+        String ratesFile,
+        Duration reloadInterval
+) {
+    public FxProperties {
+        baseCurrency = baseCurrency == null ? "GBP" : baseCurrency.toUpperCase(Locale.ROOT);
+        rates = rates == null ? Map.of() : rates.entrySet().stream()
+                .collect(Collectors.toUnmodifiableMap(e -> e.getKey().toUpperCase(Locale.ROOT), Map.Entry::getValue));
+        if (reloadInterval == null) {
+            reloadInterval = Duration.ofSeconds(60);
+        }
+    }
+}
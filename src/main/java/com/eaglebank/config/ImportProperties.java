@@ -0,0 +1,39 @@
+package com.eaglebank.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * @param endpointEnabled   exposes {@code POST /v1/imports}; the CLI works either way
+ * @param operators         emails of the users granted the {@code IMPORT} authority, the only
+ *                          ones who may call the endpoint; an import can open funded accounts
+ * @param batchSize         rows validated, hashed and inserted together
+ * @param hashThreads       BCrypt workers shared by every running import
+ * @param maxReportedErrors per-row errors kept in the report; the failure count is always exact
+ */
+@ConfigurationProperties(prefix = "eaglebank.import")
+public record ImportProperties(
+        boolean endpointEnabled,
+        Set<String> operators,
+        int batchSize,
+        int hashThreads,
+        int maxReportedErrors
+) {
+    public ImportProperties {
+        operators = operators == null ? Set.of() : operators.stream()
+                .map(email -> email.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        if (batchSize <= 0) {
+            batchSize = 500;
+        }
+        if (hashThreads <= 0) {
+            hashThreads = Runtime.getRuntime().availableProcessors();
+        }
+        if (maxReportedErrors <= 0) {
+            maxReportedErrors = 1000;
+        }
+    }
+}
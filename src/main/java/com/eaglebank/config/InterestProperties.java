@@ -0,0 +1,51 @@
+package com.eaglebank.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * @param annualRates   yearly rate per interest-bearing {@code accountType}, e.g. {@code 0.0425};
+ *                      account types are matched case-insensitively
+ * @param dayCountBasis days the annual rate is spread over; each day accrues
+ *                      {@code balance * rate / dayCountBasis}
+ * @param parallelism   ranges processed at once; each holds a database connection, so keep
+ *                      this below the connection pool size
+ * @param ranges        slices of the account id space, each applied and checkpointed in its
+ *                      own transaction
+ */
+@ConfigurationProperties(prefix = "eaglebank.interest")
+public record InterestProperties(
+        boolean enabled,
+        Map<String, BigDecimal> annualRates,
+        int dayCountBasis,
+        int parallelism,
+        int ranges,
+        Duration progressInterval
+) {
+    public InterestProperties {
+        annualRates = annualRates == null ? Map.of() : annualRates.entrySet().stream()
+                .collect(Collectors.toUnmodifiableMap(e -> e.getKey().toLowerCase(Locale.ROOT), Map.Entry::getValue));
+        if (dayCountBasis <= 0) {
+            dayCountBasis = 365;
+        }
+        if (parallelism <= 0) {
+            parallelism = 4;
+        }
+        if (ranges <= 0) {
+            ranges = 1024;
+        }
+        if (progressInterval == null) {
+            progressInterval = Duration.ofSeconds(30);
+        }
+    }
+
+    public BigDecimal dailyRate(String accountType) {
+        return annualRates.get(accountType).divide(BigDecimal.valueOf(dayCountBasis), MathContext.DECIMAL64);
+    }
+}
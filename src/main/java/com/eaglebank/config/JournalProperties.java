@@ -0,0 +1,30 @@
+package com.eaglebank.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * @param projectionEnabled keep every balance in memory, fed from the journal; when off,
+ *                          funds checks and balance reads use the stored balance alone
+ * @param snapshotFile      where the projection is saved, and restored from on start
+ * @param snapshotInterval  how often the projection is saved
+ * @param pollInterval      how often postings written elsewhere are read from the journal
+ * @param expectedAccounts  initial capacity of the projection
+ */
+@ConfigurationProperties(prefix = "eaglebank.journal")
+public record JournalProperties(
+        Boolean projectionEnabled,
+        String snapshotFile,
+        Duration snapshotInterval,
+        Duration pollInterval,
+        int expectedAccounts
+) {
+    public JournalProperties {
+        if (projectionEnabled == null) projectionEnabled = true;
+        if (snapshotFile == null) snapshotFile = "data/journal/balances.snap";
+        if (snapshotInterval == null) snapshotInterval = Duration.ofMinutes(5);
+        if (pollInterval == null) pollInterval = Duration.ofMillis(250);
+        if (expectedAccounts <= 0) expectedAccounts = 1 << 16;
+    }
+}
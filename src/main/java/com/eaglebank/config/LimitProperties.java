@@ -0,0 +1,27 @@
+package com.eaglebank.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+/**
+ * @param maxDailyAmount        money an account may send or withdraw in any 24 hours
+ * @param payeeLookback         how far back a payment makes a recipient a known payee
+ */
+@ConfigurationProperties(prefix = "eaglebank.limits")
+public record LimitProperties(
+        Boolean enabled,
+        BigDecimal maxDailyAmount,
+        int maxTransfersPerMinute,
+        int maxNewPayeesPerHour,
+        Duration payeeLookback
+) {
+    public LimitProperties {
+        if (enabled == null) enabled = true;
+        if (maxDailyAmount == null) maxDailyAmount = new BigDecimal("10000.00");
+        if (maxTransfersPerMinute <= 0) maxTransfersPerMinute = 10;
+        if (maxNewPayeesPerHour <= 0) maxNewPayeesPerHour = 5;
+        if (payeeLookback == null) payeeLookback = Duration.ofDays(365);
+    }
+}
@@ -0,0 +1,21 @@
+package com.eaglebank.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @param debugHeader     request header that turns on DEBUG logging for that request alone
+ * @param debugToken      value the header must carry; when unset the header is ignored
+ * @param debugSampleRate fraction of requests logged at DEBUG regardless of the header
+ */
+@ConfigurationProperties(prefix = "eaglebank.logging")
+public record LoggingProperties(
+        String debugHeader,
+        String debugToken,
+        double debugSampleRate
+) {
+    public LoggingProperties {
+        if (debugHeader == null) debugHeader = "X-Debug-Token";
+        if (debugToken != null && debugToken.isBlank()) debugToken = null;
+        debugSampleRate = Math.min(Math.max(debugSampleRate, 0), 1);
+    }
+}
@@ -0,0 +1,22 @@
+package com.eaglebank.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * @param operators emails of the users granted the {@code MANAGEMENT} authority, the only ones
+ *                  who may call actuator endpoints other than {@code health}
+ */
+@ConfigurationProperties(prefix = "eaglebank.management")
+public record ManagementProperties(
+        Set<String> operators
+) {
+    public ManagementProperties {
+        operators = operators == null ? Set.of() : operators.stream()
+                .map(email -> email.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+}
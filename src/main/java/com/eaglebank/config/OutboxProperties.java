@@ -0,0 +1,38 @@
+package com.eaglebank.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "eaglebank.outbox")
+public record OutboxProperties(
+        Boolean dispatcherEnabled,
+        int workers,
+        int batchSize,
+        Duration pollInterval,
+        int maxAttempts,
+        Duration initialBackoff,
+        Duration maxBackoff,
+        Duration retention,
+        Boolean logSinkEnabled,
+        Webhook webhook
+) {
+    public OutboxProperties {
+        if (dispatcherEnabled == null) dispatcherEnabled = true;
+        if (workers <= 0) workers = 1;
+        if (batchSize <= 0) batchSize = 200;
+        if (pollInterval == null) pollInterval = Duration.ofMillis(500);
+        if (maxAttempts <= 0) maxAttempts = 10;
+        if (initialBackoff == null) initialBackoff = Duration.ofSeconds(1);
+        if (maxBackoff == null) maxBackoff = Duration.ofMinutes(5);
+        if (retention == null) retention = Duration.ofDays(7);
+        if (logSinkEnabled == null) logSinkEnabled = true;
+        if (webhook == null) webhook = new Webhook(null, null);
+    }
+
+    public record Webhook(String url, Duration timeout) {
+        public Webhook {
+            if (timeout == null) timeout = Duration.ofSeconds(5);
+        }
+    }
+}
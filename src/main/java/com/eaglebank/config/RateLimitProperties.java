@@ -0,0 +1,50 @@
+package com.eaglebank.config;
+
+import com.eaglebank.security.RouteClass;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * @param maxBuckets clients tracked at once; beyond this the least recently seen bucket is
+ *                   recycled, which at worst hands that client a full bucket early
+ * @param routes     limits per route class; a class left out keeps its default
+ */
+@ConfigurationProperties(prefix = "eaglebank.rate-limit")
+public record RateLimitProperties(
+        Boolean enabled,
+        int maxBuckets,
+        Map<RouteClass, Limit> routes
+) {
+    private static final Map<RouteClass, Limit> DEFAULTS = Map.of(
+            RouteClass.LOGIN, new Limit(5, 0.1),
+            RouteClass.SIGNUP, new Limit(3, 0.05),
+            RouteClass.HISTORY, new Limit(20, 5),
+            RouteClass.STANDARD, new Limit(50, 20));
+
+    public RateLimitProperties {
+        if (enabled == null) enabled = true;
+        if (maxBuckets <= 0) maxBuckets = 65_536;
+
+        Map<RouteClass, Limit> merged = new EnumMap<>(RouteClass.class);
+        for (RouteClass route : RouteClass.values()) {
+            Limit fallback = DEFAULTS.get(route);
+            Limit configured = routes == null ? null : routes.get(route);
+            merged.put(route, configured == null ? fallback : new Limit(
+                    configured.capacity() > 0 ? configured.capacity() : fallback.capacity(),
+                    configured.refillPerSecond() > 0 ? configured.refillPerSecond() : fallback.refillPerSecond()));
+        }
+        routes = Map.copyOf(merged);
+    }
+
+    public Limit limit(RouteClass route) {
+        return routes.get(route);
+    }
+
+    /**
+     * @param capacity        burst size: requests allowed back to back from a full bucket
+     * @param refillPerSecond sustained request rate
+     */
+    public record Limit(int capacity, double refillPerSecond) {}
+}
@@ -0,0 +1,36 @@
+package com.eaglebank.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * @param parallelism    ranges reconciled at once; each holds a database connection, so keep
+ *                       this below the connection pool size
+ * @param ranges         slices of the account id space; more ranges mean smaller queries
+ *                       and finer-grained progress
+ * @param driftBatchSize drift records buffered before they are written out
+ */
+@ConfigurationProperties(prefix = "eaglebank.reconciliation")
+public record ReconciliationProperties(
+        boolean enabled,
+        int parallelism,
+        int ranges,
+        Duration progressInterval,
+        int driftBatchSize
+) {
+    public ReconciliationProperties {
+        if (parallelism <= 0) {
+            parallelism = 4;
+        }
+        if (ranges <= 0) {
+            ranges = 1024;
+        }
+        if (progressInterval == null) {
+            progressInterval = Duration.ofSeconds(30);
+        }
+        if (driftBatchSize <= 0) {
+            driftBatchSize = 500;
+        }
+    }
+}
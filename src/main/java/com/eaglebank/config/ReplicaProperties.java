@@ -0,0 +1,41 @@
+package com.eaglebank.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * @param enabled          route read-only transactions to {@code nodes}; otherwise everything
+ *                         uses {@code spring.datasource} as before
+ * @param nodes            replicas of {@code spring.datasource}, any number
+ * @param maxLag           a replica further behind the primary than this takes no reads
+ * @param lagCheckInterval how often each replica's lag is measured
+ * @param pinWindow        how long a client's reads stay on the primary after it writes, so it
+ *                         always sees its own changes; also the lifetime of the pin cookie that
+ *                         carries this to other instances
+ * @param maxPinnedClients clients pinned at once; beyond this the oldest pins are dropped early
+ * @param pinSecret        signs the pin cookie; every instance needs the same value to honour
+ *                         each other's cookies, and without one each signs with a random key
+ */
+@ConfigurationProperties(prefix = "eaglebank.replicas")
+public record ReplicaProperties(
+        Boolean enabled,
+        List<Node> nodes,
+        Duration maxLag,
+        Duration lagCheckInterval,
+        Duration pinWindow,
+        int maxPinnedClients,
+        String pinSecret
+) {
+    public ReplicaProperties {
+        if (enabled == null) enabled = false;
+        nodes = nodes == null ? List.of() : List.copyOf(nodes);
+        if (maxLag == null) maxLag = Duration.ofSeconds(2);
+        if (lagCheckInterval == null) lagCheckInterval = Duration.ofSeconds(1);
+        if (pinWindow == null) pinWindow = Duration.ofSeconds(5);
+        if (maxPinnedClients <= 0) maxPinnedClients = 65_536;
+    }
+
+    public record Node(String name, String url, String username, String password) {}
+}
@@ -0,0 +1,69 @@
+package com.eaglebank.config;
+
+import com.eaglebank.datasource.ReplicaLagMonitor;
+import com.eaglebank.datasource.RoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Replaces the auto-configured data source with one that routes read-only transactions to
+ * {@code eaglebank.replicas.nodes}. Replicas share the primary's driver.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "eaglebank.replicas", name = "enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    public RoutingDataSource routingDataSource(DataSourceProperties primaryProperties,
+                                               ReplicaProperties replicaProperties,
+                                               MeterRegistry meterRegistry) {
+        HikariDataSource primary = primaryProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        primary.setPoolName("primary");
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaProperties.nodes().size(); i++) {
+            ReplicaProperties.Node node = replicaProperties.nodes().get(i);
+            String name = node.name() == null ? "replica-" + (i + 1) : node.name();
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(primaryProperties.determineDriverClassName())
+                    .url(node.url())
+                    .username(node.username() == null ? primaryProperties.determineUsername() : node.username())
+                    .password(node.password() == null ? primaryProperties.determinePassword() : node.password())
+                    .build();
+            replica.setPoolName(name);
+            replica.setReadOnly(true);
+            replicas.put(name, replica);
+        }
+
+        return new RoutingDataSource(primary, replicas, replicaProperties.maxLag().toMillis(), meterRegistry);
+    }
+
+    /**
+     * What JPA and everything else sees. Holding back the physical connection until the first
+     * statement lets the routing see whether the transaction is read-only.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(RoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(RoutingDataSource routingDataSource) {
+        return new ReplicaLagMonitor(routingDataSource);
+    }
+}
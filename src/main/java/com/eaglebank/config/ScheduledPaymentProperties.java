@@ -0,0 +1,29 @@
+package com.eaglebank.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * @param batchSize     payments claimed and settled per transaction
+ * @param maxAttempts   tries per payment date before it is skipped
+ * @param retryInterval wait after a rejected attempt, multiplied by the attempt number
+ */
+@ConfigurationProperties(prefix = "eaglebank.scheduled-payments")
+public record ScheduledPaymentProperties(
+        Boolean runnerEnabled,
+        int workers,
+        int batchSize,
+        Duration pollInterval,
+        int maxAttempts,
+        Duration retryInterval
+) {
+    public ScheduledPaymentProperties {
+        if (runnerEnabled == null) runnerEnabled = true;
+        if (workers <= 0) workers = 4;
+        if (batchSize <= 0) batchSize = 200;
+        if (pollInterval == null) pollInterval = Duration.ofSeconds(5);
+        if (maxAttempts <= 0) maxAttempts = 4;
+        if (retryInterval == null) retryInterval = Duration.ofHours(1);
+    }
+}
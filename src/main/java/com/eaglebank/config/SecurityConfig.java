@@ -1,7 +1,17 @@
 package com.eaglebank.config;
 
+import com.eaglebank.datasource.PrimaryPinningFilter;
+import com.eaglebank.datasource.PrimaryPins;
+import com.eaglebank.security.CustomUserDetailsService;
 import com.eaglebank.security.JwtAuthenticationFilter;
+import com.eaglebank.security.RateLimitFilter;
+import com.eaglebank.security.RateLimiter;
+import com.eaglebank.sharding.ShardBindingFilter;
+import com.eaglebank.sharding.ShardDirectory;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -20,18 +30,40 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final RateLimiter rateLimiter;
+    private final RateLimitProperties rateLimitProperties;
+    private final PrimaryPins primaryPins;
+    private final ReplicaProperties replicaProperties;
+    private final ShardDirectory shardDirectory;
+    private final ShardProperties shardProperties;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
-        return http
+        http
                 .authorizeHttpRequests(auth -> auth
+                        // SSE completion is an async re-dispatch of an already authorised request
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/v1/users").permitAll()
                         .requestMatchers(HttpMethod.POST, "/auth/login").permitAll()
+                        .requestMatchers("/v1/imports/**").hasAuthority(CustomUserDetailsService.IMPORT_AUTHORITY)
+                        // Load balancer and orchestrator probes carry no token
+                        .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+                        .requestMatchers(EndpointRequest.toAnyEndpoint())
+                        .hasAuthority(CustomUserDetailsService.MANAGEMENT_AUTHORITY)
                         .anyRequest().authenticated()
                 )
                 .csrf(csrf -> csrf.disable())
-                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
-                .build();
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+        if (rateLimitProperties.enabled()) {
+            http.addFilterAfter(new RateLimitFilter(rateLimiter), JwtAuthenticationFilter.class);
+        }
+        if (replicaProperties.enabled()) {
+            http.addFilterAfter(new PrimaryPinningFilter(primaryPins), JwtAuthenticationFilter.class);
+        }
+        if (shardProperties.enabled()) {
+            http.addFilterAfter(new ShardBindingFilter(shardDirectory), JwtAuthenticationFilter.class);
+        }
+        return http.build();
     }
 
     @Bean
@@ -0,0 +1,38 @@
+package com.eaglebank.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * @param enabled             spread users and their accounts over {@code spring.datasource}
+ *                            (shard 0) and {@code nodes} (shards 1 onwards); otherwise
+ *                            everything uses {@code spring.datasource} as before
+ * @param nodes               the other shards, in shard order. Shards can be appended but never
+ *                            removed or reordered, since ids record their shard's number
+ * @param directoryMaxEntries emails and account numbers whose shard is cached on each instance
+ * @param relayInterval       how often transfers waiting to be credited on another shard are sent
+ * @param relayBatchSize      transfers relayed per transaction
+ * @param relayMaxBackoff     longest wait before retrying a transfer whose credit failed
+ */
+@ConfigurationProperties(prefix = "eaglebank.shards")
+public record ShardProperties(
+        Boolean enabled,
+        List<Node> nodes,
+        int directoryMaxEntries,
+        Duration relayInterval,
+        int relayBatchSize,
+        Duration relayMaxBackoff
+) {
+    public ShardProperties {
+        if (enabled == null) enabled = false;
+        nodes = nodes == null ? List.of() : List.copyOf(nodes);
+        if (directoryMaxEntries <= 0) directoryMaxEntries = 100_000;
+        if (relayInterval == null) relayInterval = Duration.ofSeconds(1);
+        if (relayBatchSize <= 0) relayBatchSize = 100;
+        if (relayMaxBackoff == null) relayMaxBackoff = Duration.ofMinutes(5);
+    }
+
+    public record Node(String name, String url, String username, String password) {}
+}
@@ -0,0 +1,115 @@
+package com.eaglebank.config;
+
+import com.eaglebank.datasource.ShardRoutingDataSource;
+import com.eaglebank.datasource.ShardSchema;
+import com.eaglebank.sharding.ShardIds;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces the auto-configured data source with one that routes to the current thread's
+ * shard: {@code spring.datasource} is shard 0 and {@code eaglebank.shards.nodes} follow in
+ * order. Shards share shard 0's driver and, unless a node sets its own, its credentials.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "eaglebank.shards", name = "enabled", havingValue = "true")
+public class ShardRoutingConfig {
+
+    // Features that still read a single database, with their defaults. Left on, they would
+    // quietly see only shard 0's accounts, so sharding refuses to start alongside them
+    private static final Map<String, Boolean> SINGLE_DATABASE_FEATURES = Map.of(
+            "eaglebank.replicas.enabled", false,
+            "eaglebank.journal.projection-enabled", true,
+            "eaglebank.scheduled-payments.runner-enabled", true,
+            "eaglebank.interest.enabled", false,
+            "eaglebank.reconciliation.enabled", false,
+            "eaglebank.statements.enabled", false,
+            "eaglebank.archive.enabled", false,
+            "eaglebank.import.endpoint-enabled", false);
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(DataSourceProperties homeProperties,
+                                                         ShardProperties shardProperties,
+                                                         Environment environment,
+                                                         MeterRegistry meterRegistry) {
+        requireShardAwareFeatures(environment);
+        if (shardProperties.nodes().size() >= ShardIds.MAX_SHARDS) {
+            throw new IllegalStateException("At most " + ShardIds.MAX_SHARDS + " shards are supported");
+        }
+
+        HikariDataSource home = homeProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        home.setPoolName("shard-0");
+
+        List<DataSource> shards = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        shards.add(home);
+        names.add(home.getPoolName());
+        for (int i = 0; i < shardProperties.nodes().size(); i++) {
+            ShardProperties.Node node = shardProperties.nodes().get(i);
+            String name = node.name() == null ? "shard-" + (i + 1) : node.name();
+            HikariDataSource shard = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(homeProperties.determineDriverClassName())
+                    .url(node.url())
+                    .username(node.username() == null ? homeProperties.determineUsername() : node.username())
+                    .password(node.password() == null ? homeProperties.determinePassword() : node.password())
+                    .build();
+            shard.setPoolName(name);
+            shards.add(shard);
+            names.add(name);
+        }
+
+        return new ShardRoutingDataSource(shards, names, meterRegistry);
+    }
+
+    /**
+     * What JPA and everything else sees. Holding back the physical connection until the first
+     * statement lets a transaction bind its shard after it has begun.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer shardSchemaCustomizer(ShardRoutingDataSource shardRoutingDataSource,
+                                                               ObjectProvider<SqlInitializationProperties> sqlProperties,
+                                                               ResourceLoader resourceLoader) {
+        ShardSchema schema = new ShardSchema(shardRoutingDataSource, sqlProperties.getIfAvailable(), resourceLoader);
+        return properties -> properties.put(JpaSettings.INTEGRATOR_PROVIDER, (IntegratorProvider) () -> List.of(schema));
+    }
+
+    static void requireShardAwareFeatures(Environment environment) {
+        List<String> enabled = SINGLE_DATABASE_FEATURES.entrySet().stream()
+                .filter(feature -> environment.getProperty(feature.getKey(), Boolean.class, feature.getValue()))
+                .map(Map.Entry::getKey)
+                .sorted()
+                .toList();
+        if (!enabled.isEmpty()) {
+            throw new IllegalStateException("eaglebank.shards.enabled needs these turned off, since they only "
+                    + "read shard 0: " + String.join(", ", enabled));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.eaglebank.config;
+
+import com.eaglebank.statement.StatementFormat;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * @param directory   statements for a month go in {@code <directory>/<yyyy-MM>/}, one file per range
+ * @param parallelism ranges written at once; each holds a database connection, so keep this
+ *                    below the connection pool size
+ * @param ranges      slices of the account id space; each is one output file and the unit of
+ *                    resumption after an interrupted run
+ * @param bufferSize  bytes buffered per output file before it is written to its channel
+ */
+@ConfigurationProperties(prefix = "eaglebank.statements")
+public record StatementProperties(
+        boolean enabled,
+        String directory,
+        StatementFormat format,
+        int parallelism,
+        int ranges,
+        int bufferSize,
+        Duration progressInterval
+) {
+    public StatementProperties {
+        if (directory == null || directory.isBlank()) {
+            directory = "data/statements";
+        }
+        if (format == null) {
+            format = StatementFormat.CSV;
+        }
+        if (parallelism <= 0) {
+            parallelism = 4;
+        }
+        if (ranges <= 0) {
+            ranges = 256;
+        }
+        if (bufferSize <= 0) {
+            bufferSize = 64 * 1024;
+        }
+        if (progressInterval == null) {
+            progressInterval = Duration.ofSeconds(30);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.eaglebank.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "eaglebank.stream")
+public record StreamProperties(
+        Duration heartbeatInterval,
+        Duration connectionTimeout,
+        int maxQueuedEvents,
+        int replayBufferSize,
+        int senderThreads
+) {
+    public StreamProperties {
+        if (heartbeatInterval == null) heartbeatInterval = Duration.ofSeconds(15);
+        if (connectionTimeout == null) connectionTimeout = Duration.ofMinutes(30);
+        if (maxQueuedEvents <= 0) maxQueuedEvents = 64;
+        if (replayBufferSize <= 0) replayBufferSize = 8192;
+        if (senderThreads <= 0) senderThreads = 4;
+    }
+}
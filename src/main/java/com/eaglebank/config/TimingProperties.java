@@ -0,0 +1,22 @@
+package com.eaglebank.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @param enabled     time every request and record the phase histograms
+ * @param alwaysEmit  send the {@code Server-Timing} header on every response
+ * @param optInHeader request header that asks for {@code Server-Timing} on that response;
+ *                    blank to allow no opt-in
+ */
+@ConfigurationProperties(prefix = "eaglebank.timing")
+public record TimingProperties(
+        Boolean enabled,
+        boolean alwaysEmit,
+        String optInHeader
+) {
+    public TimingProperties {
+        if (enabled == null) enabled = true;
+        if (optInHeader == null) optInHeader = "X-Server-Timing";
+        if (optInHeader.isBlank()) optInHeader = null;
+    }
+}
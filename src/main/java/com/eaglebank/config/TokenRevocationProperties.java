@@ -0,0 +1,28 @@
+package com.eaglebank.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * @param expectedRevocations unexpired revocations the filter is sized for; it is rebuilt
+ *                            larger if more accumulate
+ * @param falsePositiveRate   share of live tokens that fall through to the database check
+ * @param pollInterval        how often revocations made on other instances are read
+ * @param rebuildInterval     how often the filter is rebuilt from the unexpired revocations,
+ *                            which drops expired ones and keeps the false-positive rate down
+ */
+@ConfigurationProperties(prefix = "eaglebank.token-revocation")
+public record TokenRevocationProperties(
+        int expectedRevocations,
+        double falsePositiveRate,
+        Duration pollInterval,
+        Duration rebuildInterval
+) {
+    public TokenRevocationProperties {
+        if (expectedRevocations <= 0) expectedRevocations = 100_000;
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) falsePositiveRate = 0.001;
+        if (pollInterval == null) pollInterval = Duration.ofSeconds(1);
+        if (rebuildInterval == null) rebuildInterval = Duration.ofMinutes(10);
+    }
+}
@@ -0,0 +1,14 @@
+package com.eaglebank.controller;
+
+/**
+ * Path variables for addressing an account. The patterns are disjoint, so an account number
+ * and an id can share the same route shape without Spring having to pick between them.
+ */
+final class AccountPaths {
+
+    static final String ACCOUNT_ID = "{accountId:[0-9a-fA-F-]{36}}";
+    static final String ACCOUNT_NUMBER = "{accountNumber:01\\d{6}}";
+
+    private AccountPaths() {
+    }
+}
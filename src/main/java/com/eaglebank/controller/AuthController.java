@@ -1,12 +1,15 @@
 package com.eaglebank.controller;
 
+import com.eaglebank.diagnostics.AuthFlightEvent;
 import com.eaglebank.dto.AuthRequest;
 import com.eaglebank.dto.AuthResponse;
+import com.eaglebank.security.TokenRevocations;
 import com.eaglebank.service.JwtService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -20,23 +23,50 @@ public class AuthController {
 
     private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
+    private final TokenRevocations tokenRevocations;
 
     private static final Logger log = LoggerFactory.getLogger(AuthController.class);
 
     @PostMapping("/login")
     public ResponseEntity<AuthResponse> login(@Valid @RequestBody AuthRequest request) {
-        log.info("Attempting login for user: {}", request.email());
+        log.debug("Attempting login for user: {}", request.email());
 
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        request.email(),
-                        request.password()
-                )
-        );
-
-        String token = jwtService.generateToken(authentication);
-        log.info("Generated token for user {}: {}", request.email(), token);
+        AuthFlightEvent event = AuthFlightEvent.start(AuthFlightEvent.LOGIN);
+        String token;
+        try {
+            Authentication authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(
+                            request.email(),
+                            request.password()
+                    )
+            );
+            token = jwtService.generateToken(authentication);
+        } catch (RuntimeException e) {
+            event.finish(request.email(), AuthFlightEvent.outcomeOf(e));
+            throw e;
+        }
+        event.finish(request.email(), AuthFlightEvent.OK);
+        log.debug("Issued token for user {}", request.email());
 
         return ResponseEntity.ok(new AuthResponse(token));
     }
+
+    /**
+     * Revokes the token this request was made with.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader) {
+        tokenRevocations.revokeToken(jwtService.extractClaims(authHeader.substring(7)));
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Revokes every token the caller currently holds, on any device.
+     */
+    @PostMapping("/logout-all")
+    public ResponseEntity<Void> logoutAll(Authentication authentication) {
+        tokenRevocations.revokeUser(authentication.getName());
+        log.debug("Revoked all tokens for user {}", authentication.getName());
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -1,25 +1,37 @@
 package com.eaglebank.controller;
 
+import com.eaglebank.dto.AccountBalanceResponse;
 import com.eaglebank.dto.BankAccountResponse;
 import com.eaglebank.dto.CreateBankAccountRequest;
+import com.eaglebank.service.AccountDirectory;
 import com.eaglebank.service.BankAccountService;
+import com.eaglebank.stream.AccountStreamHub;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
+import static com.eaglebank.controller.AccountPaths.ACCOUNT_ID;
+import static com.eaglebank.controller.AccountPaths.ACCOUNT_NUMBER;
+
 @RestController
 @RequestMapping("/v1/accounts")
 @RequiredArgsConstructor
 public class BankAccountController {
 
     private final BankAccountService bankAccountService;
+    private final AccountStreamHub accountStreamHub;
+    private final AccountDirectory accountDirectory;
 
     @PostMapping
     public ResponseEntity<BankAccountResponse> createAccount(
@@ -31,20 +43,41 @@ public class BankAccountController {
     }
 
     @GetMapping
-    public ResponseEntity<List<BankAccountResponse>> getAccounts(Authentication auth) {
-        return ResponseEntity.ok(bankAccountService.getAccounts(auth));
+    public ResponseEntity<List<BankAccountResponse>> getAccounts(WebRequest request, Authentication auth) {
+        return ConditionalResponses.ok(request, Optional.of(bankAccountService.getAccountsVersion(auth)),
+                () -> bankAccountService.getAccounts(auth));
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAccounts(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            Authentication auth
+    ) {
+        List<UUID> accountIds = bankAccountService.getAccounts(auth).stream()
+                .map(account -> UUID.fromString(account.accountId()))
+                .toList();
+        return accountStreamHub.subscribe(accountIds, lastEventId);
     }
 
-    @GetMapping("/{accountId}")
+    @GetMapping("/" + ACCOUNT_ID)
     public ResponseEntity<BankAccountResponse> getAccountById(
             @PathVariable UUID accountId,
+            WebRequest request,
             Authentication auth
     ) {
-        BankAccountResponse response = bankAccountService.getAccountById(accountId, auth);
-        return ResponseEntity.ok(response);
+        return ConditionalResponses.ok(request, bankAccountService.getAccountVersion(accountId, auth),
+                () -> bankAccountService.getAccountById(accountId, auth));
     }
 
-    @PatchMapping("/{accountId}")
+    @GetMapping("/" + ACCOUNT_ID + "/balance")
+    public ResponseEntity<AccountBalanceResponse> getBalance(
+            @PathVariable UUID accountId,
+            Authentication auth
+    ) {
+        return ResponseEntity.ok(bankAccountService.getBalance(accountId, auth));
+    }
+
+    @PatchMapping("/" + ACCOUNT_ID)
     public ResponseEntity<BankAccountResponse> updateAccount(
             @PathVariable UUID accountId,
             @Valid @RequestBody CreateBankAccountRequest request,
@@ -54,7 +87,7 @@ public class BankAccountController {
         return ResponseEntity.ok(updated);
     }
 
-    @DeleteMapping("/{accountId}")
+    @DeleteMapping("/" + ACCOUNT_ID)
     public ResponseEntity<Void> deleteAccount(
             @PathVariable UUID accountId,
             Authentication auth
@@ -63,6 +96,35 @@ public class BankAccountController {
         return ResponseEntity.noContent().build();
     }
 
+    @GetMapping("/" + ACCOUNT_NUMBER)
+    public ResponseEntity<BankAccountResponse> getAccountByNumber(
+            @PathVariable String accountNumber,
+            @RequestParam(required = false) String sortCode,
+            WebRequest request,
+            Authentication auth
+    ) {
+        return getAccountById(accountDirectory.require(sortCode, accountNumber), request, auth);
+    }
+
+    @PatchMapping("/" + ACCOUNT_NUMBER)
+    public ResponseEntity<BankAccountResponse> updateAccountByNumber(
+            @PathVariable String accountNumber,
+            @RequestParam(required = false) String sortCode,
+            @Valid @RequestBody CreateBankAccountRequest request,
+            Authentication auth
+    ) {
+        return updateAccount(accountDirectory.require(sortCode, accountNumber), request, auth);
+    }
+
+    @DeleteMapping("/" + ACCOUNT_NUMBER)
+    public ResponseEntity<Void> deleteAccountByNumber(
+            @PathVariable String accountNumber,
+            @RequestParam(required = false) String sortCode,
+            Authentication auth
+    ) {
+        return deleteAccount(accountDirectory.require(sortCode, accountNumber), auth);
+    }
+
     @PostMapping("/{id}/deposit")
     public ResponseEntity<BankAccountResponse> deposit(
             @PathVariable UUID id,
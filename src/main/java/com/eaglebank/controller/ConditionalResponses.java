@@ -0,0 +1,79 @@
+package com.eaglebank.controller;
+
+import com.eaglebank.codec.CompactProtobufHttpMessageConverter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Answers a GET from a cheap version token first and only builds the body when the
+ * client's {@code If-None-Match} no longer matches.
+ *
+ * <p>The same version is served in several encodings, so the ETag carries the
+ * representation the {@code Accept} header selects and responses declare {@code Vary: Accept}.
+ */
+final class ConditionalResponses {
+
+    // Same order as the message converters, so ties resolve the way Spring MVC resolves them
+    private static final List<Map.Entry<MediaType, String>> REPRESENTATIONS = List.of(
+            Map.entry(MediaType.APPLICATION_JSON, ""),
+            Map.entry(MediaType.APPLICATION_CBOR, "cbor"),
+            Map.entry(new MediaType("application", "x-jackson-smile"), "smile"),
+            Map.entry(CompactProtobufHttpMessageConverter.PROTOBUF, "pb")
+    );
+
+    private ConditionalResponses() {
+    }
+
+    static <T> ResponseEntity<T> ok(WebRequest request, Optional<String> version, Supplier<T> body) {
+        String representation = representation(request.getHeader(HttpHeaders.ACCEPT));
+        Optional<String> etag = version.map(v -> representation.isEmpty() ? v : v + "-" + representation);
+
+        if (etag.isPresent() && request.checkNotModified(etag.get())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag.get())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .build();
+        }
+
+        T response = body.get();
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT);
+        etag.ifPresent(builder::eTag);
+        return builder.body(response);
+    }
+
+    static String representation(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return "";
+        }
+
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return "";
+        }
+        MimeTypeUtils.sortBySpecificity(accepted);
+
+        for (MediaType type : accepted) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            for (Map.Entry<MediaType, String> representation : REPRESENTATIONS) {
+                if (type.isCompatibleWith(representation.getKey())) {
+                    return representation.getValue();
+                }
+            }
+        }
+        return "";
+    }
+}
@@ -0,0 +1,32 @@
+package com.eaglebank.controller;
+
+import com.eaglebank.dto.ImportReport;
+import com.eaglebank.importer.BulkImporter;
+import com.eaglebank.importer.ImportFormat;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/v1/imports")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "eaglebank.import", name = "endpoint-enabled", havingValue = "true")
+public class ImportController {
+
+    private final BulkImporter bulkImporter;
+
+    // The body is read as it arrives rather than buffered, so uploads of any size are fine
+    @PostMapping(consumes = {ImportFormat.CSV_VALUE, ImportFormat.NDJSON_VALUE})
+    public ResponseEntity<ImportReport> importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                    InputStream body) throws IOException {
+        return ResponseEntity.ok(bulkImporter.importFrom(body, ImportFormat.fromContentType(contentType)));
+    }
+}
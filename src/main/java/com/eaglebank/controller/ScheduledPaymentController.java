@@ -0,0 +1,43 @@
+package com.eaglebank.controller;
+
+import com.eaglebank.dto.CreateScheduledPaymentRequest;
+import com.eaglebank.dto.ScheduledPaymentResponse;
+import com.eaglebank.service.ScheduledPaymentService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/v1/scheduled-payments")
+@RequiredArgsConstructor
+public class ScheduledPaymentController {
+
+    private final ScheduledPaymentService scheduledPaymentService;
+
+    @PostMapping
+    public ResponseEntity<ScheduledPaymentResponse> createScheduledPayment(
+            @Valid @RequestBody CreateScheduledPaymentRequest request,
+            Authentication authentication
+    ) {
+        ScheduledPaymentResponse response = scheduledPaymentService.createScheduledPayment(request, authentication);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ScheduledPaymentResponse>> getScheduledPayments(Authentication authentication) {
+        return ResponseEntity.ok(scheduledPaymentService.getScheduledPayments(authentication));
+    }
+
+    @DeleteMapping("/{scheduledPaymentId}")
+    public ResponseEntity<Void> cancelScheduledPayment(@PathVariable UUID scheduledPaymentId,
+                                                       Authentication authentication) {
+        scheduledPaymentService.cancelScheduledPayment(scheduledPaymentId, authentication);
+        return ResponseEntity.noContent().build();
+    }
+}
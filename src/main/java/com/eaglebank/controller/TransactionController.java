@@ -2,23 +2,34 @@ package com.eaglebank.controller;
 
 import com.eaglebank.dto.CreateTransactionRequest;
 import com.eaglebank.dto.TransactionResponse;
+import com.eaglebank.dto.TransactionSearchRequest;
+import com.eaglebank.dto.TransactionSearchResponse;
+import com.eaglebank.exception.ResourceNotFoundException;
+import com.eaglebank.service.AccountDirectory;
 import com.eaglebank.service.TransactionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
+import static com.eaglebank.controller.AccountPaths.ACCOUNT_ID;
+import static com.eaglebank.controller.AccountPaths.ACCOUNT_NUMBER;
+
 @RestController
 @RequestMapping("/v1")
 @RequiredArgsConstructor
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final AccountDirectory accountDirectory;
 
     @PostMapping("/transactions")
     public ResponseEntity<TransactionResponse> createTransaction(
@@ -31,9 +42,22 @@ public class TransactionController {
 
 
     @GetMapping("/transactions")
-    public ResponseEntity<List<TransactionResponse>> getTransactions(Authentication authentication) {
-        List<TransactionResponse> transactions = transactionService.getTransactions(authentication);
-        return ResponseEntity.ok(transactions);
+    public ResponseEntity<List<TransactionResponse>> getTransactions(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            WebRequest request,
+            Authentication authentication
+    ) {
+        return ConditionalResponses.ok(request, transactionService.getTransactionsVersion(from, to, authentication),
+                () -> transactionService.getTransactions(from, to, authentication));
+    }
+
+    @GetMapping("/transactions/search")
+    public ResponseEntity<TransactionSearchResponse> searchTransactions(
+            @Valid @ModelAttribute TransactionSearchRequest search,
+            Authentication authentication
+    ) {
+        return ResponseEntity.ok(transactionService.searchTransactions(search, authentication));
     }
 
     @GetMapping("/transactions/{transactionId}")
@@ -46,13 +70,44 @@ public class TransactionController {
     }
 
 
-    @GetMapping("/accounts/{accountId}/transactions")
+    @GetMapping("/accounts/" + ACCOUNT_ID + "/transactions")
     public ResponseEntity<List<TransactionResponse>> getTransactionsForAccount(
             @PathVariable UUID accountId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            WebRequest request,
+            Authentication auth
+    ) {
+        return ConditionalResponses.ok(request,
+                transactionService.getTransactionsForAccountVersion(accountId, from, to, auth),
+                () -> transactionService.getTransactionsForAccount(accountId, from, to, auth));
+    }
+
+    @GetMapping("/accounts/" + ACCOUNT_NUMBER + "/transactions")
+    public ResponseEntity<List<TransactionResponse>> getTransactionsForAccountNumber(
+            @PathVariable String accountNumber,
+            @RequestParam(required = false) String sortCode,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            WebRequest request,
             Authentication auth
     ) {
-        List<TransactionResponse> txns = transactionService.getTransactionsForAccount(accountId, auth);
-        return ResponseEntity.ok(txns);
+        return getTransactionsForAccount(accountDirectory.require(sortCode, accountNumber), from, to, request, auth);
+    }
+
+    @GetMapping("/accounts/" + ACCOUNT_NUMBER + "/transactions/{transactionId}")
+    public ResponseEntity<TransactionResponse> getAccountTransactionById(
+            @PathVariable String accountNumber,
+            @PathVariable UUID transactionId,
+            @RequestParam(required = false) String sortCode,
+            Authentication auth
+    ) {
+        String accountId = accountDirectory.require(sortCode, accountNumber).toString();
+        TransactionResponse response = transactionService.getTransactionById(transactionId, auth);
+        if (!accountId.equals(response.fromAccountId()) && !accountId.equals(response.toAccountId())) {
+            throw new ResourceNotFoundException("Transaction not found");
+        }
+        return ResponseEntity.ok(response);
     }
 
 
@@ -11,6 +11,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.UUID;
 @RestController
@@ -28,9 +29,10 @@ public class UserController {
 
     @GetMapping("/{userId}")
     public ResponseEntity<UserResponse> getUserById(@PathVariable UUID userId,
+                                                    WebRequest request,
                                                     Authentication authentication) {
-        UserResponse user = userService.getUserById(userId, authentication);
-        return ResponseEntity.ok(user);
+        return ConditionalResponses.ok(request, userService.getUserVersion(userId, authentication),
+                () -> userService.getUserById(userId, authentication));
     }
 
     @PatchMapping("/{userId}")
@@ -0,0 +1,21 @@
+package com.eaglebank.coordination;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs the annotated method on one instance at a time: the call takes the named lease, and
+ * is skipped when another instance holds it. The lease is available to the method through
+ * {@link Lease#current()}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ExclusiveJob {
+
+    /**
+     * Lease name, shared by every instance running the job.
+     */
+    String value();
+}
@@ -0,0 +1,36 @@
+package com.eaglebank.coordination;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+@Slf4j
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ExclusiveJobAspect {
+
+    private final JobLeases jobLeases;
+
+    @Around("@annotation(job)")
+    public Object runExclusive(ProceedingJoinPoint joinPoint, ExclusiveJob job) throws Throwable {
+        Optional<Lease> lease = jobLeases.tryAcquire(job.value());
+        if (lease.isEmpty()) {
+            log.debug("Job {} is running elsewhere, skipping", job.value());
+            return null;
+        }
+        try (Lease held = lease.get()) {
+            Lease previous = Lease.bind(held);
+            try {
+                return joinPoint.proceed();
+            } finally {
+                Lease.bind(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.eaglebank.coordination;
+
+import com.eaglebank.config.CoordinationProperties;
+import com.eaglebank.repository.JobLeaseRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Elects one owner per scheduled job, or per partition of one, across instances sharing the
+ * database. A lease is a row in {@code job_leases} held until it expires; held leases are
+ * renewed every {@code renewInterval}, so an instance that dies loses its leases after
+ * {@code leaseTtl} and the work passes to whichever instance asks next.
+ *
+ * <p>Every change of owner moves the lease's fencing token on. Writes made under a lease call
+ * {@link Lease#verify()} in their transaction, so an instance that stalled past its lease
+ * cannot overwrite the work of the one that took over.
+ */
+@Slf4j
+@Component
+public class JobLeases {
+
+    private final JobLeaseRepository jobLeaseRepository;
+    private final CoordinationProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final String instanceId;
+
+    private final Map<String, Lease> held = new ConcurrentHashMap<>();
+    private final Counter acquired;
+    private final Counter lost;
+
+    private final ScheduledExecutorService renewer;
+
+    public JobLeases(JobLeaseRepository jobLeaseRepository,
+                     CoordinationProperties properties,
+                     PlatformTransactionManager transactionManager,
+                     MeterRegistry meterRegistry) {
+        this.jobLeaseRepository = jobLeaseRepository;
+        this.properties = properties;
+        // Lease changes commit on their own, whatever the caller's transaction does
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.instanceId = properties.instanceId() != null
+                ? properties.instanceId()
+                : ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+
+        this.acquired = meterRegistry.counter("coordination.leases.acquired");
+        this.lost = meterRegistry.counter("coordination.leases.lost");
+        meterRegistry.gauge("coordination.leases.held", held, Map::size);
+
+        if (properties.enabled()) {
+            this.renewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "job-lease-renewal");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = properties.renewInterval().toMillis();
+            renewer.scheduleWithFixedDelay(this::renewAll, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            this.renewer = null;
+        }
+    }
+
+    /**
+     * Takes the named lease if no other instance, and no other thread here, holds it.
+     * Close the returned lease when the work is done.
+     */
+    public Optional<Lease> tryAcquire(String name) {
+        if (held.containsKey(name)) {
+            return Optional.empty();
+        }
+        long token = 0;
+        if (properties.enabled()) {
+            Long granted = transactionTemplate.execute(status ->
+                    jobLeaseRepository.tryAcquire(name, instanceId, properties.leaseTtl().toMillis()) == 1
+                            ? jobLeaseRepository.findFencingToken(name, instanceId)
+                            : null);
+            if (granted == null) {
+                return Optional.empty();
+            }
+            token = granted;
+        }
+
+        Lease lease = new Lease(this, name, token);
+        if (held.putIfAbsent(name, lease) != null) {
+            return Optional.empty();
+        }
+        acquired.increment();
+        log.debug("Acquired lease {} with fencing token {}", name, token);
+        return Optional.of(lease);
+    }
+
+    /**
+     * Where this instance starts when walking {@code partitions} partitions, so instances
+     * begin on different partitions instead of all contending for the first.
+     */
+    public int startOffset(int partitions) {
+        return Math.floorMod(instanceId.hashCode(), partitions);
+    }
+
+    public Duration retryInterval() {
+        return properties.retryInterval();
+    }
+
+    public String instanceId() {
+        return instanceId;
+    }
+
+    void verify(Lease lease) {
+        if (!properties.enabled()) {
+            return;
+        }
+        Long token = jobLeaseRepository.lockFencingToken(lease.name());
+        if (token == null || token != lease.fencingToken()) {
+            markLost(lease);
+            throw new LeaseLostException(lease.name());
+        }
+    }
+
+    void release(Lease lease) {
+        if (!held.remove(lease.name(), lease)) {
+            return;
+        }
+        boolean wasHeld = lease.isHeld();
+        lease.lost();
+        if (properties.enabled() && wasHeld) {
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        jobLeaseRepository.release(lease.name(), instanceId, lease.fencingToken()));
+            } catch (RuntimeException e) {
+                // It expires on its own
+                log.warn("Could not release lease {}", lease.name(), e);
+            }
+        }
+    }
+
+    void renewAll() {
+        for (Lease lease : held.values()) {
+            try {
+                Integer renewed = transactionTemplate.execute(status -> jobLeaseRepository.renew(
+                        lease.name(), instanceId, lease.fencingToken(), properties.leaseTtl().toMillis()));
+                if (renewed == null || renewed == 0) {
+                    markLost(lease);
+                }
+            } catch (RuntimeException e) {
+                // Keep trying; if the lease lapses meanwhile, the next renewal finds it taken
+                log.warn("Could not renew lease {}", lease.name(), e);
+            }
+        }
+    }
+
+    private void markLost(Lease lease) {
+        if (held.remove(lease.name(), lease)) {
+            lease.lost();
+            lost.increment();
+            log.warn("Lease {} with fencing token {} was taken over by another instance",
+                    lease.name(), lease.fencingToken());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (renewer != null) {
+            renewer.shutdownNow();
+        }
+        for (Lease lease : held.values()) {
+            release(lease);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.eaglebank.coordination;
+
+/**
+ * A lease held by this instance. It is renewed in the background until closed; if a renewal
+ * finds it has been taken over it is marked lost, and {@link #verify()} fails from then on.
+ */
+public final class Lease implements AutoCloseable {
+
+    private static final ThreadLocal<Lease> CURRENT = new ThreadLocal<>();
+
+    private final JobLeases leases;
+    private final String name;
+    private final long fencingToken;
+    private volatile boolean held = true;
+
+    Lease(JobLeases leases, String name, long fencingToken) {
+        this.leases = leases;
+        this.name = name;
+        this.fencingToken = fencingToken;
+    }
+
+    /**
+     * The lease taken by the {@link ExclusiveJob} running on this thread, or {@code null}.
+     */
+    public static Lease current() {
+        return CURRENT.get();
+    }
+
+    static Lease bind(Lease lease) {
+        Lease previous = CURRENT.get();
+        if (lease == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(lease);
+        }
+        return previous;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public long fencingToken() {
+        return fencingToken;
+    }
+
+    public boolean isHeld() {
+        return held;
+    }
+
+    /**
+     * Fences a write: call it inside the writing transaction, before the write. Fails if the
+     * lease has changed hands, and otherwise keeps it from changing hands until the
+     * transaction ends.
+     */
+    public void verify() {
+        if (!held) {
+            throw new LeaseLostException(name);
+        }
+        leases.verify(this);
+    }
+
+    void lost() {
+        held = false;
+    }
+
+    @Override
+    public void close() {
+        leases.release(this);
+    }
+}
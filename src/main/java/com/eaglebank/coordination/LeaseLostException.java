@@ -0,0 +1,10 @@
+package com.eaglebank.coordination;
+
+/**
+ * Thrown from a fenced write once the lease it was made under has passed to another instance.
+ */
+public class LeaseLostException extends IllegalStateException {
+    public LeaseLostException(String name) {
+        super("Lease " + name + " is no longer held by this instance");
+    }
+}
@@ -0,0 +1,81 @@
+package com.eaglebank.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseCookie;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Keeps an authenticated client's reads on the primary for a short window after any request
+ * of theirs that could have written. Like the rate limit filter it runs after authentication
+ * and is not a bean.
+ *
+ * <p>A write also sets {@link #PIN_COOKIE} to the pin's signed expiry, so the client's next
+ * reads are pinned on whichever instance they reach. A client that drops cookies keeps read-your-writes
+ * only on the instance it wrote through.
+ */
+@RequiredArgsConstructor
+public class PrimaryPinningFilter extends OncePerRequestFilter {
+
+    public static final String PIN_COOKIE = "eb_primary_pin";
+
+    private static final Set<String> SAFE_METHODS = Set.of(
+            HttpMethod.GET.name(), HttpMethod.HEAD.name(), HttpMethod.OPTIONS.name());
+
+    private final PrimaryPins pins;
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String client = authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+        boolean writes = !SAFE_METHODS.contains(request.getMethod());
+
+        if (client != null && (writes || pins.isPinned(client) || pinnedByCookie(request, client))) {
+            PrimaryPins.pinCurrentThread();
+        }
+        if (client != null && writes) {
+            // Before the chain, which may commit the response; the window runs from the request's start
+            response.addHeader(HttpHeaders.SET_COOKIE, pinCookie(request, client).toString());
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            PrimaryPins.release();
+            if (client != null && writes) {
+                pins.pin(client);
+            }
+        }
+    }
+
+    private boolean pinnedByCookie(HttpServletRequest request, String client) {
+        Cookie cookie = WebUtils.getCookie(request, PIN_COOKIE);
+        return cookie != null && pins.isPinnedBy(client, cookie.getValue());
+    }
+
+    private ResponseCookie pinCookie(HttpServletRequest request, String client) {
+        long seconds = (pins.window().toMillis() + 999) / 1000;
+        return ResponseCookie.from(PIN_COOKIE, pins.pinToken(client))
+                .path("/")
+                .maxAge(seconds)
+                .httpOnly(true)
+                .secure(request.isSecure())
+                .sameSite("Strict")
+                .build();
+    }
+}
@@ -0,0 +1,161 @@
+package com.eaglebank.datasource;
+
+import com.eaglebank.config.ReplicaProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Clients that wrote recently, whose reads must stay on the primary until the replicas have
+ * caught up with them. Pins are kept in this instance, and are also handed to the client as a
+ * wall-clock expiry ({@link PrimaryPinningFilter#PIN_COOKIE}) that any instance honours, so
+ * read-your-writes holds behind a load balancer without sticky routing. Instance clocks need
+ * only agree to within {@link #CLOCK_SKEW}.
+ *
+ * <p>The expiry is signed together with the client's name, so a client cannot pin itself for
+ * longer than one window, nor hand its pin to someone else.
+ */
+@Slf4j
+@Component
+public class PrimaryPins {
+
+    static final Duration CLOCK_SKEW = Duration.ofSeconds(1);
+
+    private static final String PIN_MAC = "HmacSHA256";
+    private static final ThreadLocal<Boolean> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, Long> pinnedUntil = new ConcurrentHashMap<>();
+    private final Duration window;
+    private final long windowNanos;
+    private final int maxClients;
+    private final LongSupplier clock;
+    private final LongSupplier wallClock;
+    private final SecretKeySpec pinKey;
+
+    @Autowired
+    public PrimaryPins(ReplicaProperties properties) {
+        this(properties, System::nanoTime, System::currentTimeMillis);
+    }
+
+    PrimaryPins(ReplicaProperties properties, LongSupplier clock, LongSupplier wallClock) {
+        this.window = properties.pinWindow();
+        this.windowNanos = window.toNanos();
+        this.maxClients = properties.maxPinnedClients();
+        this.clock = clock;
+        this.wallClock = wallClock;
+        this.pinKey = new SecretKeySpec(pinSecret(properties), PIN_MAC);
+    }
+
+    private static byte[] pinSecret(ReplicaProperties properties) {
+        if (properties.pinSecret() != null && !properties.pinSecret().isBlank()) {
+            return properties.pinSecret().getBytes(StandardCharsets.UTF_8);
+        }
+        if (properties.enabled()) {
+            log.warn("eaglebank.replicas.pin-secret is not set, so other instances will ignore this one's pin cookies");
+        }
+        byte[] random = new byte[32];
+        new SecureRandom().nextBytes(random);
+        return random;
+    }
+
+    public Duration window() {
+        return window;
+    }
+
+    public void pin(String client) {
+        long now = clock.getAsLong();
+        if (pinnedUntil.size() >= maxClients) {
+            pinnedUntil.values().removeIf(until -> until - now <= 0);
+            if (pinnedUntil.size() >= maxClients) {
+                // Losing a pin early only risks a stale read, never a wrong write
+                pinnedUntil.clear();
+            }
+        }
+        pinnedUntil.put(client, now + windowNanos);
+    }
+
+    public boolean isPinned(String client) {
+        Long until = pinnedUntil.get(client);
+        if (until == null) {
+            return false;
+        }
+        if (until - clock.getAsLong() > 0) {
+            return true;
+        }
+        pinnedUntil.remove(client, until);
+        return false;
+    }
+
+    /**
+     * The epoch millisecond until which a client that writes now stays pinned, with its
+     * signature, for the client to carry to other instances.
+     */
+    public String pinToken(String client) {
+        long until = wallClock.getAsLong() + window.toMillis();
+        return until + "." + sign(client, until);
+    }
+
+    /**
+     * Whether {@code token} was handed to {@code client} by an instance sharing this one's
+     * secret and is still running. Expiries further ahead than one window, give or take the
+     * clock skew, were never handed out and are refused.
+     */
+    public boolean isPinnedBy(String client, String token) {
+        int dot = token.indexOf('.');
+        if (dot < 0) {
+            return false;
+        }
+        long until;
+        try {
+            until = Long.parseLong(token.substring(0, dot));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        long remaining = until - wallClock.getAsLong();
+        if (remaining <= 0 || remaining > window.toMillis() + CLOCK_SKEW.toMillis()) {
+            return false;
+        }
+        return MessageDigest.isEqual(sign(client, until).getBytes(StandardCharsets.US_ASCII),
+                token.substring(dot + 1).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private String sign(String client, long until) {
+        try {
+            Mac mac = Mac.getInstance(PIN_MAC);
+            mac.init(pinKey);
+            mac.update(client.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            byte[] signature = mac.doFinal(Long.toString(until).getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(PIN_MAC + " is unavailable", e);
+        }
+    }
+
+    /**
+     * Sends every transaction on this thread to the primary until {@link #release()}.
+     */
+    static void pinCurrentThread() {
+        CURRENT.set(Boolean.TRUE);
+    }
+
+    static void release() {
+        CURRENT.remove();
+    }
+
+    static boolean isCurrentThreadPinned() {
+        return CURRENT.get() != null;
+    }
+}
@@ -0,0 +1,48 @@
+package com.eaglebank.datasource;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Measures how far each replica's replay is behind the primary. A replica that has replayed
+ * everything it received counts as current even when the primary has been idle for a while;
+ * a database that is not in recovery at all, such as a second local database standing in for
+ * a replica, always counts as current.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ReplicaLagMonitor {
+
+    static final String LAG_SQL = """
+            select case
+                       when not pg_is_in_recovery() then 0
+                       when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0
+                       else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000, -1)
+                   end::bigint
+            """;
+
+    private final RoutingDataSource routingDataSource;
+
+    @Scheduled(fixedDelayString = "${eaglebank.replicas.lag-check-interval:PT1S}")
+    public void check() {
+        for (Map.Entry<String, DataSource> replica : routingDataSource.replicas().entrySet()) {
+            routingDataSource.updateLag(replica.getKey(), measure(replica.getKey(), replica.getValue()));
+        }
+    }
+
+    private long measure(String name, DataSource replica) {
+        try {
+            Long lag = new JdbcTemplate(replica).queryForObject(LAG_SQL, Long.class);
+            return lag == null ? -1 : lag;
+        } catch (DataAccessException e) {
+            log.warn("Could not measure lag of replica {}: {}", name, e.getMessage());
+            return -1;
+        }
+    }
+}
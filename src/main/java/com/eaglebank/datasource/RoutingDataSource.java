@@ -0,0 +1,121 @@
+package com.eaglebank.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sends read-only transactions to a replica that is within {@code maxLag} of the primary, and
+ * everything else to the primary. The choice is made when a connection is first used, so this
+ * must sit behind a {@code LazyConnectionDataSourceProxy}; by then the transaction's read-only
+ * flag is known.
+ *
+ * <p>Replicas take reads in turn. A read falls back to the primary when its client is pinned
+ * there after a write, or when no replica is close enough behind.
+ */
+public class RoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    static final String PRIMARY = "primary";
+
+    private static final long UNKNOWN_LAG = Long.MAX_VALUE;
+
+    private final DataSource primary;
+    private final Map<String, DataSource> replicas;
+    private final String[] names;
+    private final AtomicLongArray lagMillis;
+    private final long maxLagMillis;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Counter writes;
+    private final Counter pinned;
+    private final Counter lagging;
+    private final Map<String, Counter> reads = new HashMap<>();
+
+    public RoutingDataSource(DataSource primary, Map<String, DataSource> replicas, long maxLagMillis,
+                             MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = new LinkedHashMap<>(replicas);
+        this.names = replicas.keySet().toArray(String[]::new);
+        this.lagMillis = new AtomicLongArray(names.length);
+        this.maxLagMillis = maxLagMillis;
+
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+
+        // Replicas take no reads until their lag has been measured
+        for (int i = 0; i < names.length; i++) {
+            lagMillis.set(i, UNKNOWN_LAG);
+            reads.put(names[i], meterRegistry.counter("datasource.routing", "target", names[i], "reason", "read_only"));
+            int index = i;
+            meterRegistry.gauge("datasource.replica.lag", Tags.of("replica", names[i]),
+                    lagMillis, lag -> lag.get(index) == UNKNOWN_LAG ? Double.NaN : lag.get(index));
+        }
+        this.writes = meterRegistry.counter("datasource.routing", "target", PRIMARY, "reason", "read_write");
+        this.pinned = meterRegistry.counter("datasource.routing", "target", PRIMARY, "reason", "pinned");
+        this.lagging = meterRegistry.counter("datasource.routing", "target", PRIMARY, "reason", "replicas_lagging");
+    }
+
+    public Map<String, DataSource> replicas() {
+        return replicas;
+    }
+
+    /**
+     * Records a replica's latest lag, or {@code -1} when it could not be measured.
+     */
+    public void updateLag(String replica, long millis) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(replica)) {
+                lagMillis.set(i, millis < 0 ? UNKNOWN_LAG : millis);
+                return;
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            writes.increment();
+            return PRIMARY;
+        }
+        if (PrimaryPins.isCurrentThreadPinned()) {
+            pinned.increment();
+            return PRIMARY;
+        }
+
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(names.length, 1));
+        for (int i = 0; i < names.length; i++) {
+            int index = (start + i) % names.length;
+            if (lagMillis.get(index) <= maxLagMillis) {
+                reads.get(names[index]).increment();
+                return names[index];
+            }
+        }
+        lagging.increment();
+        return PRIMARY;
+    }
+
+    @Override
+    public void close() {
+        for (DataSource replica : replicas.values()) {
+            if (replica instanceof HikariDataSource pool) {
+                pool.close();
+            }
+        }
+        if (primary instanceof HikariDataSource pool) {
+            pool.close();
+        }
+    }
+}
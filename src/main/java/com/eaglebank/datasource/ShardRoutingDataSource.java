@@ -0,0 +1,75 @@
+package com.eaglebank.datasource;
+
+import com.eaglebank.sharding.Shards;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends each connection to the shard bound to the calling thread, or to shard 0 when none
+ * is. Like {@link RoutingDataSource} it must sit behind a {@code LazyConnectionDataSourceProxy},
+ * so the shard is read at a transaction's first statement rather than when it begins.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private final List<DataSource> shards;
+    private final Counter[] bound;
+    private final Counter unbound;
+
+    public ShardRoutingDataSource(List<DataSource> shards, List<String> names, MeterRegistry meterRegistry) {
+        this.shards = List.copyOf(shards);
+
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            targets.put(i, shards.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(Shards.HOME));
+        // A shard this instance does not know must fail, not quietly land on shard 0
+        setLenientFallback(false);
+        afterPropertiesSet();
+
+        this.bound = new Counter[shards.size()];
+        for (int i = 0; i < shards.size(); i++) {
+            bound[i] = meterRegistry.counter("datasource.routing", "target", names.get(i), "reason", "shard");
+        }
+        this.unbound = meterRegistry.counter("datasource.routing", "target", names.get(Shards.HOME), "reason", "unbound");
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    public DataSource shard(int shard) {
+        return shards.get(shard);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!Shards.isBound()) {
+            unbound.increment();
+            return Shards.HOME;
+        }
+        int shard = Shards.current();
+        if (shard < 0 || shard >= shards.size()) {
+            throw new IllegalStateException("No data source for shard " + shard);
+        }
+        bound[shard].increment();
+        return shard;
+    }
+
+    @Override
+    public void close() {
+        for (DataSource shard : shards) {
+            if (shard instanceof HikariDataSource pool) {
+                pool.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.eaglebank.datasource;
+
+import com.eaglebank.sharding.Shards;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.DelayedDropRegistryNotAvailableImpl;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+/**
+ * Brings every shard after the first to the schema shard 0 gets. Hibernate only manages the
+ * database it boots against and {@code spring.sql.init} only runs its scripts there, so once
+ * the entities are known this repeats both on each other shard in turn.
+ */
+@Slf4j
+public class ShardSchema implements Integrator {
+
+    private final ShardRoutingDataSource routing;
+    private final SqlInitializationProperties sqlProperties;
+    private final ResourceLoader resourceLoader;
+
+    /**
+     * @param sqlProperties the scripts to run on each shard, or {@code null} for none
+     */
+    public ShardSchema(ShardRoutingDataSource routing, SqlInitializationProperties sqlProperties,
+                       ResourceLoader resourceLoader) {
+        this.routing = routing;
+        this.sqlProperties = sqlProperties;
+        this.resourceLoader = resourceLoader;
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        for (int shard = Shards.HOME + 1; shard < routing.shardCount(); shard++) {
+            Integer previous = Shards.bind(shard);
+            try {
+                SchemaManagementToolCoordinator.process(metadata, sessionFactory.getServiceRegistry(),
+                        sessionFactory.getProperties(), DelayedDropRegistryNotAvailableImpl.INSTANCE);
+            } finally {
+                Shards.bind(previous);
+            }
+            runScripts(shard);
+            log.info("Schema on shard {} is up to date", shard);
+        }
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    private void runScripts(int shard) {
+        if (sqlProperties == null || sqlProperties.getSchemaLocations() == null) {
+            return;
+        }
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator();
+        for (String location : sqlProperties.getSchemaLocations()) {
+            populator.addScript(resourceLoader.getResource(location));
+        }
+        populator.setContinueOnError(sqlProperties.isContinueOnError());
+        populator.setSeparator(sqlProperties.getSeparator());
+        if (sqlProperties.getEncoding() != null) {
+            populator.setSqlScriptEncoding(sqlProperties.getEncoding().name());
+        }
+        DatabasePopulatorUtils.execute(populator, routing.shard(shard));
+    }
+}
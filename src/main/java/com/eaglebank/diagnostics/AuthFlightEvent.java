@@ -0,0 +1,75 @@
+package com.eaglebank.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("eaglebank.Authentication")
+@Label("Authentication")
+@Category({"Eagle Bank", "Security"})
+@Description("A password login or the verification of a bearer token")
+@StackTrace(false)
+public class AuthFlightEvent extends Event {
+
+    public static final String LOGIN = "LOGIN";
+    public static final String TOKEN = "TOKEN";
+
+    public static final String OK = "OK";
+    public static final String INVALID = "INVALID";
+    public static final String REVOKED = "REVOKED";
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Subject")
+    String subject;
+
+    @Label("Connection Wait")
+    @Timespan
+    long connectionWait;
+
+    @Label("Statement Time")
+    @Timespan
+    long statementTime;
+
+    @Label("Outcome")
+    String outcome;
+
+    private transient long connectionWaitBefore;
+    private transient long statementTimeBefore;
+
+    public static AuthFlightEvent start(String operation) {
+        AuthFlightEvent event = new AuthFlightEvent();
+        if (event.isEnabled()) {
+            event.operation = operation;
+            DatabaseWaits waits = DatabaseWaits.current();
+            event.connectionWaitBefore = waits.connectionWait();
+            event.statementTimeBefore = waits.statementTime();
+            event.begin();
+        }
+        return event;
+    }
+
+    public void finish(String subject, String outcome) {
+        end();
+        if (shouldCommit()) {
+            DatabaseWaits waits = DatabaseWaits.current();
+            this.subject = subject;
+            this.connectionWait = waits.connectionWait() - connectionWaitBefore;
+            this.statementTime = waits.statementTime() - statementTimeBefore;
+            this.outcome = outcome;
+            commit();
+        }
+    }
+
+    /**
+     * The outcome recorded for a failure: the exception's simple class name.
+     */
+    public static String outcomeOf(Throwable failure) {
+        return failure.getClass().getSimpleName();
+    }
+}
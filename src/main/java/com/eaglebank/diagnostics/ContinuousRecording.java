@@ -0,0 +1,94 @@
+package com.eaglebank.diagnostics;
+
+import com.eaglebank.config.FlightRecorderProperties;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * A flight recording that runs for the life of the process, holding the last
+ * {@code maxAge} of JVM events plus the money movement and authentication events, so a
+ * slow or failed request can be looked at after the fact without restarting anything.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "eaglebank.flight-recorder", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ContinuousRecording {
+
+    static final String NAME = "eaglebank-continuous";
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final FlightRecorderProperties properties;
+
+    private volatile Recording recording;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() throws IOException, ParseException {
+        if (!FlightRecorder.isAvailable()) {
+            log.warn("Flight recorder is not available in this JVM; no continuous recording");
+            return;
+        }
+        FlightRecorder.register(MovementFlightEvent.class);
+        FlightRecorder.register(AuthFlightEvent.class);
+
+        Recording started = new Recording(Configuration.getConfiguration(properties.settings()));
+        started.setName(NAME);
+        started.setToDisk(true);
+        started.setMaxAge(properties.maxAge());
+        started.setMaxSize(properties.maxSize().toBytes());
+        started.enable(MovementFlightEvent.class).withoutStackTrace();
+        started.enable(AuthFlightEvent.class).withoutStackTrace();
+        started.start();
+        recording = started;
+
+        log.info("Continuous flight recording started with {} settings, keeping {} up to {}",
+                properties.settings(), properties.maxAge(), properties.maxSize());
+    }
+
+    public boolean isRunning() {
+        Recording current = recording;
+        return current != null && current.getState() == RecordingState.RUNNING;
+    }
+
+    /**
+     * Writes what the recording currently holds to a new file in the dump directory. The
+     * recording keeps running.
+     */
+    public Path dump() throws IOException {
+        Recording current = recording;
+        if (current == null || current.getState() != RecordingState.RUNNING) {
+            throw new IllegalStateException("The continuous recording is not running");
+        }
+        Path dir = Paths.get(properties.dumpDirectory());
+        Files.createDirectories(dir);
+        Path file = dir.resolve(NAME + "-" + LocalDateTime.now().format(FILE_TIME) + ".jfr");
+        current.dump(file);
+        log.info("Dumped the continuous flight recording to {}", file);
+        return file;
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+}
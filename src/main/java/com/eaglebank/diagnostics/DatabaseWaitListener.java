@@ -0,0 +1,62 @@
+package com.eaglebank.diagnostics;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Attached to every Hibernate session through {@code hibernate.session.events.auto}.
+ * A session stays on the thread that opened it, so that thread's totals are captured once.
+ */
+public class DatabaseWaitListener implements SessionEventListener {
+
+    private final transient DatabaseWaits waits = DatabaseWaits.current();
+
+    @Override
+    public void jdbcConnectionAcquisitionStart() {
+        waits.connectionStarted();
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionEnd() {
+        waits.connectionEnded();
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        waits.statementStarted();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        waits.statementEnded();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        waits.statementStarted();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        waits.statementEnded();
+    }
+
+    @Override
+    public void flushStart() {
+        waits.flushStarted();
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        waits.flushEnded();
+    }
+
+    @Override
+    public void partialFlushStart() {
+        waits.flushStarted();
+    }
+
+    @Override
+    public void partialFlushEnd(int numberOfEntities, int numberOfCollections) {
+        waits.flushEnded();
+    }
+}
@@ -0,0 +1,69 @@
+package com.eaglebank.diagnostics;
+
+/**
+ * Running totals of the time this thread has spent waiting on the database, fed by
+ * {@link DatabaseWaitListener}. Flight events read them before and after an operation and
+ * record the difference.
+ */
+public final class DatabaseWaits {
+
+    private static final ThreadLocal<DatabaseWaits> CURRENT = ThreadLocal.withInitial(DatabaseWaits::new);
+
+    private long connectionWait;
+    private long statementTime;
+    private long flushTime;
+
+    private long connectionStarted;
+    private long statementStarted;
+    private long flushStarted;
+
+    public static DatabaseWaits current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Nanoseconds spent getting a connection from the pool.
+     */
+    public long connectionWait() {
+        return connectionWait;
+    }
+
+    /**
+     * Nanoseconds spent executing SQL, including waits for row locks.
+     */
+    public long statementTime() {
+        return statementTime;
+    }
+
+    /**
+     * Nanoseconds spent flushing changes, which is when a movement's balance updates wait
+     * for rows locked by concurrent movements. Includes the statements the flush ran.
+     */
+    public long flushTime() {
+        return flushTime;
+    }
+
+    void connectionStarted() {
+        connectionStarted = System.nanoTime();
+    }
+
+    void connectionEnded() {
+        connectionWait += System.nanoTime() - connectionStarted;
+    }
+
+    void statementStarted() {
+        statementStarted = System.nanoTime();
+    }
+
+    void statementEnded() {
+        statementTime += System.nanoTime() - statementStarted;
+    }
+
+    void flushStarted() {
+        flushStarted = System.nanoTime();
+    }
+
+    void flushEnded() {
+        flushTime += System.nanoTime() - flushStarted;
+    }
+}
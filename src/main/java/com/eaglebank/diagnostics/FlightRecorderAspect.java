@@ -0,0 +1,59 @@
+package com.eaglebank.diagnostics;
+
+import com.eaglebank.dto.CreateTransactionRequest;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Emits a {@link MovementFlightEvent} around each transfer, deposit and withdrawal. When the
+ * event is not enabled in a recording the advice costs one flag check.
+ *
+ * <p>Ordered ahead of the transaction advice, so the event spans the commit and the flush
+ * where row locks are taken.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class FlightRecorderAspect {
+
+    static final String TRANSFER = "TRANSFER";
+    static final String DEPOSIT = "DEPOSIT";
+    static final String WITHDRAWAL = "WITHDRAWAL";
+
+    @Around("execution(* com.eaglebank.service.TransactionService+.createTransaction(..)) && args(request, ..)")
+    public Object recordTransfer(ProceedingJoinPoint joinPoint, CreateTransactionRequest request) throws Throwable {
+        Object payee = request.toAccountId() != null
+                ? request.toAccountId()
+                : request.toSortCode() + "/" + request.toAccountNumber();
+        return record(MovementFlightEvent.start(TRANSFER, request.fromAccountId(), payee, request.amount()), joinPoint);
+    }
+
+    @Around("execution(* com.eaglebank.service.BankAccountService+.deposit(..)) && args(accountId, amount, ..)")
+    public Object recordDeposit(ProceedingJoinPoint joinPoint, UUID accountId, BigDecimal amount) throws Throwable {
+        return record(MovementFlightEvent.start(DEPOSIT, null, accountId, amount), joinPoint);
+    }
+
+    @Around("execution(* com.eaglebank.service.BankAccountService+.withdraw(..)) && args(accountId, amount, ..)")
+    public Object recordWithdrawal(ProceedingJoinPoint joinPoint, UUID accountId, BigDecimal amount) throws Throwable {
+        return record(MovementFlightEvent.start(WITHDRAWAL, accountId, null, amount), joinPoint);
+    }
+
+    private static Object record(MovementFlightEvent event, ProceedingJoinPoint joinPoint) throws Throwable {
+        String outcome = AuthFlightEvent.OK;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable failure) {
+            outcome = AuthFlightEvent.outcomeOf(failure);
+            throw failure;
+        } finally {
+            event.finish(outcome);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.eaglebank.diagnostics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * {@code /actuator/flightrecording}: dumps the continuous recording and returns the
+ * {@code .jfr} file, in the same way {@code heapdump} returns a heap dump. The dump is also
+ * kept in the dump directory.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnBean(ContinuousRecording.class)
+@WebEndpoint(id = "flightrecording")
+public class FlightRecordingEndpoint {
+
+    private final ContinuousRecording recording;
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> dump() throws IOException {
+        if (!recording.isRunning()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_SERVICE_UNAVAILABLE);
+        }
+        return new WebEndpointResponse<>(new FileSystemResource(recording.dump()), WebEndpointResponse.STATUS_OK);
+    }
+}
@@ -0,0 +1,80 @@
+package com.eaglebank.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.math.BigDecimal;
+
+@Name("eaglebank.MoneyMovement")
+@Label("Money Movement")
+@Category({"Eagle Bank", "Money"})
+@Description("A transfer, deposit or withdrawal, from the service call to its commit")
+@StackTrace(false)
+public class MovementFlightEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("From Account")
+    String fromAccount;
+
+    @Label("To Account")
+    String toAccount;
+
+    @Label("Amount")
+    String amount;
+
+    @Label("Connection Wait")
+    @Timespan
+    long connectionWait;
+
+    @Label("Statement Time")
+    @Description("Time executing SQL, including waits for row locks")
+    @Timespan
+    long statementTime;
+
+    @Label("Flush Time")
+    @Description("Time writing balances and movement rows, including waits for rows locked by other movements")
+    @Timespan
+    long flushTime;
+
+    @Label("Outcome")
+    String outcome;
+
+    private transient long connectionWaitBefore;
+    private transient long statementTimeBefore;
+    private transient long flushTimeBefore;
+
+    static MovementFlightEvent start(String operation, Object fromAccount, Object toAccount, BigDecimal amount) {
+        MovementFlightEvent event = new MovementFlightEvent();
+        if (event.isEnabled()) {
+            event.operation = operation;
+            event.fromAccount = fromAccount == null ? null : fromAccount.toString();
+            event.toAccount = toAccount == null ? null : toAccount.toString();
+            event.amount = amount == null ? null : amount.toPlainString();
+            DatabaseWaits waits = DatabaseWaits.current();
+            event.connectionWaitBefore = waits.connectionWait();
+            event.statementTimeBefore = waits.statementTime();
+            event.flushTimeBefore = waits.flushTime();
+            event.begin();
+        }
+        return event;
+    }
+
+    void finish(String outcome) {
+        end();
+        if (shouldCommit()) {
+            DatabaseWaits waits = DatabaseWaits.current();
+            this.connectionWait = waits.connectionWait() - connectionWaitBefore;
+            this.statementTime = waits.statementTime() - statementTimeBefore;
+            this.flushTime = waits.flushTime() - flushTimeBefore;
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
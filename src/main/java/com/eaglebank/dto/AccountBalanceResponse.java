@@ -0,0 +1,8 @@
+package com.eaglebank.dto;
+
+import java.math.BigDecimal;
+
+public record AccountBalanceResponse(
+        String accountId,
+        BigDecimal balance
+) {}
@@ -0,0 +1,14 @@
+package com.eaglebank.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record AccountStreamEvent(
+        String accountId,
+        String type,
+        String transactionId,
+        String counterpartyAccountId,
+        BigDecimal amount,
+        BigDecimal balance,
+        LocalDateTime occurredAt
+) {}
@@ -9,5 +9,6 @@ public record BankAccountResponse(
         String sortCode,
         String accountNumber,
         BigDecimal balance,
-        LocalDateTime createdTimestamp
+        LocalDateTime createdTimestamp,
+        String currency
 ) {}
@@ -16,5 +16,8 @@ public record CreateBankAccountRequest(
 
         @NotNull
         @DecimalMin(value = "0.00", inclusive = true)
-        BigDecimal balance
+        BigDecimal balance,
+
+        @Pattern(regexp = "[A-Z]{3}", message = "must be a three-letter ISO 4217 code")
+        String currency
 ) {}
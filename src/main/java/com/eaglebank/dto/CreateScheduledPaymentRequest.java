@@ -0,0 +1,31 @@
+package com.eaglebank.dto;
+
+import com.eaglebank.entity.PaymentFrequency;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.FutureOrPresent;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record CreateScheduledPaymentRequest(
+
+        @NotNull(message = "Sender account ID is required")
+        String fromAccountId,
+
+        @NotNull(message = "Receiver account ID is required")
+        String toAccountId,
+
+        @NotNull(message = "Amount is required")
+        @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
+        BigDecimal amount,
+
+        @NotNull(message = "Frequency is required")
+        PaymentFrequency frequency,
+
+        @NotNull(message = "Start date is required")
+        @FutureOrPresent(message = "Start date cannot be in the past")
+        LocalDate startDate,
+
+        LocalDate endDate
+) {}
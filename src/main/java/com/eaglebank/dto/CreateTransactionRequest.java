@@ -8,10 +8,21 @@ public record CreateTransactionRequest(
         @NotNull(message = "Sender account ID is required")
         String fromAccountId,
 
-        @NotNull(message = "Receiver account ID is required")
         String toAccountId,
 
         @NotNull(message = "Amount is required")
         @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
-        BigDecimal amount
-) {}
+        BigDecimal amount,
+
+        @Size(max = 140, message = "Reference must be at most 140 characters")
+        String reference,
+
+        // Alternative to toAccountId; the sort code defaults to the bank's own
+        String toSortCode,
+        String toAccountNumber
+) {
+    @AssertTrue(message = "Either toAccountId or toAccountNumber is required")
+    public boolean isPayeeGiven() {
+        return toAccountId != null || toAccountNumber != null;
+    }
+}
@@ -0,0 +1,7 @@
+package com.eaglebank.dto;
+
+public record ImportError(
+        long line,
+        String email,
+        String message
+) {}
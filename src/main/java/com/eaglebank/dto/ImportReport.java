@@ -0,0 +1,12 @@
+package com.eaglebank.dto;
+
+import java.util.List;
+
+public record ImportReport(
+        long rowsRead,
+        long usersCreated,
+        long accountsCreated,
+        long rowsFailed,
+        List<ImportError> errors,
+        boolean errorsTruncated
+) {}
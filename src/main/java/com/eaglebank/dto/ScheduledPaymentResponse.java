@@ -0,0 +1,20 @@
+package com.eaglebank.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public record ScheduledPaymentResponse(
+        String id,
+        String fromAccountId,
+        String toAccountId,
+        BigDecimal amount,
+        String frequency,
+        LocalDate startDate,
+        LocalDate endDate,
+        LocalDate nextRunDate,
+        String status,
+        int attempts,
+        String lastError,
+        LocalDateTime createdTimestamp
+) {}
@@ -8,5 +8,9 @@ public record TransactionResponse(
         String fromAccountId,
         String toAccountId,
         BigDecimal amount,
-        LocalDateTime createdTimestamp
+        LocalDateTime createdTimestamp,
+        String type,
+        BigDecimal creditedAmount,
+        BigDecimal fxRate,
+        String reference
 ) {}
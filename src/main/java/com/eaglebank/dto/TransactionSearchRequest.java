@@ -0,0 +1,34 @@
+package com.eaglebank.dto;
+
+import jakarta.validation.constraints.*;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record TransactionSearchRequest(
+
+        @Size(min = 3, max = 140, message = "Search text must be between 3 and 140 characters")
+        String q,
+
+        UUID counterpartyAccountId,
+
+        @DecimalMin(value = "0.00", message = "Minimum amount cannot be negative")
+        BigDecimal minAmount,
+
+        @DecimalMin(value = "0.00", message = "Maximum amount cannot be negative")
+        BigDecimal maxAmount,
+
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        LocalDateTime from,
+
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        LocalDateTime to,
+
+        String cursor,
+
+        @Min(value = 1, message = "Page size must be at least 1")
+        @Max(value = 200, message = "Page size must be at most 200")
+        Integer size
+) {}
@@ -0,0 +1,8 @@
+package com.eaglebank.dto;
+
+import java.util.List;
+
+public record TransactionSearchResponse(
+        List<TransactionResponse> transactions,
+        String nextCursor
+) {}
@@ -0,0 +1,35 @@
+package com.eaglebank.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A month whose movements have left the table for a segment file. Written in the same
+ * transaction as the delete, so every instance can tell which periods it must read from
+ * the shared archive directory.
+ */
+@Entity
+@Table(name = "archived_periods")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedPeriod {
+
+    @Id
+    private LocalDateTime periodStart;
+
+    @Column(nullable = false)
+    private LocalDateTime periodEnd;
+
+    @Column(nullable = false)
+    private String fileName;
+
+    private long transactions;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedTimestamp;
+}
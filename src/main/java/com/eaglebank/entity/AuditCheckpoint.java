@@ -0,0 +1,23 @@
+package com.eaglebank.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * How far the database sink's audit entries cover a shard's journal: every posting committed
+ * by a database transaction below {@code position} has its money record.
+ */
+@Entity
+@Table(name = "audit_checkpoints")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditCheckpoint {
+
+    @Id
+    private int shard;
+
+    @Column(nullable = false)
+    private long position;
+}
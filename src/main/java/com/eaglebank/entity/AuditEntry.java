@@ -0,0 +1,57 @@
+package com.eaglebank.entity;
+
+import com.eaglebank.audit.AuditAction;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One audit record, as the database sink writes it. Rows are only ever inserted.
+ */
+@Entity
+@Table(name = "audit_entries",
+        uniqueConstraints = @UniqueConstraint(name = "uk_audit_entries_movement", columnNames = {"transaction_id", "subject_id"}),
+        indexes = @Index(name = "idx_audit_entries_subject", columnList = "subject_id, occurred_at"))
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    @Column(nullable = false)
+    private String actor;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private AuditAction action;
+
+    @Column(name = "subject_id", nullable = false)
+    private UUID subjectId;
+
+    // Set for money records only, which keeps them unique per account per movement
+    @Column(name = "transaction_id")
+    private UUID transactionId;
+
+    // JSON objects of the fields that changed
+    @Column(name = "before_state", nullable = false, columnDefinition = "text")
+    private String beforeState;
+
+    @Column(name = "after_state", nullable = false, columnDefinition = "text")
+    private String afterState;
+
+    @Column(name = "from_journal", nullable = false)
+    private boolean fromJournal;
+
+    @Column(name = "recorded_at", nullable = false)
+    private LocalDateTime recordedAt;
+}
@@ -0,0 +1,45 @@
+package com.eaglebank.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * An account whose stored balance disagreed with its movements during a reconciliation run.
+ */
+@Entity
+@Table(name = "balance_drifts",
+        indexes = @Index(name = "idx_balance_drift_run_account", columnList = "run_id, account_id"))
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceDrift {
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @Column(name = "run_id", nullable = false)
+    private UUID runId;
+
+    @Column(name = "account_id", nullable = false)
+    private UUID accountId;
+
+    @Column(nullable = false)
+    private BigDecimal storedBalance;
+
+    @Column(nullable = false)
+    private BigDecimal expectedBalance;
+
+    // Stored minus expected
+    @Column(nullable = false)
+    private BigDecimal difference;
+
+    @Column(nullable = false)
+    private LocalDateTime detectedTimestamp;
+}
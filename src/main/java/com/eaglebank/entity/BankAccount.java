@@ -1,12 +1,18 @@
 package com.eaglebank.entity;
 
+import com.eaglebank.sharding.ShardedId;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
+@Table(
+        indexes = @Index(name = "idx_bank_account_user", columnList = "user_id"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_bank_account_sort_code_number",
+                columnNames = {"sort_code", "account_number"}))
 @Getter
 @Setter
 @Builder
@@ -15,7 +21,7 @@ import java.util.UUID;
 public class BankAccount {
 
     @Id
-    @GeneratedValue
+    @ShardedId
     private UUID id;
 
     @ManyToOne(optional = false)
@@ -34,12 +40,34 @@ public class BankAccount {
     @Column(nullable = false)
     private String accountNumber;
 
+    // ISO 4217 code; accounts opened before currencies were introduced are all sterling
+    @ColumnDefault("'GBP'")
+    @Column(nullable = false, length = 3, updatable = false)
+    @Builder.Default
+    private String currency = "GBP";
+
     @Column(nullable = false)
     private BigDecimal balance;
 
+    // Interest accrued but not yet posted. Only the interest job writes it, in SQL, so
+    // entity saves never overwrite a concurrent accrual
+    @ColumnDefault("0")
+    @Column(nullable = false, precision = 38, scale = 10, insertable = false, updatable = false)
+    private BigDecimal accruedInterest;
+
     @Column(nullable = false)
     private LocalDateTime createdTimestamp;
 
+    // Set when the owner closes the account. The row stays so its movements keep their
+    // history, but lookups, balance changes and the batch jobs pass it over
+    private LocalDateTime closedTimestamp;
+
+    // Also the account's HTTP validator, so every balance change must move it forward
     @Column(nullable = false)
     private LocalDateTime updatedTimestamp;
+
+    @PreUpdate
+    public void preUpdate() {
+        this.updatedTimestamp = LocalDateTime.now();
+    }
 }
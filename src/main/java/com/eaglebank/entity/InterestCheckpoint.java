@@ -0,0 +1,37 @@
+package com.eaglebank.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A range of an interest run that has been applied. Written in the same transaction as the
+ * range's update, so a range is either applied and checkpointed or neither.
+ */
+@Entity
+@Table(name = "interest_checkpoints",
+        uniqueConstraints = @UniqueConstraint(name = "uk_interest_checkpoint", columnNames = {"run_id", "range_index"}))
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InterestCheckpoint {
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @Column(name = "run_id", nullable = false)
+    private UUID runId;
+
+    @Column(name = "range_index", nullable = false)
+    private int rangeIndex;
+
+    private long accounts;
+
+    @Column(nullable = false)
+    private LocalDateTime completedTimestamp;
+}
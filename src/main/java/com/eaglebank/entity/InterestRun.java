@@ -0,0 +1,49 @@
+package com.eaglebank.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One accrual or posting pass for a business date. There is at most one per type and date,
+ * and a failed or interrupted run is resumed rather than started again.
+ */
+@Entity
+@Table(name = "interest_runs",
+        uniqueConstraints = @UniqueConstraint(name = "uk_interest_run", columnNames = {"type", "business_date"}))
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InterestRun {
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private InterestRunType type;
+
+    @Column(name = "business_date", nullable = false)
+    private LocalDate businessDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private InterestRunStatus status;
+
+    // Fixed when the run is created so a resumed run splits the id space the same way
+    @Column(nullable = false)
+    private int rangeCount;
+
+    private long accountsProcessed;
+
+    @Column(nullable = false)
+    private LocalDateTime startedTimestamp;
+
+    private LocalDateTime finishedTimestamp;
+}
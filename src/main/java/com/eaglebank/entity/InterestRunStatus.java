@@ -0,0 +1,7 @@
+package com.eaglebank.entity;
+
+public enum InterestRunStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
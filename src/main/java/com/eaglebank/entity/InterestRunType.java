@@ -0,0 +1,8 @@
+package com.eaglebank.entity;
+
+public enum InterestRunType {
+    // Adds a day's interest to every interest-bearing account's accrued total
+    ACCRUAL,
+    // Moves whole pence of accrued interest into the balance at month end
+    POSTING
+}
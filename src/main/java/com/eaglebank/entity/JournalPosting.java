@@ -0,0 +1,46 @@
+package com.eaglebank.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One side of a double-entry movement. Every movement's postings sum to zero per currency,
+ * and postings are never updated or deleted, so an account's balance is the sum of its own.
+ * The {@code txid} column the journal tailer reads is added by {@code db/journal.sql}.
+ */
+@Entity
+@Table(name = "journal_postings", indexes = @Index(name = "idx_journal_postings_account_id", columnList = "account_id, id"))
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JournalPosting {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "journal_posting_seq")
+    @SequenceGenerator(name = "journal_posting_seq", sequenceName = "journal_posting_seq", allocationSize = 50)
+    private Long id;
+
+    // Null for entries with no movement of their own, such as the opening of the journal
+    @Column(updatable = false)
+    private UUID transactionId;
+
+    // A bank account, or one of the bank's contra accounts
+    @Column(nullable = false, updatable = false)
+    private UUID accountId;
+
+    @Column(nullable = false, length = 3, updatable = false)
+    private String currency;
+
+    // Credit positive, debit negative, from the account holder's side
+    @Column(nullable = false, updatable = false)
+    private BigDecimal amount;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdTimestamp;
+}
@@ -0,0 +1,24 @@
+package com.eaglebank.entity;
+
+import java.time.LocalDate;
+
+public enum PaymentFrequency {
+    ONCE,
+    DAILY,
+    WEEKLY,
+    MONTHLY;
+
+    /**
+     * Date of the {@code occurrence}-th payment (zero-based), counted from the start date rather
+     * than the previous payment so a monthly order on the 31st goes back to the 31st after
+     * shorter months. {@code null} once a one-off payment has been made.
+     */
+    public LocalDate dateOf(LocalDate startDate, int occurrence) {
+        return switch (this) {
+            case ONCE -> occurrence == 0 ? startDate : null;
+            case DAILY -> startDate.plusDays(occurrence);
+            case WEEKLY -> startDate.plusWeeks(occurrence);
+            case MONTHLY -> startDate.plusMonths(occurrence);
+        };
+    }
+}
@@ -0,0 +1,41 @@
+package com.eaglebank.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "reconciliation_runs")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationRun {
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReconciliationStatus status;
+
+    @Column(nullable = false)
+    private int rangeCount;
+
+    private long accountsChecked;
+
+    private long driftedAccounts;
+
+    // Sum of (stored - expected) over every drifted account
+    private BigDecimal netDrift;
+
+    @Column(nullable = false)
+    private LocalDateTime startedTimestamp;
+
+    private LocalDateTime finishedTimestamp;
+}
@@ -0,0 +1,8 @@
+package com.eaglebank.entity;
+
+public enum RevocationScope {
+    // One token, keyed by its jti
+    TOKEN,
+    // Every token of a user issued up to the revocation, keyed by email
+    USER
+}
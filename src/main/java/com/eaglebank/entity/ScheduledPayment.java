@@ -0,0 +1,78 @@
+package com.eaglebank.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "scheduled_payments", indexes = {
+        @Index(name = "idx_scheduled_payments_due", columnList = "status, next_run_at"),
+        @Index(name = "idx_scheduled_payments_from", columnList = "from_account_id"),
+        @Index(name = "idx_scheduled_payments_to", columnList = "to_account_id")
+})
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduledPayment {
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "from_account_id", nullable = false)
+    private BankAccount fromAccount;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "to_account_id", nullable = false)
+    private BankAccount toAccount;
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private PaymentFrequency frequency;
+
+    @Column(nullable = false)
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+
+    // Payments made or skipped so far; the next date is derived from it
+    @Column(nullable = false)
+    private int occurrence;
+
+    // Business date of the next payment, and with the schedule id its idempotency key
+    private LocalDate nextRunDate;
+
+    // When the next attempt may be claimed: the start of nextRunDate, or later after a retry
+    @Column(name = "next_run_at")
+    private LocalDateTime nextRunAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ScheduledPaymentStatus status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime createdTimestamp;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedTimestamp;
+
+    @PreUpdate
+    public void preUpdate() {
+        this.updatedTimestamp = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,45 @@
+package com.eaglebank.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One settled date of a scheduled payment. The unique key is the last line of defence
+ * against paying the same date twice: a second run would fail its whole batch.
+ */
+@Entity
+@Table(name = "scheduled_payment_runs", uniqueConstraints = @UniqueConstraint(
+        name = "uk_scheduled_payment_run", columnNames = {"scheduled_payment_id", "run_date"}))
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduledPaymentRun {
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @Column(name = "scheduled_payment_id", nullable = false)
+    private UUID scheduledPaymentId;
+
+    @Column(name = "run_date", nullable = false)
+    private LocalDate runDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ScheduledRunOutcome outcome;
+
+    // The transfer made, when paid
+    private UUID transactionId;
+
+    private String detail;
+
+    @Column(nullable = false)
+    private LocalDateTime createdTimestamp;
+}
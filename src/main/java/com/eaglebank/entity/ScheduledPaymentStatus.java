@@ -0,0 +1,9 @@
+package com.eaglebank.entity;
+
+public enum ScheduledPaymentStatus {
+    ACTIVE,
+    COMPLETED,
+    CANCELLED,
+    // Stopped by a repeated technical failure and needs looking at
+    FAILED
+}
@@ -0,0 +1,7 @@
+package com.eaglebank.entity;
+
+public enum ScheduledRunOutcome {
+    PAID,
+    // Every attempt for the date was rejected (insufficient funds, closed account...)
+    SKIPPED
+}
@@ -0,0 +1,32 @@
+package com.eaglebank.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Which shard holds the user with an email, or the account with a sort code and number.
+ * Kept on shard 0 only; the key being the primary key makes emails and account numbers
+ * unique across every shard.
+ */
+@Entity
+@Table(name = "shard_assignments")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShardAssignment {
+
+    // "user:<email>" or "account:<sort code>/<account number>"
+    @Id
+    @Column(name = "natural_key")
+    private String naturalKey;
+
+    @Column(nullable = false)
+    private int shard;
+
+    @Column(name = "assigned_at", nullable = false)
+    private LocalDateTime assignedAt;
+}
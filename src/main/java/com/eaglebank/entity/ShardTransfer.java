@@ -0,0 +1,68 @@
+package com.eaglebank.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A transfer to an account on another shard, kept on the sender's shard from the debit
+ * until the receiver has been credited or the sender refunded.
+ */
+@Entity
+@Table(name = "shard_transfers", indexes = {
+        @Index(name = "idx_shard_transfers_status_next_attempt", columnList = "status, next_attempt_at, id")
+})
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShardTransfer {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // The sending leg; its id also keys the receipt on whichever shard is credited
+    @Column(name = "transaction_id", nullable = false, unique = true)
+    private UUID transactionId;
+
+    @Column(nullable = false)
+    private UUID fromAccountId;
+
+    @Column(nullable = false)
+    private UUID toAccountId;
+
+    @Column(nullable = false)
+    private int toShard;
+
+    // In the sender's currency
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Column(length = 140)
+    private String reference;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ShardTransferStatus status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime createdTimestamp;
+
+    private LocalDateTime settledTimestamp;
+}
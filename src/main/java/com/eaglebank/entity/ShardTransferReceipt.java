@@ -0,0 +1,28 @@
+package com.eaglebank.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Written in the same transaction as the credit for a transfer from another shard, so a
+ * transfer relayed twice is only credited once.
+ */
+@Entity
+@Table(name = "shard_transfer_receipts")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShardTransferReceipt {
+
+    // The sending leg's transaction id
+    @Id
+    @Column(name = "transfer_id")
+    private UUID transferId;
+
+    @Column(name = "received_timestamp", nullable = false)
+    private LocalDateTime receivedTimestamp;
+}
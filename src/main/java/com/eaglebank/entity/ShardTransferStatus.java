@@ -0,0 +1,9 @@
+package com.eaglebank.entity;
+
+public enum ShardTransferStatus {
+    // Debited from the sender, not yet credited on the receiver's shard
+    PENDING,
+    CREDITED,
+    // The receiving account was gone, so the sender was refunded
+    RETURNED
+}
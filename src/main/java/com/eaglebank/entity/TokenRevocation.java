@@ -0,0 +1,40 @@
+package com.eaglebank.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A revoked token, or all of a user's tokens issued before {@code revokedAt}. Kept until
+ * every token it covers has expired.
+ */
+@Entity
+@Table(name = "token_revocations", indexes = {
+        @Index(name = "idx_token_revocation_key", columnList = "revoked_key, scope"),
+        @Index(name = "idx_token_revocation_revoked_at", columnList = "revoked_at")
+})
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenRevocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RevocationScope scope;
+
+    @Column(name = "revoked_key", nullable = false)
+    private String revokedKey;
+
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
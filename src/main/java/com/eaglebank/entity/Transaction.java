@@ -1,13 +1,18 @@
 package com.eaglebank.entity;
 
+import com.eaglebank.sharding.ShardedId;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_from_created", columnList = "from_account_id, created_timestamp"),
+        @Index(name = "idx_transactions_to_created", columnList = "to_account_id, created_timestamp")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -16,20 +21,45 @@ import java.util.UUID;
 public class Transaction {
 
     @Id
-    @GeneratedValue
+    @ShardedId
     private UUID id;
 
+    // Existing rows predate the column and are all transfers
+    @Enumerated(EnumType.STRING)
+    @ColumnDefault("'TRANSFER'")
+    @Column(nullable = false, length = 16)
+    @Builder.Default
+    private TransactionType type = TransactionType.TRANSFER;
+
+    // Null for money entering the bank (deposits, openings, upward adjustments)
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "from_account_id", nullable = false)
+    @JoinColumn(name = "from_account_id")
     private BankAccount fromAccount;
 
+    // Null for money leaving the bank (withdrawals, downward adjustments)
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "to_account_id", nullable = false)
+    @JoinColumn(name = "to_account_id")
     private BankAccount toAccount;
 
+    // The other side's account when it lives on another shard, in place of fromAccount or
+    // toAccount, which can only reference accounts on this one
+    private UUID counterpartyAccountId;
+
+    // In the sender's currency, or the account's own for one-sided movements
     @Column(nullable = false)
     private BigDecimal amount;
 
+    // What the receiver was credited, in its currency. Null unless the transfer crossed
+    // currencies, in which case fxRate is the sender-to-receiver rate that was applied
+    private BigDecimal creditedAmount;
+
+    @Column(precision = 24, scale = 12)
+    private BigDecimal fxRate;
+
+    // Free text from the sender, searched through the trigram index in db/search-indexes.sql
+    @Column(length = 140)
+    private String reference;
+
     @Column(nullable = false)
     private LocalDateTime createdTimestamp;
 }
@@ -0,0 +1,17 @@
+package com.eaglebank.entity;
+
+/**
+ * What caused a movement. Every balance change is recorded as a transaction, so an
+ * account's balance always equals the amounts it received minus the amounts it sent.
+ */
+public enum TransactionType {
+    TRANSFER,
+    DEPOSIT,
+    WITHDRAWAL,
+    // Balance overwritten through an account update; the amount is the size of the change
+    ADJUSTMENT,
+    // Balance an account was created with
+    OPENING,
+    // Accrued interest posted to the account at month end
+    INTEREST
+}
@@ -1,5 +1,6 @@
 package com.eaglebank.entity;
 
+import com.eaglebank.sharding.ShardedId;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
@@ -17,7 +18,7 @@ import java.util.UUID;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @ShardedId
     private UUID id;
 
     @NotBlank
@@ -0,0 +1,19 @@
+package com.eaglebank.event;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Published synchronously by the service layer for every balance change, inside the
+ * same database transaction as the change itself. A transfer publishes one event per side.
+ */
+public record MoneyMovementEvent(
+        UUID transactionId,
+        MovementType type,
+        UUID accountId,
+        UUID counterpartyAccountId,
+        BigDecimal amount,
+        BigDecimal balanceAfter,
+        LocalDateTime occurredAt
+) {}
@@ -0,0 +1,19 @@
+package com.eaglebank.event;
+
+/**
+ * What a {@link MoneyMovementEvent} did to its account. Amounts are always positive, so a
+ * type says which way the money went.
+ */
+public enum MovementType {
+    TRANSFER_SENT,
+    TRANSFER_RECEIVED,
+    DEPOSIT,
+    WITHDRAWAL,
+    ADJUSTMENT_CREDIT,
+    ADJUSTMENT_DEBIT,
+    INTEREST;
+
+    public boolean debits() {
+        return this == TRANSFER_SENT || this == WITHDRAWAL || this == ADJUSTMENT_DEBIT;
+    }
+}
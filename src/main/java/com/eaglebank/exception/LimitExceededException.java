@@ -0,0 +1,7 @@
+package com.eaglebank.exception;
+
+public class LimitExceededException extends RuntimeException {
+    public LimitExceededException(String message) {
+        super(message);
+    }
+}
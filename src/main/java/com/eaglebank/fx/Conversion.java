@@ -0,0 +1,9 @@
+package com.eaglebank.fx;
+
+import java.math.BigDecimal;
+
+/**
+ * An amount converted into the target currency, rounded to that currency's minor units,
+ * and the cross rate that produced it.
+ */
+public record Conversion(BigDecimal amount, BigDecimal rate) {}
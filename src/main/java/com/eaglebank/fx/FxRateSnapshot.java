@@ -0,0 +1,102 @@
+package com.eaglebank.fx;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One immutable set of exchange rates. Every cross rate is worked out when the snapshot is
+ * built, so a conversion is two map lookups and a multiply.
+ */
+public final class FxRateSnapshot {
+
+    public static final int RATE_SCALE = 12;
+
+    private final long version;
+    private final Instant loadedAt;
+    private final String baseCurrency;
+    private final Map<String, Integer> slots;
+    private final BigDecimal[] crossRates;
+    private final int[] fractionDigits;
+
+    /**
+     * @param rates units of each currency per one unit of {@code baseCurrency}; the base
+     *              currency itself is added at 1 when missing
+     */
+    public FxRateSnapshot(long version, Instant loadedAt, String baseCurrency, Map<String, BigDecimal> rates) {
+        Map<String, BigDecimal> all = new HashMap<>(rates);
+        all.putIfAbsent(baseCurrency, BigDecimal.ONE);
+        if (all.get(baseCurrency).compareTo(BigDecimal.ONE) != 0) {
+            throw new IllegalArgumentException("Rate for base currency " + baseCurrency + " must be 1");
+        }
+
+        String[] currencies = all.keySet().toArray(String[]::new);
+        int n = currencies.length;
+        this.version = version;
+        this.loadedAt = loadedAt;
+        this.baseCurrency = baseCurrency;
+        this.slots = new HashMap<>(n * 2);
+        this.crossRates = new BigDecimal[n * n];
+        this.fractionDigits = new int[n];
+
+        for (int i = 0; i < n; i++) {
+            BigDecimal rate = all.get(currencies[i]);
+            if (rate == null || rate.signum() <= 0) {
+                throw new IllegalArgumentException("Rate for " + currencies[i] + " must be positive");
+            }
+            slots.put(currencies[i], i);
+            // Throws for codes that are not ISO 4217 currencies
+            fractionDigits[i] = Math.max(Currency.getInstance(currencies[i]).getDefaultFractionDigits(), 0);
+        }
+        for (int from = 0; from < n; from++) {
+            BigDecimal fromRate = all.get(currencies[from]);
+            for (int to = 0; to < n; to++) {
+                crossRates[from * n + to] = from == to
+                        ? BigDecimal.ONE
+                        : all.get(currencies[to]).divide(fromRate, RATE_SCALE, RoundingMode.HALF_EVEN);
+            }
+        }
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Instant getLoadedAt() {
+        return loadedAt;
+    }
+
+    public String getBaseCurrency() {
+        return baseCurrency;
+    }
+
+    public Set<String> currencies() {
+        return slots.keySet();
+    }
+
+    public boolean supports(String currency) {
+        return slots.containsKey(currency);
+    }
+
+    public BigDecimal rate(String from, String to) {
+        return crossRates[slot(from) * fractionDigits.length + slot(to)];
+    }
+
+    public Conversion convert(BigDecimal amount, String from, String to) {
+        int target = slot(to);
+        BigDecimal rate = crossRates[slot(from) * fractionDigits.length + target];
+        return new Conversion(amount.multiply(rate).setScale(fractionDigits[target], RoundingMode.HALF_EVEN), rate);
+    }
+
+    private int slot(String currency) {
+        Integer slot = slots.get(currency);
+        if (slot == null) {
+            throw new IllegalArgumentException("Unsupported currency: " + currency);
+        }
+        return slot;
+    }
+}
@@ -0,0 +1,137 @@
+package com.eaglebank.fx;
+
+import com.eaglebank.config.FxProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The exchange rates currently in force. The snapshot is immutable and replaced with a
+ * single volatile write, so conversions never lock or touch the database, and a transfer
+ * that reads the snapshot once converts at one consistent set of rates even while a reload
+ * swaps in the next.
+ */
+@Slf4j
+@Component
+public class FxRates {
+
+    private final FxProperties properties;
+    private final AtomicLong versions = new AtomicLong();
+    private final Counter reloadFailed;
+
+    private volatile FxRateSnapshot snapshot;
+    private FileTime loadedModified;
+
+    public FxRates(FxProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.snapshot = new FxRateSnapshot(versions.incrementAndGet(), Instant.now(),
+                properties.baseCurrency(), properties.rates());
+
+        this.reloadFailed = meterRegistry.counter("fx.reload.failed");
+        Gauge.builder("fx.snapshot.version", this, rates -> rates.current().getVersion())
+                .register(meterRegistry);
+    }
+
+    public FxRateSnapshot current() {
+        return snapshot;
+    }
+
+    public String baseCurrency() {
+        return properties.baseCurrency();
+    }
+
+    public boolean supports(String currency) {
+        return snapshot.supports(currency);
+    }
+
+    public Conversion convert(BigDecimal amount, String from, String to) {
+        return snapshot.convert(amount, from, to);
+    }
+
+    /**
+     * Publishes a new set of rates. Conversions already holding the previous snapshot finish
+     * on it; every later conversion sees the new one.
+     */
+    public FxRateSnapshot swap(Map<String, BigDecimal> rates) {
+        FxRateSnapshot next = new FxRateSnapshot(versions.incrementAndGet(), Instant.now(),
+                properties.baseCurrency(), rates);
+        snapshot = next;
+        return next;
+    }
+
+    @PostConstruct
+    public void load() throws IOException {
+        if (properties.ratesFile() != null) {
+            reloadFile();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${eaglebank.fx.reload-interval:PT1M}")
+    public void reload() {
+        if (properties.ratesFile() == null) {
+            return;
+        }
+        try {
+            reloadFile();
+        } catch (IOException | RuntimeException e) {
+            // Keep converting at the last good rates rather than failing transfers
+            reloadFailed.increment();
+            log.error("Could not reload FX rates from {}; keeping snapshot {}",
+                    properties.ratesFile(), snapshot.getVersion(), e);
+        }
+    }
+
+    private synchronized void reloadFile() throws IOException {
+        Path file = Paths.get(properties.ratesFile());
+        FileTime modified = Files.getLastModifiedTime(file);
+        if (modified.equals(loadedModified)) {
+            return;
+        }
+
+        FxRateSnapshot next = swap(parse(file));
+        loadedModified = modified;
+        log.info("Loaded FX snapshot {} with {} currencies from {}", next.getVersion(), next.currencies().size(), file);
+    }
+
+    static Map<String, BigDecimal> parse(Path file) throws IOException {
+        Map<String, BigDecimal> rates = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int number = 0;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                int comma = line.indexOf(',');
+                if (comma < 0) {
+                    throw new IllegalArgumentException("Expected CURRENCY,rate on line " + number + " of " + file);
+                }
+                String currency = line.substring(0, comma).strip().toUpperCase(Locale.ROOT);
+                if (rates.put(currency, new BigDecimal(line.substring(comma + 1).strip())) != null) {
+                    throw new IllegalArgumentException("Duplicate rate for " + currency + " on line " + number);
+                }
+            }
+        }
+        return rates;
+    }
+}
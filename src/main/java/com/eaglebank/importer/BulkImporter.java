@@ -0,0 +1,319 @@
+package com.eaglebank.importer;
+
+import com.eaglebank.config.ImportProperties;
+import com.eaglebank.dto.AddressRequest;
+import com.eaglebank.dto.CreateBankAccountRequest;
+import com.eaglebank.dto.CreateUserRequest;
+import com.eaglebank.dto.ImportReport;
+import com.eaglebank.entity.Address;
+import com.eaglebank.entity.BankAccount;
+import com.eaglebank.entity.Transaction;
+import com.eaglebank.entity.TransactionType;
+import com.eaglebank.entity.User;
+import com.eaglebank.fx.FxRates;
+import com.eaglebank.journal.Journal;
+import com.eaglebank.repository.BankAccountRepository;
+import com.eaglebank.repository.TransactionRepository;
+import com.eaglebank.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Onboards users, and optionally their accounts, from a CSV or NDJSON stream.
+ *
+ * <p>Rows are handled {@code batchSize} at a time: one query checks the whole batch's emails,
+ * passwords are hashed on a bounded BCrypt pool, and users, accounts and opening movements are
+ * inserted as JDBC batches in one transaction. If that transaction fails (say an email was
+ * registered through the API in the meantime) the batch is retried row by row, so one bad row
+ * only ever fails itself.
+ */
+@Slf4j
+@Component
+public class BulkImporter {
+
+    private final UserRepository userRepository;
+    private final BankAccountRepository bankAccountRepository;
+    private final TransactionRepository transactionRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ImportProperties properties;
+    private final FxRates fxRates;
+    private final Journal journal;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService hashPool;
+
+    private final Counter usersCreated;
+    private final Counter rowsFailed;
+
+    public BulkImporter(UserRepository userRepository,
+                        BankAccountRepository bankAccountRepository,
+                        TransactionRepository transactionRepository,
+                        PasswordEncoder passwordEncoder,
+                        Validator validator,
+                        ObjectMapper objectMapper,
+                        ImportProperties properties,
+                        FxRates fxRates,
+                        Journal journal,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.bankAccountRepository = bankAccountRepository;
+        this.transactionRepository = transactionRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.fxRates = fxRates;
+        this.journal = journal;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // A full queue makes the submitting import hash on its own thread instead of queueing more
+        AtomicInteger threads = new AtomicInteger();
+        this.hashPool = new ThreadPoolExecutor(properties.hashThreads(), properties.hashThreads(),
+                0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(properties.batchSize()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "import-hash-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        this.usersCreated = meterRegistry.counter("import.users.created");
+        this.rowsFailed = meterRegistry.counter("import.rows.failed");
+    }
+
+    public ImportReport importFrom(InputStream in, ImportFormat format) throws IOException {
+        ImportTally tally = new ImportTally(properties.maxReportedErrors());
+        long started = System.nanoTime();
+
+        try (ImportReader reader = ImportReader.open(in, format, objectMapper)) {
+            List<ImportRow> batch = new ArrayList<>(properties.batchSize());
+            ImportRow row;
+            while ((row = reader.next()) != null) {
+                tally.read();
+                if (row.error() != null) {
+                    fail(tally, row.line(), null, row.error());
+                    continue;
+                }
+                batch.add(row);
+                if (batch.size() >= properties.batchSize()) {
+                    importBatch(batch, tally);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                importBatch(batch, tally);
+            }
+        }
+
+        ImportReport report = tally.toReport();
+        log.info("Imported {} users and {} accounts from {} rows ({} failed) in {} ms",
+                report.usersCreated(), report.accountsCreated(), report.rowsRead(), report.rowsFailed(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return report;
+    }
+
+    void importBatch(List<ImportRow> rows, ImportTally tally) {
+        List<ImportRow> valid = new ArrayList<>(rows.size());
+        Set<String> emails = new HashSet<>();
+        for (ImportRow row : rows) {
+            String email = row.record().user() == null ? null : row.record().user().email();
+            Set<ConstraintViolation<ImportRecord>> violations = validator.validate(row.record());
+            if (!violations.isEmpty()) {
+                fail(tally, row.line(), email, describe(violations));
+            } else if (!emails.add(email)) {
+                fail(tally, row.line(), email, "Email appears earlier in the same batch");
+            } else if (unsupportedCurrency(row.record()) != null) {
+                fail(tally, row.line(), email, "Unsupported currency: " + unsupportedCurrency(row.record()));
+            } else {
+                valid.add(row);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        Set<String> taken = new HashSet<>(userRepository.findExistingEmails(emails));
+        List<ImportRow> fresh = new ArrayList<>(valid.size());
+        for (ImportRow row : valid) {
+            if (taken.contains(row.record().user().email())) {
+                fail(tally, row.line(), row.record().user().email(), "Email already registered");
+            } else {
+                fresh.add(row);
+            }
+        }
+        if (fresh.isEmpty()) {
+            return;
+        }
+
+        List<Future<String>> hashes = new ArrayList<>(fresh.size());
+        for (ImportRow row : fresh) {
+            String password = row.record().user().password();
+            hashes.add(hashPool.submit(() -> passwordEncoder.encode(password)));
+        }
+        List<Candidate> candidates = new ArrayList<>(fresh.size());
+        for (int i = 0; i < fresh.size(); i++) {
+            candidates.add(new Candidate(fresh.get(i), await(hashes.get(i))));
+        }
+
+        try {
+            save(candidates);
+            created(tally, candidates);
+        } catch (DataAccessException e) {
+            log.debug("Batch insert failed, retrying {} rows one at a time: {}", candidates.size(), e.toString());
+            for (Candidate candidate : candidates) {
+                try {
+                    save(List.of(candidate));
+                    created(tally, List.of(candidate));
+                } catch (DataAccessException rowFailure) {
+                    fail(tally, candidate.row().line(), candidate.row().record().user().email(),
+                            "Could not be saved: " + NestedExceptionUtils.getMostSpecificCause(rowFailure).getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Entities are built inside the transaction so a failed attempt leaves nothing behind
+     * for the retry to trip over.
+     */
+    private void save(List<Candidate> candidates) {
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<User> users = new ArrayList<>(candidates.size());
+            List<BankAccount> accounts = new ArrayList<>();
+            List<Transaction> openings = new ArrayList<>();
+
+            for (Candidate candidate : candidates) {
+                User user = toUser(candidate.row().record().user(), candidate.passwordHash());
+                users.add(user);
+                for (CreateBankAccountRequest request : candidate.row().record().accounts()) {
+                    BankAccount account = toAccount(request, user, now);
+                    accounts.add(account);
+                    if (account.getBalance().signum() != 0) {
+                        openings.add(Transaction.builder()
+                                .type(TransactionType.OPENING)
+                                .toAccount(account)
+                                .amount(account.getBalance())
+                                .createdTimestamp(now)
+                                .build());
+                    }
+                }
+            }
+
+            userRepository.saveAll(users);
+            bankAccountRepository.saveAll(accounts);
+            transactionRepository.saveAll(openings);
+            journal.postAll(openings);
+        });
+    }
+
+    private User toUser(CreateUserRequest request, String passwordHash) {
+        AddressRequest address = request.address();
+        return User.builder()
+                .name(request.name())
+                .email(request.email())
+                .phoneNumber(request.phoneNumber())
+                .password(passwordHash)
+                .address(Address.builder()
+                        .line1(address.line1())
+                        .line2(address.line2())
+                        .line3(address.line3())
+                        .town(address.town())
+                        .county(address.county())
+                        .postcode(address.postcode())
+                        .build())
+                .build();
+    }
+
+    private BankAccount toAccount(CreateBankAccountRequest request, User user, LocalDateTime now) {
+        return BankAccount.builder()
+                .user(user)
+                .accountType(request.accountType())
+                .bankName(request.bankName())
+                .sortCode(request.sortCode())
+                .accountNumber(request.accountNumber())
+                .currency(currencyOf(request))
+                .balance(request.balance())
+                .createdTimestamp(now)
+                .updatedTimestamp(now)
+                .build();
+    }
+
+    private String currencyOf(CreateBankAccountRequest request) {
+        return request.currency() == null ? fxRates.baseCurrency() : request.currency();
+    }
+
+    private String unsupportedCurrency(ImportRecord record) {
+        for (CreateBankAccountRequest account : record.accounts()) {
+            if (!fxRates.supports(currencyOf(account))) {
+                return currencyOf(account);
+            }
+        }
+        return null;
+    }
+
+    private void created(ImportTally tally, List<Candidate> candidates) {
+        int accounts = candidates.stream().mapToInt(c -> c.row().record().accounts().size()).sum();
+        tally.created(candidates.size(), accounts);
+        usersCreated.increment(candidates.size());
+    }
+
+    private void fail(ImportTally tally, long line, String email, String message) {
+        tally.fail(line, email, message);
+        rowsFailed.increment();
+    }
+
+    private static String describe(Set<ConstraintViolation<ImportRecord>> violations) {
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static String await(Future<String> hash) {
+        try {
+            return hash.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import interrupted while hashing passwords", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashPool.shutdown();
+    }
+
+    private record Candidate(ImportRow row, String passwordHash) {}
+}
@@ -0,0 +1,183 @@
+package com.eaglebank.importer;
+
+import com.eaglebank.dto.AddressRequest;
+import com.eaglebank.dto.CreateBankAccountRequest;
+import com.eaglebank.dto.CreateUserRequest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * RFC 4180 CSV with a header row naming the columns, in any order. Each row is a user and at
+ * most one account; leave the account columns empty to create just the user.
+ */
+class CsvImportReader implements ImportReader {
+
+    static final List<String> REQUIRED_COLUMNS = List.of(
+            "name", "email", "phoneNumber", "password", "line1", "town", "county", "postcode");
+    static final List<String> ACCOUNT_COLUMNS = List.of(
+            "accountType", "bankName", "sortCode", "accountNumber", "balance", "currency");
+
+    private final BufferedReader reader;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private long lineNumber;
+
+    CsvImportReader(BufferedReader reader) throws IOException {
+        this.reader = reader;
+
+        List<String> header = readFields();
+        if (header == null) {
+            return;
+        }
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).strip();
+            if (i == 0 && name.startsWith("\uFEFF")) {
+                name = name.substring(1);
+            }
+            columns.put(name.toLowerCase(Locale.ROOT), i);
+        }
+        List<String> missing = REQUIRED_COLUMNS.stream()
+                .filter(c -> !columns.containsKey(c.toLowerCase(Locale.ROOT)))
+                .toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("CSV header is missing columns " + missing);
+        }
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        while (true) {
+            long start = lineNumber + 1;
+            List<String> fields;
+            try {
+                fields = readFields();
+            } catch (MalformedRowException e) {
+                return ImportRow.failed(start, e.getMessage());
+            }
+            if (fields == null) {
+                return null;
+            }
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue;
+            }
+            try {
+                return ImportRow.parsed(start, toRecord(fields));
+            } catch (MalformedRowException e) {
+                return ImportRow.failed(start, e.getMessage());
+            }
+        }
+    }
+
+    private ImportRecord toRecord(List<String> fields) {
+        CreateUserRequest user = new CreateUserRequest(
+                field(fields, "name"),
+                field(fields, "phoneNumber"),
+                field(fields, "email"),
+                new AddressRequest(
+                        field(fields, "line1"),
+                        field(fields, "line2"),
+                        field(fields, "line3"),
+                        field(fields, "town"),
+                        field(fields, "county"),
+                        field(fields, "postcode")),
+                field(fields, "password"));
+
+        boolean hasAccount = ACCOUNT_COLUMNS.stream().anyMatch(c -> field(fields, c) != null);
+        if (!hasAccount) {
+            return new ImportRecord(user, List.of());
+        }
+
+        String balance = field(fields, "balance");
+        BigDecimal amount;
+        try {
+            amount = balance == null ? null : new BigDecimal(balance);
+        } catch (NumberFormatException e) {
+            throw new MalformedRowException("balance: '" + balance + "' is not a number");
+        }
+        return new ImportRecord(user, List.of(new CreateBankAccountRequest(
+                field(fields, "accountType"),
+                field(fields, "bankName"),
+                field(fields, "sortCode"),
+                field(fields, "accountNumber"),
+                amount,
+                field(fields, "currency"))));
+    }
+
+    private String field(List<String> fields, String column) {
+        Integer index = columns.get(column.toLowerCase(Locale.ROOT));
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).strip();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Splits one record, reading on past line breaks inside quoted fields.
+     */
+    private List<String> readFields() throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        lineNumber++;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i == line.length()) {
+                if (!quoted) {
+                    break;
+                }
+                line = reader.readLine();
+                if (line == null) {
+                    throw new MalformedRowException("Unterminated quoted field");
+                }
+                lineNumber++;
+                field.append('\n');
+                i = 0;
+                continue;
+            }
+
+            char c = line.charAt(i++);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i < line.length() && line.charAt(i) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static class MalformedRowException extends RuntimeException {
+        MalformedRowException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.eaglebank.importer;
+
+import com.eaglebank.BankApiApplication;
+import com.eaglebank.dto.ImportReport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * {@code java -jar bank-api.jar import <file> [csv|ndjson]}
+ *
+ * <p>Starts the application without the web server or background jobs, imports the file
+ * and prints the report as JSON. Exits 0 when every row was imported, 1 when some rows
+ * failed and 2 when the import could not run at all.
+ */
+public final class ImportCommand {
+
+    public static final String NAME = "import";
+
+    private ImportCommand() {
+    }
+
+    public static int run(String... args) {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: import <file> [csv|ndjson]");
+            return 2;
+        }
+        Path file = Path.of(args[0]);
+        ImportFormat format;
+        try {
+            format = args.length == 2
+                    ? ImportFormat.valueOf(args[1].toUpperCase(Locale.ROOT))
+                    : ImportFormat.fromFileName(file.getFileName().toString());
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return 2;
+        }
+
+        // The AOT-processed context is the web application's; this one is built differently
+        System.setProperty("spring.aot.enabled", "false");
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BankApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "eaglebank.outbox.dispatcher-enabled=false",
+                        "eaglebank.archive.enabled=false",
+                        "eaglebank.reconciliation.enabled=false",
+                        "eaglebank.scheduled-payments.runner-enabled=false",
+                        "eaglebank.interest.enabled=false",
+                        "eaglebank.statements.enabled=false",
+                        "spring.jpa.show-sql=false")
+                .run();
+             InputStream in = Files.newInputStream(file)) {
+            ImportReport report = context.getBean(BulkImporter.class).importFrom(in, format);
+            System.out.println(context.getBean(ObjectMapper.class).writeValueAsString(report));
+            return report.rowsFailed() == 0 ? 0 : 1;
+        } catch (Exception e) {
+            System.err.println("Import failed: " + e.getMessage());
+            return 2;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.eaglebank.importer;
+
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+public enum ImportFormat {
+    CSV,
+    NDJSON;
+
+    public static final String CSV_VALUE = "text/csv";
+    public static final String NDJSON_VALUE = "application/x-ndjson";
+
+    public static ImportFormat fromContentType(String contentType) {
+        MediaType type = MediaType.parseMediaType(contentType);
+        if (type.isCompatibleWith(MediaType.parseMediaType(CSV_VALUE))) {
+            return CSV;
+        }
+        if (type.isCompatibleWith(MediaType.parseMediaType(NDJSON_VALUE))) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException("Unsupported import content type " + contentType);
+    }
+
+    public static ImportFormat fromFileName(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException("Cannot tell the format of " + fileName + "; pass csv or ndjson");
+    }
+}
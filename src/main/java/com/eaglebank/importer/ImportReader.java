@@ -0,0 +1,32 @@
+package com.eaglebank.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Pulls one row at a time from an import stream, so memory use does not grow with the file.
+ * A row that cannot be parsed comes back as a failed {@link ImportRow} rather than an exception.
+ */
+interface ImportReader extends Closeable {
+
+    int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * @return the next row, or {@code null} at the end of the input
+     */
+    ImportRow next() throws IOException;
+
+    static ImportReader open(InputStream in, ImportFormat format, ObjectMapper objectMapper) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+        return switch (format) {
+            case CSV -> new CsvImportReader(reader);
+            case NDJSON -> new NdjsonImportReader(reader, objectMapper);
+        };
+    }
+}
@@ -0,0 +1,25 @@
+package com.eaglebank.importer;
+
+import com.eaglebank.dto.CreateBankAccountRequest;
+import com.eaglebank.dto.CreateUserRequest;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * One user to onboard, with the accounts to open for them. Validated with the same
+ * constraints as {@code POST /v1/users} and {@code POST /v1/accounts}.
+ */
+public record ImportRecord(
+        @Valid @NotNull
+        CreateUserRequest user,
+
+        List<@Valid @NotNull CreateBankAccountRequest> accounts
+) {
+    public ImportRecord {
+        if (accounts == null) {
+            accounts = List.of();
+        }
+    }
+}
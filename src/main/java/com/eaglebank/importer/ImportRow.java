@@ -0,0 +1,15 @@
+package com.eaglebank.importer;
+
+/**
+ * A parsed input line; exactly one of {@code record} and {@code error} is set.
+ */
+record ImportRow(long line, ImportRecord record, String error) {
+
+    static ImportRow parsed(long line, ImportRecord record) {
+        return new ImportRow(line, record, null);
+    }
+
+    static ImportRow failed(long line, String error) {
+        return new ImportRow(line, null, error);
+    }
+}
@@ -0,0 +1,49 @@
+package com.eaglebank.importer;
+
+import com.eaglebank.dto.ImportError;
+import com.eaglebank.dto.ImportReport;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Running totals for one import. Only the first {@code maxErrors} failures are kept in full.
+ */
+class ImportTally {
+
+    private final int maxErrors;
+    private final List<ImportError> errors = new ArrayList<>();
+    private long rowsRead;
+    private long usersCreated;
+    private long accountsCreated;
+    private long rowsFailed;
+
+    ImportTally(int maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
+    void read() {
+        rowsRead++;
+    }
+
+    void created(int users, int accounts) {
+        usersCreated += users;
+        accountsCreated += accounts;
+    }
+
+    void fail(long line, String email, String message) {
+        rowsFailed++;
+        if (errors.size() < maxErrors) {
+            errors.add(new ImportError(line, email, message));
+        }
+    }
+
+    long rowsFailed() {
+        return rowsFailed;
+    }
+
+    ImportReport toReport() {
+        return new ImportReport(rowsRead, usersCreated, accountsCreated, rowsFailed,
+                List.copyOf(errors), rowsFailed > errors.size());
+    }
+}
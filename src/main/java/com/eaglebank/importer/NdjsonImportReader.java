@@ -0,0 +1,48 @@
+package com.eaglebank.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * One {@link ImportRecord} JSON object per line.
+ */
+class NdjsonImportReader implements ImportReader {
+
+    private final BufferedReader reader;
+    private final ObjectReader recordReader;
+    private long lineNumber;
+
+    NdjsonImportReader(BufferedReader reader, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.recordReader = objectMapper.readerFor(ImportRecord.class);
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                ImportRecord record = recordReader.readValue(line);
+                return record == null
+                        ? ImportRow.failed(lineNumber, "Expected a JSON object")
+                        : ImportRow.parsed(lineNumber, record);
+            } catch (JsonProcessingException e) {
+                return ImportRow.failed(lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
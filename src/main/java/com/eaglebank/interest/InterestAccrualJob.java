@@ -0,0 +1,326 @@
+package com.eaglebank.interest;
+
+import com.eaglebank.config.InterestProperties;
+import com.eaglebank.coordination.JobLeases;
+import com.eaglebank.coordination.Lease;
+import com.eaglebank.entity.InterestCheckpoint;
+import com.eaglebank.entity.InterestRun;
+import com.eaglebank.entity.InterestRunStatus;
+import com.eaglebank.entity.InterestRunType;
+import com.eaglebank.reconciliation.AccountRange;
+import com.eaglebank.repository.BankAccountRepository;
+import com.eaglebank.repository.InterestCheckpointRepository;
+import com.eaglebank.repository.InterestRunRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Accrues a day's interest on every interest-bearing account each night, and posts the
+ * accrued whole pence to the balance, as an {@code INTEREST} transaction, after the last
+ * accrual of each month.
+ *
+ * <p>No account is loaded into the persistence context: the id space is split into
+ * {@code ranges} slices and each slice is one set-based statement per account type, run on
+ * a pool of {@code parallelism} workers. A slice's update and its {@link InterestCheckpoint}
+ * commit together, so a run that dies part way is resumed by applying only the slices it
+ * has no checkpoint for, and no account accrues or is posted twice for the same date.
+ *
+ * <p>With several instances, each range is applied under its own lease, so the instances
+ * share a run's ranges between them, each starting from a different range. An instance that
+ * finds a range leased elsewhere waits for its checkpoint, and takes the range over if the
+ * other instance's lease lapses first.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "eaglebank.interest", name = "enabled", havingValue = "true")
+public class InterestAccrualJob {
+
+    static final String LEASE_PREFIX = "interest/";
+
+    private final BankAccountRepository bankAccountRepository;
+    private final InterestRunRepository runRepository;
+    private final InterestCheckpointRepository checkpointRepository;
+    private final JobLeases jobLeases;
+    private final InterestProperties properties;
+    private final TransactionTemplate writable;
+    private final MeterRegistry meterRegistry;
+    private final Timer rangeDuration;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile InterestProgress progress;
+
+    public InterestAccrualJob(BankAccountRepository bankAccountRepository,
+                              InterestRunRepository runRepository,
+                              InterestCheckpointRepository checkpointRepository,
+                              JobLeases jobLeases,
+                              InterestProperties properties,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry) {
+        this.bankAccountRepository = bankAccountRepository;
+        this.runRepository = runRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.jobLeases = jobLeases;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+
+        this.writable = new TransactionTemplate(transactionManager);
+        writable.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        this.rangeDuration = Timer.builder("interest.range.duration")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("interest.progress", this, j -> j.progress == null ? 0 : j.progress.fractionComplete())
+                .description("Fraction of ranges completed by the current or last run")
+                .register(meterRegistry);
+        Gauge.builder("interest.throughput", this, j -> j.progress == null ? 0 : j.progress.accountsPerSecond())
+                .baseUnit("accounts/s")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${eaglebank.interest.cron:0 30 0 * * *}")
+    public void scheduledRun() {
+        catchUp(LocalDate.now().minusDays(1));
+    }
+
+    /**
+     * Accrues every day after the last completed accrual up to and including {@code through},
+     * posting at each month end. Stops at the first run that does not complete; the next call
+     * resumes it from its checkpoints.
+     */
+    public void catchUp(LocalDate through) {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Interest job already running, skipping");
+            return;
+        }
+
+        try {
+            LocalDate last = runRepository.findLatestBusinessDate(InterestRunType.ACCRUAL, InterestRunStatus.COMPLETED);
+            if (last != null && isMonthEnd(last) && !completed(run(InterestRunType.POSTING, last))) {
+                return;
+            }
+            for (LocalDate date = last == null ? through : last.plusDays(1); !date.isAfter(through); date = date.plusDays(1)) {
+                if (!completed(run(InterestRunType.ACCRUAL, date))) {
+                    return;
+                }
+                if (isMonthEnd(date) && !completed(run(InterestRunType.POSTING, date))) {
+                    return;
+                }
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Latest run's counters, or {@code null} before the first run.
+     */
+    public InterestProgress progress() {
+        return progress;
+    }
+
+    InterestRun run(InterestRunType type, LocalDate businessDate) {
+        InterestRun run = findOrStart(type, businessDate);
+        if (run.getStatus() == InterestRunStatus.COMPLETED) {
+            return run;
+        }
+
+        List<AccountRange> ranges = AccountRange.split(run.getRangeCount());
+        Set<Integer> applied = new HashSet<>(checkpointRepository.findRangeIndexesByRunId(run.getId()));
+        InterestProgress current = new InterestProgress(run.getId(), type, businessDate, ranges.size(), applied.size());
+        progress = current;
+        log.info("Interest {} for {} started over {} ranges, {} already applied",
+                type, businessDate, ranges.size(), applied.size());
+
+        Map<String, BigDecimal> dailyRates = properties.annualRates().keySet().stream()
+                .collect(Collectors.toMap(t -> t, properties::dailyRate));
+        LocalDateTime postedAt = LocalDateTime.now();
+
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(properties.parallelism(), runnable -> {
+            Thread thread = new Thread(runnable, "interest-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "interest-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.progressInterval().toMillis();
+        reporter.scheduleAtFixedRate(() -> log.info("Interest {}", current), interval, interval, TimeUnit.MILLISECONDS);
+
+        int failures = 0;
+        try {
+            List<Integer> pending = new ArrayList<>();
+            int offset = jobLeases.startOffset(ranges.size());
+            for (int n = 0; n < ranges.size(); n++) {
+                int index = (offset + n) % ranges.size();
+                if (!applied.contains(index)) {
+                    pending.add(index);
+                }
+            }
+
+            while (!pending.isEmpty()) {
+                List<Future<Boolean>> futures = new ArrayList<>();
+                for (int index : pending) {
+                    futures.add(pool.submit(() -> applyLeasedRange(run, index, ranges.get(index), dailyRates, postedAt, current)));
+                }
+                List<Integer> leasedElsewhere = new ArrayList<>();
+                for (int i = 0; i < futures.size(); i++) {
+                    try {
+                        if (!futures.get(i).get()) {
+                            leasedElsewhere.add(pending.get(i));
+                        }
+                    } catch (ExecutionException e) {
+                        // Usually the same cause for every range, so only the first is worth a stack trace
+                        if (failures++ == 0) {
+                            log.error("Interest {} for {} failed on a range", type, businessDate, e.getCause());
+                        }
+                    }
+                }
+                if (leasedElsewhere.isEmpty() || failures > 0) {
+                    break;
+                }
+
+                // Another instance is applying these; wait for its checkpoints, or for its lease to lapse
+                Thread.sleep(jobLeases.retryInterval().toMillis());
+                Set<Integer> done = new HashSet<>(checkpointRepository.findRangeIndexesByRunId(run.getId()));
+                pending = new ArrayList<>();
+                for (int index : leasedElsewhere) {
+                    if (done.contains(index)) {
+                        current.rangeCompleted(0);
+                    } else {
+                        pending.add(index);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failures++;
+        } finally {
+            reporter.shutdownNow();
+            pool.shutdownNow();
+        }
+
+        boolean complete = failures == 0;
+        run.setStatus(complete ? InterestRunStatus.COMPLETED : InterestRunStatus.FAILED);
+        run.setAccountsProcessed(checkpointRepository.sumAccountsByRunId(run.getId()));
+        run.setFinishedTimestamp(complete ? LocalDateTime.now() : null);
+        InterestRun finished = writable.execute(status -> runRepository.save(run));
+        int left = complete ? 0 : ranges.size() - checkpointRepository.findRangeIndexesByRunId(run.getId()).size();
+        log.info("Interest {} {}{}", current, finished.getStatus(),
+                complete ? "" : String.format(", %d ranges left for the next attempt", left));
+        return finished;
+    }
+
+    /**
+     * Applies the range under its lease. Returns {@code false}, without applying it, when
+     * another instance holds the lease.
+     */
+    boolean applyLeasedRange(InterestRun run, int index, AccountRange range, Map<String, BigDecimal> dailyRates,
+                             LocalDateTime postedAt, InterestProgress progress) {
+        Optional<Lease> lease = jobLeases.tryAcquire(LEASE_PREFIX + index);
+        if (lease.isEmpty()) {
+            return false;
+        }
+        try (Lease held = lease.get()) {
+            applyRange(run, index, range, dailyRates, postedAt, progress, held);
+        }
+        return true;
+    }
+
+    void applyRange(InterestRun run, int index, AccountRange range, Map<String, BigDecimal> dailyRates,
+                    LocalDateTime postedAt, InterestProgress progress, Lease lease) {
+        Timer.Sample sample = Timer.start();
+        Long accounts;
+        try {
+            accounts = writable.execute(status -> {
+                lease.verify();
+                // Inserted first, so another instance resuming the same run blocks here and then fails
+                InterestCheckpoint checkpoint = checkpointRepository.saveAndFlush(InterestCheckpoint.builder()
+                        .runId(run.getId())
+                        .rangeIndex(index)
+                        .completedTimestamp(LocalDateTime.now())
+                        .build());
+
+                long count = 0;
+                if (run.getType() == InterestRunType.ACCRUAL) {
+                    for (Map.Entry<String, BigDecimal> rate : dailyRates.entrySet()) {
+                        count += bankAccountRepository.accrueInterest(range.first(), range.last(), rate.getKey(), rate.getValue());
+                    }
+                } else {
+                    count = bankAccountRepository.postInterest(range.first(), range.last(), postedAt);
+                }
+                checkpoint.setAccounts(count);
+                return count;
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.info("Range {} of interest run {} was applied by another worker", index, run.getId());
+            accounts = 0L;
+        }
+
+        long applied = accounts == null ? 0 : accounts;
+        progress.rangeCompleted(applied);
+        meterRegistry.counter("interest.accounts", "type", run.getType().name().toLowerCase()).increment(applied);
+        sample.stop(rangeDuration);
+    }
+
+    private InterestRun findOrStart(InterestRunType type, LocalDate businessDate) {
+        try {
+            return writable.execute(status -> {
+                InterestRun run = runRepository.findByTypeAndBusinessDate(type, businessDate)
+                        .orElseGet(() -> InterestRun.builder()
+                                .type(type)
+                                .businessDate(businessDate)
+                                .rangeCount(properties.ranges())
+                                .startedTimestamp(LocalDateTime.now())
+                                .build());
+                if (run.getStatus() == InterestRunStatus.COMPLETED) {
+                    return run;
+                }
+                run.setStatus(InterestRunStatus.RUNNING);
+                return runRepository.saveAndFlush(run);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created the run first; carry on with theirs
+            return runRepository.findByTypeAndBusinessDate(type, businessDate).orElseThrow(() -> e);
+        }
+    }
+
+    private static boolean completed(InterestRun run) {
+        return run.getStatus() == InterestRunStatus.COMPLETED;
+    }
+
+    private static boolean isMonthEnd(LocalDate date) {
+        return date.equals(YearMonth.from(date).atEndOfMonth());
+    }
+}
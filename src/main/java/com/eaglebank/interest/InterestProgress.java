@@ -0,0 +1,78 @@
+package com.eaglebank.interest;
+
+import com.eaglebank.entity.InterestRunType;
+
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live counters for one accrual or posting run, updated by every worker and read by the
+ * progress reporter and the metrics gauges. Ranges finished by an earlier attempt count as
+ * completed but not towards throughput.
+ */
+public final class InterestProgress {
+
+    private final UUID runId;
+    private final InterestRunType type;
+    private final LocalDate businessDate;
+    private final int totalRanges;
+    private final long startedNanos = System.nanoTime();
+
+    private final AtomicInteger completedRanges;
+    private final LongAdder accounts = new LongAdder();
+
+    InterestProgress(UUID runId, InterestRunType type, LocalDate businessDate, int totalRanges, int resumedRanges) {
+        this.runId = runId;
+        this.type = type;
+        this.businessDate = businessDate;
+        this.totalRanges = totalRanges;
+        this.completedRanges = new AtomicInteger(resumedRanges);
+    }
+
+    void rangeCompleted(long rangeAccounts) {
+        accounts.add(rangeAccounts);
+        completedRanges.incrementAndGet();
+    }
+
+    public UUID runId() {
+        return runId;
+    }
+
+    public InterestRunType type() {
+        return type;
+    }
+
+    public LocalDate businessDate() {
+        return businessDate;
+    }
+
+    public int totalRanges() {
+        return totalRanges;
+    }
+
+    public int completedRanges() {
+        return completedRanges.get();
+    }
+
+    public long accounts() {
+        return accounts.sum();
+    }
+
+    public double fractionComplete() {
+        return totalRanges == 0 ? 1.0 : (double) completedRanges() / totalRanges;
+    }
+
+    public double accountsPerSecond() {
+        double seconds = (System.nanoTime() - startedNanos) / 1e9;
+        return seconds <= 0 ? 0 : accounts() / seconds;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s (run %s): %d/%d ranges (%.1f%%), %d accounts, %.0f accounts/s",
+                type, businessDate, runId, completedRanges(), totalRanges, fractionComplete() * 100,
+                accounts(), accountsPerSecond());
+    }
+}
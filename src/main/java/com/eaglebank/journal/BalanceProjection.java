@@ -0,0 +1,145 @@
+package com.eaglebank.journal;
+
+import com.eaglebank.config.JournalProperties;
+import com.eaglebank.entity.JournalPosting;
+import com.eaglebank.repository.TailPosting;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Every account's balance as the sum of its journal postings, held in memory.
+ *
+ * <p>Postings arrive two ways: straight after commit from this instance's {@link Journal},
+ * and from the {@link JournalTailer} reading what every instance wrote. The tail reads by the
+ * id of the database transaction that wrote each posting, from a watermark below which every
+ * transaction has finished. Postings applied from at or above the watermark are remembered
+ * until it passes them, so neither path applies one twice.
+ *
+ * <p>Until the tailer has caught up after a start, nothing is answered from memory.
+ */
+@Component
+public class BalanceProjection {
+
+    private static final int SCALE = 2;
+    // Applied on this instance, not yet seen by the tailer
+    private static final long TXID_UNKNOWN = -1;
+
+    private final BalanceTable table;
+    private final Map<Long, Long> pending = new HashMap<>();
+    private long watermark;
+    private volatile boolean ready;
+
+    public BalanceProjection(JournalProperties properties, MeterRegistry meterRegistry) {
+        this.table = new BalanceTable(properties.expectedAccounts());
+        meterRegistry.gauge("journal.projection.accounts", table, BalanceTable::size);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * The account's balance from the journal, empty when not known here yet.
+     */
+    public Optional<BigDecimal> balance(UUID accountId) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        long units = table.get(accountId);
+        return units == BalanceTable.MISSING ? Optional.empty() : Optional.of(BigDecimal.valueOf(units, SCALE));
+    }
+
+    /**
+     * Whether the account can pay {@code amount} without going overdrawn. An account the
+     * projection cannot vouch for is left to the stored balance check.
+     */
+    public boolean covers(UUID accountId, BigDecimal amount) {
+        if (!ready) {
+            return true;
+        }
+        long units = table.get(accountId);
+        return units == BalanceTable.MISSING || units >= toUnits(amount);
+    }
+
+    @TransactionalEventListener
+    public void onPosted(JournalPostedEvent event) {
+        if (!ready) {
+            // The tailer reads these once it catches up
+            return;
+        }
+        synchronized (this) {
+            for (JournalPosting posting : event.postings()) {
+                if (pending.putIfAbsent(posting.getId(), TXID_UNKNOWN) == null) {
+                    table.add(posting.getAccountId(), toUnits(posting.getAmount()));
+                }
+            }
+        }
+    }
+
+    synchronized long watermark() {
+        return watermark;
+    }
+
+    /**
+     * Applies a posting read from the journal tail, unless this instance already has.
+     */
+    synchronized void applyTailed(TailPosting posting) {
+        if (pending.put(posting.getId(), posting.getTxid()) == null) {
+            table.add(posting.getAccountId(), posting.getUnits());
+        }
+    }
+
+    /**
+     * Moves the watermark up to {@code xmin}. A tailed posting is forgotten one pass after
+     * the watermark passes it, which leaves time for the after-commit apply on the instance
+     * that wrote it to find it here.
+     */
+    synchronized void advance(long xmin) {
+        long previous = watermark;
+        pending.values().removeIf(txid -> txid != TXID_UNKNOWN && txid < previous);
+        watermark = Math.max(watermark, xmin);
+    }
+
+    void markReady() {
+        ready = true;
+    }
+
+    synchronized BalanceSnapshot snapshot() {
+        long[] entries = table.copy();
+        long[] ids = new long[pending.size()];
+        long[] txids = new long[pending.size()];
+        int i = 0;
+        for (Map.Entry<Long, Long> entry : pending.entrySet()) {
+            ids[i] = entry.getKey();
+            txids[i] = entry.getValue();
+            i++;
+        }
+        return new BalanceSnapshot(watermark, entries.length / 3, entries, ids, txids);
+    }
+
+    synchronized void restore(BalanceSnapshot snapshot) {
+        table.load(snapshot.entries(), snapshot.entryCount());
+        pending.clear();
+        for (int i = 0; i < snapshot.pendingIds().length; i++) {
+            pending.put(snapshot.pendingIds()[i], snapshot.pendingTxids()[i]);
+        }
+        watermark = snapshot.watermark();
+    }
+
+    int accountCount() {
+        return table.size();
+    }
+
+    private static long toUnits(BigDecimal amount) {
+        // Matches how the numeric(38,2) columns round
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
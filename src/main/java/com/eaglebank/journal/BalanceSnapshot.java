@@ -0,0 +1,77 @@
+package com.eaglebank.journal;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The balance projection as a flat, memory-mapped file, so a restart restores it with bulk
+ * copies instead of replaying the journal.
+ *
+ * <pre>
+ * header   magic int, version int, watermark long, entries int, pending int
+ * entries  msb long[entries], lsb long[entries], units long[entries]
+ * pending  posting id long[pending], txid long[pending]
+ * </pre>
+ *
+ * {@code pending} are the postings from database transactions at or after the watermark that
+ * are already applied, so the tail does not apply them twice.
+ */
+record BalanceSnapshot(long watermark, int entryCount, long[] entries, long[] pendingIds, long[] pendingTxids) {
+
+    static final int MAGIC = 0x45424A53; // "EBJS"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 24;
+
+    static void write(Path file, BalanceSnapshot snapshot) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        int pending = snapshot.pendingIds().length;
+        long bytes = HEADER_BYTES + (long) snapshot.entries().length * Long.BYTES + 2L * pending * Long.BYTES;
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(snapshot.watermark())
+                    .putInt(snapshot.entryCount()).putInt(pending);
+            LongBuffer body = buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+            body.put(snapshot.entries()).put(snapshot.pendingIds()).put(snapshot.pendingTxids());
+            buffer.force();
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static BalanceSnapshot read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+                throw new IllegalStateException(file + " is not a balance snapshot");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IllegalStateException("Unsupported balance snapshot version " + version);
+            }
+            long watermark = buffer.getLong();
+            int entryCount = buffer.getInt();
+            int pending = buffer.getInt();
+            if (entryCount < 0 || pending < 0
+                    || buffer.remaining() != (3L * entryCount + 2L * pending) * Long.BYTES) {
+                throw new IllegalStateException(file + " is truncated");
+            }
+
+            LongBuffer body = buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+            long[] entries = new long[entryCount * 3];
+            long[] pendingIds = new long[pending];
+            long[] pendingTxids = new long[pending];
+            body.get(entries).get(pendingIds).get(pendingTxids);
+            return new BalanceSnapshot(watermark, entryCount, entries, pendingIds, pendingTxids);
+        }
+    }
+}
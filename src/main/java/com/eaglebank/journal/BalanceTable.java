@@ -0,0 +1,175 @@
+package com.eaglebank.journal;
+
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Account id to balance in hundredths, held in three parallel primitive arrays with linear
+ * probing. Readers take no lock unless a write lands mid-read; the nil UUID marks an empty
+ * slot, which no account or contra account can have.
+ */
+final class BalanceTable {
+
+    static final long MISSING = Long.MIN_VALUE;
+
+    private final StampedLock lock = new StampedLock();
+    private long[] msb;
+    private long[] lsb;
+    private long[] units;
+    private int size;
+
+    BalanceTable(int expected) {
+        allocate(capacityFor(expected));
+    }
+
+    /**
+     * @return the balance in hundredths, or {@link #MISSING} when the account has no postings
+     */
+    long get(UUID accountId) {
+        long hi = accountId.getMostSignificantBits();
+        long lo = accountId.getLeastSignificantBits();
+
+        long stamp = lock.tryOptimisticRead();
+        long result = find(msb, lsb, units, hi, lo);
+        if (lock.validate(stamp)) {
+            return result;
+        }
+        stamp = lock.readLock();
+        try {
+            return find(msb, lsb, units, hi, lo);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    void add(UUID accountId, long delta) {
+        long stamp = lock.writeLock();
+        try {
+            if ((size + 1) * 4L > msb.length * 3L) {
+                rehash(msb.length << 1);
+            }
+            insert(accountId.getMostSignificantBits(), accountId.getLeastSignificantBits(), delta);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Copies every entry out as {@code [msb..., lsb..., units...]}, each run {@code size} long.
+     */
+    long[] copy() {
+        long stamp = lock.readLock();
+        try {
+            long[] out = new long[size * 3];
+            int n = 0;
+            for (int i = 0; i < msb.length; i++) {
+                if (msb[i] != 0 || lsb[i] != 0) {
+                    out[n] = msb[i];
+                    out[size + n] = lsb[i];
+                    out[2 * size + n] = units[i];
+                    n++;
+                }
+            }
+            return out;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Replaces the contents with {@code count} entries laid out as {@link #copy()} returns them.
+     */
+    void load(long[] entries, int count) {
+        long stamp = lock.writeLock();
+        try {
+            allocate(Math.max(msb.length, capacityFor(count)));
+            for (int i = 0; i < count; i++) {
+                insert(entries[i], entries[count + i], entries[2 * count + i]);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private static long find(long[] msb, long[] lsb, long[] units, long hi, long lo) {
+        if (lsb.length != msb.length || units.length != msb.length) {
+            // Caught mid-resize; the caller's validation fails and it retries under the lock
+            return MISSING;
+        }
+        int mask = msb.length - 1;
+        int index = spread(hi, lo) & mask;
+        for (int probes = 0; probes < msb.length; probes++) {
+            long slotHi = msb[index];
+            long slotLo = lsb[index];
+            if (slotHi == hi && slotLo == lo) {
+                return units[index];
+            }
+            if (slotHi == 0 && slotLo == 0) {
+                return MISSING;
+            }
+            index = (index + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    private void insert(long hi, long lo, long delta) {
+        int mask = msb.length - 1;
+        int index = spread(hi, lo) & mask;
+        while (true) {
+            if (msb[index] == hi && lsb[index] == lo) {
+                units[index] += delta;
+                return;
+            }
+            if (msb[index] == 0 && lsb[index] == 0) {
+                // Balance first, so an optimistic reader never sees the key without it
+                units[index] = delta;
+                lsb[index] = lo;
+                msb[index] = hi;
+                size++;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldMsb = msb;
+        long[] oldLsb = lsb;
+        long[] oldUnits = units;
+        allocate(capacity);
+        for (int i = 0; i < oldMsb.length; i++) {
+            if (oldMsb[i] != 0 || oldLsb[i] != 0) {
+                insert(oldMsb[i], oldLsb[i], oldUnits[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        msb = new long[capacity];
+        lsb = new long[capacity];
+        units = new long[capacity];
+        size = 0;
+    }
+
+    private static int capacityFor(int entries) {
+        int wanted = (int) Math.min(1 << 30, Math.max(16, entries * 4L / 3 + 1));
+        return Integer.highestOneBit(wanted - 1) << 1;
+    }
+
+    private static int spread(long hi, long lo) {
+        long h = hi ^ lo;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
@@ -0,0 +1,31 @@
+package com.eaglebank.journal;
+
+import java.util.UUID;
+
+/**
+ * The bank's own side of movements that have only one customer account. They exist only in
+ * the journal, with fixed ids no generated account id can take.
+ */
+public enum ContraAccount {
+
+    // Money entering or leaving the bank: deposits, withdrawals, openings and closures
+    EXTERNAL(1),
+    INTEREST(2),
+    // Balance corrections made through an account update
+    ADJUSTMENTS(3),
+    // Holds both legs of a cross-currency transfer, one per currency
+    FX_CLEARING(4),
+    // Transfers between shards: credited on the sender's shard, debited on the receiver's,
+    // so it nets to zero across shards once every transfer has landed
+    SHARD_CLEARING(5);
+
+    private final UUID id;
+
+    ContraAccount(long id) {
+        this.id = new UUID(0, id);
+    }
+
+    public UUID id() {
+        return id;
+    }
+}
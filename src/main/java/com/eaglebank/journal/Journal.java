@@ -0,0 +1,122 @@
+package com.eaglebank.journal;
+
+import com.eaglebank.entity.BankAccount;
+import com.eaglebank.entity.JournalPosting;
+import com.eaglebank.entity.Transaction;
+import com.eaglebank.repository.JournalPostingRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Writes the double-entry postings for movements, in the caller's transaction. Once that
+ * commits the postings are applied to the {@link BalanceProjection} on this instance; other
+ * instances pick them up from the journal tail.
+ */
+@Component
+@RequiredArgsConstructor
+public class Journal {
+
+    private final JournalPostingRepository journalPostingRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public void post(Transaction transaction) {
+        postAll(List.of(transaction));
+    }
+
+    public void postAll(List<Transaction> transactions) {
+        List<JournalPosting> postings = new ArrayList<>();
+        for (Transaction transaction : transactions) {
+            addPostings(transaction, postings);
+        }
+        save(postings);
+    }
+
+    /**
+     * Posts the receiving leg of a transfer whose sending leg was posted on another shard,
+     * where the amount went into {@link ContraAccount#SHARD_CLEARING} in {@code sentCurrency}.
+     * It comes out of clearing in that currency here, through FX clearing when the receiver
+     * holds another.
+     */
+    public void postReceived(Transaction txn, String sentCurrency) {
+        BankAccount to = txn.getToAccount();
+        BigDecimal amount = txn.getAmount();
+        LocalDateTime at = txn.getCreatedTimestamp();
+        List<JournalPosting> postings = new ArrayList<>(4);
+
+        postings.add(posting(txn.getId(), ContraAccount.SHARD_CLEARING.id(), sentCurrency, amount.negate(), at));
+        if (txn.getCreditedAmount() == null) {
+            postings.add(posting(txn.getId(), to.getId(), to.getCurrency(), amount, at));
+        } else {
+            UUID clearing = ContraAccount.FX_CLEARING.id();
+            postings.add(posting(txn.getId(), clearing, sentCurrency, amount, at));
+            postings.add(posting(txn.getId(), clearing, to.getCurrency(), txn.getCreditedAmount().negate(), at));
+            postings.add(posting(txn.getId(), to.getId(), to.getCurrency(), txn.getCreditedAmount(), at));
+        }
+        save(postings);
+    }
+
+    private void addPostings(Transaction txn, List<JournalPosting> postings) {
+        BankAccount from = txn.getFromAccount();
+        BankAccount to = txn.getToAccount();
+        BigDecimal amount = txn.getAmount();
+        LocalDateTime at = txn.getCreatedTimestamp();
+
+        if (from != null && to != null) {
+            postings.add(posting(txn.getId(), from.getId(), from.getCurrency(), amount.negate(), at));
+            if (txn.getCreditedAmount() == null) {
+                postings.add(posting(txn.getId(), to.getId(), to.getCurrency(), amount, at));
+            } else {
+                UUID clearing = ContraAccount.FX_CLEARING.id();
+                postings.add(posting(txn.getId(), clearing, from.getCurrency(), amount, at));
+                postings.add(posting(txn.getId(), clearing, to.getCurrency(), txn.getCreditedAmount().negate(), at));
+                postings.add(posting(txn.getId(), to.getId(), to.getCurrency(), txn.getCreditedAmount(), at));
+            }
+            return;
+        }
+
+        UUID contra = contraFor(txn);
+        if (to != null) {
+            postings.add(posting(txn.getId(), contra, to.getCurrency(), amount.negate(), at));
+            postings.add(posting(txn.getId(), to.getId(), to.getCurrency(), amount, at));
+        } else {
+            postings.add(posting(txn.getId(), from.getId(), from.getCurrency(), amount.negate(), at));
+            postings.add(posting(txn.getId(), contra, from.getCurrency(), amount, at));
+        }
+    }
+
+    private static UUID contraFor(Transaction txn) {
+        return switch (txn.getType()) {
+            case INTEREST -> ContraAccount.INTEREST.id();
+            case ADJUSTMENT -> ContraAccount.ADJUSTMENTS.id();
+            // Only a transfer's sending leg to another shard has no receiver here
+            case TRANSFER -> ContraAccount.SHARD_CLEARING.id();
+            default -> ContraAccount.EXTERNAL.id();
+        };
+    }
+
+    private static JournalPosting posting(UUID transactionId, UUID accountId, String currency, BigDecimal amount,
+                                          LocalDateTime at) {
+        return JournalPosting.builder()
+                .transactionId(transactionId)
+                .accountId(accountId)
+                .currency(currency)
+                .amount(amount)
+                .createdTimestamp(at)
+                .build();
+    }
+
+    private void save(List<JournalPosting> postings) {
+        if (postings.isEmpty()) {
+            return;
+        }
+        journalPostingRepository.saveAll(postings);
+        eventPublisher.publishEvent(new JournalPostedEvent(postings));
+    }
+}
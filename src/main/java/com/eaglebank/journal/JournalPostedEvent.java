@@ -0,0 +1,7 @@
+package com.eaglebank.journal;
+
+import com.eaglebank.entity.JournalPosting;
+
+import java.util.List;
+
+public record JournalPostedEvent(List<JournalPosting> postings) {}
@@ -0,0 +1,144 @@
+package com.eaglebank.journal;
+
+import com.eaglebank.config.JournalProperties;
+import com.eaglebank.repository.JournalPostingRepository;
+import com.eaglebank.repository.TailPosting;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Feeds the {@link BalanceProjection} from the journal. On start it restores the last
+ * snapshot and reads only the postings written since; without one it replays the whole
+ * journal, opening it from the stored balances first if it is empty. After that it reads new
+ * postings every {@code pollInterval} and saves a snapshot every {@code snapshotInterval}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "eaglebank.journal", name = "projection-enabled", havingValue = "true", matchIfMissing = true)
+public class JournalTailer {
+
+    private final JournalPostingRepository journalPostingRepository;
+    private final BalanceProjection projection;
+    private final Path snapshotFile;
+    private final TransactionTemplate writable;
+    private final TransactionTemplate snapshotRead;
+    private final Counter postingsRead;
+
+    public JournalTailer(JournalPostingRepository journalPostingRepository,
+                         BalanceProjection projection,
+                         JournalProperties properties,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry) {
+        this.journalPostingRepository = journalPostingRepository;
+        this.projection = projection;
+        this.snapshotFile = Paths.get(properties.snapshotFile());
+        this.writable = new TransactionTemplate(transactionManager);
+        // The oldest running transaction and the postings must come from the same snapshot.
+        // Not read-only, so it stays on the primary
+        this.snapshotRead = new TransactionTemplate(transactionManager);
+        snapshotRead.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.postingsRead = meterRegistry.counter("journal.tail.postings");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        long started = System.nanoTime();
+        restore();
+        writable.executeWithoutResult(status -> {
+            journalPostingRepository.lockForOpening();
+            int opened = journalPostingRepository.openFromStoredBalances(ContraAccount.EXTERNAL.id(), LocalDateTime.now());
+            if (opened > 0) {
+                log.info("Opened the journal with {} postings from stored balances", opened);
+            }
+        });
+        long caughtUp = poll();
+        projection.markReady();
+        log.info("Balance projection ready with {} accounts after {} ms, {} postings read from the journal",
+                projection.accountCount(), (System.nanoTime() - started) / 1_000_000, caughtUp);
+    }
+
+    @Scheduled(fixedDelayString = "${eaglebank.journal.poll-interval:PT0.25S}")
+    public void tail() {
+        if (!projection.isReady()) {
+            return;
+        }
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            log.error("Reading the journal tail failed", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${eaglebank.journal.snapshot-interval:PT5M}",
+            initialDelayString = "${eaglebank.journal.snapshot-interval:PT5M}")
+    public void snapshot() {
+        if (!projection.isReady()) {
+            return;
+        }
+        try {
+            long started = System.nanoTime();
+            Files.createDirectories(snapshotFile.toAbsolutePath().getParent());
+            BalanceSnapshot snapshot = projection.snapshot();
+            BalanceSnapshot.write(snapshotFile, snapshot);
+            log.info("Saved {} balances to {} in {} ms", snapshot.entryCount(), snapshotFile,
+                    (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException e) {
+            log.error("Could not save the balance snapshot to {}", snapshotFile, e);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        snapshot();
+    }
+
+    long poll() {
+        Long count = snapshotRead.execute(status -> {
+            long xmin = journalPostingRepository.findSnapshotXmin();
+            AtomicLong read = new AtomicLong();
+            try (Stream<TailPosting> postings = journalPostingRepository.streamWrittenSince(projection.watermark())) {
+                postings.forEach(posting -> {
+                    projection.applyTailed(posting);
+                    read.incrementAndGet();
+                });
+            }
+            projection.advance(xmin);
+            return read.get();
+        });
+        long read = count == null ? 0 : count;
+        postingsRead.increment(read);
+        return read;
+    }
+
+    private void restore() {
+        if (!Files.exists(snapshotFile)) {
+            log.info("No balance snapshot at {}; replaying the whole journal", snapshotFile);
+            return;
+        }
+        try {
+            BalanceSnapshot snapshot = BalanceSnapshot.read(snapshotFile);
+            projection.restore(snapshot);
+            log.info("Restored {} balances from {}", snapshot.entryCount(), snapshotFile);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not restore the balance snapshot from {}; replaying the whole journal", snapshotFile, e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.eaglebank.limits;
+
+/**
+ * Recent outgoing activity of one account. The windows are created on first use and dropped
+ * again once they have been empty for a full window, so idle accounts only keep their payees.
+ * Guarded by its own monitor.
+ */
+final class AccountActivity {
+
+    private static final long SECOND = 1_000;
+    private static final long MINUTE = 60 * SECOND;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY = 24 * HOUR;
+
+    final PayeeSet payees = new PayeeSet();
+
+    // Minor units sent or withdrawn, 15 minute buckets
+    private SlidingWindow outgoing;
+    // Transfers made, 5 second buckets
+    private SlidingWindow transfers;
+    // First payments to a payee, 5 minute buckets
+    private SlidingWindow newPayees;
+
+    SlidingWindow outgoing(long nowMillis) {
+        if (outgoing == null) {
+            outgoing = new SlidingWindow(DAY, 15 * MINUTE, nowMillis);
+        }
+        return outgoing;
+    }
+
+    SlidingWindow transfers(long nowMillis) {
+        if (transfers == null) {
+            transfers = new SlidingWindow(MINUTE, 5 * SECOND, nowMillis);
+        }
+        return transfers;
+    }
+
+    SlidingWindow newPayees(long nowMillis) {
+        if (newPayees == null) {
+            newPayees = new SlidingWindow(HOUR, 5 * MINUTE, nowMillis);
+        }
+        return newPayees;
+    }
+
+    /**
+     * Takes back a reservation. Windows dropped since then had already expired it.
+     */
+    void undo(long atMillis, long minorUnits, boolean transfer, boolean newPayee) {
+        if (outgoing != null) {
+            outgoing.add(atMillis, -minorUnits);
+        }
+        if (transfer && transfers != null) {
+            transfers.add(atMillis, -1);
+        }
+        if (newPayee && newPayees != null) {
+            newPayees.add(atMillis, -1);
+        }
+    }
+
+    void trim(long nowMillis) {
+        if (outgoing != null && outgoing.isEmpty(nowMillis)) {
+            outgoing = null;
+        }
+        if (transfers != null && transfers.isEmpty(nowMillis)) {
+            transfers = null;
+        }
+        if (newPayees != null && newPayees.isEmpty(nowMillis)) {
+            newPayees = null;
+        }
+    }
+}
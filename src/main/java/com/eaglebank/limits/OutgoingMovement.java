@@ -0,0 +1,15 @@
+package com.eaglebank.limits;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Money that left an account; {@code toAccountId} is null for withdrawals.
+ */
+public record OutgoingMovement(
+        UUID fromAccountId,
+        UUID toAccountId,
+        BigDecimal amount,
+        LocalDateTime createdTimestamp
+) {}
@@ -0,0 +1,10 @@
+package com.eaglebank.limits;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record PayeeHistory(
+        UUID accountId,
+        UUID payeeId,
+        LocalDateTime firstPaid
+) {}
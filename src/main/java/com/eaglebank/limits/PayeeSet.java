@@ -0,0 +1,70 @@
+package com.eaglebank.limits;
+
+import java.util.UUID;
+
+/**
+ * Open-addressed set of 64-bit payee fingerprints, so each known payee costs 16 bytes at most
+ * instead of a boxed UUID in a hash map. Payees are only ever added.
+ */
+final class PayeeSet {
+
+    private long[] slots = new long[4];
+    private int size;
+
+    static long fingerprint(UUID payee) {
+        long h = payee.getMostSignificantBits() * 0x9E3779B97F4A7C15L ^ payee.getLeastSignificantBits();
+        // Zero marks an empty slot
+        return h == 0 ? 1 : h;
+    }
+
+    boolean contains(long fingerprint) {
+        int mask = slots.length - 1;
+        for (int i = mix(fingerprint) & mask; ; i = (i + 1) & mask) {
+            long slot = slots[i];
+            if (slot == fingerprint) {
+                return true;
+            }
+            if (slot == 0) {
+                return false;
+            }
+        }
+    }
+
+    void add(long fingerprint) {
+        if (contains(fingerprint)) {
+            return;
+        }
+        if ((size + 1) * 2 > slots.length) {
+            resize();
+        }
+        insert(slots, fingerprint);
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void resize() {
+        long[] next = new long[slots.length * 2];
+        for (long slot : slots) {
+            if (slot != 0) {
+                insert(next, slot);
+            }
+        }
+        slots = next;
+    }
+
+    private static void insert(long[] table, long fingerprint) {
+        int mask = table.length - 1;
+        int i = mix(fingerprint) & mask;
+        while (table[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        table[i] = fingerprint;
+    }
+
+    private static int mix(long fingerprint) {
+        return (int) (fingerprint ^ (fingerprint >>> 32));
+    }
+}
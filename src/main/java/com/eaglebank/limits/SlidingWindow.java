@@ -0,0 +1,60 @@
+package com.eaglebank.limits;
+
+/**
+ * A running total over the last {@code window}, kept as a ring of fixed-width time buckets.
+ *
+ * <p>The ring holds one bucket more than the window needs, so the total always covers at
+ * least the full window and at most one bucket more; limits err on the strict side. Not
+ * thread-safe: callers hold the owning account's lock.
+ */
+final class SlidingWindow {
+
+    private final long bucketMillis;
+    private final long[] buckets;
+    private long head;
+
+    SlidingWindow(long windowMillis, long bucketMillis, long nowMillis) {
+        this.bucketMillis = bucketMillis;
+        this.buckets = new long[(int) (windowMillis / bucketMillis) + 1];
+        this.head = nowMillis / bucketMillis;
+    }
+
+    /**
+     * Adds to the bucket covering {@code atMillis}; amounts older than the window are dropped.
+     */
+    void add(long atMillis, long amount) {
+        long bucket = atMillis / bucketMillis;
+        advance(bucket);
+        if (bucket > head - buckets.length) {
+            buckets[index(bucket)] += amount;
+        }
+    }
+
+    long total(long nowMillis) {
+        advance(nowMillis / bucketMillis);
+        long total = 0;
+        for (long value : buckets) {
+            total += value;
+        }
+        return total;
+    }
+
+    boolean isEmpty(long nowMillis) {
+        return total(nowMillis) == 0;
+    }
+
+    private void advance(long bucket) {
+        if (bucket <= head) {
+            return;
+        }
+        long expired = Math.min(bucket - head, buckets.length);
+        for (long i = 1; i <= expired; i++) {
+            buckets[index(head + i)] = 0;
+        }
+        head = bucket;
+    }
+
+    private int index(long bucket) {
+        return (int) Math.floorMod(bucket, (long) buckets.length);
+    }
+}
@@ -0,0 +1,259 @@
+package com.eaglebank.limits;
+
+import com.eaglebank.config.LimitProperties;
+import com.eaglebank.entity.TransactionType;
+import com.eaglebank.exception.LimitExceededException;
+import com.eaglebank.repository.TransactionRepository;
+import com.eaglebank.sharding.Shards;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Per-account daily amount, transfer rate and new-payee limits, checked in memory on the
+ * transfer and withdrawal paths.
+ *
+ * <p>A movement is counted when it is reserved, inside the caller's transaction, and taken
+ * back out if that transaction rolls back. A payee only becomes known once the first payment
+ * to it commits, so two concurrent first payments to the same payee both count as new.
+ * The counters are rebuilt from the last day of transactions at startup.
+ */
+@Slf4j
+@Component
+public class VelocityLimiter {
+
+    private static final int MINOR_UNIT_SCALE = 2;
+
+    private final TransactionRepository transactionRepository;
+    private final LimitProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final Shards shards;
+    private final Clock clock;
+    private final long maxDailyMinorUnits;
+
+    private final Map<UUID, AccountActivity> activities = new ConcurrentHashMap<>();
+
+    private final Counter dailyAmountRejected;
+    private final Counter transferRateRejected;
+    private final Counter newPayeesRejected;
+
+    @Autowired
+    public VelocityLimiter(TransactionRepository transactionRepository,
+                           LimitProperties properties,
+                           PlatformTransactionManager transactionManager,
+                           Shards shards,
+                           MeterRegistry meterRegistry) {
+        this(transactionRepository, properties, transactionManager, shards, meterRegistry, Clock.systemDefaultZone());
+    }
+
+    VelocityLimiter(TransactionRepository transactionRepository,
+                    LimitProperties properties,
+                    PlatformTransactionManager transactionManager,
+                    Shards shards,
+                    MeterRegistry meterRegistry,
+                    Clock clock) {
+        this.transactionRepository = transactionRepository;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.shards = shards;
+        this.clock = clock;
+        this.maxDailyMinorUnits = toMinorUnits(properties.maxDailyAmount());
+
+        this.dailyAmountRejected = meterRegistry.counter("limits.rejected", "limit", "daily_amount");
+        this.transferRateRejected = meterRegistry.counter("limits.rejected", "limit", "transfer_rate");
+        this.newPayeesRejected = meterRegistry.counter("limits.rejected", "limit", "new_payees");
+        meterRegistry.gauge("limits.accounts.tracked", activities, Map::size);
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        if (!properties.enabled()) {
+            return;
+        }
+        long now = clock.millis();
+        LocalDateTime current = LocalDateTime.now(clock);
+        AtomicLong movements = new AtomicLong();
+        AtomicLong payees = new AtomicLong();
+
+        // An account's movements all live on its shard, so the shards simply add up
+        shards.forEach(shard -> transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<OutgoingMovement> rows = transactionRepository.streamOutgoingSince(current.minusDays(1),
+                    List.of(TransactionType.TRANSFER, TransactionType.WITHDRAWAL))) {
+                rows.forEach(row -> {
+                    long at = toMillis(row.createdTimestamp());
+                    AccountActivity activity = activity(row.fromAccountId());
+                    synchronized (activity) {
+                        activity.outgoing(now).add(at, toMinorUnits(row.amount()));
+                        if (row.toAccountId() != null) {
+                            activity.transfers(now).add(at, 1);
+                        }
+                    }
+                    movements.incrementAndGet();
+                });
+            }
+            try (Stream<PayeeHistory> rows = transactionRepository.streamPayeesSince(
+                    current.minus(properties.payeeLookback()), TransactionType.TRANSFER)) {
+                rows.forEach(row -> {
+                    AccountActivity activity = activity(row.accountId());
+                    synchronized (activity) {
+                        activity.payees.add(PayeeSet.fingerprint(row.payeeId()));
+                        activity.newPayees(now).add(toMillis(row.firstPaid()), 1);
+                    }
+                    payees.incrementAndGet();
+                });
+            }
+        }));
+
+        trim();
+        log.info("Rebuilt velocity limits for {} accounts from {} movements and {} payees",
+                activities.size(), movements.get(), payees.get());
+    }
+
+    /**
+     * Counts an outgoing movement against the account's limits, or throws if it would exceed one.
+     *
+     * @param payeeId the receiving account for a transfer, {@code null} for a withdrawal
+     * @return the reservation, for a caller whose transaction commits without the movement
+     */
+    public Reservation reserve(UUID accountId, UUID payeeId, BigDecimal amount) {
+        if (!properties.enabled()) {
+            return Reservation.NONE;
+        }
+        long now = clock.millis();
+        long minorUnits = toMinorUnits(amount);
+        long payee = payeeId == null ? 0 : PayeeSet.fingerprint(payeeId);
+        AccountActivity activity = activity(accountId);
+
+        boolean newPayee;
+        synchronized (activity) {
+            SlidingWindow outgoing = activity.outgoing(now);
+            if (outgoing.total(now) + minorUnits > maxDailyMinorUnits) {
+                dailyAmountRejected.increment();
+                throw new LimitExceededException("Daily limit of " + properties.maxDailyAmount() + " exceeded");
+            }
+
+            newPayee = payeeId != null && !activity.payees.contains(payee);
+            if (payeeId != null) {
+                if (activity.transfers(now).total(now) >= properties.maxTransfersPerMinute()) {
+                    transferRateRejected.increment();
+                    throw new LimitExceededException("Too many transfers; try again in a minute");
+                }
+                if (newPayee && activity.newPayees(now).total(now) >= properties.maxNewPayeesPerHour()) {
+                    newPayeesRejected.increment();
+                    throw new LimitExceededException("Too many new payees in the last hour");
+                }
+            }
+
+            outgoing.add(now, minorUnits);
+            if (payeeId != null) {
+                activity.transfers(now).add(now, 1);
+            }
+            if (newPayee) {
+                activity.newPayees(now).add(now, 1);
+            }
+        }
+
+        Reservation reservation = new Reservation(activity, now, minorUnits, payeeId != null, newPayee ? payee : 0);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(reservation);
+        } else {
+            reservation.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        return reservation;
+    }
+
+    @Scheduled(fixedDelayString = "${eaglebank.limits.trim-interval:PT10M}")
+    public void trim() {
+        long now = clock.millis();
+        for (AccountActivity activity : activities.values()) {
+            synchronized (activity) {
+                activity.trim(now);
+            }
+        }
+    }
+
+    private AccountActivity activity(UUID accountId) {
+        return activities.computeIfAbsent(accountId, id -> new AccountActivity());
+    }
+
+    private long toMillis(LocalDateTime timestamp) {
+        ZoneId zone = clock.getZone();
+        return timestamp.atZone(zone).toInstant().toEpochMilli();
+    }
+
+    // Rounded up, so fractions of a penny never slip under the limit
+    private static long toMinorUnits(BigDecimal amount) {
+        return amount.setScale(MINOR_UNIT_SCALE, RoundingMode.CEILING).unscaledValue().longValueExact();
+    }
+
+    public static final class Reservation implements TransactionSynchronization {
+
+        static final Reservation NONE = new Reservation(null, 0, 0, false, 0);
+
+        private final AccountActivity activity;
+        private final long atMillis;
+        private final long minorUnits;
+        private final boolean transfer;
+        private final long newPayee;
+        private boolean cancelled;
+
+        private Reservation(AccountActivity activity, long atMillis, long minorUnits, boolean transfer, long newPayee) {
+            this.activity = activity;
+            this.atMillis = atMillis;
+            this.minorUnits = minorUnits;
+            this.transfer = transfer;
+            this.newPayee = newPayee;
+        }
+
+        /**
+         * Takes the movement back out now, for one that was refused after it was reserved while
+         * the rest of the transaction goes on to commit.
+         */
+        public void cancel() {
+            if (activity == null) {
+                return;
+            }
+            synchronized (activity) {
+                if (!cancelled) {
+                    cancelled = true;
+                    activity.undo(atMillis, minorUnits, transfer, newPayee != 0);
+                }
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            synchronized (activity) {
+                if (cancelled) {
+                    return;
+                }
+                if (status != STATUS_COMMITTED) {
+                    activity.undo(atMillis, minorUnits, transfer, newPayee != 0);
+                } else if (newPayee != 0) {
+                    activity.payees.add(newPayee);
+                }
+            }
+        }
+    }
+}
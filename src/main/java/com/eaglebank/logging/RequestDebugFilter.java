@@ -0,0 +1,77 @@
+package com.eaglebank.logging;
+
+import com.eaglebank.config.LoggingProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Tags each request's log lines with a request id and, for a request carrying the debug
+ * token or picked by sampling, switches on DEBUG for every logger while it runs. The switch
+ * is the {@code debug} MDC entry read by the turbo filter in {@code logback-spring.xml}.
+ *
+ * <p>Registered as a servlet filter ahead of Spring Security, so the security chain's own
+ * debug output is included.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class RequestDebugFilter extends OncePerRequestFilter {
+
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+    static final String REQUEST_ID_KEY = "requestId";
+    static final String DEBUG_KEY = "debug";
+    static final String DEBUG_ON = "on";
+
+    private static final int MAX_REQUEST_ID_LENGTH = 64;
+
+    private final LoggingProperties properties;
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+        String requestId = request.getHeader(REQUEST_ID_HEADER);
+        if (requestId == null || requestId.isBlank() || requestId.length() > MAX_REQUEST_ID_LENGTH) {
+            requestId = UUID.randomUUID().toString();
+        }
+        response.setHeader(REQUEST_ID_HEADER, requestId);
+
+        MDC.put(REQUEST_ID_KEY, requestId);
+        if (debugRequested(request)) {
+            MDC.put(DEBUG_KEY, DEBUG_ON);
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(DEBUG_KEY);
+            MDC.remove(REQUEST_ID_KEY);
+        }
+    }
+
+    private boolean debugRequested(HttpServletRequest request) {
+        String token = properties.debugToken();
+        String presented = request.getHeader(properties.debugHeader());
+        if (token != null && presented != null && MessageDigest.isEqual(
+                token.getBytes(StandardCharsets.UTF_8), presented.getBytes(StandardCharsets.UTF_8))) {
+            return true;
+        }
+        double rate = properties.debugSampleRate();
+        return rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
+    }
+}
@@ -0,0 +1,26 @@
+package com.eaglebank.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "eaglebank.outbox", name = "log-sink-enabled", havingValue = "true", matchIfMissing = true)
+public class LogOutboxSink implements OutboxSink {
+
+    @Override
+    public String name() {
+        return "log";
+    }
+
+    @Override
+    public void deliver(List<OutboxMessage> messages) {
+        for (OutboxMessage message : messages) {
+            log.info("Outbox event id={} account={} type={} payload={}",
+                    message.id(), message.aggregateId(), message.eventType(), message.payload());
+        }
+    }
+}
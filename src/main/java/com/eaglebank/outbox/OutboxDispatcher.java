@@ -0,0 +1,230 @@
+package com.eaglebank.outbox;
+
+import com.eaglebank.config.OutboxProperties;
+import com.eaglebank.coordination.ExclusiveJob;
+import com.eaglebank.entity.OutboxEvent;
+import com.eaglebank.entity.OutboxStatus;
+import com.eaglebank.repository.OutboxEventRepository;
+import com.eaglebank.sharding.Shards;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Polls the outbox and hands pending events to every {@link OutboxSink}.
+ *
+ * <p>Each worker claims the head event of up to {@code batchSize} accounts with
+ * {@code FOR UPDATE SKIP LOCKED}, then locks the rest of those accounts' pending events.
+ * Because a later event is only claimable once every earlier event of the same account has
+ * left {@code PENDING}, instances and workers never deliver one account's events out of id
+ * order. That is the order the account's movements committed in only because they are
+ * written under its row lock; an event with a smaller id can never commit after a larger one
+ * of the same account is visible.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "eaglebank.outbox", name = "dispatcher-enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 255;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxSink> sinks;
+    private final OutboxProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final Shards shards;
+
+    private final Counter delivered;
+    private final Counter failed;
+    private final Counter dead;
+    private final Timer lag;
+    private final AtomicLong oldestPendingAgeMs = new AtomicLong();
+
+    private ScheduledExecutorService executor;
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            List<OutboxSink> sinks,
+                            OutboxProperties properties,
+                            PlatformTransactionManager transactionManager,
+                            Shards shards,
+                            MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sinks = sinks;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shards = shards;
+
+        this.delivered = meterRegistry.counter("outbox.dispatch.delivered");
+        this.failed = meterRegistry.counter("outbox.dispatch.failed");
+        this.dead = meterRegistry.counter("outbox.dispatch.dead");
+        this.lag = Timer.builder("outbox.dispatch.lag")
+                .description("Time from an event being written to it being delivered")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("outbox.pending.oldest.age", oldestPendingAgeMs, AtomicLong::get)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newScheduledThreadPool(properties.workers(), runnable -> {
+            Thread thread = new Thread(runnable, "outbox-dispatcher-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.pollInterval().toMillis();
+        for (int i = 0; i < properties.workers(); i++) {
+            executor.scheduleWithFixedDelay(this::poll, interval, interval, TimeUnit.MILLISECONDS);
+        }
+        log.info("Outbox dispatcher started with {} workers and sinks {}",
+                properties.workers(), sinks.stream().map(OutboxSink::name).toList());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (executor != null) {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    void poll() {
+        // Each shard has its own outbox, written alongside its own movements
+        AtomicLong oldestAge = new AtomicLong();
+        shards.forEach(shard -> {
+            try {
+                // Keep draining while batches come back full
+                while (dispatchBatch() >= properties.batchSize()) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        return;
+                    }
+                }
+                LocalDateTime oldest = outboxEventRepository.findOldestCreatedTimestamp(OutboxStatus.PENDING);
+                if (oldest != null) {
+                    oldestAge.accumulateAndGet(Duration.between(oldest, LocalDateTime.now()).toMillis(), Math::max);
+                }
+            } catch (RuntimeException e) {
+                log.error("Outbox dispatch on shard {} failed", shard, e);
+            }
+        });
+        oldestPendingAgeMs.set(oldestAge.get());
+    }
+
+    /**
+     * Claims, delivers and settles one batch from the current shard in a single transaction.
+     *
+     * @return the number of accounts claimed
+     */
+    public int dispatchBatch() {
+        Integer claimed = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> heads = outboxEventRepository.claimHeads(now, properties.batchSize());
+            if (heads.isEmpty()) {
+                return 0;
+            }
+
+            Map<Long, OutboxEvent> batch = new TreeMap<>();
+            heads.forEach(e -> batch.put(e.getId(), e));
+            Set<UUID> aggregates = heads.stream().map(OutboxEvent::getAggregateId).collect(Collectors.toSet());
+            outboxEventRepository.lockPendingFor(aggregates, properties.batchSize() * 4)
+                    .forEach(e -> batch.putIfAbsent(e.getId(), e));
+
+            List<OutboxEvent> events = new ArrayList<>(batch.values());
+            List<OutboxMessage> messages = events.stream().map(OutboxMessage::from).toList();
+            try {
+                for (OutboxSink sink : sinks) {
+                    sink.deliver(messages);
+                }
+                markDelivered(events);
+            } catch (Exception e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                log.warn("Delivering {} outbox events failed: {}", events.size(), e.toString());
+                markFailed(events, e);
+            }
+            return heads.size();
+        });
+        return claimed == null ? 0 : claimed;
+    }
+
+    private void markDelivered(List<OutboxEvent> events) {
+        LocalDateTime now = LocalDateTime.now();
+        for (OutboxEvent event : events) {
+            event.setStatus(OutboxStatus.DELIVERED);
+            event.setDeliveredTimestamp(now);
+            event.setLastError(null);
+            lag.record(Duration.between(event.getCreatedTimestamp(), now));
+        }
+        delivered.increment(events.size());
+    }
+
+    private void markFailed(List<OutboxEvent> events, Exception cause) {
+        LocalDateTime now = LocalDateTime.now();
+        String error = cause.toString();
+        if (error.length() > MAX_ERROR_LENGTH) {
+            error = error.substring(0, MAX_ERROR_LENGTH);
+        }
+
+        for (OutboxEvent event : events) {
+            int attempts = event.getAttempts() + 1;
+            event.setAttempts(attempts);
+            event.setLastError(error);
+            if (attempts >= properties.maxAttempts()) {
+                // Parks the event so the rest of the account's stream can move on
+                event.setStatus(OutboxStatus.DEAD);
+                dead.increment();
+            } else {
+                event.setNextAttemptAt(now.plus(backoff(attempts)));
+            }
+        }
+        failed.increment(events.size());
+    }
+
+    Duration backoff(int attempts) {
+        long initial = properties.initialBackoff().toMillis();
+        long max = properties.maxBackoff().toMillis();
+        long delay = initial << Math.min(attempts - 1, 30);
+        return Duration.ofMillis(delay <= 0 ? max : Math.min(delay, max));
+    }
+
+    @ExclusiveJob("outbox-purge")
+    @Scheduled(cron = "${eaglebank.outbox.cleanup-cron:0 15 3 * * *}")
+    public void purgeDelivered() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.retention());
+        AtomicLong removed = new AtomicLong();
+        shards.forEach(shard -> {
+            Integer deleted = transactionTemplate.execute(status ->
+                    outboxEventRepository.deleteDeliveredBefore(OutboxStatus.DELIVERED, cutoff));
+            removed.addAndGet(deleted == null ? 0 : deleted);
+        });
+        log.info("Purged {} delivered outbox events older than {}", removed.get(), cutoff);
+    }
+}
@@ -0,0 +1,25 @@
+package com.eaglebank.outbox;
+
+import com.eaglebank.entity.OutboxEvent;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record OutboxMessage(
+        long id,
+        UUID aggregateId,
+        String eventType,
+        LocalDateTime createdTimestamp,
+        @JsonRawValue String payload
+) {
+    public static OutboxMessage from(OutboxEvent event) {
+        return new OutboxMessage(
+                event.getId(),
+                event.getAggregateId(),
+                event.getEventType(),
+                event.getCreatedTimestamp(),
+                event.getPayload()
+        );
+    }
+}
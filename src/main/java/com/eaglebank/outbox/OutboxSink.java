@@ -0,0 +1,18 @@
+package com.eaglebank.outbox;
+
+import java.util.List;
+
+/**
+ * Destination for outbox events. Delivery is at-least-once: a batch that fails on any sink
+ * is retried on every sink, so consumers should de-duplicate on {@link OutboxMessage#id()}.
+ * Each account's messages arrive in id order. Ids are drawn when the row is inserted, not at
+ * commit, so id order is only the order of the account's movements because each one is
+ * written under that account's row lock (see {@link OutboxWriter}); across accounts, ids say
+ * nothing about commit order.
+ */
+public interface OutboxSink {
+
+    String name();
+
+    void deliver(List<OutboxMessage> messages) throws Exception;
+}
@@ -0,0 +1,52 @@
+package com.eaglebank.outbox;
+
+import com.eaglebank.entity.OutboxEvent;
+import com.eaglebank.entity.OutboxStatus;
+import com.eaglebank.event.MoneyMovementEvent;
+import com.eaglebank.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Records every money movement in the outbox table. Runs on the publishing thread and
+ * requires the caller's transaction, so the event commits or rolls back with the movement.
+ *
+ * <p>The caller must hold the row lock of the event's account, as every balance write does.
+ * The lock is what orders an account's events: the next writer cannot insert, and so draw
+ * an id, until this transaction has committed or rolled back.
+ */
+@Component
+public class OutboxWriter {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectWriter writer;
+
+    public OutboxWriter(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.writer = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onMoneyMovement(MoneyMovementEvent event) throws JsonProcessingException {
+        LocalDateTime now = LocalDateTime.now();
+
+        outboxEventRepository.save(OutboxEvent.builder()
+                .aggregateId(event.accountId())
+                .eventType(event.type().name())
+                .payload(writer.writeValueAsString(event))
+                .status(OutboxStatus.PENDING)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .createdTimestamp(now)
+                .build());
+    }
+}
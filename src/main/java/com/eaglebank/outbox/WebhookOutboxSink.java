@@ -0,0 +1,63 @@
+package com.eaglebank.outbox;
+
+import com.eaglebank.config.OutboxProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * POSTs each batch as a JSON array to a single endpoint. Any non-2xx response fails the batch.
+ */
+@Component
+@ConditionalOnProperty(prefix = "eaglebank.outbox.webhook", name = "url")
+public class WebhookOutboxSink implements OutboxSink {
+
+    private final URI endpoint;
+    private final Duration timeout;
+    private final ObjectWriter writer;
+    private final HttpClient httpClient;
+
+    @Autowired
+    public WebhookOutboxSink(OutboxProperties properties, ObjectMapper objectMapper) {
+        this(URI.create(properties.webhook().url()), properties.webhook().timeout(), objectMapper);
+    }
+
+    public WebhookOutboxSink(URI endpoint, Duration timeout, ObjectMapper objectMapper) {
+        this.endpoint = endpoint;
+        this.timeout = timeout;
+        this.writer = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .build();
+    }
+
+    @Override
+    public String name() {
+        return "webhook";
+    }
+
+    @Override
+    public void deliver(List<OutboxMessage> messages) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(endpoint)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(writer.writeValueAsBytes(messages)))
+                .build();
+
+        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Webhook " + endpoint + " responded with status " + response.statusCode());
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.eaglebank.reconciliation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * An inclusive slice of the account id space, bounded so that {@code between first and last}
+ * in Postgres (which orders uuids as unsigned bytes) selects exactly the ids in the slice.
+ */
+public record AccountRange(UUID first, UUID last) {
+
+    /**
+     * Splits the whole id space into {@code count} contiguous, equally wide ranges on the
+     * leading 64 bits. Account ids are random, so ranges hold similar numbers of accounts.
+     */
+    public static List<AccountRange> split(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("count must be positive");
+        }
+
+        long width = Long.divideUnsigned(-1L, count);
+        List<AccountRange> ranges = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long firstMsb = width * i;
+            long lastMsb = i == count - 1 ? -1L : width * (i + 1) - 1;
+            ranges.add(new AccountRange(new UUID(firstMsb, 0L), new UUID(lastMsb, -1L)));
+        }
+        return ranges;
+    }
+
+    public boolean contains(UUID id) {
+        return compareUnsigned(first, id) <= 0 && compareUnsigned(id, last) <= 0;
+    }
+
+    public static int compareUnsigned(UUID a, UUID b) {
+        int cmp = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return cmp != 0 ? cmp : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
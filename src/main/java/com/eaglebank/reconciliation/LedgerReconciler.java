@@ -0,0 +1,285 @@
+package com.eaglebank.reconciliation;
+
+import com.eaglebank.archive.TransactionArchive;
+import com.eaglebank.config.ReconciliationProperties;
+import com.eaglebank.coordination.ExclusiveJob;
+import com.eaglebank.entity.BalanceDrift;
+import com.eaglebank.entity.ReconciliationRun;
+import com.eaglebank.entity.ReconciliationStatus;
+import com.eaglebank.repository.BalanceDriftRepository;
+import com.eaglebank.repository.BankAccountRepository;
+import com.eaglebank.repository.LedgerTotal;
+import com.eaglebank.repository.ReconciliationRunRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Proves that every stored balance equals the money that moved through the account:
+ * what it received minus what it sent, across both the transactions table and the archive.
+ *
+ * <p>The id space is split into {@code ranges} slices which a fork/join pool reconciles in
+ * parallel. Each slice is one streamed query, so memory stays flat however many accounts
+ * there are, and balances and movements come from the same statement snapshot. Disagreements
+ * are stored as {@link BalanceDrift} rows against the run.
+ *
+ * <p>Closed accounts are passed over: closing pays the balance out as a withdrawal, and
+ * nothing can move through them since.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "eaglebank.reconciliation", name = "enabled", havingValue = "true")
+public class LedgerReconciler {
+
+    private static final LocalDateTime LEDGER_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final BankAccountRepository bankAccountRepository;
+    private final ReconciliationRunRepository runRepository;
+    private final BalanceDriftRepository driftRepository;
+    private final TransactionArchive archive;
+    private final ReconciliationProperties properties;
+    private final TransactionTemplate readOnly;
+    private final TransactionTemplate writable;
+
+    private final Counter accountsChecked;
+    private final Counter driftsDetected;
+    private final Timer rangeDuration;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile ReconciliationProgress progress;
+
+    public LedgerReconciler(BankAccountRepository bankAccountRepository,
+                            ReconciliationRunRepository runRepository,
+                            BalanceDriftRepository driftRepository,
+                            TransactionArchive archive,
+                            ReconciliationProperties properties,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry) {
+        this.bankAccountRepository = bankAccountRepository;
+        this.runRepository = runRepository;
+        this.driftRepository = driftRepository;
+        this.archive = archive;
+        this.properties = properties;
+
+        this.readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        this.writable = new TransactionTemplate(transactionManager);
+        writable.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        this.accountsChecked = meterRegistry.counter("reconciliation.accounts.checked");
+        this.driftsDetected = meterRegistry.counter("reconciliation.drift.detected");
+        this.rangeDuration = Timer.builder("reconciliation.range.duration")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("reconciliation.progress", this, r -> r.progress == null ? 0 : r.progress.fractionComplete())
+                .description("Fraction of ranges completed by the current or last run")
+                .register(meterRegistry);
+        Gauge.builder("reconciliation.throughput", this, r -> r.progress == null ? 0 : r.progress.accountsPerSecond())
+                .baseUnit("accounts/s")
+                .register(meterRegistry);
+    }
+
+    @ExclusiveJob("reconciliation")
+    @Scheduled(cron = "${eaglebank.reconciliation.cron:0 0 1 * * *}")
+    public void scheduledRun() {
+        reconcile();
+    }
+
+    /**
+     * Runs a full reconciliation and returns the finished run, or {@code null} when one is
+     * already in progress.
+     */
+    public ReconciliationRun reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Reconciliation already running, skipping");
+            return null;
+        }
+
+        try {
+            List<AccountRange> ranges = AccountRange.split(properties.ranges());
+            ReconciliationRun run = writable.execute(status -> runRepository.save(ReconciliationRun.builder()
+                    .status(ReconciliationStatus.RUNNING)
+                    .rangeCount(ranges.size())
+                    .startedTimestamp(LocalDateTime.now())
+                    .build()));
+            ReconciliationProgress current = new ReconciliationProgress(run.getId(), ranges.size());
+            progress = current;
+            log.info("Reconciliation {} started over {} ranges with parallelism {}",
+                    run.getId(), ranges.size(), properties.parallelism());
+
+            ForkJoinPool pool = new ForkJoinPool(properties.parallelism());
+            ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "reconciliation-progress");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = properties.progressInterval().toMillis();
+            reporter.scheduleAtFixedRate(() -> log.info("Reconciliation {}", current),
+                    interval, interval, TimeUnit.MILLISECONDS);
+
+            ReconciliationStatus outcome = ReconciliationStatus.FAILED;
+            try {
+                pool.invoke(new RangeTask(current, ranges, 0, ranges.size()));
+                outcome = ReconciliationStatus.COMPLETED;
+            } catch (RuntimeException e) {
+                log.error("Reconciliation {} failed", run.getId(), e);
+            } finally {
+                reporter.shutdownNow();
+                pool.shutdownNow();
+            }
+
+            run.setStatus(outcome);
+            run.setAccountsChecked(current.accountsChecked());
+            run.setDriftedAccounts(current.driftedAccounts());
+            run.setNetDrift(current.netDrift());
+            run.setFinishedTimestamp(LocalDateTime.now());
+            ReconciliationRun finished = writable.execute(status -> runRepository.save(run));
+            log.info("Reconciliation {} {}", current, outcome);
+            return finished;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Latest run's counters, or {@code null} before the first run.
+     */
+    public ReconciliationProgress progress() {
+        return progress;
+    }
+
+    private class RangeTask extends RecursiveTask<Void> {
+
+        private final ReconciliationProgress progress;
+        private final List<AccountRange> ranges;
+        private final int from;
+        private final int to;
+
+        RangeTask(ReconciliationProgress progress, List<AccountRange> ranges, int from, int to) {
+            this.progress = progress;
+            this.ranges = ranges;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Void compute() {
+            if (to - from == 1) {
+                reconcileRange(progress, ranges.get(from));
+                return null;
+            }
+            int mid = (from + to) >>> 1;
+            RangeTask left = new RangeTask(progress, ranges, from, mid);
+            left.fork();
+            new RangeTask(progress, ranges, mid, to).compute();
+            left.join();
+            return null;
+        }
+    }
+
+    void reconcileRange(ReconciliationProgress progress, AccountRange range) {
+        Timer.Sample sample = Timer.start();
+        while (true) {
+            LocalDateTime archivedUntil = archive.archivedUntil();
+            RangeScan scan = new RangeScan(progress);
+
+            readOnly.executeWithoutResult(status -> {
+                try (Stream<LedgerTotal> totals = bankAccountRepository.streamLedgerTotals(
+                        range.first(), range.last(), archivedUntil == null ? LEDGER_START : archivedUntil)) {
+                    totals.forEach(scan::check);
+                }
+            });
+
+            // Rows only reach the archive before they leave the table, but if a period moved
+            // while this range was read, its movements may have been counted twice or not at all
+            if (Objects.equals(archivedUntil, archive.archivedUntil())) {
+                scan.flush();
+                break;
+            }
+            log.info("Archive advanced while reconciling {}, rescanning the range", range);
+            scan.discard(range);
+        }
+        progress.rangeCompleted();
+        sample.stop(rangeDuration);
+    }
+
+    private class RangeScan {
+
+        private final ReconciliationProgress progress;
+        private final List<BalanceDrift> pending = new ArrayList<>();
+        private long accounts;
+        private long drifts;
+        private BigDecimal drift = BigDecimal.ZERO;
+
+        RangeScan(ReconciliationProgress progress) {
+            this.progress = progress;
+        }
+
+        void check(LedgerTotal total) {
+            UUID accountId = total.getAccountId();
+            BigDecimal expected = total.getNetMovement().add(archive.netMovement(accountId));
+            BigDecimal stored = total.getStoredBalance();
+
+            accounts++;
+            progress.accountChecked();
+            accountsChecked.increment();
+
+            if (stored.compareTo(expected) != 0) {
+                BigDecimal difference = stored.subtract(expected);
+                drifts++;
+                drift = drift.add(difference);
+                progress.driftFound(difference);
+                driftsDetected.increment();
+                pending.add(BalanceDrift.builder()
+                        .runId(progress.runId())
+                        .accountId(accountId)
+                        .storedBalance(stored)
+                        .expectedBalance(expected)
+                        .difference(difference)
+                        .detectedTimestamp(LocalDateTime.now())
+                        .build());
+                if (pending.size() >= properties.driftBatchSize()) {
+                    flush();
+                }
+            }
+        }
+
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<BalanceDrift> batch = List.copyOf(pending);
+            pending.clear();
+            writable.executeWithoutResult(status -> driftRepository.saveAll(batch));
+        }
+
+        void discard(AccountRange range) {
+            pending.clear();
+            writable.executeWithoutResult(status ->
+                    driftRepository.deleteForRange(progress.runId(), range.first(), range.last()));
+            progress.discard(accounts, drifts, drift);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.eaglebank.reconciliation;
+
+import com.eaglebank.archive.TransactionArchive;
+import com.eaglebank.repository.TransactionRepository;
+import com.eaglebank.sharding.Shards;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gives each account opened while only transfers were recorded the {@code OPENING} movement
+ * it never had, once per database, so reconciliation holds from its first run. The amount
+ * covers its opening balance and every deposit and withdrawal made before then, net of what
+ * the transactions table and the archive do record.
+ *
+ * <p>Runs on shard 0 only, where every account from before sharding lives. Accounts opened
+ * since have their movements recorded from the start and never need it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OpeningMovementBackfill {
+
+    static final String NAME = "opening-movements";
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionArchive transactionArchive;
+    private final Shards shards;
+    private final ObjectMapper objectMapper;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() throws JsonProcessingException {
+        if (Boolean.TRUE.equals(shards.callOn(Shards.HOME, () -> transactionRepository.isBackfilled(NAME)))) {
+            return;
+        }
+        String archivedNets = objectMapper.writeValueAsString(transactionArchive.netMovements());
+        Integer inserted = shards.inTransaction(Shards.HOME,
+                status -> transactionRepository.backfillOpeningMovements(archivedNets));
+        log.info("Backfilled {} opening movements", inserted);
+    }
+}
@@ -0,0 +1,90 @@
+package com.eaglebank.reconciliation;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live counters for one run, updated by every worker and read by the progress reporter
+ * and the metrics gauges.
+ */
+public final class ReconciliationProgress {
+
+    private final UUID runId;
+    private final int totalRanges;
+    private final long startedNanos = System.nanoTime();
+
+    private final AtomicInteger completedRanges = new AtomicInteger();
+    private final LongAdder accountsChecked = new LongAdder();
+    private final LongAdder driftedAccounts = new LongAdder();
+    private final AtomicReference<BigDecimal> netDrift = new AtomicReference<>(BigDecimal.ZERO);
+
+    ReconciliationProgress(UUID runId, int totalRanges) {
+        this.runId = runId;
+        this.totalRanges = totalRanges;
+    }
+
+    void accountChecked() {
+        accountsChecked.increment();
+    }
+
+    void driftFound(BigDecimal difference) {
+        driftedAccounts.increment();
+        netDrift.accumulateAndGet(difference, BigDecimal::add);
+    }
+
+    void rangeCompleted() {
+        completedRanges.incrementAndGet();
+    }
+
+    /**
+     * Backs out a range's counts before it is scanned again.
+     */
+    void discard(long accounts, long drifts, BigDecimal drift) {
+        accountsChecked.add(-accounts);
+        driftedAccounts.add(-drifts);
+        netDrift.accumulateAndGet(drift, BigDecimal::subtract);
+    }
+
+    public UUID runId() {
+        return runId;
+    }
+
+    public int totalRanges() {
+        return totalRanges;
+    }
+
+    public int completedRanges() {
+        return completedRanges.get();
+    }
+
+    public long accountsChecked() {
+        return accountsChecked.sum();
+    }
+
+    public long driftedAccounts() {
+        return driftedAccounts.sum();
+    }
+
+    public BigDecimal netDrift() {
+        return netDrift.get();
+    }
+
+    public double fractionComplete() {
+        return totalRanges == 0 ? 1.0 : (double) completedRanges() / totalRanges;
+    }
+
+    public double accountsPerSecond() {
+        double seconds = (System.nanoTime() - startedNanos) / 1e9;
+        return seconds <= 0 ? 0 : accountsChecked() / seconds;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("run %s: %d/%d ranges (%.1f%%), %d accounts, %.0f accounts/s, %d drifted",
+                runId, completedRanges(), totalRanges, fractionComplete() * 100,
+                accountsChecked(), accountsPerSecond(), driftedAccounts());
+    }
+}
@@ -0,0 +1,31 @@
+package com.eaglebank.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A movement filed under one of its accounts, as read for archiving.
+ */
+public interface ArchiveRow {
+
+    UUID getAccountId();
+
+    UUID getId();
+
+    UUID getFromAccountId();
+
+    UUID getToAccountId();
+
+    BigDecimal getAmount();
+
+    LocalDateTime getCreatedTimestamp();
+
+    String getType();
+
+    BigDecimal getCreditedAmount();
+
+    BigDecimal getFxRate();
+
+    String getReference();
+}
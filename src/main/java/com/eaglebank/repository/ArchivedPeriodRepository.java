@@ -0,0 +1,13 @@
+package com.eaglebank.repository;
+
+import com.eaglebank.entity.ArchivedPeriod;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+
+public interface ArchivedPeriodRepository extends JpaRepository<ArchivedPeriod, LocalDateTime> {
+
+    @Query("select max(p.periodEnd) from ArchivedPeriod p")
+    LocalDateTime findArchivedUntil();
+}
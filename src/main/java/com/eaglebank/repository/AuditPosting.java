@@ -0,0 +1,22 @@
+package com.eaglebank.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A posting to a customer account with what the audit sweep needs to rebuild its money
+ * record: the movement's type, who sent it, and the account's balance once it was posted.
+ */
+public interface AuditPosting {
+    long getId();
+    UUID getTransactionId();
+    UUID getAccountId();
+    BigDecimal getAmount();
+    LocalDateTime getCreatedTimestamp();
+    // Null once the movement has been archived
+    String getType();
+    UUID getCounterpartyAccountId();
+    String getActor();
+    BigDecimal getBalanceAfter();
+}
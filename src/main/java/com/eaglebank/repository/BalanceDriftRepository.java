@@ -0,0 +1,19 @@
+package com.eaglebank.repository;
+
+import com.eaglebank.entity.BalanceDrift;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface BalanceDriftRepository extends JpaRepository<BalanceDrift, UUID> {
+
+    List<BalanceDrift> findByRunIdOrderByAccountId(UUID runId);
+
+    @Modifying
+    @Query("delete from BalanceDrift d where d.runId = :runId and d.accountId between :first and :last")
+    int deleteForRange(@Param("runId") UUID runId, @Param("first") UUID first, @Param("last") UUID last);
+}
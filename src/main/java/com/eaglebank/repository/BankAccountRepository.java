@@ -1,16 +1,234 @@
 package com.eaglebank.repository;
 
 import com.eaglebank.entity.BankAccount;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+/**
+ * Lookups and the batch queries leave out closed accounts, except {@link #existsByUserId} and
+ * {@link #existsBySortCodeAndAccountNumber}: a closed account still belongs to its user and
+ * keeps its number.
+ */
 public interface BankAccountRepository extends JpaRepository<BankAccount, UUID> {
     boolean existsByUserId(UUID userId);
-    List<BankAccount> findByUserId(UUID userId);
-    Optional<BankAccount> findByIdAndUserId(UUID accountId, UUID userId);
 
-}
+    @Query("select a from BankAccount a where a.user.id = :userId and a.closedTimestamp is null")
+    List<BankAccount> findByUserId(@Param("userId") UUID userId);
+
+    @Query("""
+            select a from BankAccount a
+            where a.id = :accountId and a.user.id = :userId and a.closedTimestamp is null
+            """)
+    Optional<BankAccount> findByIdAndUserId(@Param("accountId") UUID accountId, @Param("userId") UUID userId);
+
+    @Query("select a from BankAccount a where a.id = :id and a.closedTimestamp is null")
+    Optional<BankAccount> findOpenById(@Param("id") UUID id);
+
+    @Query("""
+            select case when count(a) > 0 then true else false end from BankAccount a
+            where a.id = :accountId and a.user.email = :email and a.closedTimestamp is null
+            """)
+    boolean existsByIdAndUserEmail(@Param("accountId") UUID accountId, @Param("email") String email);
+
+    boolean existsBySortCodeAndAccountNumber(String sortCode, String accountNumber);
+
+    @Query("""
+            select a from BankAccount a
+            where a.sortCode = :sortCode and a.accountNumber = :accountNumber and a.closedTimestamp is null
+            """)
+    Optional<BankAccount> findBySortCodeAndAccountNumber(@Param("sortCode") String sortCode,
+                                                         @Param("accountNumber") String accountNumber);
+
+    @Query("""
+            select a.id from BankAccount a
+            where a.sortCode = :sortCode and a.accountNumber = :accountNumber and a.closedTimestamp is null
+            """)
+    Optional<UUID> findIdBySortCodeAndAccountNumber(@Param("sortCode") String sortCode,
+                                                    @Param("accountNumber") String accountNumber);
+
+    /**
+     * Loads and write-locks the open accounts in id order, so batches that touch overlapping
+     * accounts queue behind each other instead of deadlocking.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from BankAccount a where a.id in :ids and a.closedTimestamp is null order by a.id")
+    List<BankAccount> lockAllById(@Param("ids") Collection<UUID> ids);
 
+    /**
+     * Loads and write-locks one account. Every read-modify-write of a balance goes through
+     * here or {@link #lockAllById}, and must be the first load of the account in its
+     * transaction, or an instance loaded earlier is handed back unrefreshed.
+     */
+    default Optional<BankAccount> lockById(UUID id) {
+        return lockAllById(List.of(id)).stream().findFirst();
+    }
+
+    @Query("select a.id from BankAccount a where a.user.email = :email and a.closedTimestamp is null")
+    List<UUID> findIdsByUserEmail(@Param("email") String email);
+
+    @Query("""
+            select a.updatedTimestamp from BankAccount a
+            where a.id = :accountId and a.user.email = :email and a.closedTimestamp is null
+            """)
+    Optional<LocalDateTime> findUpdatedTimestamp(@Param("accountId") UUID accountId, @Param("email") String email);
+
+    @Query("""
+            select new com.eaglebank.repository.VersionStamp(count(a), max(a.updatedTimestamp))
+            from BankAccount a where a.user.email = :email and a.closedTimestamp is null
+            """)
+    VersionStamp findVersionStampByUserEmail(@Param("email") String email);
+
+    /**
+     * Streams every open account in {@code [first, last]} with the net of its movements created
+     * at or after {@code since}. Sums are computed per side in the database using the
+     * (account, created_timestamp) indexes, so each account costs one row over the wire.
+     * Must be consumed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(nativeQuery = true, value = """
+            select a.id as "accountId",
+                   a.balance as "storedBalance",
+                   coalesce(received.total, 0) - coalesce(sent.total, 0) as "netMovement"
+            from bank_account a
+            left join (select t.to_account_id as account_id, sum(coalesce(t.credited_amount, t.amount)) as total
+                       from transactions t
+                       where t.to_account_id between :first and :last and t.created_timestamp >= :since
+                       group by t.to_account_id) received on received.account_id = a.id
+            left join (select t.from_account_id as account_id, sum(t.amount) as total
+                       from transactions t
+                       where t.from_account_id between :first and :last and t.created_timestamp >= :since
+                       group by t.from_account_id) sent on sent.account_id = a.id
+            where a.id between :first and :last and a.closed_timestamp is null
+            """)
+    Stream<LedgerTotal> streamLedgerTotals(@Param("first") UUID first,
+                                           @Param("last") UUID last,
+                                           @Param("since") LocalDateTime since);
+
+    /**
+     * Adds one day's interest to every open account of the type in {@code [first, last]} that
+     * is in credit. Returns the number of accounts accrued.
+     *
+     * <p>Safe alongside the service layer only because every JPA write of an account holds its
+     * row lock from load to commit ({@link #lockAllById}); an unlocked load could write back
+     * the balance and interest it read, undoing this update.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            update bank_account
+            set accrued_interest = accrued_interest + round(balance * :dailyRate, 10)
+            where id between :first and :last
+              and lower(account_type) = :accountType
+              and balance > 0
+              and closed_timestamp is null
+            """)
+    int accrueInterest(@Param("first") UUID first,
+                       @Param("last") UUID last,
+                       @Param("accountType") String accountType,
+                       @Param("dailyRate") BigDecimal dailyRate);
+
+    /**
+     * Moves the whole pence of each account's accrued interest in {@code [first, last]} into its
+     * balance and records each as an {@code INTEREST} transaction, with its journal postings
+     * against {@code ContraAccount.INTEREST} and its outbox event, in one statement. The sub-penny
+     * remainder stays accrued for next month. Returns the number of accounts posted.
+     *
+     * <p>No {@code MoneyMovementEvent} is published, so live SSE subscribers are not told; the
+     * outbox row is written here instead. Relies on the same row locking as
+     * {@link #accrueInterest}.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            with due as (
+                select a.id, trunc(a.accrued_interest, 2) as amount
+                from bank_account a
+                where a.id between :first and :last and trunc(a.accrued_interest, 2) > 0
+                  and a.closed_timestamp is null
+                for update
+            ), posted as (
+                update bank_account a
+                set balance = a.balance + due.amount,
+                    accrued_interest = a.accrued_interest - due.amount,
+                    updated_timestamp = :postedAt
+                from due
+                where a.id = due.id
+                returning a.id, a.currency, due.amount, a.balance
+            ), recorded as (
+                insert into transactions (id, type, from_account_id, to_account_id, amount, created_timestamp)
+                select gen_random_uuid(), 'INTEREST', null, posted.id, posted.amount, :postedAt
+                from posted
+                returning id, to_account_id
+            ), credited as (
+                insert into journal_postings (id, transaction_id, account_id, currency, amount, created_timestamp)
+                select nextval('journal_posting_seq'), recorded.id, posted.id, posted.currency, posted.amount, :postedAt
+                from recorded join posted on posted.id = recorded.to_account_id
+            ), debited as (
+                insert into journal_postings (id, transaction_id, account_id, currency, amount, created_timestamp)
+                select nextval('journal_posting_seq'), recorded.id, cast('00000000-0000-0000-0000-000000000002' as uuid),
+                       posted.currency, -posted.amount, :postedAt
+                from recorded join posted on posted.id = recorded.to_account_id
+            )
+            insert into outbox_events (aggregate_id, event_type, payload, status, attempts, next_attempt_at, created_timestamp)
+            select posted.id, 'INTEREST',
+                   cast(json_build_object('transactionId', recorded.id, 'type', 'INTEREST', 'accountId', posted.id,
+                                          'counterpartyAccountId', null, 'amount', posted.amount,
+                                          'balanceAfter', posted.balance,
+                                          'occurredAt', to_char(cast(:postedAt as timestamp), 'YYYY-MM-DD"T"HH24:MI:SS.US'))
+                        as text),
+                   'PENDING', 0, :postedAt, :postedAt
+            from recorded join posted on posted.id = recorded.to_account_id
+            """)
+    int postInterest(@Param("first") UUID first,
+                     @Param("last") UUID last,
+                     @Param("postedAt") LocalDateTime postedAt);
+
+    /**
+     * Streams every open account in {@code [first, last]} opened before {@code end}, in id
+     * order, with its balance at {@code start}: the stored balance less everything that moved
+     * since. Must be consumed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(nativeQuery = true, value = """
+            select a.id as "accountId",
+                   a.sort_code as "sortCode",
+                   a.account_number as "accountNumber",
+                   a.account_type as "accountType",
+                   a.balance - coalesce(received.total, 0) + coalesce(sent.total, 0) as "openingBalance"
+            from bank_account a
+            left join (select t.to_account_id as account_id, sum(coalesce(t.credited_amount, t.amount)) as total
+                       from transactions t
+                       where t.to_account_id between :first and :last and t.created_timestamp >= :start
+                       group by t.to_account_id) received on received.account_id = a.id
+            left join (select t.from_account_id as account_id, sum(t.amount) as total
+                       from transactions t
+                       where t.from_account_id between :first and :last and t.created_timestamp >= :start
+                       group by t.from_account_id) sent on sent.account_id = a.id
+            where a.id between :first and :last and a.created_timestamp < :end
+              and a.closed_timestamp is null
+            order by a.id
+            """)
+    Stream<StatementAccount> streamStatementAccounts(@Param("first") UUID first,
+                                                     @Param("last") UUID last,
+                                                     @Param("start") LocalDateTime start,
+                                                     @Param("end") LocalDateTime end);
+}
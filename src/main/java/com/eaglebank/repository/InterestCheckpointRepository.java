@@ -0,0 +1,18 @@
+package com.eaglebank.repository;
+
+import com.eaglebank.entity.InterestCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface InterestCheckpointRepository extends JpaRepository<InterestCheckpoint, UUID> {
+
+    @Query("select c.rangeIndex from InterestCheckpoint c where c.runId = :runId")
+    List<Integer> findRangeIndexesByRunId(@Param("runId") UUID runId);
+
+    @Query("select coalesce(sum(c.accounts), 0) from InterestCheckpoint c where c.runId = :runId")
+    long sumAccountsByRunId(@Param("runId") UUID runId);
+}
@@ -0,0 +1,20 @@
+package com.eaglebank.repository;
+
+import com.eaglebank.entity.InterestRun;
+import com.eaglebank.entity.InterestRunStatus;
+import com.eaglebank.entity.InterestRunType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface InterestRunRepository extends JpaRepository<InterestRun, UUID> {
+
+    Optional<InterestRun> findByTypeAndBusinessDate(InterestRunType type, LocalDate businessDate);
+
+    @Query("select max(r.businessDate) from InterestRun r where r.type = :type and r.status = :status")
+    LocalDate findLatestBusinessDate(@Param("type") InterestRunType type, @Param("status") InterestRunStatus status);
+}
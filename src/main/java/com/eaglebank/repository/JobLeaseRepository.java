@@ -0,0 +1,60 @@
+package com.eaglebank.repository;
+
+import com.eaglebank.entity.JobLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Lease times are taken from the database clock, so instances with skewed clocks still agree
+ * on when a lease has expired.
+ */
+public interface JobLeaseRepository extends JpaRepository<JobLease, String> {
+
+    /**
+     * Takes the lease if nobody holds it or the holder let it expire, moving the fencing token
+     * on. Returns 1 when this instance now holds it, 0 when a live lease is held.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            insert into job_leases (name, owner, fencing_token, acquired_at, expires_at)
+            values (:name, :owner, 1, localtimestamp, localtimestamp + :ttlMillis * interval '1 millisecond')
+            on conflict (name) do update
+            set owner = excluded.owner,
+                fencing_token = job_leases.fencing_token + 1,
+                acquired_at = excluded.acquired_at,
+                expires_at = excluded.expires_at
+            where job_leases.expires_at < localtimestamp
+            """)
+    int tryAcquire(@Param("name") String name, @Param("owner") String owner, @Param("ttlMillis") long ttlMillis);
+
+    @Query("select l.fencingToken from JobLease l where l.name = :name and l.owner = :owner")
+    Long findFencingToken(@Param("name") String name, @Param("owner") String owner);
+
+    /**
+     * Extends a lease that is still held under the same token. Returns 0 once it has been
+     * taken over.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            update job_leases set expires_at = localtimestamp + :ttlMillis * interval '1 millisecond'
+            where name = :name and owner = :owner and fencing_token = :token
+            """)
+    int renew(@Param("name") String name, @Param("owner") String owner, @Param("token") long token,
+              @Param("ttlMillis") long ttlMillis);
+
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            update job_leases set expires_at = localtimestamp - interval '1 millisecond'
+            where name = :name and owner = :owner and fencing_token = :token
+            """)
+    int release(@Param("name") String name, @Param("owner") String owner, @Param("token") long token);
+
+    /**
+     * The lease's current token, share-locked until the caller's transaction ends, so the
+     * lease cannot change hands between this check and the caller's commit.
+     */
+    @Query(nativeQuery = true, value = "select fencing_token from job_leases where name = :name for share")
+    Long lockFencingToken(@Param("name") String name);
+}
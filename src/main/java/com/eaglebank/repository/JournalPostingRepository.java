@@ -0,0 +1,135 @@
+package com.eaglebank.repository;
+
+import com.eaglebank.entity.JournalPosting;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public interface JournalPostingRepository extends JpaRepository<JournalPosting, Long> {
+
+    /**
+     * The oldest database transaction still running. Anything older has committed or rolled
+     * back, so every posting it wrote is already visible.
+     */
+    @Query(nativeQuery = true, value = "select cast(cast(pg_snapshot_xmin(pg_current_snapshot()) as text) as bigint)")
+    long findSnapshotXmin();
+
+    /**
+     * Streams every visible posting written by a database transaction at or after
+     * {@code watermark}, in id order. Must be consumed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(nativeQuery = true, value = """
+            select p.id as "id",
+                   p.account_id as "accountId",
+                   cast(p.amount * 100 as bigint) as "units",
+                   cast(cast(p.txid as text) as bigint) as "txid"
+            from journal_postings p
+            where p.txid >= cast(cast(:watermark as text) as xid8)
+            order by p.id
+            """)
+    Stream<TailPosting> streamWrittenSince(@Param("watermark") long watermark);
+
+    /**
+     * Postings of movements written by database transactions in {@code [from, to)}, after
+     * {@code afterId} in id order.
+     */
+    @Query(nativeQuery = true, value = """
+            select p.id as "id", p.transaction_id as "transactionId", p.account_id as "accountId"
+            from journal_postings p
+            where p.txid >= cast(cast(:from as text) as xid8)
+              and p.txid < cast(cast(:to as text) as xid8)
+              and p.transaction_id is not null
+              and p.id > :afterId
+            order by p.id
+            limit :limit
+            """)
+    List<PostingKey> findKeysWrittenBetween(@Param("from") long from, @Param("to") long to,
+                                           @Param("afterId") long afterId, @Param("limit") int limit);
+
+    /**
+     * The audit detail of each posting, with the account's balance summed over its postings
+     * up to and including that one. Each account's balance before its first posting in the
+     * batch is summed once, and a running sum over its postings from there covers the rest.
+     * The other leg is looked up only for movements whose transaction has gone, which only
+     * the other leg can then describe.
+     */
+    @Query(nativeQuery = true, value = """
+            with spans as (
+                select account_id, min(id) as first_id, max(id) as last_id
+                from journal_postings
+                where id in (:ids)
+                group by account_id
+            ),
+            balances as (
+                select q.id,
+                       s.opening + sum(q.amount) over (partition by q.account_id order by q.id) as balance_after
+                from (select spans.*,
+                             coalesce((select sum(o.amount) from journal_postings o
+                                       where o.account_id = spans.account_id and o.id < spans.first_id), 0) as opening
+                      from spans) s
+                join journal_postings q
+                  on q.account_id = s.account_id and q.id between s.first_id and s.last_id
+            )
+            select p.id as "id",
+                   p.transaction_id as "transactionId",
+                   p.account_id as "accountId",
+                   p.amount as "amount",
+                   p.created_timestamp as "createdTimestamp",
+                   t.type as "type",
+                   case when t.id is null then
+                       (select c.account_id from journal_postings c
+                        where c.transaction_id = p.transaction_id and c.account_id <> p.account_id
+                        order by c.id limit 1)
+                   end as "counterpartyAccountId",
+                   coalesce(fu.email, au.email) as "actor",
+                   b.balance_after as "balanceAfter"
+            from journal_postings p
+            join balances b on b.id = p.id
+            left join transactions t on t.id = p.transaction_id
+            left join bank_account fa on fa.id = t.from_account_id
+            left join users fu on fu.id = fa.user_id
+            left join bank_account a on a.id = p.account_id
+            left join users au on au.id = a.user_id
+            where p.id in (:ids)
+            order by p.id
+            """)
+    List<AuditPosting> findForAudit(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(nativeQuery = true, value = "lock table journal_postings in share row exclusive mode")
+    void lockForOpening();
+
+    /**
+     * Opens an empty journal with every account's stored balance, balanced per currency
+     * against {@code contraAccount}. Returns the number of postings written.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            insert into journal_postings (id, transaction_id, account_id, currency, amount, created_timestamp)
+            select nextval('journal_posting_seq'), null, a.id, a.currency, a.balance, :openedAt
+            from bank_account a
+            where a.balance <> 0 and not exists (select 1 from journal_postings)
+            union all
+            select nextval('journal_posting_seq'), null, :contraAccount, a.currency, -sum(a.balance), :openedAt
+            from bank_account a
+            where not exists (select 1 from journal_postings)
+            group by a.currency
+            having sum(a.balance) <> 0
+            """)
+    int openFromStoredBalances(@Param("contraAccount") UUID contraAccount,
+                               @Param("openedAt") LocalDateTime openedAt);
+}
@@ -0,0 +1,16 @@
+package com.eaglebank.repository;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * An account's stored balance next to the net of its not-yet-archived movements.
+ */
+public interface LedgerTotal {
+
+    UUID getAccountId();
+
+    BigDecimal getStoredBalance();
+
+    BigDecimal getNetMovement();
+}
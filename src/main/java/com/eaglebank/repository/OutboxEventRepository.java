@@ -0,0 +1,50 @@
+package com.eaglebank.repository;
+
+import com.eaglebank.entity.OutboxEvent;
+import com.eaglebank.entity.OutboxStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Locks the oldest pending event of up to {@code limit} accounts. Holding the head row
+     * of an account is what gives a dispatcher exclusive, in-order ownership of that account.
+     * Oldest by id is oldest by commit only within one account, whose events are inserted
+     * under its row lock; the order across accounts is not commit order.
+     */
+    @Query(value = """
+            select e.* from outbox_events e
+            where e.status = 'PENDING' and e.next_attempt_at <= :now
+              and not exists (
+                  select 1 from outbox_events p
+                  where p.aggregate_id = e.aggregate_id and p.status = 'PENDING' and p.id < e.id)
+            order by e.id
+            limit :limit
+            for update skip locked
+            """, nativeQuery = true)
+    List<OutboxEvent> claimHeads(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Query(value = """
+            select e.* from outbox_events e
+            where e.aggregate_id in (:aggregateIds) and e.status = 'PENDING'
+            order by e.id
+            limit :limit
+            for update
+            """, nativeQuery = true)
+    List<OutboxEvent> lockPendingFor(@Param("aggregateIds") Collection<UUID> aggregateIds, @Param("limit") int limit);
+
+    @Query("select min(e.createdTimestamp) from OutboxEvent e where e.status = :status")
+    LocalDateTime findOldestCreatedTimestamp(@Param("status") OutboxStatus status);
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.status = :status and e.deliveredTimestamp < :cutoff")
+    int deleteDeliveredBefore(@Param("status") OutboxStatus status, @Param("cutoff") LocalDateTime cutoff);
+}
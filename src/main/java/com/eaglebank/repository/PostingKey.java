@@ -0,0 +1,9 @@
+package com.eaglebank.repository;
+
+import java.util.UUID;
+
+public interface PostingKey {
+    long getId();
+    UUID getTransactionId();
+    UUID getAccountId();
+}
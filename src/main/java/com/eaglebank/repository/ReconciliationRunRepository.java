@@ -0,0 +1,9 @@
+package com.eaglebank.repository;
+
+import com.eaglebank.entity.ReconciliationRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.UUID;
+
+public interface ReconciliationRunRepository extends JpaRepository<ReconciliationRun, UUID> {
+}
@@ -0,0 +1,45 @@
+package com.eaglebank.repository;
+
+import com.eaglebank.entity.ScheduledPayment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface ScheduledPaymentRepository extends JpaRepository<ScheduledPayment, UUID> {
+
+    /**
+     * Locks up to {@code limit} due payments, skipping any another worker already holds.
+     */
+    @Query(value = """
+            select p.* from scheduled_payments p
+            where p.status = 'ACTIVE' and p.next_run_at <= :now
+            order by p.next_run_at
+            limit :limit
+            for update skip locked
+            """, nativeQuery = true)
+    List<ScheduledPayment> claimDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Query(value = """
+            select p.* from scheduled_payments p
+            where p.id = :id and p.status = 'ACTIVE' and p.next_run_at <= :now
+            for update skip locked
+            """, nativeQuery = true)
+    Optional<ScheduledPayment> claimDueById(@Param("id") UUID id, @Param("now") LocalDateTime now);
+
+    @Query("""
+            select p from ScheduledPayment p
+            where p.fromAccount.user.email = :email
+            order by p.createdTimestamp
+            """)
+    List<ScheduledPayment> findByOwnerEmail(@Param("email") String email);
+
+    @Modifying
+    @Query("delete from ScheduledPayment p where p.fromAccount.id = :accountId or p.toAccount.id = :accountId")
+    int deleteForAccount(@Param("accountId") UUID accountId);
+}
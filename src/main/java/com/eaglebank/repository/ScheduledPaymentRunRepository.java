@@ -0,0 +1,12 @@
+package com.eaglebank.repository;
+
+import com.eaglebank.entity.ScheduledPaymentRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface ScheduledPaymentRunRepository extends JpaRepository<ScheduledPaymentRun, UUID> {
+
+    List<ScheduledPaymentRun> findByScheduledPaymentIdOrderByRunDate(UUID scheduledPaymentId);
+}
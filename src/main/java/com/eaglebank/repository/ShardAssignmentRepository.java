@@ -0,0 +1,53 @@
+package com.eaglebank.repository;
+
+import com.eaglebank.entity.ShardAssignment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface ShardAssignmentRepository extends JpaRepository<ShardAssignment, String> {
+
+    /**
+     * Returns 1 when the key was free and is now assigned to {@code shard}, 0 when it was
+     * already assigned.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            insert into shard_assignments (natural_key, shard, assigned_at)
+            values (:key, :shard, localtimestamp)
+            on conflict (natural_key) do nothing
+            """)
+    int tryAssign(@Param("key") String key, @Param("shard") int shard);
+
+    /**
+     * Moves a reservation older than {@code minAgeMillis} by the database clock from
+     * {@code previous} to {@code shard}, unless someone else has moved it first.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            update shard_assignments set shard = :shard, assigned_at = localtimestamp
+            where natural_key = :key and shard = :previous
+              and assigned_at < localtimestamp - :minAgeMillis * interval '1 millisecond'
+            """)
+    int takeOver(@Param("key") String key, @Param("previous") int previous, @Param("shard") int shard,
+                 @Param("minAgeMillis") long minAgeMillis);
+
+    @Modifying
+    @Query(nativeQuery = true, value = "delete from shard_assignments where natural_key = :key and shard = :shard")
+    int release(@Param("key") String key, @Param("shard") int shard);
+
+    /**
+     * Assigns every user and account on shard 0 that has no assignment yet. Run on shard 0,
+     * where everything written while sharding was off lives.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            insert into shard_assignments (natural_key, shard, assigned_at)
+            select 'user:' || u.email, 0, localtimestamp from users u
+            union all
+            select 'account:' || a.sort_code || '/' || a.account_number, 0, localtimestamp from bank_account a
+            on conflict (natural_key) do nothing
+            """)
+    int assignUnassignedToHome();
+}
@@ -0,0 +1,24 @@
+package com.eaglebank.repository;
+
+import com.eaglebank.entity.ShardTransferReceipt;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface ShardTransferReceiptRepository extends JpaRepository<ShardTransferReceipt, UUID> {
+
+    /**
+     * Returns 1 the first time a transfer is received here, 0 every time after.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            insert into shard_transfer_receipts (transfer_id, received_timestamp)
+            values (:transferId, :receivedAt)
+            on conflict (transfer_id) do nothing
+            """)
+    int tryRecord(@Param("transferId") UUID transferId, @Param("receivedAt") LocalDateTime receivedAt);
+}
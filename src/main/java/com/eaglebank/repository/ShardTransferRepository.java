@@ -0,0 +1,25 @@
+package com.eaglebank.repository;
+
+import com.eaglebank.entity.ShardTransfer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ShardTransferRepository extends JpaRepository<ShardTransfer, Long> {
+
+    /**
+     * Locks up to {@code limit} pending transfers that are due, skipping any another
+     * instance is relaying.
+     */
+    @Query(value = """
+            select t.* from shard_transfers t
+            where t.status = 'PENDING' and t.next_attempt_at <= :now
+            order by t.id
+            limit :limit
+            for update skip locked
+            """, nativeQuery = true)
+    List<ShardTransfer> claimDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
@@ -0,0 +1,20 @@
+package com.eaglebank.repository;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * An account to produce a statement for, with its balance at the start of the period.
+ */
+public interface StatementAccount {
+
+    UUID getAccountId();
+
+    String getSortCode();
+
+    String getAccountNumber();
+
+    String getAccountType();
+
+    BigDecimal getOpeningBalance();
+}
@@ -0,0 +1,24 @@
+package com.eaglebank.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One side of a movement as it appears on an account's statement. The amount is negative
+ * for money leaving the account.
+ */
+public interface StatementLine {
+
+    UUID getAccountId();
+
+    UUID getTransactionId();
+
+    String getType();
+
+    UUID getCounterpartyAccountId();
+
+    BigDecimal getAmount();
+
+    LocalDateTime getCreatedTimestamp();
+}
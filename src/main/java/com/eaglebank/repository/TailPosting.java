@@ -0,0 +1,14 @@
+package com.eaglebank.repository;
+
+import java.util.UUID;
+
+/**
+ * A journal posting as the balance projection applies it: the amount in hundredths, and the
+ * id of the database transaction that wrote it.
+ */
+public interface TailPosting {
+    long getId();
+    UUID getAccountId();
+    long getUnits();
+    long getTxid();
+}
@@ -0,0 +1,29 @@
+package com.eaglebank.repository;
+
+import com.eaglebank.entity.RevocationScope;
+import com.eaglebank.entity.TokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, Long> {
+
+    boolean existsByScopeAndRevokedKey(RevocationScope scope, String revokedKey);
+
+    boolean existsByScopeAndRevokedKeyAndRevokedAtGreaterThanEqual(RevocationScope scope, String revokedKey,
+                                                                   LocalDateTime issuedAt);
+
+    @Query("select r from TokenRevocation r where r.expiresAt > :now")
+    List<TokenRevocation> findUnexpired(@Param("now") LocalDateTime now);
+
+    @Query("select r from TokenRevocation r where r.revokedAt >= :since")
+    List<TokenRevocation> findRevokedSince(@Param("since") LocalDateTime since);
+
+    @Modifying
+    @Query("delete from TokenRevocation r where r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
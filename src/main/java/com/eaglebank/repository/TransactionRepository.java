@@ -1,14 +1,203 @@
 package com.eaglebank.repository;
 
 import com.eaglebank.entity.Transaction;
+import com.eaglebank.entity.TransactionType;
+import com.eaglebank.limits.OutgoingMovement;
+import com.eaglebank.limits.PayeeHistory;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
-public interface TransactionRepository extends JpaRepository<Transaction, UUID> {
+public interface TransactionRepository extends JpaRepository<Transaction, UUID>, JpaSpecificationExecutor<Transaction> {
     List<Transaction> findByFromAccountIdOrToAccountId(UUID fromAccountId, UUID toAccountId);
 
     List<Transaction> findByFromAccountIdInOrToAccountIdIn(List<UUID> fromAccountIds, List<UUID> toAccountIds);
 
+    @Query("""
+            select t from Transaction t
+            where (t.fromAccount.id = :accountId or t.toAccount.id = :accountId)
+              and t.createdTimestamp >= :from and t.createdTimestamp < :to
+            """)
+    List<Transaction> findForAccountBetween(@Param("accountId") UUID accountId,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to);
+
+    @Query("""
+            select t from Transaction t
+            where (t.fromAccount.id in :accountIds or t.toAccount.id in :accountIds)
+              and t.createdTimestamp >= :from and t.createdTimestamp < :to
+            """)
+    List<Transaction> findForAccountsBetween(@Param("accountIds") List<UUID> accountIds,
+                                             @Param("from") LocalDateTime from,
+                                             @Param("to") LocalDateTime to);
+
+    @Query("select max(t.createdTimestamp) from Transaction t where t.fromAccount.id in :accountIds")
+    LocalDateTime findLatestSentTimestamp(@Param("accountIds") Collection<UUID> accountIds);
+
+    @Query("select max(t.createdTimestamp) from Transaction t where t.toAccount.id in :accountIds")
+    LocalDateTime findLatestReceivedTimestamp(@Param("accountIds") Collection<UUID> accountIds);
+
+    @Query("select min(t.createdTimestamp) from Transaction t")
+    LocalDateTime findOldestTimestamp();
+
+    @Query(nativeQuery = true, value = "select count(*) > 0 from ledger_backfills where name = :name")
+    boolean isBackfilled(@Param("name") String name);
+
+    /**
+     * Gives every open account without an {@code OPENING} movement one for whatever its stored
+     * balance has that its movements do not explain, dated when the account was opened. Runs
+     * once per database: the {@code ledger_backfills} row is written by the same statement, so
+     * a second instance racing it inserts nothing. {@code archivedNets} is a JSON object of
+     * account id to archived net movement. Returns the number of movements inserted.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            with marked as (
+                insert into ledger_backfills (name, applied_timestamp)
+                values ('opening-movements', localtimestamp)
+                on conflict (name) do nothing
+                returning name
+            ), archived as (
+                select cast(e.key as uuid) as account_id, cast(e.value as numeric) as net
+                from json_each_text(cast(:archivedNets as json)) e
+            ), unexplained as (
+                select a.id, a.created_timestamp,
+                       a.balance - coalesce(received.total, 0) + coalesce(sent.total, 0)
+                           - coalesce(archived.net, 0) as amount
+                from bank_account a
+                cross join marked
+                left join (select t.to_account_id as account_id, sum(coalesce(t.credited_amount, t.amount)) as total
+                           from transactions t where t.to_account_id is not null
+                           group by t.to_account_id) received on received.account_id = a.id
+                left join (select t.from_account_id as account_id, sum(t.amount) as total
+                           from transactions t where t.from_account_id is not null
+                           group by t.from_account_id) sent on sent.account_id = a.id
+                left join archived on archived.account_id = a.id
+                where a.closed_timestamp is null
+                  and not exists (select 1 from transactions o
+                                  where o.type = 'OPENING' and (o.to_account_id = a.id or o.from_account_id = a.id))
+            )
+            insert into transactions (id, type, from_account_id, to_account_id, amount, created_timestamp)
+            select gen_random_uuid(), 'OPENING',
+                   case when u.amount < 0 then u.id end,
+                   case when u.amount > 0 then u.id end,
+                   abs(u.amount), u.created_timestamp
+            from unexplained u
+            where u.amount <> 0
+            """)
+    int backfillOpeningMovements(@Param("archivedNets") String archivedNets);
+
+    /**
+     * Streams the movements created in {@code [from, to)} filed under each of their accounts,
+     * grouped by account, so a segment can be written one account at a time. Must be consumed
+     * inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(nativeQuery = true, value = """
+            select filed.account_id as "accountId", filed.id as "id",
+                   filed.from_account_id as "fromAccountId", filed.to_account_id as "toAccountId",
+                   filed.amount as "amount", filed.created_timestamp as "createdTimestamp", filed.type as "type",
+                   filed.credited_amount as "creditedAmount", filed.fx_rate as "fxRate", filed.reference as "reference"
+            from (select t.from_account_id as account_id, t.* from transactions t
+                  where t.created_timestamp >= :from and t.created_timestamp < :to and t.from_account_id is not null
+                  union all
+                  select t.to_account_id, t.* from transactions t
+                  where t.created_timestamp >= :from and t.created_timestamp < :to and t.to_account_id is not null
+                    and t.to_account_id is distinct from t.from_account_id) filed
+            order by filed.account_id, filed.created_timestamp
+            """)
+    Stream<ArchiveRow> streamForArchive(@Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to);
+
+    /**
+     * Money sent or withdrawn since {@code since}, for rebuilding velocity limits.
+     * Must be consumed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select new com.eaglebank.limits.OutgoingMovement(f.id, coalesce(r.id, t.counterpartyAccountId),
+                    t.amount, t.createdTimestamp)
+            from Transaction t
+            join t.fromAccount f
+            left join t.toAccount r
+            where t.createdTimestamp >= :since and t.type in :types
+            """)
+    Stream<OutgoingMovement> streamOutgoingSince(@Param("since") LocalDateTime since,
+                                                 @Param("types") Collection<TransactionType> types);
+
+    /**
+     * Every (sender, recipient) pair paid since {@code since}, with its first payment.
+     * Must be consumed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select new com.eaglebank.limits.PayeeHistory(f.id, coalesce(r.id, t.counterpartyAccountId),
+                    min(t.createdTimestamp))
+            from Transaction t
+            join t.fromAccount f
+            left join t.toAccount r
+            where t.createdTimestamp >= :since and t.type = :type
+              and (r.id is not null or t.counterpartyAccountId is not null)
+            group by f.id, coalesce(r.id, t.counterpartyAccountId)
+            """)
+    Stream<PayeeHistory> streamPayeesSince(@Param("since") LocalDateTime since,
+                                           @Param("type") TransactionType type);
+
+    @Modifying
+    @Query("delete from Transaction t where t.createdTimestamp >= :from and t.createdTimestamp < :to")
+    int deleteCreatedBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Every movement in {@code [start, end)} of the accounts in {@code [first, last]}, one row per
+     * side, ordered by account and then time. Amounts are signed from the account's point of
+     * view and in its currency. Must be consumed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(nativeQuery = true, value = """
+            select l.account_id as "accountId",
+                   l.id as "transactionId",
+                   l.type as "type",
+                   l.counterparty_id as "counterpartyAccountId",
+                   l.amount as "amount",
+                   l.created_timestamp as "createdTimestamp"
+            from (select t.from_account_id as account_id, t.id, t.type, t.to_account_id as counterparty_id,
+                         -t.amount as amount, t.created_timestamp
+                  from transactions t
+                  where t.from_account_id between :first and :last
+                    and t.created_timestamp >= :start and t.created_timestamp < :end
+                  union all
+                  select t.to_account_id, t.id, t.type, t.from_account_id, coalesce(t.credited_amount, t.amount),
+                         t.created_timestamp
+                  from transactions t
+                  where t.to_account_id between :first and :last
+                    and t.created_timestamp >= :start and t.created_timestamp < :end) l
+            order by l.account_id, l.created_timestamp, l.id, l.amount
+            """)
+    Stream<StatementLine> streamStatementLines(@Param("first") UUID first,
+                                               @Param("last") UUID last,
+                                               @Param("start") LocalDateTime start,
+                                               @Param("end") LocalDateTime end);
 }
@@ -0,0 +1,78 @@
+package com.eaglebank.repository;
+
+import com.eaglebank.dto.TransactionSearchRequest;
+import com.eaglebank.entity.Transaction;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+public final class TransactionSpecifications {
+
+    private TransactionSpecifications() {
+    }
+
+    /**
+     * Movements of {@code accountIds} matching every criterion in {@code request}. The text
+     * match is a case-insensitive substring of the reference, which the partial trigram index
+     * on {@code lower(reference)} answers without scanning the accounts' history. When
+     * {@code beforeTimestamp} is set, only movements ordered after that keyset position in
+     * newest-first order are returned.
+     */
+    public static Specification<Transaction> search(Collection<UUID> accountIds,
+                                                    TransactionSearchRequest request,
+                                                    LocalDateTime beforeTimestamp,
+                                                    UUID beforeId) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (request.counterpartyAccountId() == null) {
+                predicates.add(cb.or(
+                        root.get("fromAccount").get("id").in(accountIds),
+                        root.get("toAccount").get("id").in(accountIds)));
+            } else {
+                UUID counterparty = request.counterpartyAccountId();
+                predicates.add(cb.or(
+                        cb.and(root.get("fromAccount").get("id").in(accountIds),
+                                cb.equal(root.get("toAccount").get("id"), counterparty)),
+                        cb.and(root.get("toAccount").get("id").in(accountIds),
+                                cb.equal(root.get("fromAccount").get("id"), counterparty))));
+            }
+            if (request.q() != null) {
+                predicates.add(cb.isNotNull(root.get("reference")));
+                predicates.add(cb.like(cb.lower(root.get("reference")), containsPattern(request.q()), '\\'));
+            }
+            if (request.minAmount() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("amount"), request.minAmount()));
+            }
+            if (request.maxAmount() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("amount"), request.maxAmount()));
+            }
+            if (request.from() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdTimestamp"), request.from()));
+            }
+            if (request.to() != null) {
+                predicates.add(cb.lessThan(root.get("createdTimestamp"), request.to()));
+            }
+            if (beforeTimestamp != null) {
+                predicates.add(cb.or(
+                        cb.lessThan(root.get("createdTimestamp"), beforeTimestamp),
+                        cb.and(cb.equal(root.get("createdTimestamp"), beforeTimestamp),
+                                cb.lessThan(root.get("id"), beforeId))));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    static String containsPattern(String text) {
+        String escaped = text.toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+}
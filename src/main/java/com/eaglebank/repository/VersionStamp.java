@@ -0,0 +1,10 @@
+package com.eaglebank.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row count and newest modification time of a set of rows; changes whenever a row in
+ * the set is added, removed or updated.
+ */
+public record VersionStamp(long count, LocalDateTime latest) {
+}
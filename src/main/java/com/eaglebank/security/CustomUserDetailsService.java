@@ -1,40 +1,69 @@
 package com.eaglebank.security;
 
+import com.eaglebank.config.ImportProperties;
+import com.eaglebank.config.ManagementProperties;
 import com.eaglebank.entity.User;
 import com.eaglebank.repository.UserRepository;
+import com.eaglebank.sharding.ShardDirectory;
+import com.eaglebank.sharding.Shards;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 
 @Service
 @RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
 
+    // Required by POST /v1/imports
+    public static final String IMPORT_AUTHORITY = "IMPORT";
+    // Required by every actuator endpoint but health
+    public static final String MANAGEMENT_AUTHORITY = "MANAGEMENT";
+
     private final UserRepository userRepository;
+    private final Shards shards;
+    private final ShardDirectory shardDirectory;
+    private final ImportProperties importProperties;
+    private final ManagementProperties managementProperties;
     private static final Logger log = LoggerFactory.getLogger(CustomUserDetailsService.class);
 
+    // Read-write so it stays on the primary: a replica could still miss a new user or a
+    // changed password. The user's shard is bound before the first query, which is when the
+    // transaction takes its connection
     @Override
+    @Transactional
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        log.info("Loading user by email: {}", email);
-
-        User user = userRepository.findByEmail(email)
+        User user = shards.callOn(shardDirectory.shardOfUser(email), () -> userRepository.findByEmail(email))
                 .orElseThrow(() -> {
-                    log.error("User not found for email: {}", email);
+                    log.debug("User not found for email: {}", email);
+                    shardDirectory.evictUser(email);
                     return new UsernameNotFoundException("User not found");
                 });
 
-        log.info("Found user for email {}: {}", email, user.getId());
+        log.debug("Loaded user {} for email {}", user.getId(), email);
 
+        String normalized = user.getEmail().toLowerCase(Locale.ROOT);
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        if (importProperties.operators().contains(normalized)) {
+            authorities.add(new SimpleGrantedAuthority(IMPORT_AUTHORITY));
+        }
+        if (managementProperties.operators().contains(normalized)) {
+            authorities.add(new SimpleGrantedAuthority(MANAGEMENT_AUTHORITY));
+        }
         return new org.springframework.security.core.userdetails.User(
                 user.getEmail(),
                 user.getPassword(),
-                Collections.emptyList()
+                authorities
         );
     }
 }
@@ -1,6 +1,8 @@
 package com.eaglebank.security;
 
+import com.eaglebank.diagnostics.AuthFlightEvent;
 import com.eaglebank.service.JwtService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -21,6 +23,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final TokenRevocations tokenRevocations;
 
     @Override
     protected void doFilterInternal(
@@ -37,21 +40,35 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7); // remove "Bearer "
-        final String userEmail = jwtService.extractUsername(jwt);
+        AuthFlightEvent event = AuthFlightEvent.start(AuthFlightEvent.TOKEN);
+        String userEmail = null;
+        String outcome = AuthFlightEvent.INVALID;
+        try {
+            Claims claims = jwtService.extractClaims(jwt);
+            userEmail = claims.getSubject();
 
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
+            if (tokenRevocations.isRevoked(claims)) {
+                outcome = AuthFlightEvent.REVOKED;
+            } else if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
 
-            if (jwtService.isTokenValid(jwt, userDetails.getUsername())) {
-                UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(
-                                userDetails,
-                                null,
-                                userDetails.getAuthorities()
-                        );
+                if (jwtService.isTokenValid(jwt, userDetails.getUsername())) {
+                    UsernamePasswordAuthenticationToken authToken =
+                            new UsernamePasswordAuthenticationToken(
+                                    userDetails,
+                                    null,
+                                    userDetails.getAuthorities()
+                            );
 
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                    outcome = AuthFlightEvent.OK;
+                }
             }
+        } catch (RuntimeException e) {
+            outcome = AuthFlightEvent.outcomeOf(e);
+            throw e;
+        } finally {
+            event.finish(userEmail, outcome);
         }
 
         filterChain.doFilter(request, response);
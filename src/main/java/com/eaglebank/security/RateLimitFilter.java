@@ -0,0 +1,62 @@
+package com.eaglebank.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Runs straight after {@link JwtAuthenticationFilter}, so authenticated requests are limited
+ * per user and everything else per client address.
+ *
+ * <p>Deliberately not a bean: Spring Boot would also register it as a plain servlet filter,
+ * where it would run before authentication and key every request by address.
+ */
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String BODY = "{ \"message\": \"Too many requests\" }";
+
+    private final RateLimiter rateLimiter;
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        RouteClass route = RouteClass.of(request.getMethod(), path);
+
+        String client = null;
+        if (!route.keyedByAddress()) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.isAuthenticated()) {
+                client = authentication.getName();
+            }
+        }
+        if (client == null) {
+            client = request.getRemoteAddr();
+        }
+
+        long retryAfter = rateLimiter.tryAcquire(route, client);
+        if (retryAfter > 0) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write(BODY);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,139 @@
+package com.eaglebank.security;
+
+import com.eaglebank.config.RateLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets per (route class, client), refilled lazily from the elapsed time whenever
+ * the client is next seen, so no thread ever sweeps them.
+ *
+ * <p>Buckets are immutable and live in a fixed array of slots; a client hashes to a group of
+ * {@value #WAYS} neighbouring slots and every update is a single compare-and-set. A new client
+ * takes an empty slot in its group, or else the one idle the longest. The table never grows,
+ * and because an evicted client just starts again from a full bucket, eviction can only
+ * err towards letting requests through.
+ */
+@Component
+public class RateLimiter {
+
+    private static final int WAYS = 4;
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    private final RateLimitProperties.Limit[] limits;
+    private final AtomicReferenceArray<Bucket> slots;
+    private final int mask;
+    private final LongSupplier clock;
+
+    private final Counter[] rejected;
+    private final Counter evicted;
+
+    @Autowired
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry, LongSupplier clock) {
+        RouteClass[] routes = RouteClass.values();
+        this.limits = new RateLimitProperties.Limit[routes.length];
+        this.rejected = new Counter[routes.length];
+        for (RouteClass route : routes) {
+            limits[route.ordinal()] = properties.limit(route);
+            rejected[route.ordinal()] = meterRegistry.counter("ratelimit.rejected", "route", route.name().toLowerCase(Locale.ROOT));
+        }
+        this.evicted = meterRegistry.counter("ratelimit.buckets.evicted");
+
+        int size = Integer.highestOneBit(Math.max(WAYS, properties.maxBuckets() - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.clock = clock;
+    }
+
+    /**
+     * Takes one token from the client's bucket.
+     *
+     * @return {@code 0} if the request may proceed, otherwise the whole seconds until it could
+     */
+    public long tryAcquire(RouteClass route, String client) {
+        RateLimitProperties.Limit limit = limits[route.ordinal()];
+        int hash = hash(route, client);
+        int base = hash & mask;
+
+        retry:
+        while (true) {
+            long now = clock.getAsLong();
+            int victim = -1;
+            Bucket victimBucket = null;
+            long longestIdle = -1;
+
+            for (int way = 0; way < WAYS; way++) {
+                int index = (base + way) & mask;
+                Bucket bucket = slots.get(index);
+                if (bucket == null) {
+                    if (victimBucket != null || victim < 0) {
+                        victim = index;
+                        victimBucket = null;
+                        longestIdle = Long.MAX_VALUE;
+                    }
+                    continue;
+                }
+                if (bucket.matches(hash, route, client)) {
+                    double tokens = bucket.tokensAt(now, limit);
+                    if (tokens < 1) {
+                        rejected[route.ordinal()].increment();
+                        return (long) Math.max(1, Math.ceil((1 - tokens) / limit.refillPerSecond()));
+                    }
+                    if (slots.compareAndSet(index, bucket, bucket.withTokens(tokens - 1, now))) {
+                        return 0;
+                    }
+                    continue retry;
+                }
+                long idle = now - bucket.updatedNanos();
+                if (idle > longestIdle) {
+                    victim = index;
+                    victimBucket = bucket;
+                    longestIdle = idle;
+                }
+            }
+
+            Bucket fresh = new Bucket(hash, route, client, limit.capacity() - 1, now);
+            if (slots.compareAndSet(victim, victimBucket, fresh)) {
+                if (victimBucket != null) {
+                    RateLimitProperties.Limit victimLimit = limits[victimBucket.route().ordinal()];
+                    if (victimBucket.tokensAt(now, victimLimit) < victimLimit.capacity()) {
+                        // Only a partly drained bucket loses anything by being recycled
+                        evicted.increment();
+                    }
+                }
+                return 0;
+            }
+        }
+    }
+
+    private static int hash(RouteClass route, String client) {
+        int h = client.hashCode() * 31 + route.ordinal();
+        return h ^ (h >>> 16);
+    }
+
+    private record Bucket(int hash, RouteClass route, String client, double tokens, long updatedNanos) {
+
+        boolean matches(int hash, RouteClass route, String client) {
+            return this.hash == hash && this.route == route && this.client.equals(client);
+        }
+
+        double tokensAt(long now, RateLimitProperties.Limit limit) {
+            double refilled = tokens + (now - updatedNanos) * limit.refillPerSecond() / NANOS_PER_SECOND;
+            return Math.min(limit.capacity(), refilled);
+        }
+
+        Bucket withTokens(double tokens, long now) {
+            return new Bucket(hash, route, client, tokens, now);
+        }
+    }
+}
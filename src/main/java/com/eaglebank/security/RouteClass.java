@@ -0,0 +1,40 @@
+package com.eaglebank.security;
+
+/**
+ * Groups of endpoints that share a rate limit. Login and sign-up happen before there is a
+ * subject to key on, so their buckets are per client address.
+ */
+public enum RouteClass {
+    LOGIN(true),
+    SIGNUP(true),
+    HISTORY(false),
+    STANDARD(false);
+
+    private final boolean keyedByAddress;
+
+    RouteClass(boolean keyedByAddress) {
+        this.keyedByAddress = keyedByAddress;
+    }
+
+    public boolean keyedByAddress() {
+        return keyedByAddress;
+    }
+
+    public static RouteClass of(String method, String path) {
+        if ("POST".equals(method)) {
+            if ("/auth/login".equals(path)) {
+                return LOGIN;
+            }
+            if ("/v1/users".equals(path)) {
+                return SIGNUP;
+            }
+        } else if ("GET".equals(method)) {
+            // Transaction listings are the queries that can keep the database busy
+            if ("/v1/transactions".equals(path) || "/v1/transactions/search".equals(path)
+                    || (path.startsWith("/v1/accounts/") && path.endsWith("/transactions"))) {
+                return HISTORY;
+            }
+        }
+        return STANDARD;
+    }
+}
@@ -0,0 +1,195 @@
+package com.eaglebank.security;
+
+import com.eaglebank.config.TokenRevocationProperties;
+import com.eaglebank.entity.RevocationScope;
+import com.eaglebank.entity.TokenRevocation;
+import com.eaglebank.repository.TokenRevocationRepository;
+import com.eaglebank.service.JwtService;
+import com.eaglebank.sharding.Shards;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Revoked tokens, by jti or by user. Revocations are stored in {@code token_revocations};
+ * every instance keeps a Bloom filter of them, so checking a token that is not revoked
+ * costs two filter lookups and no query. Only filter hits are checked against the table.
+ *
+ * <p>Revocations made here are added to the filter straight away. Those made on other
+ * instances are read every {@code pollInterval}. The filter is rebuilt from the unexpired
+ * revocations every {@code rebuildInterval}, or sooner once it holds more than it was sized
+ * for, which keeps the false-positive rate near its target.
+ */
+@Slf4j
+@Component
+public class TokenRevocations {
+
+    static final String TOKEN_PREFIX = "t:";
+    static final String USER_PREFIX = "u:";
+
+    // Revocations are stamped before they commit, so each poll re-reads a little way back
+    private static final Duration POLL_OVERLAP = Duration.ofSeconds(30);
+
+    private final TokenRevocationRepository tokenRevocationRepository;
+    private final TokenRevocationProperties properties;
+    private final Duration tokenLifetime;
+    private final TransactionTemplate transactionTemplate;
+    private final Shards shards;
+
+    private final Counter revoked;
+    private final Counter falsePositives;
+
+    // Null until the first build, during which every token is checked against the table
+    private volatile BloomFilter filter;
+    private LocalDateTime polledUntil;
+
+    public TokenRevocations(TokenRevocationRepository tokenRevocationRepository,
+                            TokenRevocationProperties properties,
+                            JwtService jwtService,
+                            PlatformTransactionManager transactionManager,
+                            Shards shards,
+                            MeterRegistry meterRegistry) {
+        this.tokenRevocationRepository = tokenRevocationRepository;
+        this.properties = properties;
+        this.tokenLifetime = jwtService.tokenLifetime();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shards = shards;
+
+        this.revoked = meterRegistry.counter("token.revocation.lookups", "outcome", "revoked");
+        this.falsePositives = meterRegistry.counter("token.revocation.lookups", "outcome", "not_revoked");
+        meterRegistry.gauge("token.revocation.filter.size", this, r -> {
+            BloomFilter current = r.filter;
+            return current == null ? 0 : current.size();
+        });
+    }
+
+    /**
+     * Revokes one token until it expires. A token issued without a jti cannot be singled
+     * out, so every token of its user is revoked instead.
+     */
+    public void revokeToken(Claims claims) {
+        if (claims.getId() == null) {
+            revokeUser(claims.getSubject());
+            return;
+        }
+        save(RevocationScope.TOKEN, claims.getId(), toLocal(claims.getExpiration()));
+    }
+
+    /**
+     * Revokes every token the user holds now, including any issued earlier in the same
+     * second. Tokens issued after that second are not affected.
+     */
+    public void revokeUser(String email) {
+        save(RevocationScope.USER, email, LocalDateTime.now().plus(tokenLifetime));
+    }
+
+    public boolean isRevoked(Claims claims) {
+        BloomFilter current = filter;
+        String jti = claims.getId();
+        String subject = claims.getSubject();
+        boolean tokenHit = jti != null && (current == null || current.mightContain(TOKEN_PREFIX + jti));
+        boolean userHit = current == null || current.mightContain(USER_PREFIX + subject);
+        if (!tokenHit && !userHit) {
+            return false;
+        }
+
+        boolean found = (tokenHit && tokenRevocationRepository.existsByScopeAndRevokedKey(RevocationScope.TOKEN, jti))
+                || (userHit && isUserRevoked(subject, claims.getIssuedAt()));
+        if (current != null) {
+            (found ? revoked : falsePositives).increment();
+        }
+        return found;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${eaglebank.token-revocation.rebuild-interval:PT10M}",
+            initialDelayString = "${eaglebank.token-revocation.rebuild-interval:PT10M}")
+    public synchronized void rebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> tokenRevocationRepository.deleteExpired(now));
+        List<TokenRevocation> live = tokenRevocationRepository.findUnexpired(now);
+
+        BloomFilter next = BloomFilter.create(Math.max(properties.expectedRevocations(), live.size() * 2),
+                properties.falsePositiveRate());
+        for (TokenRevocation revocation : live) {
+            next.add(key(revocation.getScope(), revocation.getRevokedKey()));
+        }
+        filter = next;
+        polledUntil = now;
+
+        log.debug("Rebuilt the token revocation filter with {} revocations, {} bits, {} hashes",
+                live.size(), next.bitCount(), next.hashCount());
+    }
+
+    @Scheduled(fixedDelayString = "${eaglebank.token-revocation.poll-interval:PT1S}")
+    public synchronized void poll() {
+        BloomFilter current = filter;
+        if (current == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (TokenRevocation revocation : tokenRevocationRepository.findRevokedSince(polledUntil.minus(POLL_OVERLAP))) {
+            current.add(key(revocation.getScope(), revocation.getRevokedKey()));
+        }
+        polledUntil = now;
+
+        if (current.size() > current.capacity()) {
+            rebuild();
+        }
+    }
+
+    private boolean isUserRevoked(String email, Date issuedAt) {
+        if (issuedAt == null) {
+            return tokenRevocationRepository.existsByScopeAndRevokedKey(RevocationScope.USER, email);
+        }
+        // iat only has whole seconds, so a revocation within the token's second covers it
+        return tokenRevocationRepository.existsByScopeAndRevokedKeyAndRevokedAtGreaterThanEqual(
+                RevocationScope.USER, email, toLocal(issuedAt));
+    }
+
+    private void save(RevocationScope scope, String revokedKey, LocalDateTime expiresAt) {
+        TokenRevocation revocation = TokenRevocation.builder()
+                .scope(scope)
+                .revokedKey(revokedKey)
+                .revokedAt(LocalDateTime.now())
+                .expiresAt(expiresAt)
+                .build();
+        if (shards.enabled()) {
+            // Tokens are checked before a request binds its shard, so revocations all live
+            // on shard 0, whichever shard the caller's transaction is on
+            shards.inTransaction(Shards.HOME, status -> tokenRevocationRepository.save(revocation));
+        } else {
+            tokenRevocationRepository.save(revocation);
+        }
+
+        BloomFilter current = filter;
+        if (current != null) {
+            current.add(key(scope, revokedKey));
+        }
+    }
+
+    private static String key(RevocationScope scope, String revokedKey) {
+        return (scope == RevocationScope.TOKEN ? TOKEN_PREFIX : USER_PREFIX) + revokedKey;
+    }
+
+    private static LocalDateTime toLocal(Date date) {
+        return LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+    }
+}
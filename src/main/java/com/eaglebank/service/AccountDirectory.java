@@ -0,0 +1,153 @@
+package com.eaglebank.service;
+
+import com.eaglebank.config.AccountProperties;
+import com.eaglebank.entity.BankAccount;
+import com.eaglebank.exception.ResourceNotFoundException;
+import com.eaglebank.repository.BankAccountRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Resolves (sort code, account number) to an account id through a bounded, least recently
+ * used map, so a warm lookup costs no query.
+ *
+ * <p>Only hits are cached, so a newly opened account is found straight away. This instance
+ * evicts a number when it renumbers or deletes the account; a mapping made stale by another
+ * instance still points at a real account id, so {@link #find} checks the loaded account
+ * still carries the number before handing it out, and {@link #findId} callers do the same
+ * with {@link #carries}.
+ */
+@Component
+public class AccountDirectory {
+
+    private final BankAccountRepository bankAccountRepository;
+    private final String defaultSortCode;
+    private final Map<AccountKey, UUID> ids;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public AccountDirectory(BankAccountRepository bankAccountRepository,
+                            AccountProperties properties,
+                            MeterRegistry meterRegistry) {
+        this.bankAccountRepository = bankAccountRepository;
+        this.defaultSortCode = properties.sortCode();
+        int maxEntries = properties.directoryMaxEntries();
+        this.ids = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<AccountKey, UUID> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.hits = meterRegistry.counter("accounts.directory.lookups", "result", "hit");
+        this.misses = meterRegistry.counter("accounts.directory.lookups", "result", "miss");
+        meterRegistry.gauge("accounts.directory.size", this, AccountDirectory::size);
+    }
+
+    /**
+     * The id of the account with this number, under the bank's own sort code when
+     * {@code sortCode} is {@code null}.
+     */
+    public UUID require(String sortCode, String accountNumber) {
+        AccountKey key = key(sortCode, accountNumber);
+        UUID cached = get(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        UUID id = bankAccountRepository.findIdBySortCodeAndAccountNumber(key.sortCode(), key.accountNumber())
+                .orElseThrow(() -> new ResourceNotFoundException("Account not found"));
+        put(key, id);
+        return id;
+    }
+
+    /**
+     * The id of the account with this number, for callers that lock the account themselves.
+     * A warm entry may be stale, so once locked the account is checked with {@link #carries}.
+     */
+    public Optional<UUID> findId(String sortCode, String accountNumber) {
+        AccountKey key = key(sortCode, accountNumber);
+        UUID cached = get(key);
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(cached);
+        }
+        misses.increment();
+        Optional<UUID> id = bankAccountRepository.findIdBySortCodeAndAccountNumber(key.sortCode(), key.accountNumber());
+        id.ifPresent(found -> put(key, found));
+        return id;
+    }
+
+    /**
+     * Whether {@code account} still carries this number, evicting the entry that led to it
+     * when it does not.
+     */
+    public boolean carries(BankAccount account, String sortCode, String accountNumber) {
+        AccountKey key = key(sortCode, accountNumber);
+        if (key.equals(new AccountKey(account.getSortCode(), account.getAccountNumber()))) {
+            return true;
+        }
+        evict(key.sortCode(), key.accountNumber());
+        return false;
+    }
+
+    /**
+     * Loads the account with this number. On a warm entry that is the one primary key lookup
+     * the caller would have made for an id anyway.
+     */
+    public Optional<BankAccount> find(String sortCode, String accountNumber) {
+        AccountKey key = key(sortCode, accountNumber);
+        UUID cached = get(key);
+        if (cached != null) {
+            Optional<BankAccount> account = bankAccountRepository.findOpenById(cached)
+                    .filter(a -> key.equals(new AccountKey(a.getSortCode(), a.getAccountNumber())));
+            if (account.isPresent()) {
+                hits.increment();
+                return account;
+            }
+            evict(key.sortCode(), key.accountNumber());
+        }
+        misses.increment();
+        Optional<BankAccount> account = bankAccountRepository.findBySortCodeAndAccountNumber(
+                key.sortCode(), key.accountNumber());
+        account.ifPresent(a -> put(key, a.getId()));
+        return account;
+    }
+
+    public void evict(String sortCode, String accountNumber) {
+        synchronized (ids) {
+            ids.remove(new AccountKey(sortCode, accountNumber));
+        }
+    }
+
+    int size() {
+        synchronized (ids) {
+            return ids.size();
+        }
+    }
+
+    private AccountKey key(String sortCode, String accountNumber) {
+        return new AccountKey(sortCode == null ? defaultSortCode : sortCode, accountNumber);
+    }
+
+    private UUID get(AccountKey key) {
+        synchronized (ids) {
+            return ids.get(key);
+        }
+    }
+
+    private void put(AccountKey key, UUID id) {
+        synchronized (ids) {
+            ids.put(key, id);
+        }
+    }
+
+    private record AccountKey(String sortCode, String accountNumber) {}
+}
@@ -1,11 +1,13 @@
 package com.eaglebank.service;
 
+import com.eaglebank.dto.AccountBalanceResponse;
 import com.eaglebank.dto.CreateBankAccountRequest;
 import com.eaglebank.dto.BankAccountResponse;
 import org.springframework.security.core.Authentication;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 
@@ -16,6 +18,12 @@ public interface BankAccountService {
 
     BankAccountResponse getAccountById(UUID accountId, Authentication auth);
 
+    Optional<String> getAccountVersion(UUID accountId, Authentication auth);
+
+    AccountBalanceResponse getBalance(UUID accountId, Authentication auth);
+
+    String getAccountsVersion(Authentication auth);
+
     BankAccountResponse updateAccount(UUID accountId, CreateBankAccountRequest request, Authentication auth);
 
     void deleteAccount(UUID accountId, Authentication auth);
@@ -1,21 +1,42 @@
 package com.eaglebank.service;
 
+import com.eaglebank.audit.AuditAction;
+import com.eaglebank.audit.AuditTrail;
+import com.eaglebank.dto.AccountBalanceResponse;
 import com.eaglebank.dto.CreateBankAccountRequest;
 import com.eaglebank.dto.BankAccountResponse;
 import com.eaglebank.entity.BankAccount;
+import com.eaglebank.entity.Transaction;
+import com.eaglebank.entity.TransactionType;
 import com.eaglebank.entity.User;
+import com.eaglebank.event.MoneyMovementEvent;
+import com.eaglebank.event.MovementType;
+import com.eaglebank.exception.ConflictException;
 import com.eaglebank.exception.ForbiddenException;
 import com.eaglebank.exception.ResourceNotFoundException;
+import com.eaglebank.fx.FxRates;
+import com.eaglebank.journal.BalanceProjection;
+import com.eaglebank.journal.Journal;
+import com.eaglebank.limits.VelocityLimiter;
 import com.eaglebank.repository.BankAccountRepository;
+import com.eaglebank.repository.ScheduledPaymentRepository;
+import com.eaglebank.repository.TransactionRepository;
 import com.eaglebank.repository.UserRepository;
+import com.eaglebank.repository.VersionStamp;
+import com.eaglebank.sharding.ShardDirectory;
+import com.eaglebank.sharding.Shards;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -24,6 +45,16 @@ import java.util.stream.Collectors;
 public class BankAccountServiceImpl implements BankAccountService{
     private final BankAccountRepository bankAccountRepository;
     private final UserRepository userRepository;
+    private final TransactionRepository transactionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final VelocityLimiter velocityLimiter;
+    private final ScheduledPaymentRepository scheduledPaymentRepository;
+    private final FxRates fxRates;
+    private final AccountDirectory accountDirectory;
+    private final Journal journal;
+    private final BalanceProjection balanceProjection;
+    private final ShardDirectory shardDirectory;
+    private final AuditTrail auditTrail;
 
     @Override
     @Transactional
@@ -32,7 +63,17 @@ public class BankAccountServiceImpl implements BankAccountService{
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
+        String currency = request.currency() == null ? fxRates.baseCurrency() : request.currency();
+        if (!fxRates.supports(currency)) {
+            throw new IllegalArgumentException("Unsupported currency: " + currency);
+        }
+        if (bankAccountRepository.existsBySortCodeAndAccountNumber(request.sortCode(), request.accountNumber())) {
+            throw new ConflictException("An account with this sort code and account number already exists");
+        }
+        shardDirectory.reserveAccount(request.sortCode(), request.accountNumber(), Shards.current());
+
         BankAccount account = new BankAccount();
+        account.setCurrency(currency);
         account.setAccountType(request.accountType());
         account.setBankName(request.bankName());
         account.setSortCode(request.sortCode());
@@ -42,14 +83,17 @@ public class BankAccountServiceImpl implements BankAccountService{
         account.setCreatedTimestamp(LocalDateTime.now());
         account.setUpdatedTimestamp(LocalDateTime.now());
 
-
-
         BankAccount saved = bankAccountRepository.save(account);
+        if (saved.getBalance().signum() != 0) {
+            record(TransactionType.OPENING, null, saved, saved.getBalance());
+        }
+        auditTrail.record(AuditAction.ACCOUNT_CREATED, saved.getId(), Map.of(), auditState(saved));
 
         return toResponse(saved);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<BankAccountResponse> getAccounts(Authentication auth) {
         String email = auth.getName();
         User user = userRepository.findByEmail(email)
@@ -62,6 +106,7 @@ public class BankAccountServiceImpl implements BankAccountService{
 
 
     @Override
+    @Transactional(readOnly = true)
     public BankAccountResponse getAccountById(UUID accountId, Authentication auth) {
         String email = auth.getName();
         User user = userRepository.findByEmail(email)
@@ -73,6 +118,31 @@ public class BankAccountServiceImpl implements BankAccountService{
         return toResponse(account);
     }
 
+    @Override
+    public Optional<String> getAccountVersion(UUID accountId, Authentication auth) {
+        return bankAccountRepository.findUpdatedTimestamp(accountId, auth.getName())
+                .map(updated -> VersionTokens.of("acct", updated));
+    }
+
+    @Override
+    public AccountBalanceResponse getBalance(UUID accountId, Authentication auth) {
+        if (!bankAccountRepository.existsByIdAndUserEmail(accountId, auth.getName())) {
+            throw new ResourceNotFoundException("Account not found or access denied");
+        }
+        // Only the ownership check touches the database once the projection is ready
+        BigDecimal balance = balanceProjection.balance(accountId)
+                .orElseGet(() -> bankAccountRepository.findOpenById(accountId)
+                        .map(BankAccount::getBalance)
+                        .orElseThrow(() -> new ResourceNotFoundException("Account not found")));
+        return new AccountBalanceResponse(accountId.toString(), balance);
+    }
+
+    @Override
+    public String getAccountsVersion(Authentication auth) {
+        VersionStamp stamp = bankAccountRepository.findVersionStampByUserEmail(auth.getName());
+        return VersionTokens.of("accts", stamp.count(), stamp.latest());
+    }
+
     @Override
     @Transactional
     public BankAccountResponse updateAccount(UUID accountId, CreateBankAccountRequest request, Authentication auth) {
@@ -80,12 +150,36 @@ public class BankAccountServiceImpl implements BankAccountService{
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        BankAccount account = bankAccountRepository.findById(accountId)
+        BankAccount account = bankAccountRepository.lockById(accountId)
                 .orElseThrow(() -> new ResourceNotFoundException("Account not found"));
 
         if (!account.getUser().getId().equals(user.getId())) {
             throw new ForbiddenException("You are not authorized to update this account");
         }
+        Map<String, Object> before = auditState(account);
+        if (request.currency() != null && !request.currency().equals(account.getCurrency())) {
+            throw new IllegalArgumentException("An account's currency cannot be changed");
+        }
+        boolean renumbered = !request.sortCode().equals(account.getSortCode())
+                || !request.accountNumber().equals(account.getAccountNumber());
+        if (renumbered) {
+            if (bankAccountRepository.existsBySortCodeAndAccountNumber(request.sortCode(), request.accountNumber())) {
+                throw new ConflictException("An account with this sort code and account number already exists");
+            }
+            shardDirectory.reserveAccount(request.sortCode(), request.accountNumber(), Shards.current());
+            shardDirectory.releaseAccount(account.getSortCode(), account.getAccountNumber(), Shards.current());
+            accountDirectory.evict(account.getSortCode(), account.getAccountNumber());
+        }
+
+        // An overwritten balance is still a movement, or the ledger could never reconcile
+        BigDecimal change = request.balance().subtract(account.getBalance());
+        Transaction adjustment = null;
+        if (change.signum() > 0) {
+            adjustment = record(TransactionType.ADJUSTMENT, null, account, change);
+        } else if (change.signum() < 0) {
+            adjustment = record(TransactionType.ADJUSTMENT, account, null, change.negate());
+        }
+        MovementType adjusted = change.signum() > 0 ? MovementType.ADJUSTMENT_CREDIT : MovementType.ADJUSTMENT_DEBIT;
 
         account.setAccountNumber(request.accountNumber());
         account.setAccountType(request.accountType());
@@ -95,6 +189,11 @@ public class BankAccountServiceImpl implements BankAccountService{
         account.setUpdatedTimestamp(LocalDateTime.now());
 
         BankAccount updated = bankAccountRepository.save(account);
+        auditTrail.record(AuditAction.ACCOUNT_UPDATED, updated.getId(), before, auditState(updated));
+        if (adjustment != null) {
+            eventPublisher.publishEvent(new MoneyMovementEvent(adjustment.getId(), adjusted,
+                    updated.getId(), null, adjustment.getAmount(), updated.getBalance(), adjustment.getCreatedTimestamp()));
+        }
 
         return toResponse(updated);
     }
@@ -106,14 +205,32 @@ public class BankAccountServiceImpl implements BankAccountService{
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        BankAccount account = bankAccountRepository.findById(accountId)
+        BankAccount account = bankAccountRepository.lockById(accountId)
                 .orElseThrow(() -> new ResourceNotFoundException("Account not found"));
 
         if (!account.getUser().getId().equals(user.getId())) {
             throw new ForbiddenException("You are not authorized to delete this account");
         }
 
-        bankAccountRepository.delete(account);
+        if (account.getBalance().signum() < 0) {
+            throw new IllegalArgumentException("An overdrawn account cannot be closed");
+        }
+
+        auditTrail.record(AuditAction.ACCOUNT_DELETED, account.getId(), auditState(account), Map.of());
+
+        // Closed rather than deleted, so every movement keeps its account and the number stays
+        // taken. What is left is paid out like any withdrawal
+        BigDecimal remaining = account.getBalance();
+        account.setBalance(BigDecimal.ZERO);
+        account.setClosedTimestamp(LocalDateTime.now());
+        BankAccount closed = bankAccountRepository.save(account);
+        if (remaining.signum() > 0) {
+            Transaction payout = record(TransactionType.WITHDRAWAL, closed, null, remaining);
+            eventPublisher.publishEvent(new MoneyMovementEvent(payout.getId(), MovementType.WITHDRAWAL, closed.getId(),
+                    null, remaining, BigDecimal.ZERO, payout.getCreatedTimestamp()));
+        }
+        scheduledPaymentRepository.deleteForAccount(accountId);
+        accountDirectory.evict(account.getSortCode(), account.getAccountNumber());
     }
 
     @Override
@@ -123,7 +240,7 @@ public class BankAccountServiceImpl implements BankAccountService{
             throw new IllegalArgumentException("Deposit amount must be positive");
         }
 
-        BankAccount account = bankAccountRepository.findById(accountId)
+        BankAccount account = bankAccountRepository.lockById(accountId)
                 .orElseThrow(() -> new ResourceNotFoundException("Account not found"));
 
         // Ensure ownership
@@ -135,7 +252,12 @@ public class BankAccountServiceImpl implements BankAccountService{
         account.setBalance(account.getBalance().add(amount));
         account.setUpdatedTimestamp(LocalDateTime.now());
 
-        return toResponse(bankAccountRepository.save(account));
+        BankAccount saved = bankAccountRepository.save(account);
+        Transaction deposit = record(TransactionType.DEPOSIT, null, saved, amount);
+        eventPublisher.publishEvent(new MoneyMovementEvent(deposit.getId(), MovementType.DEPOSIT, saved.getId(), null,
+                amount, saved.getBalance(), deposit.getCreatedTimestamp()));
+
+        return toResponse(saved);
     }
 
     @Override
@@ -145,7 +267,7 @@ public class BankAccountServiceImpl implements BankAccountService{
             throw new IllegalArgumentException("Withdrawal amount must be positive");
         }
 
-        BankAccount account = bankAccountRepository.findById(accountId)
+        BankAccount account = bankAccountRepository.lockById(accountId)
                 .orElseThrow(() -> new ResourceNotFoundException("Account not found"));
 
         String email = auth.getName();
@@ -153,14 +275,45 @@ public class BankAccountServiceImpl implements BankAccountService{
             throw new ForbiddenException("You are not allowed to withdraw from this account");
         }
 
-        if (account.getBalance().compareTo(amount) < 0) {
+        if (account.getBalance().compareTo(amount) < 0 || !balanceProjection.covers(account.getId(), amount)) {
             throw new IllegalArgumentException("Insufficient funds");
         }
 
+        velocityLimiter.reserve(account.getId(), null, amount);
+
         account.setBalance(account.getBalance().subtract(amount));
         account.setUpdatedTimestamp(LocalDateTime.now());
 
-        return toResponse(bankAccountRepository.save(account));
+        BankAccount saved = bankAccountRepository.save(account);
+        Transaction withdrawal = record(TransactionType.WITHDRAWAL, saved, null, amount);
+        eventPublisher.publishEvent(new MoneyMovementEvent(withdrawal.getId(), MovementType.WITHDRAWAL, saved.getId(),
+                null, amount, saved.getBalance(), withdrawal.getCreatedTimestamp()));
+
+        return toResponse(saved);
+    }
+
+    private Transaction record(TransactionType type, BankAccount from, BankAccount to, BigDecimal amount) {
+        Transaction saved = transactionRepository.save(Transaction.builder()
+                .type(type)
+                .fromAccount(from)
+                .toAccount(to)
+                .amount(amount)
+                .createdTimestamp(LocalDateTime.now())
+                .build());
+        journal.post(saved);
+        return saved;
+    }
+
+    private static Map<String, Object> auditState(BankAccount account) {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("userId", account.getUser().getId());
+        state.put("accountType", account.getAccountType());
+        state.put("bankName", account.getBankName());
+        state.put("sortCode", account.getSortCode());
+        state.put("accountNumber", account.getAccountNumber());
+        state.put("currency", account.getCurrency());
+        state.put("balance", account.getBalance());
+        return state;
     }
 
     private BankAccountResponse toResponse(BankAccount account) {
@@ -170,7 +323,8 @@ public class BankAccountServiceImpl implements BankAccountService{
                 account.getSortCode(),
                 account.getAccountNumber(),
                 account.getBalance(),
-                account.getCreatedTimestamp()
+                account.getCreatedTimestamp(),
+                account.getCurrency()
         );
     }
 
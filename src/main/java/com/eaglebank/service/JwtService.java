@@ -1,5 +1,6 @@
 package com.eaglebank.service;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -7,7 +8,9 @@ import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 
 import java.security.Key;
+import java.time.Duration;
 import java.util.Date;
+import java.util.UUID;
 
 @Service
 public class JwtService {
@@ -25,6 +28,7 @@ public class JwtService {
         String username = authentication.getName();
 
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(username)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + expirationMs))
@@ -33,12 +37,22 @@ public class JwtService {
     }
 
     public String extractUsername(String token) {
+        return extractClaims(token).getSubject();
+    }
+
+    /**
+     * Verifies the signature and expiry and returns the claims.
+     */
+    public Claims extractClaims(String token) {
         return Jwts.parserBuilder()
                 .setSigningKey(getSigningKey())
                 .build()
                 .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+                .getBody();
+    }
+
+    public Duration tokenLifetime() {
+        return Duration.ofMillis(expirationMs);
     }
 
     public boolean isTokenValid(String token, String userEmail) {
@@ -0,0 +1,17 @@
+package com.eaglebank.service;
+
+import com.eaglebank.dto.CreateScheduledPaymentRequest;
+import com.eaglebank.dto.ScheduledPaymentResponse;
+import org.springframework.security.core.Authentication;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface ScheduledPaymentService {
+
+    ScheduledPaymentResponse createScheduledPayment(CreateScheduledPaymentRequest request, Authentication auth);
+
+    List<ScheduledPaymentResponse> getScheduledPayments(Authentication auth);
+
+    void cancelScheduledPayment(UUID scheduledPaymentId, Authentication auth);
+}
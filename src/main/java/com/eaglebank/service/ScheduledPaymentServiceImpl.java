@@ -0,0 +1,104 @@
+package com.eaglebank.service;
+
+import com.eaglebank.dto.CreateScheduledPaymentRequest;
+import com.eaglebank.dto.ScheduledPaymentResponse;
+import com.eaglebank.entity.BankAccount;
+import com.eaglebank.entity.ScheduledPayment;
+import com.eaglebank.entity.ScheduledPaymentStatus;
+import com.eaglebank.exception.ConflictException;
+import com.eaglebank.exception.ForbiddenException;
+import com.eaglebank.exception.ResourceNotFoundException;
+import com.eaglebank.repository.BankAccountRepository;
+import com.eaglebank.repository.ScheduledPaymentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class ScheduledPaymentServiceImpl implements ScheduledPaymentService {
+
+    private final ScheduledPaymentRepository scheduledPaymentRepository;
+    private final BankAccountRepository bankAccountRepository;
+
+    @Override
+    @Transactional
+    public ScheduledPaymentResponse createScheduledPayment(CreateScheduledPaymentRequest request, Authentication auth) {
+        BankAccount from = bankAccountRepository.findOpenById(UUID.fromString(request.fromAccountId()))
+                .orElseThrow(() -> new ResourceNotFoundException("Sender account not found"));
+        BankAccount to = bankAccountRepository.findOpenById(UUID.fromString(request.toAccountId()))
+                .orElseThrow(() -> new ResourceNotFoundException("Recipient account not found"));
+
+        if (!from.getUser().getEmail().equals(auth.getName())) {
+            throw new ForbiddenException("You are not allowed to send from this account");
+        }
+        if (request.endDate() != null && request.endDate().isBefore(request.startDate())) {
+            throw new IllegalArgumentException("End date cannot be before the start date");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        ScheduledPayment payment = ScheduledPayment.builder()
+                .fromAccount(from)
+                .toAccount(to)
+                .amount(request.amount())
+                .frequency(request.frequency())
+                .startDate(request.startDate())
+                .endDate(request.endDate())
+                .occurrence(0)
+                .nextRunDate(request.startDate())
+                .nextRunAt(request.startDate().atStartOfDay())
+                .status(ScheduledPaymentStatus.ACTIVE)
+                .createdTimestamp(now)
+                .updatedTimestamp(now)
+                .build();
+
+        return toResponse(scheduledPaymentRepository.save(payment));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ScheduledPaymentResponse> getScheduledPayments(Authentication auth) {
+        return scheduledPaymentRepository.findByOwnerEmail(auth.getName()).stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    @Override
+    @Transactional
+    public void cancelScheduledPayment(UUID scheduledPaymentId, Authentication auth) {
+        ScheduledPayment payment = scheduledPaymentRepository.findById(scheduledPaymentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Scheduled payment not found"));
+
+        if (!payment.getFromAccount().getUser().getEmail().equals(auth.getName())) {
+            throw new ForbiddenException("You are not allowed to cancel this scheduled payment");
+        }
+        if (payment.getStatus() != ScheduledPaymentStatus.ACTIVE) {
+            throw new ConflictException("Scheduled payment is already " + payment.getStatus().name().toLowerCase());
+        }
+
+        payment.setStatus(ScheduledPaymentStatus.CANCELLED);
+        payment.setNextRunAt(null);
+    }
+
+    private ScheduledPaymentResponse toResponse(ScheduledPayment payment) {
+        return new ScheduledPaymentResponse(
+                payment.getId().toString(),
+                payment.getFromAccount().getId().toString(),
+                payment.getToAccount().getId().toString(),
+                payment.getAmount(),
+                payment.getFrequency().name(),
+                payment.getStartDate(),
+                payment.getEndDate(),
+                payment.getNextRunDate(),
+                payment.getStatus().name(),
+                payment.getAttempts(),
+                payment.getLastError(),
+                payment.getCreatedTimestamp()
+        );
+    }
+}
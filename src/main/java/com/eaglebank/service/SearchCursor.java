@@ -0,0 +1,42 @@
+package com.eaglebank.service;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Keyset position of the last row on a search page: its timestamp and id, packed into an
+ * opaque URL-safe token. The next page starts strictly after it in newest-first order.
+ */
+record SearchCursor(LocalDateTime createdTimestamp, UUID id) {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final int LENGTH = 8 + 16;
+
+    String encode() {
+        ByteBuffer buf = ByteBuffer.allocate(LENGTH)
+                .putLong(ChronoUnit.MICROS.between(EPOCH, createdTimestamp))
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buf.array());
+    }
+
+    static SearchCursor decode(String token) {
+        if (token == null) {
+            return null;
+        }
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            bytes = null;
+        }
+        if (bytes == null || bytes.length != LENGTH) {
+            throw new IllegalArgumentException("Invalid search cursor");
+        }
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+        return new SearchCursor(EPOCH.plus(buf.getLong(), ChronoUnit.MICROS), new UUID(buf.getLong(), buf.getLong()));
+    }
+}
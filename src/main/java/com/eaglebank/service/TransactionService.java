@@ -2,9 +2,13 @@ package com.eaglebank.service;
 
 import com.eaglebank.dto.CreateTransactionRequest;
 import com.eaglebank.dto.TransactionResponse;
+import com.eaglebank.dto.TransactionSearchRequest;
+import com.eaglebank.dto.TransactionSearchResponse;
 import org.springframework.security.core.Authentication;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface TransactionService {
@@ -13,7 +17,17 @@ public interface TransactionService {
 
     List<TransactionResponse> getTransactions(Authentication authentication);
 
+    List<TransactionResponse> getTransactions(LocalDateTime from, LocalDateTime to, Authentication authentication);
+
+    Optional<String> getTransactionsVersion(LocalDateTime from, LocalDateTime to, Authentication authentication);
+
     TransactionResponse getTransactionById(UUID transactionId, Authentication auth);
 
     List<TransactionResponse> getTransactionsForAccount(UUID accountId, Authentication auth);
+
+    List<TransactionResponse> getTransactionsForAccount(UUID accountId, LocalDateTime from, LocalDateTime to, Authentication auth);
+
+    Optional<String> getTransactionsForAccountVersion(UUID accountId, LocalDateTime from, LocalDateTime to, Authentication auth);
+
+    TransactionSearchResponse searchTransactions(TransactionSearchRequest request, Authentication auth);
 }
@@ -1,25 +1,44 @@
 package com.eaglebank.service;
 
+import com.eaglebank.archive.ArchivedTransaction;
+import com.eaglebank.archive.TransactionArchive;
 import com.eaglebank.dto.CreateTransactionRequest;
 import com.eaglebank.dto.TransactionResponse;
+import com.eaglebank.dto.TransactionSearchRequest;
+import com.eaglebank.dto.TransactionSearchResponse;
 import com.eaglebank.entity.BankAccount;
 import com.eaglebank.entity.Transaction;
 import com.eaglebank.entity.User;
 import com.eaglebank.exception.ForbiddenException;
 import com.eaglebank.exception.ResourceNotFoundException;
+import com.eaglebank.limits.VelocityLimiter;
+import com.eaglebank.reconciliation.AccountRange;
 import com.eaglebank.repository.BankAccountRepository;
 import com.eaglebank.repository.TransactionRepository;
+import com.eaglebank.repository.TransactionSpecifications;
 import com.eaglebank.repository.UserRepository;
+import com.eaglebank.sharding.CrossShardTransfers;
+import com.eaglebank.sharding.ShardDirectory;
+import com.eaglebank.sharding.Shards;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -28,47 +47,113 @@ public class TransactionServiceImpl implements TransactionService {
     private final TransactionRepository transactionRepository;
     private final BankAccountRepository bankAccountRepository;
     private final UserRepository userRepository;
+    private final TransactionArchive transactionArchive;
+    private final VelocityLimiter velocityLimiter;
+    private final TransferExecutor transferExecutor;
+    private final AccountDirectory accountDirectory;
+    private final ShardDirectory shardDirectory;
+    private final CrossShardTransfers crossShardTransfers;
+
+    private static final LocalDateTime OPEN_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime OPEN_END = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private static final int DEFAULT_SEARCH_SIZE = 50;
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdTimestamp", "id");
+    // Postgres orders uuids as unsigned bytes, so archived rows are ranked the same way
+    private static final Comparator<ArchivedTransaction> ARCHIVED_NEWEST_FIRST = Comparator
+            .comparing(ArchivedTransaction::createdTimestamp)
+            .thenComparing(ArchivedTransaction::id, AccountRange::compareUnsigned)
+            .reversed();
 
     @Override
     @Transactional
     public TransactionResponse createTransaction(CreateTransactionRequest request, Authentication auth) {
         UUID fromId = UUID.fromString(request.fromAccountId());
-        UUID toId = UUID.fromString(request.toAccountId());
         BigDecimal amount = request.amount();
 
-        BankAccount from = bankAccountRepository.findById(fromId)
-                .orElseThrow(() -> new ResourceNotFoundException("Sender account not found"));
+        int payeeShard = request.toAccountId() != null
+                ? shardDirectory.shardOfAccount(UUID.fromString(request.toAccountId()))
+                : shardDirectory.shardOfAccount(request.toSortCode(), request.toAccountNumber());
+        if (payeeShard != Shards.current()) {
+            BankAccount from = bankAccountRepository.lockById(fromId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Sender account not found"));
+            return sendToShard(payeeShard, from, request, auth);
+        }
 
-        BankAccount to = bankAccountRepository.findById(toId)
-                .orElseThrow(() -> new ResourceNotFoundException("Recipient account not found"));
+        // Both accounts are locked in id order in one query, as the scheduled-payment runner
+        // locks them, so neither overwrites a balance the other has just changed
+        Optional<UUID> payeeId = request.toAccountId() != null
+                ? Optional.of(UUID.fromString(request.toAccountId()))
+                : accountDirectory.findId(request.toSortCode(), request.toAccountNumber());
+        Map<UUID, BankAccount> locked = bankAccountRepository
+                .lockAllById(payeeId.map(id -> List.of(fromId, id)).orElse(List.of(fromId))).stream()
+                .collect(Collectors.toMap(BankAccount::getId, Function.identity()));
 
-        // Only allow user to send from their own account
-        String email = auth.getName();
-        if (!from.getUser().getEmail().equals(email)) {
-            throw new ForbiddenException("You are not allowed to send from this account");
+        BankAccount from = Optional.ofNullable(locked.get(fromId))
+                .orElseThrow(() -> new ResourceNotFoundException("Sender account not found"));
+        BankAccount to = payeeId.map(locked::get).orElse(null);
+        if (to != null && request.toAccountId() == null
+                && !accountDirectory.carries(to, request.toSortCode(), request.toAccountNumber())) {
+            // Renumbered by another instance since it was cached; whoever carries the number now
+            // is locked on its own
+            to = accountDirectory.findId(request.toSortCode(), request.toAccountNumber())
+                    .flatMap(bankAccountRepository::lockById)
+                    .orElse(null);
         }
-
-        if (from.getBalance().compareTo(amount) < 0) {
-            throw new IllegalArgumentException("Insufficient funds");
+        if (to == null) {
+            throw recipientNotFound(request);
         }
 
-        // Deduct & transfer funds
-        from.setBalance(from.getBalance().subtract(amount));
-        to.setBalance(to.getBalance().add(amount));
+        requireSender(from, auth);
 
-        Transaction transaction = Transaction.builder()
-                .fromAccount(from)
-                .toAccount(to)
-                .amount(amount)
-                .createdTimestamp(LocalDateTime.now())
-                .build();
+        velocityLimiter.reserve(from.getId(), to.getId(), amount);
+        Transaction saved = transferExecutor.transfer(from, to, amount, blankToNull(request.reference()));
 
-        Transaction saved = transactionRepository.save(transaction);
         return toResponse(saved);
     }
 
+    /**
+     * Sends to an account on another shard, which is only credited once the transfer has been
+     * relayed there.
+     */
+    private TransactionResponse sendToShard(int shard, BankAccount from, CreateTransactionRequest request,
+                                            Authentication auth) {
+        CrossShardTransfers.Payee payee = (request.toAccountId() != null
+                ? crossShardTransfers.findPayee(shard, UUID.fromString(request.toAccountId()))
+                : crossShardTransfers.findPayee(shard, request.toSortCode(), request.toAccountNumber()))
+                .orElseThrow(() -> recipientNotFound(request));
+
+        requireSender(from, auth);
+
+        velocityLimiter.reserve(from.getId(), payee.accountId(), request.amount());
+        return toResponse(crossShardTransfers.send(from, payee, request.amount(), blankToNull(request.reference())));
+    }
+
+    // Only allow user to send from their own account
+    private static void requireSender(BankAccount from, Authentication auth) {
+        if (!from.getUser().getEmail().equals(auth.getName())) {
+            throw new ForbiddenException("You are not allowed to send from this account");
+        }
+    }
+
+    private ResourceNotFoundException recipientNotFound(CreateTransactionRequest request) {
+        if (request.toAccountId() == null) {
+            // The number may have moved shards since it was cached
+            shardDirectory.evictAccount(request.toSortCode(), request.toAccountNumber());
+        }
+        return new ResourceNotFoundException("Recipient account not found");
+    }
+
     @Override
     public List<TransactionResponse> getTransactions(Authentication authentication) {
+        return getTransactions(null, null, authentication);
+    }
+
+    // Repeatable read on every archive-backed read: the archive boundary and the rows read
+    // after it come from one snapshot, so a month archived meanwhile is neither lost nor doubled
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public List<TransactionResponse> getTransactions(LocalDateTime from, LocalDateTime to, Authentication authentication) {
         String email = authentication.getName();
 
         User user = userRepository.findByEmail(email)
@@ -79,29 +164,60 @@ public class TransactionServiceImpl implements TransactionService {
         List<BankAccount> accounts = bankAccountRepository.findByUserId(userId);
         List<UUID> accountIds = accounts.stream().map(BankAccount::getId).toList();
 
-        List<Transaction> transactions = transactionRepository
-                .findByFromAccountIdInOrToAccountIdIn(accountIds, accountIds);
+        // Anything older than the archive boundary is served from segment files, the rest from the DB
+        LocalDateTime archivedUntil = transactionArchive.archivedUntil();
+        List<TransactionResponse> result = new ArrayList<>();
+
+        if (archivedUntil != null && (from == null || from.isBefore(archivedUntil))) {
+            transactionArchive.read(accountIds, from, earliest(to, archivedUntil)).stream()
+                    .map(this::toResponse)
+                    .forEach(result::add);
+        }
 
-        return transactions.stream()
-                .sorted(Comparator.comparing(Transaction::getCreatedTimestamp).reversed())
-                .map(this::toResponse)
-                .toList();
+        LocalDateTime hotFrom = latest(from, archivedUntil);
+        if (to == null || hotFrom == null || to.isAfter(hotFrom)) {
+            List<Transaction> transactions = hotFrom == null && to == null
+                    ? transactionRepository.findByFromAccountIdInOrToAccountIdIn(accountIds, accountIds)
+                    : transactionRepository.findForAccountsBetween(accountIds,
+                            hotFrom == null ? OPEN_START : hotFrom, to == null ? OPEN_END : to);
+            transactions.stream()
+                    .map(this::toResponse)
+                    .forEach(result::add);
+        }
+
+        result.sort(Comparator.comparing(TransactionResponse::createdTimestamp).reversed());
+        return result;
     }
 
 
     @Override
+    public Optional<String> getTransactionsVersion(LocalDateTime from, LocalDateTime to, Authentication authentication) {
+        List<UUID> accountIds = bankAccountRepository.findIdsByUserEmail(authentication.getName());
+        if (accountIds.isEmpty()) {
+            return Optional.empty();
+        }
+
+        // Transactions are append-only, so the newest timestamp plus the account set identifies the list
+        return Optional.of(VersionTokens.of("txns", new HashSet<>(accountIds).hashCode(),
+                latestTransactionTimestamp(accountIds), transactionArchive.archivedUntil(), from, to));
+    }
+
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
     public TransactionResponse getTransactionById(UUID transactionId, Authentication auth) {
         String email = auth.getName();
 
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        Transaction txn = transactionRepository.findById(transactionId)
-                .orElseThrow(() -> new ResourceNotFoundException("Transaction not found"));
-
         UUID userId = user.getId();
-        boolean isSenderOrReceiver = txn.getFromAccount().getUser().getId().equals(userId) ||
-                txn.getToAccount().getUser().getId().equals(userId);
+        Optional<Transaction> hot = transactionRepository.findById(transactionId);
+        if (hot.isEmpty()) {
+            return toResponse(findArchived(transactionId, userId));
+        }
+        Transaction txn = hot.get();
+
+        boolean isSenderOrReceiver = isOwnedBy(txn.getFromAccount(), userId) || isOwnedBy(txn.getToAccount(), userId);
 
         if (!isSenderOrReceiver) {
             throw new ForbiddenException("You are not allowed to view this transaction");
@@ -110,11 +226,26 @@ public class TransactionServiceImpl implements TransactionService {
         return toResponse(txn);
     }
 
-
-
+    // Segments are indexed by account, so an archived movement is looked for among the
+    // caller's own accounts; one that is not theirs is reported as missing
+    private ArchivedTransaction findArchived(UUID transactionId, UUID userId) {
+        Set<UUID> owned = bankAccountRepository.findByUserId(userId).stream()
+                .map(BankAccount::getId)
+                .collect(Collectors.toSet());
+        return transactionArchive.find(transactionId, owned)
+                .filter(txn -> owned.contains(txn.fromAccountId()) || owned.contains(txn.toAccountId()))
+                .orElseThrow(() -> new ResourceNotFoundException("Transaction not found"));
+    }
 
     @Override
     public List<TransactionResponse> getTransactionsForAccount(UUID accountId, Authentication auth) {
+        return getTransactionsForAccount(accountId, null, null, auth);
+    }
+
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public List<TransactionResponse> getTransactionsForAccount(UUID accountId, LocalDateTime from, LocalDateTime to,
+                                                               Authentication auth) {
         String email = auth.getName();
 
         // Verify user exists
@@ -122,29 +253,174 @@ public class TransactionServiceImpl implements TransactionService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
         // Verify account exists and is owned by user
-        BankAccount account = bankAccountRepository.findById(accountId)
+        BankAccount account = bankAccountRepository.findOpenById(accountId)
                 .orElseThrow(() -> new ResourceNotFoundException("Account not found"));
 
         if (!account.getUser().getId().equals(user.getId())) {
             throw new ForbiddenException("You do not own this account");
         }
 
+        LocalDateTime archivedUntil = transactionArchive.archivedUntil();
+        List<TransactionResponse> result = new ArrayList<>();
+
+        if (archivedUntil != null && (from == null || from.isBefore(archivedUntil))) {
+            transactionArchive.read(accountId, from, earliest(to, archivedUntil)).stream()
+                    .map(this::toResponse)
+                    .forEach(result::add);
+        }
+
         // Fetch transactions
-        List<Transaction> txns = transactionRepository.findByFromAccountIdOrToAccountId(accountId, accountId);
-        return txns.stream()
-                .sorted(Comparator.comparing(Transaction::getCreatedTimestamp).reversed())
-                .map(this::toResponse)
-                .toList();
+        LocalDateTime hotFrom = latest(from, archivedUntil);
+        if (to == null || hotFrom == null || to.isAfter(hotFrom)) {
+            List<Transaction> txns = hotFrom == null && to == null
+                    ? transactionRepository.findByFromAccountIdOrToAccountId(accountId, accountId)
+                    : transactionRepository.findForAccountBetween(accountId,
+                            hotFrom == null ? OPEN_START : hotFrom, to == null ? OPEN_END : to);
+            txns.stream()
+                    .map(this::toResponse)
+                    .forEach(result::add);
+        }
+
+        result.sort(Comparator.comparing(TransactionResponse::createdTimestamp).reversed());
+        return result;
+    }
+
+    @Override
+    public Optional<String> getTransactionsForAccountVersion(UUID accountId, LocalDateTime from, LocalDateTime to,
+                                                             Authentication auth) {
+        if (!bankAccountRepository.existsByIdAndUserEmail(accountId, auth.getName())) {
+            return Optional.empty();
+        }
+
+        return Optional.of(VersionTokens.of("txns", latestTransactionTimestamp(List.of(accountId)),
+                transactionArchive.archivedUntil(), from, to));
     }
 
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public TransactionSearchResponse searchTransactions(TransactionSearchRequest request, Authentication auth) {
+        List<UUID> accountIds = bankAccountRepository.findIdsByUserEmail(auth.getName());
+        if (accountIds.isEmpty()) {
+            return new TransactionSearchResponse(List.of(), null);
+        }
+        int size = request.size() == null ? DEFAULT_SEARCH_SIZE : request.size();
+        SearchCursor cursor = SearchCursor.decode(request.cursor());
+
+        // One row past the page says whether there is another
+        List<TransactionResponse> page = new ArrayList<>(size + 1);
+        transactionRepository.findBy(
+                        TransactionSpecifications.search(accountIds, request,
+                                cursor == null ? null : cursor.createdTimestamp(),
+                                cursor == null ? null : cursor.id()),
+                        query -> query.sortBy(NEWEST_FIRST).limit(size + 1).all())
+                .forEach(txn -> page.add(toResponse(txn)));
+
+        // Archived months are older than every database row, so they continue the same order
+        LocalDateTime archivedUntil = transactionArchive.archivedUntil();
+        if (page.size() <= size && archivedUntil != null
+                && (request.from() == null || request.from().isBefore(archivedUntil))) {
+            LocalDateTime upper = earliest(request.to(), archivedUntil);
+            if (cursor != null) {
+                upper = earliest(upper, cursor.createdTimestamp().plusNanos(1_000));
+            }
+            Set<UUID> owned = new HashSet<>(accountIds);
+            // Stops reading segments once the page is full
+            transactionArchive.streamNewestFirst(accountIds, request.from(), upper, request.q(), ARCHIVED_NEWEST_FIRST)
+                    .filter(txn -> matches(txn, owned, request, cursor))
+                    .limit(size + 1 - page.size())
+                    .map(this::toResponse)
+                    .forEach(page::add);
+        }
+
+        if (page.size() <= size) {
+            return new TransactionSearchResponse(page, null);
+        }
+        page.remove(size);
+        TransactionResponse last = page.get(size - 1);
+        return new TransactionSearchResponse(page,
+                new SearchCursor(last.createdTimestamp(), UUID.fromString(last.transactionId())).encode());
+    }
+
+    private static boolean matches(ArchivedTransaction txn, Set<UUID> owned, TransactionSearchRequest request,
+                                   SearchCursor cursor) {
+        UUID counterparty = request.counterpartyAccountId();
+        if (counterparty != null
+                && !(counterparty.equals(txn.toAccountId()) && owned.contains(txn.fromAccountId()))
+                && !(counterparty.equals(txn.fromAccountId()) && owned.contains(txn.toAccountId()))) {
+            return false;
+        }
+        if (request.minAmount() != null && txn.amount().compareTo(request.minAmount()) < 0) {
+            return false;
+        }
+        if (request.maxAmount() != null && txn.amount().compareTo(request.maxAmount()) > 0) {
+            return false;
+        }
+        if (cursor == null) {
+            return true;
+        }
+        int cmp = txn.createdTimestamp().compareTo(cursor.createdTimestamp());
+        return cmp < 0 || (cmp == 0 && AccountRange.compareUnsigned(txn.id(), cursor.id()) < 0);
+    }
+
+    private LocalDateTime latestTransactionTimestamp(List<UUID> accountIds) {
+        return latest(transactionRepository.findLatestSentTimestamp(accountIds),
+                transactionRepository.findLatestReceivedTimestamp(accountIds));
+    }
+
+    private static LocalDateTime earliest(LocalDateTime a, LocalDateTime b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.isAfter(b) ? a : b;
+    }
+
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.strip();
+    }
+
+    private static boolean isOwnedBy(BankAccount account, UUID userId) {
+        return account != null && account.getUser().getId().equals(userId);
+    }
 
     private TransactionResponse toResponse(Transaction txn) {
         return new TransactionResponse(
                 txn.getId().toString(),
-                txn.getFromAccount().getId().toString(),
-                txn.getToAccount().getId().toString(),
+                accountId(txn.getFromAccount(), txn.getToAccount(), txn.getCounterpartyAccountId()),
+                accountId(txn.getToAccount(), txn.getFromAccount(), txn.getCounterpartyAccountId()),
                 txn.getAmount(),
-                txn.getCreatedTimestamp()
+                txn.getCreatedTimestamp(),
+                txn.getType().name(),
+                txn.getCreditedAmount(),
+                txn.getFxRate(),
+                txn.getReference()
+        );
+    }
+
+    // A transfer leg whose other side is on another shard names it through the counterparty
+    private static String accountId(BankAccount account, BankAccount otherSide, UUID counterpartyAccountId) {
+        if (account != null) {
+            return account.getId().toString();
+        }
+        return otherSide != null && counterpartyAccountId != null ? counterpartyAccountId.toString() : null;
+    }
+
+    private TransactionResponse toResponse(ArchivedTransaction txn) {
+        return new TransactionResponse(
+                txn.id().toString(),
+                txn.fromAccountId() == null ? null : txn.fromAccountId().toString(),
+                txn.toAccountId() == null ? null : txn.toAccountId().toString(),
+                txn.amount(),
+                txn.createdTimestamp(),
+                txn.type().name(),
+                txn.creditedAmount(),
+                txn.fxRate(),
+                txn.reference()
         );
     }
 }
@@ -0,0 +1,79 @@
+package com.eaglebank.service;
+
+import com.eaglebank.entity.BankAccount;
+import com.eaglebank.entity.Transaction;
+import com.eaglebank.entity.TransactionType;
+import com.eaglebank.event.MoneyMovementEvent;
+import com.eaglebank.event.MovementType;
+import com.eaglebank.fx.Conversion;
+import com.eaglebank.fx.FxRates;
+import com.eaglebank.journal.BalanceProjection;
+import com.eaglebank.journal.Journal;
+import com.eaglebank.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Moves money between two accounts the caller has write-locked through
+ * {@code BankAccountRepository.lockAllById}: the funds check, both balances, the movement row
+ * and its events. Runs in the caller's transaction and rejects a transfer before changing
+ * anything, so a batch caller can catch the rejection and carry on with the rest.
+ *
+ * <p>Funds are checked against both the sender's stored balance and its journal balance.
+ * The amount is always in the sender's currency. When the receiver holds a different one
+ * it is credited the converted amount, and the rate applied is recorded on the movement.
+ */
+@Component
+@RequiredArgsConstructor
+public class TransferExecutor {
+
+    private final TransactionRepository transactionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FxRates fxRates;
+    private final Journal journal;
+    private final BalanceProjection balanceProjection;
+
+    public Transaction transfer(BankAccount from, BankAccount to, BigDecimal amount, String reference) {
+        if (from.getBalance().compareTo(amount) < 0 || !balanceProjection.covers(from.getId(), amount)) {
+            throw new IllegalArgumentException("Insufficient funds");
+        }
+
+        Conversion conversion = null;
+        BigDecimal credited = amount;
+        if (!from.getCurrency().equals(to.getCurrency())) {
+            conversion = fxRates.convert(amount, from.getCurrency(), to.getCurrency());
+            credited = conversion.amount();
+            if (credited.signum() <= 0) {
+                throw new IllegalArgumentException("Amount is too small to convert to " + to.getCurrency());
+            }
+        }
+
+        // Deduct & transfer funds
+        from.setBalance(from.getBalance().subtract(amount));
+        to.setBalance(to.getBalance().add(credited));
+
+        Transaction saved = transactionRepository.save(Transaction.builder()
+                .type(TransactionType.TRANSFER)
+                .fromAccount(from)
+                .toAccount(to)
+                .amount(amount)
+                .creditedAmount(conversion == null ? null : credited)
+                .fxRate(conversion == null ? null : conversion.rate())
+                .reference(reference)
+                .createdTimestamp(LocalDateTime.now())
+                .build());
+        journal.post(saved);
+
+        // Written to the outbox in this transaction, one event per side of the transfer
+        eventPublisher.publishEvent(new MoneyMovementEvent(saved.getId(), MovementType.TRANSFER_SENT,
+                from.getId(), to.getId(), amount, from.getBalance(), saved.getCreatedTimestamp()));
+        eventPublisher.publishEvent(new MoneyMovementEvent(saved.getId(), MovementType.TRANSFER_RECEIVED,
+                to.getId(), from.getId(), credited, to.getBalance(), saved.getCreatedTimestamp()));
+
+        return saved;
+    }
+}
@@ -5,6 +5,7 @@ import com.eaglebank.dto.UpdateUserRequest;
 import com.eaglebank.dto.UserResponse;
 import org.springframework.security.core.Authentication;
 
+import java.util.Optional;
 import java.util.UUID;
 
 public interface UserService {
@@ -13,6 +14,8 @@ public interface UserService {
 
     UserResponse getUserById(UUID userId, Authentication authentication);
 
+    Optional<String> getUserVersion(UUID userId, Authentication authentication);
+
     UserResponse updateUser(UUID userId, UpdateUserRequest request, Authentication authentication);
 
     void deleteUserById(UUID userId, Authentication authentication);
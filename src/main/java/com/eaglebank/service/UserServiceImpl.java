@@ -1,5 +1,7 @@
 package com.eaglebank.service;
 
+import com.eaglebank.audit.AuditAction;
+import com.eaglebank.audit.AuditTrail;
 import com.eaglebank.dto.AddressResponse;
 import com.eaglebank.dto.CreateUserRequest;
 import com.eaglebank.dto.UpdateUserRequest;
@@ -11,6 +13,9 @@ import com.eaglebank.exception.ForbiddenException;
 import com.eaglebank.exception.ResourceNotFoundException;
 import com.eaglebank.repository.BankAccountRepository;
 import com.eaglebank.repository.UserRepository;
+import com.eaglebank.security.TokenRevocations;
+import com.eaglebank.sharding.ShardDirectory;
+import com.eaglebank.sharding.Shards;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -18,7 +23,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -29,8 +38,13 @@ public class UserServiceImpl implements UserService {
     private final PasswordEncoder passwordEncoder;
 
     private final BankAccountRepository  bankAccountRepository;
+    private final TokenRevocations tokenRevocations;
+    private final Shards shards;
+    private final ShardDirectory shardDirectory;
+    private final AuditTrail auditTrail;
 
     @Override
+    @Transactional(readOnly = true)
     public UserResponse getUserById(UUID userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
@@ -48,6 +62,13 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public UserResponse createUser(CreateUserRequest request) {
+        // Bound before the first query, which is when this transaction takes its connection
+        int shard = shards.place();
+        shardDirectory.reserveUser(request.email(), shard);
+        return shards.callOn(shard, () -> create(request));
+    }
+
+    private UserResponse create(CreateUserRequest request) {
         if (userRepository.findByEmail(request.email()).isPresent()) {
             throw new ConflictException("Email already exists");
         }
@@ -66,6 +87,7 @@ public class UserServiceImpl implements UserService {
 
         // save and grab the persisted entity (now has ID + timestamps)
         User savedUser = userRepository.save(toSave);
+        auditTrail.record(AuditAction.USER_CREATED, savedUser.getId(), Map.of(), auditState(savedUser));
 
         // return using savedUser, not the pre-save 'user'
         return new UserResponse(
@@ -81,6 +103,7 @@ public class UserServiceImpl implements UserService {
 
 
     @Override
+    @Transactional(readOnly = true)
     public UserResponse getUserById(UUID userId, Authentication authentication) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
@@ -104,6 +127,13 @@ public class UserServiceImpl implements UserService {
         );
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<String> getUserVersion(UUID userId, Authentication authentication) {
+        return userRepository.findUpdatedTimestamp(userId, authentication.getName())
+                .map(updated -> VersionTokens.of("usr", updated));
+    }
+
     @Override
     public UserResponse updateUser(UUID userId, UpdateUserRequest request, Authentication authentication) {
         User user = userRepository.findById(userId)
@@ -112,6 +142,12 @@ public class UserServiceImpl implements UserService {
         if (!user.getEmail().equals(authentication.getName())) {
             throw new ForbiddenException("You are not authorised to update this user's information");
         }
+        Map<String, Object> before = auditState(user);
+
+        if (!user.getEmail().equals(request.email())) {
+            shardDirectory.reserveUser(request.email(), Shards.current());
+            shardDirectory.releaseUser(user.getEmail(), Shards.current());
+        }
 
         user.setName(request.name());
         user.setEmail(request.email());
@@ -127,6 +163,7 @@ public class UserServiceImpl implements UserService {
 
         user.setUpdatedTimestamp(LocalDateTime.now());
         userRepository.save(user);
+        auditTrail.record(AuditAction.USER_UPDATED, user.getId(), before, auditState(user));
 
         return new UserResponse(
                 user.getId().toString(),
@@ -157,9 +194,27 @@ public class UserServiceImpl implements UserService {
         }
 
         userRepository.delete(user);
+        auditTrail.record(AuditAction.USER_DELETED, user.getId(), auditState(user), Map.of());
+        shardDirectory.releaseUser(user.getEmail(), Shards.current());
+        // Outstanding tokens would otherwise keep working until they expire
+        tokenRevocations.revokeUser(user.getEmail());
     }
 
 
+    private static Map<String, Object> auditState(User user) {
+        // Never the password, not even hashed
+        Address address = user.getAddress();
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("name", user.getName());
+        state.put("email", user.getEmail());
+        state.put("phoneNumber", user.getPhoneNumber());
+        state.put("address", String.join(", ", Stream.of(address.getLine1(), address.getLine2(),
+                        address.getLine3(), address.getTown(), address.getCounty(), address.getPostcode())
+                .filter(line -> line != null && !line.isBlank())
+                .toList()));
+        return state;
+    }
+
     private AddressResponse toAddressResponse(Address address) {
         return new AddressResponse(
                 address.getLine1(),
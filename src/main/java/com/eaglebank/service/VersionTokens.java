@@ -0,0 +1,32 @@
+package com.eaglebank.service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.StringJoiner;
+
+/**
+ * Builds compact opaque version strings (used as ETags) out of timestamps and counters.
+ */
+final class VersionTokens {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private VersionTokens() {
+    }
+
+    static String of(Object... parts) {
+        StringJoiner token = new StringJoiner("-");
+        for (Object part : parts) {
+            if (part == null) {
+                token.add("0");
+            } else if (part instanceof LocalDateTime timestamp) {
+                token.add(Long.toString(ChronoUnit.MICROS.between(EPOCH, timestamp), 36));
+            } else if (part instanceof Number number) {
+                token.add(Long.toString(number.longValue(), 36));
+            } else {
+                token.add(part.toString());
+            }
+        }
+        return token.toString();
+    }
+}
@@ -0,0 +1,281 @@
+package com.eaglebank.sharding;
+
+import com.eaglebank.config.ShardProperties;
+import com.eaglebank.entity.BankAccount;
+import com.eaglebank.entity.ShardTransfer;
+import com.eaglebank.entity.ShardTransferStatus;
+import com.eaglebank.entity.Transaction;
+import com.eaglebank.entity.TransactionType;
+import com.eaglebank.event.MoneyMovementEvent;
+import com.eaglebank.event.MovementType;
+import com.eaglebank.fx.Conversion;
+import com.eaglebank.fx.FxRates;
+import com.eaglebank.journal.BalanceProjection;
+import com.eaglebank.journal.Journal;
+import com.eaglebank.repository.BankAccountRepository;
+import com.eaglebank.repository.ShardTransferReceiptRepository;
+import com.eaglebank.repository.ShardTransferRepository;
+import com.eaglebank.repository.TransactionRepository;
+import com.eaglebank.service.AccountDirectory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Transfers to an account on another shard. No transaction spans two databases, so these
+ * settle in two steps, each a local transaction:
+ *
+ * <ol>
+ * <li>{@link #send}, in the caller's transaction on the sender's shard, checks funds, debits
+ * the sender into shard clearing and records the transfer as pending.
+ * <li>{@link #relay} then credits the receiver on its shard, writing a receipt keyed by the
+ * transfer alongside the credit, and marks the transfer credited. A retry after a crash in
+ * between finds the receipt and only marks it. If the receiving account has gone, the
+ * sender is refunded the same way instead.
+ * </ol>
+ *
+ * <p>Each shard's journal balances throughout; money in flight sits in
+ * {@code ContraAccount.SHARD_CLEARING} on the sender's shard.
+ */
+@Slf4j
+@Component
+public class CrossShardTransfers {
+
+    private static final int MAX_ERROR_LENGTH = 255;
+
+    private final Shards shards;
+    private final ShardTransferRepository shardTransferRepository;
+    private final ShardTransferReceiptRepository receiptRepository;
+    private final BankAccountRepository bankAccountRepository;
+    private final TransactionRepository transactionRepository;
+    private final AccountDirectory accountDirectory;
+    private final Journal journal;
+    private final BalanceProjection balanceProjection;
+    private final FxRates fxRates;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ShardProperties properties;
+
+    private final Counter credited;
+    private final Counter returned;
+    private final Counter failed;
+
+    public CrossShardTransfers(Shards shards,
+                               ShardTransferRepository shardTransferRepository,
+                               ShardTransferReceiptRepository receiptRepository,
+                               BankAccountRepository bankAccountRepository,
+                               TransactionRepository transactionRepository,
+                               AccountDirectory accountDirectory,
+                               Journal journal,
+                               BalanceProjection balanceProjection,
+                               FxRates fxRates,
+                               ApplicationEventPublisher eventPublisher,
+                               ShardProperties properties,
+                               MeterRegistry meterRegistry) {
+        this.shards = shards;
+        this.shardTransferRepository = shardTransferRepository;
+        this.receiptRepository = receiptRepository;
+        this.bankAccountRepository = bankAccountRepository;
+        this.transactionRepository = transactionRepository;
+        this.accountDirectory = accountDirectory;
+        this.journal = journal;
+        this.balanceProjection = balanceProjection;
+        this.fxRates = fxRates;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+
+        this.credited = meterRegistry.counter("shards.transfers.relayed", "outcome", "credited");
+        this.returned = meterRegistry.counter("shards.transfers.relayed", "outcome", "returned");
+        this.failed = meterRegistry.counter("shards.transfers.relayed", "outcome", "failed");
+    }
+
+    /**
+     * An account on another shard, as much of it as a sender needs to know.
+     */
+    public record Payee(UUID accountId, int shard, String currency) {}
+
+    public Optional<Payee> findPayee(int shard, UUID accountId) {
+        return shards.inTransaction(shard, status ->
+                bankAccountRepository.findOpenById(accountId).map(account -> payee(account, shard)));
+    }
+
+    public Optional<Payee> findPayee(int shard, String sortCode, String accountNumber) {
+        return shards.inTransaction(shard, status ->
+                accountDirectory.find(sortCode, accountNumber).map(account -> payee(account, shard)));
+    }
+
+    /**
+     * The sending leg, in the caller's transaction, which has {@code from} write-locked.
+     * Rejects the transfer before changing anything, as {@code TransferExecutor} does.
+     */
+    public Transaction send(BankAccount from, Payee payee, BigDecimal amount, String reference) {
+        if (from.getBalance().compareTo(amount) < 0 || !balanceProjection.covers(from.getId(), amount)) {
+            throw new IllegalArgumentException("Insufficient funds");
+        }
+        if (!from.getCurrency().equals(payee.currency())
+                && fxRates.convert(amount, from.getCurrency(), payee.currency()).amount().signum() <= 0) {
+            throw new IllegalArgumentException("Amount is too small to convert to " + payee.currency());
+        }
+
+        from.setBalance(from.getBalance().subtract(amount));
+        LocalDateTime now = LocalDateTime.now();
+        Transaction saved = transactionRepository.save(Transaction.builder()
+                .type(TransactionType.TRANSFER)
+                .fromAccount(from)
+                .counterpartyAccountId(payee.accountId())
+                .amount(amount)
+                .reference(reference)
+                .createdTimestamp(now)
+                .build());
+        journal.post(saved);
+
+        shardTransferRepository.save(ShardTransfer.builder()
+                .transactionId(saved.getId())
+                .fromAccountId(from.getId())
+                .toAccountId(payee.accountId())
+                .toShard(payee.shard())
+                .amount(amount)
+                .currency(from.getCurrency())
+                .reference(reference)
+                .status(ShardTransferStatus.PENDING)
+                .nextAttemptAt(now)
+                .createdTimestamp(now)
+                .build());
+
+        eventPublisher.publishEvent(new MoneyMovementEvent(saved.getId(), MovementType.TRANSFER_SENT,
+                from.getId(), payee.accountId(), amount, from.getBalance(), now));
+        return saved;
+    }
+
+    @Scheduled(fixedDelayString = "${eaglebank.shards.relay-interval:PT1S}")
+    public void relay() {
+        if (!shards.enabled()) {
+            return;
+        }
+        shards.forEach(shard -> {
+            try {
+                // Keep draining while batches come back full
+                while (relayBatch(shard) >= properties.relayBatchSize()) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        return;
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.error("Relaying transfers from shard {} failed", shard, e);
+            }
+        });
+    }
+
+    /**
+     * Claims and settles one batch of the transfers sent from {@code shard}. The claim holds
+     * their rows locked while each is credited in a transaction of its own on the receiver's
+     * shard.
+     *
+     * @return the number of transfers claimed
+     */
+    public int relayBatch(int shard) {
+        Integer claimed = shards.inTransaction(shard, status -> {
+            List<ShardTransfer> due = shardTransferRepository.claimDue(LocalDateTime.now(), properties.relayBatchSize());
+            for (ShardTransfer transfer : due) {
+                settle(shard, transfer);
+            }
+            return due.size();
+        });
+        return claimed == null ? 0 : claimed;
+    }
+
+    private void settle(int fromShard, ShardTransfer transfer) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            if (receive(transfer.getToShard(), transfer, transfer.getToAccountId(), transfer.getFromAccountId())) {
+                transfer.setStatus(ShardTransferStatus.CREDITED);
+                credited.increment();
+            } else if (receive(fromShard, transfer, transfer.getFromAccountId(), transfer.getToAccountId())) {
+                transfer.setStatus(ShardTransferStatus.RETURNED);
+                returned.increment();
+                log.info("Returned transfer {} to {}: account {} on shard {} no longer exists",
+                        transfer.getTransactionId(), transfer.getFromAccountId(),
+                        transfer.getToAccountId(), transfer.getToShard());
+            } else {
+                throw new IllegalStateException("Neither account of the transfer exists any more");
+            }
+            transfer.setSettledTimestamp(now);
+            transfer.setLastError(null);
+        } catch (RuntimeException e) {
+            int attempts = transfer.getAttempts() + 1;
+            String error = e.toString();
+            transfer.setAttempts(attempts);
+            transfer.setLastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+            transfer.setNextAttemptAt(now.plus(backoff(attempts)));
+            failed.increment();
+            log.warn("Relaying transfer {} to shard {} failed: {}", transfer.getTransactionId(),
+                    transfer.getToShard(), e.toString());
+        }
+    }
+
+    /**
+     * Credits the transfer to {@code accountId} on {@code shard}, once.
+     *
+     * @return {@code false} when the account does not exist there, with nothing written
+     */
+    private boolean receive(int shard, ShardTransfer transfer, UUID accountId, UUID counterpartyId) {
+        return Boolean.TRUE.equals(shards.inTransaction(shard, status -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (receiptRepository.tryRecord(transfer.getTransactionId(), now) == 0) {
+                // Credited by an earlier attempt whose outcome was never recorded
+                return true;
+            }
+            List<BankAccount> locked = bankAccountRepository.lockAllById(List.of(accountId));
+            if (locked.isEmpty()) {
+                status.setRollbackOnly();
+                return false;
+            }
+            BankAccount to = locked.get(0);
+
+            Conversion conversion = null;
+            BigDecimal amount = transfer.getAmount();
+            BigDecimal creditedAmount = amount;
+            if (!transfer.getCurrency().equals(to.getCurrency())) {
+                conversion = fxRates.convert(amount, transfer.getCurrency(), to.getCurrency());
+                creditedAmount = conversion.amount();
+            }
+            to.setBalance(to.getBalance().add(creditedAmount));
+
+            Transaction saved = transactionRepository.save(Transaction.builder()
+                    .type(TransactionType.TRANSFER)
+                    .toAccount(to)
+                    .counterpartyAccountId(counterpartyId)
+                    .amount(amount)
+                    .creditedAmount(conversion == null ? null : creditedAmount)
+                    .fxRate(conversion == null ? null : conversion.rate())
+                    .reference(transfer.getReference())
+                    .createdTimestamp(now)
+                    .build());
+            journal.postReceived(saved, transfer.getCurrency());
+
+            eventPublisher.publishEvent(new MoneyMovementEvent(saved.getId(), MovementType.TRANSFER_RECEIVED,
+                    to.getId(), counterpartyId, creditedAmount, to.getBalance(), now));
+            return true;
+        }));
+    }
+
+    Duration backoff(int attempts) {
+        long initial = properties.relayInterval().toMillis();
+        long max = properties.relayMaxBackoff().toMillis();
+        long delay = initial << Math.min(attempts - 1, 30);
+        return Duration.ofMillis(delay <= 0 ? max : Math.min(delay, max));
+    }
+
+    private static Payee payee(BankAccount account, int shard) {
+        return new Payee(account.getId(), shard, account.getCurrency());
+    }
+}
@@ -0,0 +1,43 @@
+package com.eaglebank.sharding;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Binds an authenticated client's shard for the rest of the request, so everything the
+ * request reads and writes goes to the database holding their user and accounts. Like the
+ * rate limit filter it runs after authentication and is not a bean.
+ */
+@RequiredArgsConstructor
+public class ShardBindingFilter extends OncePerRequestFilter {
+
+    private final ShardDirectory shardDirectory;
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Integer previous = Shards.bind(shardDirectory.shardOfUser(authentication.getName()));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Shards.bind(previous);
+        }
+    }
+}
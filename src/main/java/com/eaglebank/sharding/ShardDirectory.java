@@ -0,0 +1,279 @@
+package com.eaglebank.sharding;
+
+import com.eaglebank.config.AccountProperties;
+import com.eaglebank.config.ShardProperties;
+import com.eaglebank.entity.ShardAssignment;
+import com.eaglebank.exception.ConflictException;
+import com.eaglebank.repository.BankAccountRepository;
+import com.eaglebank.repository.ShardAssignmentRepository;
+import com.eaglebank.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Finds the shard of a user by email and of an account by sort code and number, the two
+ * ways in that do not start from an id. Assignments live in {@code shard_assignments} on
+ * shard 0 and are cached here in a bounded, least recently used map.
+ *
+ * <p>A key is reserved before its row is written and released if the writing transaction
+ * rolls back. A reservation left behind by an instance that died in between is taken over
+ * once it is older than {@link #ABANDONED_AFTER} and its row is still missing.
+ *
+ * <p>Only hits are cached. A cached shard can go stale when another instance frees a key
+ * that is then reused on a different shard; callers that find nothing evict the key so the
+ * next lookup reads it afresh.
+ */
+@Slf4j
+@Component
+public class ShardDirectory {
+
+    static final String USER_PREFIX = "user:";
+    static final String ACCOUNT_PREFIX = "account:";
+    static final Duration ABANDONED_AFTER = Duration.ofMinutes(1);
+
+    private final ShardAssignmentRepository shardAssignmentRepository;
+    private final UserRepository userRepository;
+    private final BankAccountRepository bankAccountRepository;
+    private final Shards shards;
+    private final String defaultSortCode;
+    private final Map<String, Integer> cache;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter takenOver;
+
+    public ShardDirectory(ShardAssignmentRepository shardAssignmentRepository,
+                          UserRepository userRepository,
+                          BankAccountRepository bankAccountRepository,
+                          Shards shards,
+                          ShardProperties properties,
+                          AccountProperties accountProperties,
+                          MeterRegistry meterRegistry) {
+        this.shardAssignmentRepository = shardAssignmentRepository;
+        this.userRepository = userRepository;
+        this.bankAccountRepository = bankAccountRepository;
+        this.shards = shards;
+        this.defaultSortCode = accountProperties.sortCode();
+        int maxEntries = properties.directoryMaxEntries();
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.hits = meterRegistry.counter("shards.directory.lookups", "result", "hit");
+        this.misses = meterRegistry.counter("shards.directory.lookups", "result", "miss");
+        this.takenOver = meterRegistry.counter("shards.directory.abandoned");
+        meterRegistry.gauge("shards.directory.size", this, ShardDirectory::size);
+    }
+
+    /**
+     * The shard of the user with this email. Unknown emails resolve to {@link Shards#HOME},
+     * where the lookup that follows finds nothing.
+     */
+    public int shardOfUser(String email) {
+        return shardOf(userKey(email));
+    }
+
+    /**
+     * The shard an account id was written to, which its id records.
+     */
+    public int shardOfAccount(UUID accountId) {
+        return shards.enabled() ? ShardIds.shardOf(accountId) : Shards.HOME;
+    }
+
+    /**
+     * The shard of the account with this number, under the bank's own sort code when
+     * {@code sortCode} is {@code null}. Unknown numbers resolve to {@link Shards#HOME}.
+     */
+    public int shardOfAccount(String sortCode, String accountNumber) {
+        return shardOf(accountKey(sortCode, accountNumber));
+    }
+
+    /**
+     * Claims the email for a user on {@code shard}, across every shard.
+     *
+     * @throws ConflictException when another user has it
+     */
+    public void reserveUser(String email, int shard) {
+        reserve(userKey(email), shard, "Email already exists",
+                () -> userRepository.findByEmail(email).isPresent());
+    }
+
+    /**
+     * Claims the sort code and number for an account on {@code shard}, across every shard.
+     *
+     * @throws ConflictException when another account has them
+     */
+    public void reserveAccount(String sortCode, String accountNumber, int shard) {
+        String resolved = sortCode == null ? defaultSortCode : sortCode;
+        reserve(accountKey(resolved, accountNumber), shard,
+                "An account with this sort code and account number already exists",
+                () -> bankAccountRepository.existsBySortCodeAndAccountNumber(resolved, accountNumber));
+    }
+
+    /**
+     * Frees the email once the current transaction commits, or straight away outside one.
+     */
+    public void releaseUser(String email, int shard) {
+        release(userKey(email), shard);
+    }
+
+    public void releaseAccount(String sortCode, String accountNumber, int shard) {
+        release(accountKey(sortCode, accountNumber), shard);
+    }
+
+    public void evictUser(String email) {
+        evict(userKey(email));
+    }
+
+    public void evictAccount(String sortCode, String accountNumber) {
+        evict(accountKey(sortCode, accountNumber));
+    }
+
+    /**
+     * Assigns to shard 0 everything written there while sharding was off, so its emails and
+     * account numbers cannot be claimed again on another shard.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void assignExisting() {
+        if (!shards.enabled()) {
+            return;
+        }
+        Integer assigned = shards.inTransaction(Shards.HOME, status -> shardAssignmentRepository.assignUnassignedToHome());
+        if (assigned != null && assigned > 0) {
+            log.info("Assigned {} existing users and accounts to shard {}", assigned, Shards.HOME);
+        }
+    }
+
+    int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private int shardOf(String key) {
+        if (!shards.enabled()) {
+            return Shards.HOME;
+        }
+        Integer cached = get(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        Optional<Integer> shard = shards.inTransaction(Shards.HOME, status ->
+                shardAssignmentRepository.findById(key).map(ShardAssignment::getShard));
+        shard.ifPresent(found -> put(key, found));
+        return shard.orElse(Shards.HOME);
+    }
+
+    private void reserve(String key, int shard, String conflictMessage, BooleanSupplier existsOnItsShard) {
+        if (!shards.enabled()) {
+            return;
+        }
+        boolean reserved = Boolean.TRUE.equals(shards.inTransaction(Shards.HOME, status ->
+                shardAssignmentRepository.tryAssign(key, shard) == 1));
+        if (!reserved && !takeOverAbandoned(key, shard, existsOnItsShard)) {
+            throw new ConflictException(conflictMessage);
+        }
+        put(key, shard);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        releaseNow(key, shard);
+                    }
+                }
+            });
+        }
+    }
+
+    private boolean takeOverAbandoned(String key, int shard, BooleanSupplier existsOnItsShard) {
+        Optional<ShardAssignment> current = shards.inTransaction(Shards.HOME, status ->
+                shardAssignmentRepository.findById(key));
+        if (current.isEmpty()) {
+            // Released since the insert; one more try
+            return Boolean.TRUE.equals(shards.inTransaction(Shards.HOME, status ->
+                    shardAssignmentRepository.tryAssign(key, shard) == 1));
+        }
+        int previous = current.get().getShard();
+        if (Boolean.TRUE.equals(shards.inTransaction(previous, status -> existsOnItsShard.getAsBoolean()))) {
+            return false;
+        }
+        boolean moved = Boolean.TRUE.equals(shards.inTransaction(Shards.HOME, status ->
+                shardAssignmentRepository.takeOver(key, previous, shard, ABANDONED_AFTER.toMillis()) == 1));
+        if (moved) {
+            takenOver.increment();
+            log.warn("Took over {}, reserved on shard {} by a write that never committed", key, previous);
+        }
+        return moved;
+    }
+
+    private void release(String key, int shard) {
+        if (!shards.enabled()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            releaseNow(key, shard);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                releaseNow(key, shard);
+            }
+        });
+    }
+
+    private void releaseNow(String key, int shard) {
+        evict(key);
+        try {
+            shards.inTransaction(Shards.HOME, status -> shardAssignmentRepository.release(key, shard));
+        } catch (RuntimeException e) {
+            // Left behind, it is taken over once abandoned
+            log.warn("Could not release {} on shard {}", key, shard, e);
+        }
+    }
+
+    private String userKey(String email) {
+        return USER_PREFIX + email;
+    }
+
+    private String accountKey(String sortCode, String accountNumber) {
+        return ACCOUNT_PREFIX + (sortCode == null ? defaultSortCode : sortCode) + "/" + accountNumber;
+    }
+
+    private void evict(String key) {
+        synchronized (cache) {
+            cache.remove(key);
+        }
+    }
+
+    private Integer get(String key) {
+        synchronized (cache) {
+            return cache.get(key);
+        }
+    }
+
+    private void put(String key, int shard) {
+        synchronized (cache) {
+            cache.put(key, shard);
+        }
+    }
+}
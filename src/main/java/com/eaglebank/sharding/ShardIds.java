@@ -0,0 +1,41 @@
+package com.eaglebank.sharding;
+
+import java.util.UUID;
+
+/**
+ * Ids that say which shard their row lives on. They are version 8 (custom) UUIDs with the
+ * shard number in the 14 bits after the variant and the remaining 108 bits random.
+ *
+ * <p>Ids from before sharding are random version 4 UUIDs; those rows were all written to
+ * {@link Shards#HOME}, so that is where any id without a shard number resolves.
+ */
+public final class ShardIds {
+
+    public static final int MAX_SHARDS = 1 << 14;
+
+    private static final int SHARD_SHIFT = 48;
+    private static final long SHARD_MASK = (long) (MAX_SHARDS - 1) << SHARD_SHIFT;
+    private static final long VERSION_MASK = 0xF000L;
+    private static final long VERSION_8 = 0x8000L;
+
+    private ShardIds() {
+    }
+
+    public static UUID next(int shard) {
+        if (shard < 0 || shard >= MAX_SHARDS) {
+            throw new IllegalArgumentException("Shard " + shard + " is out of range");
+        }
+        // randomUUID already carries the RFC 4122 variant bits
+        UUID random = UUID.randomUUID();
+        long msb = (random.getMostSignificantBits() & ~VERSION_MASK) | VERSION_8;
+        long lsb = (random.getLeastSignificantBits() & ~SHARD_MASK) | ((long) shard << SHARD_SHIFT);
+        return new UUID(msb, lsb);
+    }
+
+    public static int shardOf(UUID id) {
+        if (id.variant() != 2 || id.version() != 8) {
+            return Shards.HOME;
+        }
+        return (int) ((id.getLeastSignificantBits() & SHARD_MASK) >>> SHARD_SHIFT);
+    }
+}
@@ -0,0 +1,18 @@
+package com.eaglebank.sharding;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates a UUID id carrying the number of the shard the row is inserted into. Rows
+ * inserted while no shard is bound get a plain random UUID, as {@code @GeneratedValue} did.
+ */
+@IdGeneratorType(ShardedIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface ShardedId {
+}
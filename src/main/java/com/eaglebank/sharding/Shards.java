@@ -0,0 +1,123 @@
+package com.eaglebank.sharding;
+
+import com.eaglebank.config.ShardProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * The shard the current thread works on. A user and everything they own live on one shard,
+ * chosen when they sign up; the id of every user, account and transaction records the shard
+ * it was written to (see {@link ShardIds}).
+ *
+ * <p>The binding is read when a transaction takes its connection, at its first statement, so
+ * a transactional method may bind its shard as long as it has not queried anything yet. Work
+ * on another shard from inside a transaction goes through {@link #inTransaction}, which
+ * suspends the caller's.
+ *
+ * <p>With sharding off nothing is ever bound and every call runs as it did before.
+ */
+@Component
+public class Shards {
+
+    /**
+     * {@code spring.datasource}: where unbound work goes, and where every row written before
+     * sharding was turned on lives.
+     */
+    public static final int HOME = 0;
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private final boolean enabled;
+    private final int count;
+    private final TransactionTemplate newTransaction;
+
+    public Shards(ShardProperties properties, PlatformTransactionManager transactionManager) {
+        this.enabled = properties.enabled();
+        this.count = enabled ? properties.nodes().size() + 1 : 1;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    /**
+     * The shard for a new user. Shards fill evenly; a shard added later takes its share of
+     * new users but nobody is moved onto it.
+     */
+    public int place() {
+        return enabled ? ThreadLocalRandom.current().nextInt(count) : HOME;
+    }
+
+    public static int current() {
+        Integer shard = CURRENT.get();
+        return shard == null ? HOME : shard;
+    }
+
+    public static boolean isBound() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Binds {@code shard} to this thread, or clears the binding for {@code null}, and returns
+     * the previous binding to restore afterwards.
+     */
+    public static Integer bind(Integer shard) {
+        Integer previous = CURRENT.get();
+        if (shard == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(shard);
+        }
+        return previous;
+    }
+
+    public <T> T callOn(int shard, Supplier<T> work) {
+        if (!enabled) {
+            return work.get();
+        }
+        Integer previous = bind(shard);
+        try {
+            return work.get();
+        } finally {
+            bind(previous);
+        }
+    }
+
+    public void runOn(int shard, Runnable work) {
+        callOn(shard, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs {@code work} in a transaction of its own on {@code shard}, whatever the caller's
+     * transaction is bound to.
+     */
+    public <T> T inTransaction(int shard, TransactionCallback<T> work) {
+        return callOn(shard, () -> newTransaction.execute(work));
+    }
+
+    /**
+     * Runs {@code work} once per shard, in shard order, with that shard bound.
+     */
+    public void forEach(IntConsumer work) {
+        for (int shard = 0; shard < count; shard++) {
+            int current = shard;
+            runOn(shard, () -> work.accept(current));
+        }
+    }
+}
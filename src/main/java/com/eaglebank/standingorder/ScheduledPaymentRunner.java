@@ -0,0 +1,293 @@
+package com.eaglebank.standingorder;
+
+import com.eaglebank.config.ScheduledPaymentProperties;
+import com.eaglebank.entity.BankAccount;
+import com.eaglebank.entity.ScheduledPayment;
+import com.eaglebank.entity.ScheduledPaymentRun;
+import com.eaglebank.entity.ScheduledPaymentStatus;
+import com.eaglebank.entity.ScheduledRunOutcome;
+import com.eaglebank.entity.Transaction;
+import com.eaglebank.exception.LimitExceededException;
+import com.eaglebank.exception.ResourceNotFoundException;
+import com.eaglebank.limits.VelocityLimiter;
+import com.eaglebank.repository.BankAccountRepository;
+import com.eaglebank.repository.ScheduledPaymentRepository;
+import com.eaglebank.repository.ScheduledPaymentRunRepository;
+import com.eaglebank.service.TransferExecutor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Pays standing orders and future-dated transfers as they fall due.
+ *
+ * <p>Each worker claims up to {@code batchSize} due payments with {@code FOR UPDATE SKIP LOCKED},
+ * locks every account they touch in one ordered query, and settles the batch in a single
+ * transaction: the transfers, a {@link ScheduledPaymentRun} per date and each payment's move to
+ * its next date commit or roll back together, so a crash mid-run leaves nothing half paid.
+ *
+ * <p>Payments count against the sender's velocity limits like any other transfer. A payment
+ * the transfer logic or the limits reject (insufficient funds, missing account, a limit
+ * reached) is retried later and skipped for that date after {@code maxAttempts}. Any other failure rolls the
+ * batch back; its payments are then retried one per transaction so a single bad row cannot
+ * hold up the rest.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "eaglebank.scheduled-payments", name = "runner-enabled", havingValue = "true", matchIfMissing = true)
+public class ScheduledPaymentRunner {
+
+    private static final int MAX_ERROR_LENGTH = 255;
+
+    private final ScheduledPaymentRepository scheduledPaymentRepository;
+    private final ScheduledPaymentRunRepository runRepository;
+    private final BankAccountRepository bankAccountRepository;
+    private final TransferExecutor transferExecutor;
+    private final VelocityLimiter velocityLimiter;
+    private final ScheduledPaymentProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter paid;
+    private final Counter skipped;
+    private final Counter retried;
+    private final Counter failed;
+    private final Timer batchTimer;
+
+    private ScheduledExecutorService executor;
+
+    public ScheduledPaymentRunner(ScheduledPaymentRepository scheduledPaymentRepository,
+                                  ScheduledPaymentRunRepository runRepository,
+                                  BankAccountRepository bankAccountRepository,
+                                  TransferExecutor transferExecutor,
+                                  VelocityLimiter velocityLimiter,
+                                  ScheduledPaymentProperties properties,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry) {
+        this.scheduledPaymentRepository = scheduledPaymentRepository;
+        this.runRepository = runRepository;
+        this.bankAccountRepository = bankAccountRepository;
+        this.transferExecutor = transferExecutor;
+        this.velocityLimiter = velocityLimiter;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        this.paid = meterRegistry.counter("scheduled.payments.paid");
+        this.skipped = meterRegistry.counter("scheduled.payments.skipped");
+        this.retried = meterRegistry.counter("scheduled.payments.retried");
+        this.failed = meterRegistry.counter("scheduled.payments.failed");
+        this.batchTimer = meterRegistry.timer("scheduled.payments.batch");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newScheduledThreadPool(properties.workers(), runnable -> {
+            Thread thread = new Thread(runnable, "scheduled-payments-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.pollInterval().toMillis();
+        for (int i = 0; i < properties.workers(); i++) {
+            executor.scheduleWithFixedDelay(this::poll, interval, interval, TimeUnit.MILLISECONDS);
+        }
+        log.info("Scheduled payment runner started with {} workers", properties.workers());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (executor != null) {
+            executor.shutdown();
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        }
+    }
+
+    void poll() {
+        try {
+            // Keep going while batches come back full; on the 1st of the month that is a while
+            while (runBatch() >= properties.batchSize()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Scheduled payment run failed", e);
+        }
+    }
+
+    /**
+     * Claims and settles one batch.
+     *
+     * @return the number of payments claimed
+     */
+    public int runBatch() {
+        List<UUID> claimed = new ArrayList<>();
+        try {
+            Integer settled = batchTimer.record(() -> transactionTemplate.execute(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                List<ScheduledPayment> due = scheduledPaymentRepository.claimDue(now, properties.batchSize());
+                due.forEach(p -> claimed.add(p.getId()));
+                settle(due, now);
+                return due.size();
+            }));
+            return settled == null ? 0 : settled;
+        } catch (RuntimeException e) {
+            if (claimed.isEmpty()) {
+                throw e;
+            }
+            log.warn("Batch of {} scheduled payments failed, retrying one at a time: {}", claimed.size(), e.toString());
+            for (UUID id : claimed) {
+                runSingle(id);
+            }
+            return claimed.size();
+        }
+    }
+
+    private void runSingle(UUID id) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                scheduledPaymentRepository.claimDueById(id, now).ifPresent(p -> settle(List.of(p), now));
+            });
+        } catch (RuntimeException e) {
+            recordFailure(id, e);
+        }
+    }
+
+    private void settle(List<ScheduledPayment> due, LocalDateTime now) {
+        if (due.isEmpty()) {
+            return;
+        }
+        Set<UUID> accountIds = new HashSet<>();
+        for (ScheduledPayment payment : due) {
+            accountIds.add(payment.getFromAccount().getId());
+            accountIds.add(payment.getToAccount().getId());
+        }
+        Map<UUID, BankAccount> accounts = bankAccountRepository.lockAllById(accountIds).stream()
+                .collect(Collectors.toMap(BankAccount::getId, Function.identity()));
+
+        List<ScheduledPaymentRun> runs = new ArrayList<>();
+        for (ScheduledPayment payment : due) {
+            BankAccount from = accounts.get(payment.getFromAccount().getId());
+            BankAccount to = accounts.get(payment.getToAccount().getId());
+            try {
+                if (from == null || to == null) {
+                    throw new ResourceNotFoundException("Account not found");
+                }
+                Transaction transaction = transfer(from, to, payment);
+                runs.add(run(payment, ScheduledRunOutcome.PAID, transaction.getId(), null, now));
+                advance(payment, now);
+                paid.increment();
+            } catch (IllegalArgumentException | ResourceNotFoundException | LimitExceededException e) {
+                rejected(payment, e.getMessage(), runs, now);
+            }
+        }
+        runRepository.saveAll(runs);
+    }
+
+    private Transaction transfer(BankAccount from, BankAccount to, ScheduledPayment payment) {
+        VelocityLimiter.Reservation reservation = velocityLimiter.reserve(from.getId(), to.getId(), payment.getAmount());
+        try {
+            return transferExecutor.transfer(from, to, payment.getAmount(), null);
+        } catch (RuntimeException e) {
+            // The batch commits without this payment, so its reservation must not wait for that
+            reservation.cancel();
+            throw e;
+        }
+    }
+
+    private void rejected(ScheduledPayment payment, String reason, List<ScheduledPaymentRun> runs, LocalDateTime now) {
+        int attempts = payment.getAttempts() + 1;
+        if (attempts >= properties.maxAttempts()) {
+            runs.add(run(payment, ScheduledRunOutcome.SKIPPED, null, truncate(reason), now));
+            advance(payment, now);
+            skipped.increment();
+            return;
+        }
+        payment.setAttempts(attempts);
+        payment.setLastError(truncate(reason));
+        payment.setNextRunAt(now.plus(properties.retryInterval().multipliedBy(attempts)));
+        retried.increment();
+    }
+
+    /**
+     * Moves a settled payment on to its next date, or completes it.
+     */
+    static void advance(ScheduledPayment payment, LocalDateTime now) {
+        int occurrence = payment.getOccurrence() + 1;
+        LocalDate next = payment.getFrequency().dateOf(payment.getStartDate(), occurrence);
+
+        payment.setOccurrence(occurrence);
+        payment.setAttempts(0);
+        payment.setLastError(null);
+        payment.setUpdatedTimestamp(now);
+        if (next == null || (payment.getEndDate() != null && next.isAfter(payment.getEndDate()))) {
+            payment.setStatus(ScheduledPaymentStatus.COMPLETED);
+            payment.setNextRunDate(null);
+            payment.setNextRunAt(null);
+        } else {
+            payment.setNextRunDate(next);
+            payment.setNextRunAt(next.atStartOfDay());
+        }
+    }
+
+    private void recordFailure(UUID id, RuntimeException cause) {
+        log.error("Scheduled payment {} failed", id, cause);
+        failed.increment();
+        try {
+            transactionTemplate.executeWithoutResult(status -> scheduledPaymentRepository.findById(id).ifPresent(p -> {
+                int attempts = p.getAttempts() + 1;
+                p.setAttempts(attempts);
+                p.setLastError(truncate(cause.toString()));
+                if (attempts >= properties.maxAttempts()) {
+                    p.setStatus(ScheduledPaymentStatus.FAILED);
+                } else {
+                    p.setNextRunAt(LocalDateTime.now().plus(properties.retryInterval().multipliedBy(attempts)));
+                }
+            }));
+        } catch (RuntimeException e) {
+            log.error("Could not record the failure of scheduled payment {}", id, e);
+        }
+    }
+
+    private static ScheduledPaymentRun run(ScheduledPayment payment, ScheduledRunOutcome outcome,
+                                           UUID transactionId, String detail, LocalDateTime now) {
+        return ScheduledPaymentRun.builder()
+                .scheduledPaymentId(payment.getId())
+                .runDate(payment.getNextRunDate())
+                .outcome(outcome)
+                .transactionId(transactionId)
+                .detail(detail)
+                .createdTimestamp(now)
+                .build();
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,96 @@
+package com.eaglebank.statement;
+
+import com.eaglebank.repository.StatementAccount;
+import com.eaglebank.repository.StatementLine;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.UUID;
+
+/**
+ * One row per record: an {@code OPENING} row, a {@code MOVEMENT} row per movement with the
+ * running balance, and a {@code CLOSING} row per account. Only the customer-supplied sort code
+ * and account number are ever quoted.
+ */
+class CsvStatementWriter implements StatementWriter {
+
+    private static final String HEADER =
+            "record,period,account_id,sort_code,account_number,timestamp,type,transaction_id,counterparty_account_id,amount,balance\n";
+
+    private final Writer out;
+    private final String period;
+
+    CsvStatementWriter(Writer out, YearMonth period) {
+        this.out = out;
+        this.period = period.toString();
+    }
+
+    @Override
+    public void begin() throws IOException {
+        out.write(HEADER);
+    }
+
+    @Override
+    public void openAccount(StatementAccount account) throws IOException {
+        row("OPENING", account.getAccountId(), account.getSortCode(), account.getAccountNumber());
+        out.write(",,,,,,");
+        out.write(account.getOpeningBalance().toPlainString());
+        out.write('\n');
+    }
+
+    @Override
+    public void movement(StatementLine line, BigDecimal balance) throws IOException {
+        row("MOVEMENT", line.getAccountId(), "", "");
+        out.write(',');
+        out.write(line.getCreatedTimestamp().toString());
+        out.write(',');
+        out.write(line.getType());
+        out.write(',');
+        out.write(line.getTransactionId().toString());
+        out.write(',');
+        if (line.getCounterpartyAccountId() != null) {
+            out.write(line.getCounterpartyAccountId().toString());
+        }
+        out.write(',');
+        out.write(line.getAmount().toPlainString());
+        out.write(',');
+        out.write(balance.toPlainString());
+        out.write('\n');
+    }
+
+    @Override
+    public void closeAccount(StatementAccount account, BigDecimal closingBalance, int movements) throws IOException {
+        row("CLOSING", account.getAccountId(), account.getSortCode(), account.getAccountNumber());
+        out.write(",,,,,,");
+        out.write(closingBalance.toPlainString());
+        out.write('\n');
+    }
+
+    @Override
+    public void end() {
+    }
+
+    private void row(String record, UUID accountId, String sortCode, String accountNumber) throws IOException {
+        out.write(record);
+        out.write(',');
+        out.write(period);
+        out.write(',');
+        out.write(accountId.toString());
+        out.write(',');
+        field(sortCode);
+        out.write(',');
+        field(accountNumber);
+    }
+
+    private void field(String value) throws IOException {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+}
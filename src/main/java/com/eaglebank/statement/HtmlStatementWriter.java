@@ -0,0 +1,95 @@
+package com.eaglebank.statement;
+
+import com.eaglebank.repository.StatementAccount;
+import com.eaglebank.repository.StatementLine;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+/**
+ * A single self-contained page with one section per account. There are no scripts or
+ * external resources, so the file renders and prints as it is.
+ */
+class HtmlStatementWriter implements StatementWriter {
+
+    private final Writer out;
+    private final YearMonth period;
+
+    HtmlStatementWriter(Writer out, YearMonth period) {
+        this.out = out;
+        this.period = period;
+    }
+
+    @Override
+    public void begin() throws IOException {
+        out.write("<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\"><title>Statements ");
+        out.write(period.toString());
+        out.write("</title><style>body{font-family:sans-serif}table{border-collapse:collapse}"
+                + "td,th{padding:2px 8px;text-align:left}td.n{text-align:right}"
+                + "section{page-break-after:always}</style></head><body>\n");
+    }
+
+    @Override
+    public void openAccount(StatementAccount account) throws IOException {
+        out.write("<section><h2>");
+        escape(account.getSortCode());
+        out.write(' ');
+        escape(account.getAccountNumber());
+        out.write("</h2><p>");
+        escape(account.getAccountType());
+        out.write(" &middot; ");
+        out.write(period.toString());
+        out.write("</p><table><tr><th>Date</th><th>Type</th><th>Counterparty</th><th>Amount</th><th>Balance</th></tr>\n"
+                + "<tr><td colspan=\"4\">Opening balance</td><td class=\"n\">");
+        out.write(account.getOpeningBalance().toPlainString());
+        out.write("</td></tr>\n");
+    }
+
+    @Override
+    public void movement(StatementLine line, BigDecimal balance) throws IOException {
+        out.write("<tr><td>");
+        out.write(line.getCreatedTimestamp().toString());
+        out.write("</td><td>");
+        out.write(line.getType());
+        out.write("</td><td>");
+        if (line.getCounterpartyAccountId() != null) {
+            out.write(line.getCounterpartyAccountId().toString());
+        }
+        out.write("</td><td class=\"n\">");
+        out.write(line.getAmount().toPlainString());
+        out.write("</td><td class=\"n\">");
+        out.write(balance.toPlainString());
+        out.write("</td></tr>\n");
+    }
+
+    @Override
+    public void closeAccount(StatementAccount account, BigDecimal closingBalance, int movements) throws IOException {
+        out.write("<tr><td colspan=\"4\">Closing balance (");
+        out.write(Integer.toString(movements));
+        out.write(movements == 1 ? " movement" : " movements");
+        out.write(")</td><td class=\"n\">");
+        out.write(closingBalance.toPlainString());
+        out.write("</td></tr></table></section>\n");
+    }
+
+    @Override
+    public void end() throws IOException {
+        out.write("</body></html>\n");
+    }
+
+    private void escape(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<' -> out.write("&lt;");
+                case '>' -> out.write("&gt;");
+                case '&' -> out.write("&amp;");
+                case '"' -> out.write("&quot;");
+                case '\'' -> out.write("&#39;");
+                default -> out.write(c);
+            }
+        }
+    }
+}
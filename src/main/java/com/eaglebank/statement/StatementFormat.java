@@ -0,0 +1,26 @@
+package com.eaglebank.statement;
+
+import java.io.Writer;
+import java.time.YearMonth;
+
+public enum StatementFormat {
+    CSV(".csv"),
+    HTML(".html");
+
+    private final String extension;
+
+    StatementFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public StatementWriter writer(Writer out, YearMonth period) {
+        return switch (this) {
+            case CSV -> new CsvStatementWriter(out, period);
+            case HTML -> new HtmlStatementWriter(out, period);
+        };
+    }
+}
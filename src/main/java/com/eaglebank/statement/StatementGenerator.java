@@ -0,0 +1,303 @@
+package com.eaglebank.statement;
+
+import com.eaglebank.archive.TransactionArchive;
+import com.eaglebank.config.StatementProperties;
+import com.eaglebank.coordination.ExclusiveJob;
+import com.eaglebank.reconciliation.AccountRange;
+import com.eaglebank.repository.BankAccountRepository;
+import com.eaglebank.repository.StatementAccount;
+import com.eaglebank.repository.StatementLine;
+import com.eaglebank.repository.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Writes a month's statement for every account: opening balance, each movement with the
+ * running balance, and closing balance.
+ *
+ * <p>The id space is split into {@code ranges} slices written by {@code parallelism} workers,
+ * one file per slice. A slice is two streamed queries read from one repeatable-read snapshot,
+ * the accounts in id order and their movements in (account, time) order, merged in a single
+ * pass, so a worker holds one account at a time however many accounts or movements there are.
+ * Each file is written under a {@code .part} name and renamed once complete, which makes the
+ * finished files the checkpoint: a rerun for the same month only writes the slices that are
+ * missing.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "eaglebank.statements", name = "enabled", havingValue = "true")
+public class StatementGenerator {
+
+    static final String FILE_PREFIX = "statements-";
+    static final String PARTIAL_SUFFIX = ".part";
+    // Holds the range count a month was started with, so a resumed run names slices the same way
+    static final String RANGES_FILE = ".ranges";
+
+    private final BankAccountRepository bankAccountRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionArchive archive;
+    private final StatementProperties properties;
+    private final TransactionTemplate snapshot;
+
+    private final Counter statementsWritten;
+    private final Timer rangeDuration;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile StatementProgress progress;
+
+    public StatementGenerator(BankAccountRepository bankAccountRepository,
+                              TransactionRepository transactionRepository,
+                              TransactionArchive archive,
+                              StatementProperties properties,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry) {
+        this.bankAccountRepository = bankAccountRepository;
+        this.transactionRepository = transactionRepository;
+        this.archive = archive;
+        this.properties = properties;
+
+        // Both queries of a slice must see the same balances and movements
+        this.snapshot = new TransactionTemplate(transactionManager);
+        snapshot.setReadOnly(true);
+        snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+
+        this.statementsWritten = meterRegistry.counter("statements.written");
+        this.rangeDuration = Timer.builder("statements.range.duration")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("statements.progress", this, g -> g.progress == null ? 0 : g.progress.fractionComplete())
+                .description("Fraction of ranges completed by the current or last run")
+                .register(meterRegistry);
+        Gauge.builder("statements.throughput", this, g -> g.progress == null ? 0 : g.progress.statementsPerSecond())
+                .baseUnit("statements/s")
+                .register(meterRegistry);
+    }
+
+    @ExclusiveJob("statements")
+    @Scheduled(cron = "${eaglebank.statements.cron:0 0 4 1 * *}")
+    public void scheduledRun() {
+        generate(YearMonth.now().minusMonths(1));
+    }
+
+    /**
+     * Writes every statement of {@code period} not already on disk, and returns the run's
+     * counters, or {@code null} when a run is already in progress.
+     */
+    public StatementProgress generate(YearMonth period) {
+        LocalDateTime start = period.atDay(1).atStartOfDay();
+        LocalDateTime end = period.plusMonths(1).atDay(1).atStartOfDay();
+        if (end.isAfter(LocalDateTime.now())) {
+            throw new IllegalArgumentException("Statements for " + period + " cannot be produced before the month ends");
+        }
+        LocalDateTime archivedUntil = archive.archivedUntil();
+        if (archivedUntil != null && start.isBefore(archivedUntil)) {
+            throw new IllegalArgumentException("Movements for " + period + " have been archived");
+        }
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Statement run already in progress, skipping {}", period);
+            return null;
+        }
+
+        try {
+            Path dir = directory(period);
+            List<AccountRange> ranges = AccountRange.split(rangeCount(dir));
+            List<Integer> pending = new ArrayList<>();
+            for (int i = 0; i < ranges.size(); i++) {
+                if (!Files.exists(file(dir, i))) {
+                    pending.add(i);
+                }
+            }
+
+            StatementProgress current = new StatementProgress(period, ranges.size(), ranges.size() - pending.size());
+            progress = current;
+            log.info("Statements for {} started over {} ranges, {} already written",
+                    period, ranges.size(), ranges.size() - pending.size());
+
+            AtomicInteger threads = new AtomicInteger();
+            ExecutorService pool = Executors.newFixedThreadPool(properties.parallelism(), runnable -> {
+                Thread thread = new Thread(runnable, "statements-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "statements-progress");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = properties.progressInterval().toMillis();
+            reporter.scheduleAtFixedRate(() -> log.info("Statements {}", current), interval, interval, TimeUnit.MILLISECONDS);
+
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int index : pending) {
+                    futures.add(pool.submit(() -> writeRange(period, dir, index, ranges.get(index), current)));
+                }
+                for (Future<?> future : futures) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException e) {
+                        // Usually the same cause for every range, so only the first is worth a stack trace
+                        if (current.failedRanges() == 0) {
+                            log.error("Statements for {} failed on a range", period, e.getCause());
+                        }
+                        current.rangeFailed();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                reporter.shutdownNow();
+                pool.shutdownNow();
+            }
+
+            log.info("Statements {}{}", current, current.isComplete() ? ", complete" : ", incomplete");
+            return current;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Latest run's counters, or {@code null} before the first run.
+     */
+    public StatementProgress progress() {
+        return progress;
+    }
+
+    public Path directory(YearMonth period) {
+        return Paths.get(properties.directory()).resolve(period.toString());
+    }
+
+    void writeRange(YearMonth period, Path dir, int index, AccountRange range, StatementProgress progress) {
+        Timer.Sample sample = Timer.start();
+        LocalDateTime start = period.atDay(1).atStartOfDay();
+        LocalDateTime end = period.plusMonths(1).atDay(1).atStartOfDay();
+        Path target = file(dir, index);
+        Path partial = dir.resolve(target.getFileName() + PARTIAL_SUFFIX);
+
+        try {
+            try (FileChannel channel = FileChannel.open(partial,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                 Writer out = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), properties.bufferSize())) {
+                StatementWriter writer = properties.format().writer(out, period);
+                writer.begin();
+                snapshot.executeWithoutResult(status -> {
+                    try (Stream<StatementAccount> accounts = bankAccountRepository.streamStatementAccounts(
+                                 range.first(), range.last(), start, end);
+                         Stream<StatementLine> lines = transactionRepository.streamStatementLines(
+                                 range.first(), range.last(), start, end)) {
+                        write(writer, accounts.iterator(), lines.iterator(), progress);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                writer.end();
+                out.flush();
+                channel.force(true);
+            }
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            deletePartial(partial);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            deletePartial(partial);
+            throw e;
+        }
+
+        progress.rangeCompleted();
+        sample.stop(rangeDuration);
+    }
+
+    /**
+     * Merges accounts and their movements, both in account id order, into statements.
+     */
+    void write(StatementWriter writer, Iterator<StatementAccount> accounts, Iterator<StatementLine> lines,
+               StatementProgress progress) throws IOException {
+        StatementLine line = lines.hasNext() ? lines.next() : null;
+        while (accounts.hasNext()) {
+            StatementAccount account = accounts.next();
+            UUID accountId = account.getAccountId();
+
+            // Movements of an account with no statement, e.g. one closed since, are passed over
+            while (line != null && AccountRange.compareUnsigned(line.getAccountId(), accountId) < 0) {
+                line = lines.hasNext() ? lines.next() : null;
+            }
+
+            writer.openAccount(account);
+            BigDecimal balance = account.getOpeningBalance();
+            int movements = 0;
+            while (line != null && line.getAccountId().equals(accountId)) {
+                balance = balance.add(line.getAmount());
+                writer.movement(line, balance);
+                movements++;
+                line = lines.hasNext() ? lines.next() : null;
+            }
+            writer.closeAccount(account, balance, movements);
+
+            progress.statementWritten(movements);
+            statementsWritten.increment();
+        }
+    }
+
+    private int rangeCount(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        Path file = dir.resolve(RANGES_FILE);
+        if (Files.exists(file)) {
+            return Integer.parseInt(Files.readString(file).trim());
+        }
+        Files.writeString(file, Integer.toString(properties.ranges()));
+        return properties.ranges();
+    }
+
+    private Path file(Path dir, int index) {
+        return dir.resolve(String.format("%s%04d%s", FILE_PREFIX, index, properties.format().extension()));
+    }
+
+    private static void deletePartial(Path partial) {
+        try {
+            Files.deleteIfExists(partial);
+        } catch (IOException e) {
+            log.warn("Could not remove {}", partial, e);
+        }
+    }
+}
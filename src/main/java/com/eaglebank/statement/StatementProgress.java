@@ -0,0 +1,85 @@
+package com.eaglebank.statement;
+
+import java.time.YearMonth;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live counters for one statement run, updated by every worker and read by the progress
+ * reporter and the metrics gauges. Ranges written by an earlier attempt count as completed
+ * but not towards throughput.
+ */
+public final class StatementProgress {
+
+    private final YearMonth period;
+    private final int totalRanges;
+    private final long startedNanos = System.nanoTime();
+
+    private final AtomicInteger completedRanges;
+    private final AtomicInteger failedRanges = new AtomicInteger();
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder movements = new LongAdder();
+
+    StatementProgress(YearMonth period, int totalRanges, int resumedRanges) {
+        this.period = period;
+        this.totalRanges = totalRanges;
+        this.completedRanges = new AtomicInteger(resumedRanges);
+    }
+
+    void statementWritten(int accountMovements) {
+        statements.increment();
+        movements.add(accountMovements);
+    }
+
+    void rangeCompleted() {
+        completedRanges.incrementAndGet();
+    }
+
+    void rangeFailed() {
+        failedRanges.incrementAndGet();
+    }
+
+    public YearMonth period() {
+        return period;
+    }
+
+    public int totalRanges() {
+        return totalRanges;
+    }
+
+    public int completedRanges() {
+        return completedRanges.get();
+    }
+
+    public int failedRanges() {
+        return failedRanges.get();
+    }
+
+    public long statements() {
+        return statements.sum();
+    }
+
+    public long movements() {
+        return movements.sum();
+    }
+
+    public boolean isComplete() {
+        return completedRanges() == totalRanges;
+    }
+
+    public double fractionComplete() {
+        return totalRanges == 0 ? 1.0 : (double) completedRanges() / totalRanges;
+    }
+
+    public double statementsPerSecond() {
+        double seconds = (System.nanoTime() - startedNanos) / 1e9;
+        return seconds <= 0 ? 0 : statements() / seconds;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d/%d ranges (%.1f%%), %d statements, %d movements, %.0f statements/s, %d ranges failed",
+                period, completedRanges(), totalRanges, fractionComplete() * 100,
+                statements(), movements(), statementsPerSecond(), failedRanges());
+    }
+}
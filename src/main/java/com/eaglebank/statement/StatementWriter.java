@@ -0,0 +1,25 @@
+package com.eaglebank.statement;
+
+import com.eaglebank.repository.StatementAccount;
+import com.eaglebank.repository.StatementLine;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Writes the statements of one range of accounts, one account after another, to a single
+ * file. Calls arrive in order: {@code begin}, then for each account {@code openAccount},
+ * its movements and {@code closeAccount}, then {@code end}.
+ */
+public interface StatementWriter {
+
+    void begin() throws IOException;
+
+    void openAccount(StatementAccount account) throws IOException;
+
+    void movement(StatementLine line, BigDecimal balance) throws IOException;
+
+    void closeAccount(StatementAccount account, BigDecimal closingBalance, int movements) throws IOException;
+
+    void end() throws IOException;
+}
@@ -0,0 +1,252 @@
+package com.eaglebank.stream;
+
+import com.eaglebank.config.StreamProperties;
+import com.eaglebank.dto.AccountStreamEvent;
+import com.eaglebank.event.MoneyMovementEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process fan-out of committed money movements to SSE subscribers.
+ *
+ * <p>An idle subscriber is just an emitter plus an empty queue, and holds no thread: events
+ * are appended to per-subscriber queues on the committing thread and written out by a small
+ * shared sender pool. A subscriber whose queue exceeds {@code maxQueuedEvents} is dropped;
+ * it can reconnect with {@code Last-Event-ID} and replay from the recent-event buffer.
+ *
+ * <p>Month-end interest is posted in bulk by SQL and publishes no event, so it is not
+ * streamed; it reaches the outbox, and clients see it on their next read of the account.
+ */
+@Slf4j
+@Component
+public class AccountStreamHub {
+
+    static final String RESET_EVENT = "reset";
+    static final String MOVEMENT_EVENT = "movement";
+
+    private final StreamProperties properties;
+    private final ObjectWriter writer;
+    private final Counter dropped;
+
+    // Distinguishes event ids issued by this process from those of a previous run
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Map<UUID, Set<StreamSubscriber>> subscribersByAccount = new ConcurrentHashMap<>();
+    private final Set<StreamSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ReplayBuffer replay;
+    private long sequence;
+
+    private final ExecutorService sender;
+    private final ScheduledExecutorService heartbeat;
+
+    public AccountStreamHub(StreamProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.writer = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        this.replay = new ReplayBuffer(properties.replayBufferSize());
+        this.dropped = meterRegistry.counter("stream.subscribers.dropped");
+        meterRegistry.gauge("stream.subscribers", subscribers, Set::size);
+
+        AtomicInteger threads = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(properties.senderThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "sse-sender-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sse-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.heartbeatInterval().toMillis();
+        heartbeat.scheduleAtFixedRate(this::sendHeartbeats, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public SseEmitter subscribe(Collection<UUID> accountIds, String lastEventId) {
+        return subscribe(accountIds, lastEventId, new SseEmitter(properties.connectionTimeout().toMillis()));
+    }
+
+    SseEmitter subscribe(Collection<UUID> accountIds, String lastEventId, SseEmitter emitter) {
+        StreamSubscriber subscriber = new StreamSubscriber(Set.copyOf(accountIds), emitter, properties.maxQueuedEvents());
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+
+        // Registering and replaying under the publish lock means every event is either
+        // replayed or queued live, exactly once and in order
+        synchronized (this) {
+            if (lastEventId != null) {
+                Long resumeAfter = parseSequence(lastEventId);
+                List<StreamEvent> missed = resumeAfter == null ? null : replay.since(resumeAfter, subscriber.accountIds());
+                if (missed == null || missed.size() >= properties.maxQueuedEvents()) {
+                    // Too far behind to resume; the client should refetch its accounts
+                    subscriber.offer(new StreamEvent(sequence, RESET_EVENT, "{}"));
+                } else {
+                    missed.forEach(subscriber::offer);
+                }
+            }
+
+            subscribers.add(subscriber);
+            for (UUID accountId : subscriber.accountIds()) {
+                subscribersByAccount.computeIfAbsent(accountId, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+            }
+        }
+
+        // Commits the response headers so the client sees the stream open straight away
+        subscriber.offer(StreamSubscriber.HEARTBEAT);
+        schedule(subscriber);
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMoneyMovement(MoneyMovementEvent event) {
+        AccountStreamEvent data = new AccountStreamEvent(
+                event.accountId().toString(),
+                event.type().name(),
+                event.transactionId() == null ? null : event.transactionId().toString(),
+                event.counterpartyAccountId() == null ? null : event.counterpartyAccountId().toString(),
+                event.amount(),
+                event.balanceAfter(),
+                event.occurredAt()
+        );
+        try {
+            publish(event.accountId(), writer.writeValueAsString(data));
+        } catch (JsonProcessingException e) {
+            log.error("Could not serialise stream event for account {}", event.accountId(), e);
+        }
+    }
+
+    void publish(UUID accountId, String json) {
+        Set<StreamSubscriber> targets;
+        synchronized (this) {
+            StreamEvent event = new StreamEvent(++sequence, MOVEMENT_EVENT, json);
+            replay.add(accountId, event);
+
+            targets = subscribersByAccount.get(accountId);
+            if (targets == null) {
+                return;
+            }
+            for (StreamSubscriber subscriber : targets) {
+                if (!subscriber.offer(event)) {
+                    drop(subscriber);
+                }
+            }
+        }
+        for (StreamSubscriber subscriber : targets) {
+            schedule(subscriber);
+        }
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    String formatId(long seq) {
+        return bootId + "-" + seq;
+    }
+
+    private Long parseSequence(String lastEventId) {
+        if (lastEventId == null || !lastEventId.startsWith(bootId + "-")) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(bootId.length() + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void sendHeartbeats() {
+        for (StreamSubscriber subscriber : subscribers) {
+            if (subscriber.offer(StreamSubscriber.HEARTBEAT)) {
+                schedule(subscriber);
+            } else {
+                drop(subscriber);
+            }
+        }
+    }
+
+    private void schedule(StreamSubscriber subscriber) {
+        if (subscriber.claimDrain()) {
+            sender.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(StreamSubscriber subscriber) {
+        try {
+            Object item;
+            while ((item = subscriber.poll()) != null) {
+                if (item == StreamSubscriber.HEARTBEAT) {
+                    subscriber.emitter().send(SseEmitter.event().comment("heartbeat"));
+                } else {
+                    StreamEvent event = (StreamEvent) item;
+                    subscriber.emitter().send(SseEmitter.event()
+                            .id(formatId(event.seq()))
+                            .name(event.name())
+                            .data(event.json()));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away or the emitter already completed
+            remove(subscriber);
+        } finally {
+            subscriber.releaseDrain();
+            if (!subscriber.isClosed() && subscriber.hasQueued()) {
+                schedule(subscriber);
+            }
+        }
+    }
+
+    private void drop(StreamSubscriber subscriber) {
+        if (subscriber.isClosed()) {
+            return;
+        }
+        dropped.increment();
+        remove(subscriber);
+        subscriber.emitter().complete();
+    }
+
+    private void remove(StreamSubscriber subscriber) {
+        if (!subscriber.close()) {
+            return;
+        }
+        subscribers.remove(subscriber);
+        for (UUID accountId : subscriber.accountIds()) {
+            subscribersByAccount.computeIfPresent(accountId, (k, set) -> {
+                set.remove(subscriber);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        for (StreamSubscriber subscriber : subscribers) {
+            remove(subscriber);
+            subscriber.emitter().complete();
+        }
+        sender.shutdown();
+    }
+}
@@ -0,0 +1,52 @@
+package com.eaglebank.stream;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Fixed-size ring of the most recent events, used to resume a stream from Last-Event-ID.
+ * Not thread-safe; the hub only touches it under its publish lock.
+ */
+final class ReplayBuffer {
+
+    private final UUID[] accounts;
+    private final StreamEvent[] events;
+    private long newestSeq;
+
+    ReplayBuffer(int capacity) {
+        this.accounts = new UUID[capacity];
+        this.events = new StreamEvent[capacity];
+    }
+
+    void add(UUID accountId, StreamEvent event) {
+        int slot = (int) (event.seq() % events.length);
+        accounts[slot] = accountId;
+        events[slot] = event;
+        newestSeq = event.seq();
+    }
+
+    /**
+     * Returns every buffered event after {@code afterSeq} for the given accounts, or
+     * {@code null} if some of them have already been overwritten and the client has to
+     * resynchronise instead.
+     */
+    List<StreamEvent> since(long afterSeq, Set<UUID> accountIds) {
+        if (afterSeq > newestSeq) {
+            return null;
+        }
+        long oldestSeq = Math.max(1, newestSeq - events.length + 1);
+        if (afterSeq + 1 < oldestSeq) {
+            return null;
+        }
+        List<StreamEvent> result = new ArrayList<>();
+        for (long seq = afterSeq + 1; seq <= newestSeq; seq++) {
+            int slot = (int) (seq % events.length);
+            if (accountIds.contains(accounts[slot])) {
+                result.add(events[slot]);
+            }
+        }
+        return result;
+    }
+}
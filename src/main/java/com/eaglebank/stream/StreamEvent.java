@@ -0,0 +1,4 @@
+package com.eaglebank.stream;
+
+record StreamEvent(long seq, String name, String json) {
+}
@@ -0,0 +1,84 @@
+package com.eaglebank.stream;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One open SSE connection. The queue is unbounded structurally but capped by {@link #offer},
+ * and allocates nothing while the connection is idle.
+ */
+final class StreamSubscriber {
+
+    static final Object HEARTBEAT = new Object();
+
+    private final Set<UUID> accountIds;
+    private final SseEmitter emitter;
+    private final int maxQueued;
+
+    private final ConcurrentLinkedQueue<Object> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    StreamSubscriber(Set<UUID> accountIds, SseEmitter emitter, int maxQueued) {
+        this.accountIds = accountIds;
+        this.emitter = emitter;
+        this.maxQueued = maxQueued;
+    }
+
+    Set<UUID> accountIds() {
+        return accountIds;
+    }
+
+    SseEmitter emitter() {
+        return emitter;
+    }
+
+    /**
+     * @return {@code false} when the subscriber is too far behind and should be dropped
+     */
+    boolean offer(Object item) {
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            return false;
+        }
+        queue.offer(item);
+        return true;
+    }
+
+    Object poll() {
+        Object item = queue.poll();
+        if (item != null) {
+            queued.decrementAndGet();
+        }
+        return item;
+    }
+
+    boolean hasQueued() {
+        return !queue.isEmpty();
+    }
+
+    boolean claimDrain() {
+        return !closed.get() && draining.compareAndSet(false, true);
+    }
+
+    void releaseDrain() {
+        draining.set(false);
+    }
+
+    boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * @return {@code true} for the first caller only
+     */
+    boolean close() {
+        return closed.compareAndSet(false, true);
+    }
+}
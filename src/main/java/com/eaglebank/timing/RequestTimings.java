@@ -0,0 +1,91 @@
+package com.eaglebank.timing;
+
+import java.util.Locale;
+
+/**
+ * Time spent in each {@link TimingPhase} by one request. Confined to the request thread, so
+ * nothing is synchronized; work handed to other threads is not counted.
+ *
+ * <p>A phase re-entered while already open, such as one service calling another, is only
+ * timed by its outermost call.
+ */
+public final class RequestTimings {
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+    private static final TimingPhase[] PHASES = TimingPhase.values();
+
+    private final long started;
+    private final long[] nanos = new long[PHASES.length];
+    private final long[] openedAt = new long[PHASES.length];
+    private final int[] depth = new int[PHASES.length];
+
+    RequestTimings(long started) {
+        this.started = started;
+    }
+
+    /**
+     * The timings of the request running on this thread, or {@code null} outside one.
+     */
+    public static RequestTimings current() {
+        return CURRENT.get();
+    }
+
+    static RequestTimings begin() {
+        RequestTimings timings = new RequestTimings(System.nanoTime());
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    public void enter(TimingPhase phase) {
+        int i = phase.ordinal();
+        if (depth[i]++ == 0) {
+            openedAt[i] = System.nanoTime();
+        }
+    }
+
+    public void exit(TimingPhase phase) {
+        int i = phase.ordinal();
+        if (depth[i] > 0 && --depth[i] == 0) {
+            nanos[i] += System.nanoTime() - openedAt[i];
+        }
+    }
+
+    /**
+     * Nanoseconds spent in the phase up to {@code now}, counting a phase that is still open.
+     */
+    long nanos(TimingPhase phase, long now) {
+        if (phase == TimingPhase.TOTAL) {
+            return now - started;
+        }
+        int i = phase.ordinal();
+        return depth[i] > 0 ? nanos[i] + now - openedAt[i] : nanos[i];
+    }
+
+    boolean entered(TimingPhase phase) {
+        int i = phase.ordinal();
+        return phase == TimingPhase.TOTAL || depth[i] > 0 || nanos[i] > 0;
+    }
+
+    /**
+     * The {@code Server-Timing} value as of {@code now}, listing only the phases entered.
+     */
+    String headerValue(long now) {
+        StringBuilder header = new StringBuilder(128);
+        for (TimingPhase phase : PHASES) {
+            if (!entered(phase)) {
+                continue;
+            }
+            if (!header.isEmpty()) {
+                header.append(", ");
+            }
+            header.append(phase.metricName())
+                    .append(";dur=")
+                    .append(String.format(Locale.ROOT, "%.2f", nanos(phase, now) / 1_000_000.0));
+        }
+        return header.toString();
+    }
+}
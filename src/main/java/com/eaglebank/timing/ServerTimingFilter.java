@@ -0,0 +1,81 @@
+package com.eaglebank.timing;
+
+import com.eaglebank.config.TimingProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times each request by {@link TimingPhase} and records the phases in the
+ * {@code http.server.phase} histograms. When asked for, the breakdown is also sent back as a
+ * {@code Server-Timing} header.
+ *
+ * <p>The outermost filter after request tagging, so {@code total} covers security and every
+ * other filter.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    private final TimingProperties properties;
+    private final Map<TimingPhase, Timer> timers = new EnumMap<>(TimingPhase.class);
+
+    public ServerTimingFilter(TimingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        for (TimingPhase phase : TimingPhase.values()) {
+            timers.put(phase, Timer.builder("http.server.phase")
+                    .description(phase.description())
+                    .tag("phase", phase.metricName())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.enabled();
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+        RequestTimings timings = RequestTimings.begin();
+        ServerTimingResponse timed = emitHeader(request)
+                ? new ServerTimingResponse(response, () -> timings.headerValue(System.nanoTime()))
+                : null;
+        try {
+            filterChain.doFilter(request, timed == null ? response : timed);
+        } finally {
+            RequestTimings.end();
+            if (timed != null) {
+                timed.beforeCommit();
+            }
+            long now = System.nanoTime();
+            for (TimingPhase phase : TimingPhase.values()) {
+                if (timings.entered(phase)) {
+                    timers.get(phase).record(timings.nanos(phase, now), TimeUnit.NANOSECONDS);
+                }
+            }
+        }
+    }
+
+    private boolean emitHeader(HttpServletRequest request) {
+        return properties.alwaysEmit()
+                || properties.optInHeader() != null && request.getHeader(properties.optInHeader()) != null;
+    }
+}
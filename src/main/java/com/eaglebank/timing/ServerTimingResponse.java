@@ -0,0 +1,151 @@
+package com.eaglebank.timing;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.function.Supplier;
+
+/**
+ * Adds the {@code Server-Timing} header just before the first byte of the body is written,
+ * which is the last moment headers can still change. Anything still running then, usually
+ * serialization, is reported up to that point.
+ */
+final class ServerTimingResponse extends HttpServletResponseWrapper {
+
+    static final String HEADER = "Server-Timing";
+
+    private final Supplier<String> header;
+    private boolean added;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    ServerTimingResponse(HttpServletResponse response, Supplier<String> header) {
+        super(response);
+        this.header = header;
+    }
+
+    void beforeCommit() {
+        if (added) {
+            return;
+        }
+        added = true;
+        if (!isCommitted()) {
+            setHeader(HEADER, header.get());
+        }
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (outputStream == null) {
+            outputStream = new HookedOutputStream(super.getOutputStream());
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            writer = new PrintWriter(new HookedWriter(super.getWriter()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        beforeCommit();
+        super.flushBuffer();
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        beforeCommit();
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+        beforeCommit();
+        super.sendError(sc);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+        beforeCommit();
+        super.sendRedirect(location);
+    }
+
+    private final class HookedOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+
+        HookedOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            beforeCommit();
+            delegate.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            beforeCommit();
+            delegate.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            beforeCommit();
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            beforeCommit();
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+
+    private final class HookedWriter extends Writer {
+
+        private final Writer delegate;
+
+        HookedWriter(Writer delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            beforeCommit();
+            delegate.write(cbuf, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            beforeCommit();
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            beforeCommit();
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.eaglebank.timing;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times token handling, the user lookup, repository calls and service methods for the
+ * request on the current thread. Outside a request each advice is a single thread-local read.
+ *
+ * <p>Ordered ahead of the transaction advice, so a service's time includes its commit.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TimingAspect {
+
+    @Around("execution(* com.eaglebank.service.JwtService.*(..))")
+    public Object timeJwt(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(TimingPhase.JWT, joinPoint);
+    }
+
+    @Around("execution(* org.springframework.security.core.userdetails.UserDetailsService+.loadUserByUsername(..))")
+    public Object timeUserLookup(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(TimingPhase.USER, joinPoint);
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(TimingPhase.DB, joinPoint);
+    }
+
+    @Around("within(com.eaglebank.service..*) && @within(org.springframework.stereotype.Service)"
+            + " && !within(com.eaglebank.service.JwtService)")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(TimingPhase.SERVICE, joinPoint);
+    }
+
+    private static Object time(TimingPhase phase, ProceedingJoinPoint joinPoint) throws Throwable {
+        RequestTimings timings = RequestTimings.current();
+        if (timings == null) {
+            return joinPoint.proceed();
+        }
+        timings.enter(phase);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            timings.exit(phase);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.eaglebank.timing;
+
+/**
+ * Parts of a request that are timed. The names are the {@code Server-Timing} metric names
+ * and the {@code phase} tag on the histograms.
+ */
+public enum TimingPhase {
+    JWT("jwt", "JWT verification"),
+    USER("user", "User lookup"),
+    DB("db", "Repository calls"),
+    SERVICE("service", "Service methods, including their repository calls"),
+    READ("read", "Request body parsing"),
+    WRITE("write", "Response serialization"),
+    TOTAL("total", "Whole request");
+
+    private final String metricName;
+    private final String description;
+
+    TimingPhase(String metricName, String description) {
+        this.metricName = metricName;
+        this.description = description;
+    }
+
+    public String metricName() {
+        return metricName;
+    }
+
+    public String description() {
+        return description;
+    }
+}
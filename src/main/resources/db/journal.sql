@@ -0,0 +1,11 @@
+-- Journal columns Hibernate cannot declare. Run after the schema update on every start, so
+-- each statement must be idempotent.
+
+-- The database transaction that wrote each posting, so the tailer can tell which postings
+-- may still become visible behind ones it has already read
+ALTER TABLE journal_postings ADD COLUMN IF NOT EXISTS txid xid8 NOT NULL DEFAULT pg_current_xact_id();
+
+CREATE INDEX IF NOT EXISTS idx_journal_postings_txid ON journal_postings (txid);
+
+-- Replaced by idx_journal_postings_account_id, which also serves the audit's running balances
+DROP INDEX IF EXISTS idx_journal_postings_account;
@@ -0,0 +1,14 @@
+-- Ledger changes Hibernate cannot make. Run after the schema update on every start, so each
+-- statement must be idempotent.
+
+-- Deposits, withdrawals, openings and adjustments leave one side empty. Databases created
+-- while every movement was a transfer still have both columns NOT NULL, and a schema update
+-- never relaxes a constraint
+ALTER TABLE transactions ALTER COLUMN from_account_id DROP NOT NULL;
+ALTER TABLE transactions ALTER COLUMN to_account_id DROP NOT NULL;
+
+-- One-off data backfills, each recorded by the statement that applies it
+CREATE TABLE IF NOT EXISTS ledger_backfills (
+    name              varchar(64) PRIMARY KEY,
+    applied_timestamp timestamp   NOT NULL
+);
@@ -0,0 +1,9 @@
+-- Indexes Hibernate cannot declare. Run after the schema update on every start, so each
+-- statement must be idempotent.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Case-insensitive substring search over references; most movements have none
+CREATE INDEX IF NOT EXISTS idx_transactions_reference_trgm
+    ON transactions USING gin (lower(reference) gin_trgm_ops)
+    WHERE reference IS NOT NULL;
@@ -0,0 +1,130 @@
+package com.eaglebank;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Time to ready and resident memory of the packaged jar, launched plainly and in fast-start
+ * mode (extracted jar, AppCDS archive, AOT-processed context). Needs the jar from
+ * {@code mvn -Pfast-start package} and the configured database; run with
+ * {@code mvn test -Pbenchmark -Dtest=StartupBenchmarkTest}.
+ */
+@Tag("benchmark")
+class StartupBenchmarkTest {
+
+    private static final Path JAR = Path.of("target", "bank-api-0.0.1-SNAPSHOT.jar");
+    private static final Path EXTRACTED = Path.of("target", "fast-start");
+    private static final Path ARCHIVE = EXTRACTED.resolve("application.jsa");
+    private static final String READY_LINE = "Started BankApiApplication in";
+    private static final int ROUNDS = 3;
+
+    @Test
+    void benchmarkStartup() throws Exception {
+        assumeTrue(Files.exists(JAR), "Build the jar with mvn -Pfast-start package first");
+
+        run(List.of(java(), "-Djarmode=tools", "-jar", JAR.toString(),
+                "extract", "--destination", EXTRACTED.toString(), "--force"));
+        // Training run: loads every class the context needs, then exits and dumps the archive
+        run(fastStart("-XX:ArchiveClassesAtExit=" + ARCHIVE, "-Dspring.context.exit=onRefresh"));
+        assertThat(ARCHIVE).exists();
+
+        Launch plain = best(List.of(java(), "-jar", JAR.toString(), "--server.port=0"));
+        List<String> fast = fastStart("-XX:SharedArchiveFile=" + ARCHIVE);
+        fast.add("--server.port=0");
+        Launch fastStart = best(fast);
+
+        System.out.printf("plain:      ready in %d ms, RSS %d MB%n", plain.readyMillis(), plain.rssKb() >> 10);
+        System.out.printf("fast-start: ready in %d ms, RSS %d MB%n", fastStart.readyMillis(), fastStart.rssKb() >> 10);
+        assertThat(fastStart.readyMillis()).isLessThan(plain.readyMillis());
+    }
+
+    private static List<String> fastStart(String... jvmArgs) {
+        List<String> command = new ArrayList<>();
+        command.add(java());
+        command.addAll(List.of(jvmArgs));
+        command.add("-Dspring.aot.enabled=true");
+        command.add("-Dspring.profiles.active=fast-start");
+        command.add("-jar");
+        command.add(EXTRACTED.resolve(JAR.getFileName()).toString());
+        return command;
+    }
+
+    private static Launch best(List<String> command) throws Exception {
+        Launch best = null;
+        for (int i = 0; i < ROUNDS; i++) {
+            Launch launch = launch(command);
+            if (best == null || launch.readyMillis() < best.readyMillis()) {
+                best = launch;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Starts the application and stops it again once it logs that it is ready.
+     */
+    private static Launch launch(List<String> command) throws Exception {
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        Deque<String> recent = new ArrayDeque<>();
+        try (BufferedReader out = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = out.readLine()) != null) {
+                if (line.contains(READY_LINE)) {
+                    long ready = (System.nanoTime() - started) / 1_000_000;
+                    return new Launch(ready, rssKb(process.pid()));
+                }
+                recent.addLast(line);
+                if (recent.size() > 20) {
+                    recent.removeFirst();
+                }
+            }
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+        return fail("Application exited before it was ready:\n" + String.join("\n", recent));
+    }
+
+    private static void run(List<String> command) throws Exception {
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        if (process.waitFor() != 0) {
+            fail(String.join(" ", command) + " failed:\n" + output);
+        }
+    }
+
+    private static long rssKb(long pid) throws IOException {
+        for (String line : Files.readAllLines(Path.of("/proc", Long.toString(pid), "status"))) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("\\D", ""));
+            }
+        }
+        return 0;
+    }
+
+    private static String java() {
+        return Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    }
+
+    private record Launch(long readyMillis, long rssKb) {}
+}
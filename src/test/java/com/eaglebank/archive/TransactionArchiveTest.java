@@ -0,0 +1,142 @@
+package com.eaglebank.archive;
+
+import com.eaglebank.config.ArchiveProperties;
+import com.eaglebank.entity.TransactionType;
+import com.eaglebank.repository.ArchivedPeriodRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TransactionArchiveTest {
+
+    private static final YearMonth MARCH = YearMonth.of(2024, 3);
+    private static final Comparator<ArchivedTransaction> NEWEST_FIRST =
+            Comparator.comparing(ArchivedTransaction::createdTimestamp).reversed();
+
+    @TempDir
+    Path dir;
+
+    private ArchivedPeriodRepository archivedPeriodRepository;
+    private TransactionArchive archive;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        archivedPeriodRepository = mock(ArchivedPeriodRepository.class);
+        archive = new TransactionArchive(new ArchiveProperties(true, dir.toString(), 0, null), archivedPeriodRepository);
+        archive.load();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        archive.close();
+    }
+
+    @Test
+    void testArchivedUntil_picksUpSegmentsAnotherInstanceWrote() throws IOException {
+        UUID account = UUID.randomUUID();
+        ArchivedTransaction txn = new ArchivedTransaction(UUID.randomUUID(), null, account,
+                BigDecimal.TEN, MARCH.atDay(2).atStartOfDay(), TransactionType.DEPOSIT);
+        TransactionSegmentWriter.write(archive.segmentPath(MARCH), start(MARCH), start(MARCH.plusMonths(1)),
+                List.of(txn));
+        when(archivedPeriodRepository.findArchivedUntil()).thenReturn(start(MARCH.plusMonths(1)));
+        assertThat(archive.archivedUntil()).isNull();
+
+        archive.refresh();
+
+        assertThat(archive.archivedUntil()).isEqualTo(start(MARCH.plusMonths(1)));
+        assertThat(archive.find(txn.id(), Set.of(account))).contains(txn);
+    }
+
+    @Test
+    void testArchivedUntil_refusesToAnswerWithoutTheArchivedSegment() {
+        when(archivedPeriodRepository.findArchivedUntil()).thenReturn(start(MARCH.plusMonths(1)));
+        archive.refresh();
+
+        assertThrows(IllegalStateException.class, () -> archive.archivedUntil());
+    }
+
+    @Test
+    void testArchivedUntil_answersFromMemoryAndNeverMovesBack() throws IOException {
+        TransactionSegmentWriter.write(archive.segmentPath(MARCH), start(MARCH), start(MARCH.plusMonths(1)),
+                List.of(new ArchivedTransaction(UUID.randomUUID(), null, UUID.randomUUID(),
+                        BigDecimal.TEN, MARCH.atDay(2).atStartOfDay(), TransactionType.DEPOSIT)));
+        archive.recorded(start(MARCH.plusMonths(1)));
+        archive.recorded(start(MARCH));
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(archive.archivedUntil()).isEqualTo(start(MARCH.plusMonths(1)));
+        }
+        verify(archivedPeriodRepository, times(1)).findArchivedUntil();
+    }
+
+    @Test
+    void testArchivedUntil_nullWhileNothingIsArchived() {
+        assertThat(archive.archivedUntil()).isNull();
+    }
+
+    @Test
+    void testNetMovements_sumsEveryAccountAcrossSegments() throws IOException {
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        YearMonth april = MARCH.plusMonths(1);
+        TransactionSegmentWriter.write(archive.segmentPath(MARCH), start(MARCH), start(april), List.of(
+                new ArchivedTransaction(UUID.randomUUID(), alice, bob, new BigDecimal("30.00"),
+                        MARCH.atDay(3).atStartOfDay(), TransactionType.TRANSFER)));
+        TransactionSegmentWriter.write(archive.segmentPath(april), start(april), start(april.plusMonths(1)), List.of(
+                new ArchivedTransaction(UUID.randomUUID(), null, alice, new BigDecimal("50.00"),
+                        april.atDay(3).atStartOfDay(), TransactionType.DEPOSIT)));
+        archive.rescan();
+
+        assertThat(archive.netMovements())
+                .containsOnlyKeys(alice, bob)
+                .hasEntrySatisfying(alice, net -> assertThat(net).isEqualByComparingTo("20.00"))
+                .hasEntrySatisfying(bob, net -> assertThat(net).isEqualByComparingTo("30.00"));
+    }
+
+    @Test
+    void testStreamNewestFirst_walksSegmentsBackwardsKeepingMatchingReferences() throws IOException {
+        UUID alice = UUID.randomUUID();
+        YearMonth april = MARCH.plusMonths(1);
+        ArchivedTransaction rentMarch = new ArchivedTransaction(UUID.randomUUID(), alice, UUID.randomUUID(),
+                new BigDecimal("900.00"), MARCH.atDay(1).atStartOfDay(), TransactionType.TRANSFER, null, null,
+                "Rent March");
+        ArchivedTransaction groceries = new ArchivedTransaction(UUID.randomUUID(), alice, UUID.randomUUID(),
+                new BigDecimal("45.10"), MARCH.atDay(20).atStartOfDay(), TransactionType.TRANSFER, null, null,
+                "Groceries");
+        ArchivedTransaction rentApril = new ArchivedTransaction(UUID.randomUUID(), alice, UUID.randomUUID(),
+                new BigDecimal("900.00"), april.atDay(1).atStartOfDay(), TransactionType.TRANSFER, null, null,
+                "Rent April");
+        TransactionSegmentWriter.write(archive.segmentPath(MARCH), start(MARCH), start(april),
+                List.of(rentMarch, groceries));
+        TransactionSegmentWriter.write(archive.segmentPath(april), start(april), start(april.plusMonths(1)),
+                List.of(rentApril));
+        archive.rescan();
+
+        assertThat(archive.streamNewestFirst(Set.of(alice), null, null, "RENT", NEWEST_FIRST))
+                .containsExactly(rentApril, rentMarch);
+        assertThat(archive.streamNewestFirst(Set.of(alice), null, null, null, NEWEST_FIRST))
+                .containsExactly(rentApril, groceries, rentMarch);
+    }
+
+    private static LocalDateTime start(YearMonth month) {
+        return month.atDay(1).atStartOfDay();
+    }
+}
@@ -0,0 +1,266 @@
+package com.eaglebank.archive;
+
+import com.eaglebank.entity.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TransactionSegmentTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2024, 4, 1, 0, 0);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testRoundTrip_returnsEveryTransactionForBothAccounts() throws IOException {
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        ArchivedTransaction txn = new ArchivedTransaction(UUID.randomUUID(), alice, bob,
+                new BigDecimal("125.50"), START.plusDays(3).plusNanos(123_456_000), TransactionType.TRANSFER);
+
+        Path file = dir.resolve("transactions-2024-03.seg");
+        TransactionSegmentWriter.write(file, START, END, List.of(txn));
+
+        try (TransactionSegment segment = TransactionSegment.open(file)) {
+            assertThat(segment.getPeriodStart()).isEqualTo(START);
+            assertThat(segment.getPeriodEnd()).isEqualTo(END);
+            assertThat(segment.getAccountCount()).isEqualTo(2);
+            assertThat(segment.getRowCount()).isEqualTo(1);
+
+            assertThat(segment.read(alice, null, null)).containsExactly(txn);
+            assertThat(segment.read(bob, null, null)).containsExactly(txn);
+            assertThat(segment.read(UUID.randomUUID(), null, null)).isEmpty();
+        }
+    }
+
+    @Test
+    void testRoundTrip_manyAccountsPreservesAmountsAndOrdering() throws IOException {
+        Random random = new Random(42);
+        List<UUID> accounts = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            accounts.add(UUID.randomUUID());
+        }
+
+        List<ArchivedTransaction> rows = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            UUID from = accounts.get(random.nextInt(accounts.size()));
+            UUID to = accounts.get(random.nextInt(accounts.size()));
+            BigDecimal amount = BigDecimal.valueOf(random.nextInt(10_000_000), random.nextInt(4));
+            LocalDateTime at = START.plusSeconds(random.nextInt(30 * 24 * 3600)).plusNanos(random.nextInt(1_000_000) * 1_000L);
+            rows.add(new ArchivedTransaction(UUID.randomUUID(), from, to, amount, at, TransactionType.TRANSFER));
+        }
+
+        Path file = dir.resolve("transactions-2024-03.seg");
+        TransactionSegmentWriter.write(file, START, END, rows);
+
+        try (TransactionSegment segment = TransactionSegment.open(file)) {
+            for (UUID account : accounts) {
+                List<ArchivedTransaction> expected = rows.stream()
+                        .filter(t -> t.fromAccountId().equals(account) || t.toAccountId().equals(account))
+                        .sorted((a, b) -> a.createdTimestamp().compareTo(b.createdTimestamp()))
+                        .toList();
+
+                List<ArchivedTransaction> actual = segment.read(account, null, null);
+                assertThat(actual).extracting(ArchivedTransaction::createdTimestamp)
+                        .isSorted();
+                assertThat(actual).containsExactlyInAnyOrderElementsOf(expected);
+            }
+        }
+    }
+
+    @Test
+    void testRead_filtersByHalfOpenRange() throws IOException {
+        UUID account = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        List<ArchivedTransaction> rows = new ArrayList<>();
+        for (int day = 0; day < 10; day++) {
+            rows.add(new ArchivedTransaction(UUID.randomUUID(), account, other,
+                    BigDecimal.TEN, START.plusDays(day), TransactionType.TRANSFER));
+        }
+
+        Path file = dir.resolve("transactions-2024-03.seg");
+        TransactionSegmentWriter.write(file, START, END, rows);
+
+        try (TransactionSegment segment = TransactionSegment.open(file)) {
+            List<ArchivedTransaction> slice = segment.read(account, START.plusDays(2), START.plusDays(5));
+
+            assertThat(slice).extracting(ArchivedTransaction::createdTimestamp)
+                    .containsExactly(START.plusDays(2), START.plusDays(3), START.plusDays(4));
+            assertThat(segment.read(account, END, null)).isEmpty();
+        }
+    }
+
+    @Test
+    void testRoundTrip_movementsWithOneSideKeepTheirTypeAndNetOut() throws IOException {
+        UUID account = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        List<ArchivedTransaction> rows = List.of(
+                new ArchivedTransaction(UUID.randomUUID(), null, account, new BigDecimal("100.00"),
+                        START, TransactionType.OPENING),
+                new ArchivedTransaction(UUID.randomUUID(), null, account, new BigDecimal("20.5"),
+                        START.plusDays(1), TransactionType.DEPOSIT),
+                new ArchivedTransaction(UUID.randomUUID(), account, null, new BigDecimal("7.25"),
+                        START.plusDays(2), TransactionType.WITHDRAWAL),
+                new ArchivedTransaction(UUID.randomUUID(), account, other, new BigDecimal("13"),
+                        START.plusDays(3), TransactionType.TRANSFER),
+                new ArchivedTransaction(UUID.randomUUID(), account, account, new BigDecimal("5"),
+                        START.plusDays(4), TransactionType.TRANSFER));
+
+        Path file = dir.resolve("transactions-2024-03.seg");
+        TransactionSegmentWriter.write(file, START, END, rows);
+
+        try (TransactionSegment segment = TransactionSegment.open(file)) {
+            assertThat(segment.read(account, null, null)).containsExactlyElementsOf(rows);
+            assertThat(segment.netMovement(account)).isEqualByComparingTo("100.25");
+            assertThat(segment.netMovement(other)).isEqualByComparingTo("13");
+            assertThat(segment.netMovement(UUID.randomUUID())).isEqualByComparingTo("0");
+        }
+    }
+
+    @Test
+    void testRoundTrip_crossCurrencyTransfersKeepCreditedAmountRateAndReference() throws IOException {
+        UUID sterling = UUID.randomUUID();
+        UUID euro = UUID.randomUUID();
+        List<ArchivedTransaction> rows = List.of(
+                new ArchivedTransaction(UUID.randomUUID(), null, sterling, new BigDecimal("500.00"),
+                        START, TransactionType.DEPOSIT),
+                new ArchivedTransaction(UUID.randomUUID(), sterling, euro, new BigDecimal("100.00"),
+                        START.plusDays(1), TransactionType.TRANSFER, new BigDecimal("117.00"),
+                        new BigDecimal("1.170000000000"), "Rent – März"),
+                new ArchivedTransaction(UUID.randomUUID(), euro, sterling, new BigDecimal("11.70"),
+                        START.plusDays(2), TransactionType.TRANSFER, new BigDecimal("10.00"),
+                        new BigDecimal("0.854700854701"), null));
+
+        Path file = dir.resolve("transactions-2024-03.seg");
+        TransactionSegmentWriter.write(file, START, END, rows);
+
+        try (TransactionSegment segment = TransactionSegment.open(file)) {
+            assertThat(segment.read(sterling, null, null)).containsExactlyElementsOf(rows);
+            assertThat(segment.read(euro, null, null)).containsExactly(rows.get(1), rows.get(2));
+            assertThat(segment.netMovement(sterling)).isEqualByComparingTo("410.00");
+            assertThat(segment.netMovement(euro)).isEqualByComparingTo("105.30");
+        }
+    }
+
+    @Test
+    void testWrite_streamedRowsMatchTheListWriter() throws IOException {
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        ArchivedTransaction transfer = new ArchivedTransaction(UUID.randomUUID(), alice, bob,
+                new BigDecimal("12.00"), START.plusDays(1), TransactionType.TRANSFER);
+        ArchivedTransaction deposit = new ArchivedTransaction(UUID.randomUUID(), null, bob,
+                new BigDecimal("3.00"), START.plusDays(2), TransactionType.DEPOSIT);
+
+        Path file = dir.resolve("transactions-2024-03.seg");
+        long written = TransactionSegmentWriter.write(file, START, END, Stream.of(
+                new FiledTransaction(bob, transfer),
+                new FiledTransaction(bob, deposit),
+                new FiledTransaction(alice, transfer)));
+
+        assertThat(written).isEqualTo(2);
+        try (TransactionSegment segment = TransactionSegment.open(file)) {
+            assertThat(segment.read(alice, null, null)).containsExactly(transfer);
+            assertThat(segment.read(bob, null, null)).containsExactly(transfer, deposit);
+            assertThat(segment.netMovement(bob)).isEqualByComparingTo("15.00");
+        }
+    }
+
+    @Test
+    void testWrite_streamWithNoRowsLeavesNoFile() throws IOException {
+        Path file = dir.resolve("transactions-2024-03.seg");
+
+        assertThat(TransactionSegmentWriter.write(file, START, END, Stream.<FiledTransaction>empty())).isZero();
+        assertThat(dir).isEmptyDirectory();
+    }
+
+    @Test
+    void testWrite_streamRejectsAnAccountWhoseRowsAreNotTogether() {
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        ArchivedTransaction first = new ArchivedTransaction(UUID.randomUUID(), alice, bob,
+                BigDecimal.ONE, START, TransactionType.TRANSFER);
+        ArchivedTransaction second = new ArchivedTransaction(UUID.randomUUID(), alice, bob,
+                BigDecimal.ONE, START.plusDays(1), TransactionType.TRANSFER);
+
+        assertThrows(IllegalArgumentException.class, () -> TransactionSegmentWriter.write(
+                dir.resolve("transactions-2024-03.seg"), START, END, Stream.of(
+                        new FiledTransaction(alice, first),
+                        new FiledTransaction(bob, first),
+                        new FiledTransaction(alice, second))));
+    }
+
+    @Test
+    void testFind_looksIdsUpAcrossAccountsOnlyForTheirOwners() throws IOException {
+        Random random = new Random(7);
+        List<UUID> accounts = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            accounts.add(UUID.randomUUID());
+        }
+        List<ArchivedTransaction> rows = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            UUID from = accounts.get(random.nextInt(accounts.size()));
+            UUID to = accounts.get(random.nextInt(accounts.size()));
+            rows.add(new ArchivedTransaction(UUID.randomUUID(), i % 10 == 0 ? null : from, to,
+                    new BigDecimal("1.00"), START.plusMinutes(i), TransactionType.DEPOSIT));
+        }
+
+        Path file = dir.resolve("transactions-2024-03.seg");
+        TransactionSegmentWriter.write(file, START, END, rows);
+
+        try (TransactionSegment segment = TransactionSegment.open(file)) {
+            for (ArchivedTransaction txn : rows) {
+                assertThat(segment.find(txn.id(), List.of(txn.toAccountId()))).contains(txn);
+            }
+            ArchivedTransaction sent = rows.get(1);
+            List<UUID> others = accounts.stream()
+                    .filter(a -> !a.equals(sent.fromAccountId()) && !a.equals(sent.toAccountId()))
+                    .toList();
+            assertThat(segment.find(sent.id(), others)).isEmpty();
+            assertThat(segment.find(UUID.randomUUID(), accounts)).isEmpty();
+        }
+    }
+
+    @Test
+    void testFind_tellsApartIdsSharingTheirFirstBits() throws IOException {
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        UUID first = new UUID(0x1234_5678_0000_4000L, 0x8000_0000_0000_0001L);
+        UUID second = new UUID(0x1234_5678_ffff_4fffL, 0x8000_0000_0000_0002L);
+        ArchivedTransaction toAlice = new ArchivedTransaction(first, null, alice,
+                BigDecimal.ONE, START, TransactionType.DEPOSIT);
+        ArchivedTransaction toBob = new ArchivedTransaction(second, null, bob,
+                BigDecimal.TEN, START, TransactionType.DEPOSIT);
+
+        Path file = dir.resolve("transactions-2024-03.seg");
+        TransactionSegmentWriter.write(file, START, END, List.of(toAlice, toBob));
+
+        try (TransactionSegment segment = TransactionSegment.open(file)) {
+            assertThat(segment.find(first, List.of(alice))).contains(toAlice);
+            assertThat(segment.find(second, List.of(bob))).contains(toBob);
+            assertThat(segment.find(second, List.of(alice))).isEmpty();
+        }
+    }
+
+    @Test
+    void testOpen_rejectsFilesThatAreNotSegments() throws IOException {
+        Path file = dir.resolve("transactions-bogus.seg");
+        Files.write(file, new byte[128]);
+
+        assertThrows(IllegalStateException.class, () -> TransactionSegment.open(file));
+    }
+}
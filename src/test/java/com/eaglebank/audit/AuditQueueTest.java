@@ -0,0 +1,94 @@
+package com.eaglebank.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditQueueTest {
+
+    @Test
+    void testOffer_fullQueueRefusesUntilDrained() {
+        AuditQueue queue = new AuditQueue(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(queue.offer(record("p", i))).isTrue();
+        }
+
+        assertThat(queue.offer(record("p", 4))).isFalse();
+        assertThat(queue.size()).isEqualTo(4);
+
+        List<AuditRecord> drained = new ArrayList<>();
+        assertThat(queue.drain(drained, 3)).isEqualTo(3);
+        assertThat(queue.offer(record("p", 4))).isTrue();
+        assertThat(queue.drain(drained, 10)).isEqualTo(2);
+        assertThat(drained).extracting(AuditQueueTest::sequence).containsExactly(0, 1, 2, 3, 4);
+        assertThat(queue.size()).isZero();
+    }
+
+    @Test
+    void testCapacity_roundsUpToAPowerOfTwo() {
+        assertThat(new AuditQueue(1).capacity()).isEqualTo(2);
+        assertThat(new AuditQueue(5).capacity()).isEqualTo(8);
+        assertThat(new AuditQueue(65_536).capacity()).isEqualTo(65_536);
+    }
+
+    @Test
+    void testOffer_concurrentProducersLoseNothingAndKeepTheirOrder() throws Exception {
+        int producers = 4;
+        int perProducer = 50_000;
+        AuditQueue queue = new AuditQueue(1024);
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        List<Future<?>> running = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            String producer = "p" + p;
+            running.add(pool.submit(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    AuditRecord record = record(producer, i);
+                    while (!queue.offer(record)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            }));
+        }
+
+        int[] next = new int[producers];
+        List<AuditRecord> batch = new ArrayList<>();
+        int received = 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (received < producers * perProducer && System.nanoTime() < deadline) {
+            batch.clear();
+            received += queue.drain(batch, 256);
+            for (AuditRecord record : batch) {
+                int producer = Integer.parseInt(record.actor().substring(1));
+                assertThat(sequence(record)).isEqualTo(next[producer]);
+                next[producer]++;
+            }
+        }
+        for (Future<?> producer : running) {
+            producer.get();
+        }
+        pool.shutdown();
+
+        assertThat(received).isEqualTo(producers * perProducer);
+        assertThat(next).containsOnly(perProducer);
+        assertThat(queue.size()).isZero();
+    }
+
+    private static AuditRecord record(String actor, int sequence) {
+        return new AuditRecord(LocalDateTime.now(), actor, AuditAction.USER_UPDATED, UUID.randomUUID(), null,
+                Map.of(), Map.of("sequence", sequence), false);
+    }
+
+    private static int sequence(AuditRecord record) {
+        return (int) record.after().get("sequence");
+    }
+}
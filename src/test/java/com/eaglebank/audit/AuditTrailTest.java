@@ -0,0 +1,162 @@
+package com.eaglebank.audit;
+
+import com.eaglebank.config.AuditProperties;
+import com.eaglebank.event.MoneyMovementEvent;
+import com.eaglebank.event.MovementType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AuditTrailTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AuditSink sink = mock(AuditSink.class);
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testRecord_queuedOnlyOnceTheTransactionCommits() {
+        AuditTrail trail = trail(8, OverflowPolicy.BLOCK);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("jane@example.com", null, List.of()));
+        UUID userId = UUID.randomUUID();
+
+        TransactionSynchronizationManager.initSynchronization();
+        trail.record(AuditAction.USER_UPDATED, userId, Map.of("name", "Jane"), Map.of("name", "Janet"));
+        assertThat(trail.queued()).isZero();
+        List<TransactionSynchronization> committed = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        TransactionSynchronizationManager.initSynchronization();
+        trail.record(AuditAction.USER_DELETED, userId, Map.of("name", "Janet"), Map.of());
+        // Rolled back: completion without a commit
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        committed.forEach(TransactionSynchronization::afterCommit);
+
+        List<AuditRecord> queued = drain(trail);
+        assertThat(queued).hasSize(1);
+        AuditRecord record = queued.get(0);
+        assertThat(record.action()).isEqualTo(AuditAction.USER_UPDATED);
+        assertThat(record.actor()).isEqualTo("jane@example.com");
+        assertThat(record.subjectId()).isEqualTo(userId);
+        assertThat(record.before()).containsEntry("name", "Jane");
+        assertThat(record.after()).containsEntry("name", "Janet");
+    }
+
+    @Test
+    void testOnMoneyMovement_recordsTheBalanceBeforeAndAfter() {
+        AuditTrail trail = trail(8, OverflowPolicy.BLOCK);
+        UUID account = UUID.randomUUID();
+        UUID transaction = UUID.randomUUID();
+
+        trail.onMoneyMovement(new MoneyMovementEvent(transaction, MovementType.TRANSFER_SENT, account,
+                UUID.randomUUID(), new BigDecimal("25.00"), new BigDecimal("75.00"), LocalDateTime.now()));
+        trail.onMoneyMovement(new MoneyMovementEvent(UUID.randomUUID(), MovementType.ADJUSTMENT_DEBIT, account,
+                null, new BigDecimal("5.00"), new BigDecimal("70.00"), LocalDateTime.now()));
+
+        List<AuditRecord> queued = drain(trail);
+        assertThat(queued).extracting(AuditRecord::action)
+                .containsExactly(AuditAction.TRANSFER_SENT, AuditAction.ADJUSTMENT);
+        assertThat(queued.get(0).actor()).isEqualTo(AuditTrail.SYSTEM);
+        assertThat(queued.get(0).transactionId()).isEqualTo(transaction);
+        assertThat(queued.get(0).before()).containsEntry("balance", new BigDecimal("100.00"));
+        assertThat(queued.get(0).after()).containsEntry("balance", new BigDecimal("75.00"));
+        assertThat(queued.get(1).before()).containsEntry("balance", new BigDecimal("75.00"));
+    }
+
+    @Test
+    void testSubmit_fullQueueHandsMoneyRecordsToTheJournal() throws IOException {
+        AuditTrail trail = trail(2, OverflowPolicy.CALLER_WRITES);
+        fill(trail);
+
+        trail.onMoneyMovement(new MoneyMovementEvent(UUID.randomUUID(), MovementType.DEPOSIT, UUID.randomUUID(),
+                null, BigDecimal.TEN, BigDecimal.TEN, LocalDateTime.now()));
+
+        verify(sink, never()).write(any());
+        assertThat(meterRegistry.get("audit.records.handed_off").counter().count()).isEqualTo(1);
+        assertThat(trail.queued()).isEqualTo(2);
+    }
+
+    @Test
+    void testSubmit_callerWritesWhenTheQueueIsFull() throws IOException {
+        AuditTrail trail = trail(2, OverflowPolicy.CALLER_WRITES);
+        fill(trail);
+
+        trail.record(AuditAction.ACCOUNT_CREATED, UUID.randomUUID(), Map.of(), Map.of("balance", BigDecimal.ONE));
+
+        verify(sink).write(argThat(records -> records.size() == 1
+                && records.get(0).action() == AuditAction.ACCOUNT_CREATED));
+        assertThat(meterRegistry.get("audit.records.caller_written").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testSubmit_blockWaitsForSpaceBeforeWritingItself() throws IOException {
+        AuditTrail trail = trail(2, OverflowPolicy.BLOCK);
+        fill(trail);
+
+        long started = System.nanoTime();
+        trail.record(AuditAction.ACCOUNT_UPDATED, UUID.randomUUID(), Map.of(), Map.of());
+
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isGreaterThanOrEqualTo(Duration.ofMillis(20));
+        verify(sink).write(any());
+    }
+
+    @Test
+    void testSubmit_dropCountsAndMovesOn() throws IOException {
+        AuditTrail trail = trail(2, OverflowPolicy.DROP);
+        fill(trail);
+
+        trail.record(AuditAction.USER_CREATED, UUID.randomUUID(), Map.of(), Map.of());
+
+        verifyNoInteractions(sink);
+        assertThat(meterRegistry.get("audit.records.dropped").counter().count()).isEqualTo(1);
+    }
+
+    private AuditTrail trail(int capacity, OverflowPolicy overflow) {
+        @SuppressWarnings("unchecked")
+        ObjectProvider<AuditSink> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(sink);
+        AuditProperties properties = new AuditProperties(true, null, capacity, 0, null, overflow,
+                Duration.ofMillis(20), null, null, null, null, null, null);
+        return new AuditTrail(properties, provider, meterRegistry);
+    }
+
+    private static void fill(AuditTrail trail) {
+        for (int i = 0; i < 2; i++) {
+            trail.record(AuditAction.USER_UPDATED, UUID.randomUUID(), Map.of(), Map.of());
+        }
+    }
+
+    private static List<AuditRecord> drain(AuditTrail trail) {
+        List<AuditRecord> records = new ArrayList<>();
+        trail.drain(records, 100);
+        return records;
+    }
+}
@@ -0,0 +1,261 @@
+package com.eaglebank.audit;
+
+import com.eaglebank.config.AuditProperties;
+import com.eaglebank.config.ShardProperties;
+import com.eaglebank.event.MoneyMovementEvent;
+import com.eaglebank.event.MovementType;
+import com.eaglebank.journal.ContraAccount;
+import com.eaglebank.repository.AuditPosting;
+import com.eaglebank.repository.JournalPostingRepository;
+import com.eaglebank.repository.PostingKey;
+import com.eaglebank.sharding.Shards;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AuditWriterTest {
+
+    private JournalPostingRepository journalPostingRepository;
+    private RecordingSink sink;
+    private SimpleMeterRegistry meterRegistry;
+    private AuditTrail trail;
+    private AuditWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        journalPostingRepository = mock(JournalPostingRepository.class);
+        sink = new RecordingSink();
+        meterRegistry = new SimpleMeterRegistry();
+
+        AuditProperties properties = new AuditProperties(true, null, 16, 10, Duration.ofMillis(10), null,
+                null, Duration.ofMinutes(1), null, null, null, null, Duration.ofMillis(50));
+        @SuppressWarnings("unchecked")
+        ObjectProvider<AuditSink> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(sink);
+        trail = new AuditTrail(properties, provider, meterRegistry);
+        writer = new AuditWriter(trail, sink, journalPostingRepository,
+                new Shards(new ShardProperties(false, null, 0, null, 0, null), mock(PlatformTransactionManager.class)),
+                properties, mock(PlatformTransactionManager.class), meterRegistry);
+    }
+
+    @Test
+    void testSweep_firstSweepStartsTheTrailAtTheOldestRunningTransaction() {
+        when(journalPostingRepository.findSnapshotXmin()).thenReturn(100L);
+
+        writer.sweep();
+
+        assertThat(sink.checkpoints).containsEntry(0, 100L);
+        verify(journalPostingRepository, never()).findKeysWrittenBetween(anyLong(), anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    void testSweep_writesTheMoneyRecordsTheQueueNeverDelivered() {
+        UUID sender = UUID.randomUUID();
+        UUID receiver = UUID.randomUUID();
+        UUID transfer = UUID.randomUUID();
+        UUID deposit = UUID.randomUUID();
+        sink.checkpoints.put(0, 100L);
+        when(journalPostingRepository.findSnapshotXmin()).thenReturn(200L);
+
+        // Only the sending side made it through the queue
+        trail.onMoneyMovement(new MoneyMovementEvent(transfer, MovementType.TRANSFER_SENT, sender, receiver,
+                new BigDecimal("30.00"), new BigDecimal("70.00"), LocalDateTime.now()));
+        List<AuditRecord> batch = new ArrayList<>();
+        trail.drain(batch, 10);
+        assertThat(writer.writeUntilAccepted(batch)).isTrue();
+
+        when(journalPostingRepository.findKeysWrittenBetween(100L, 200L, 0L, 10)).thenReturn(List.of(
+                new Key(1, transfer, sender),
+                new Key(2, transfer, receiver),
+                new Key(3, deposit, sender),
+                new Key(4, deposit, ContraAccount.EXTERNAL.id())));
+        when(journalPostingRepository.findForAudit(List.of(2L, 3L))).thenReturn(List.of(
+                new Posting(2, transfer, receiver, "30.00", "TRANSFER", null, "jane@example.com", "130.00"),
+                new Posting(3, deposit, sender, "5.00", "DEPOSIT", null, "john@example.com", "75.00")));
+
+        writer.sweep();
+
+        List<AuditRecord> swept = sink.records.subList(1, sink.records.size());
+        assertThat(swept).extracting(AuditRecord::action)
+                .containsExactly(AuditAction.TRANSFER_RECEIVED, AuditAction.DEPOSIT);
+        assertThat(swept).allMatch(AuditRecord::fromJournal);
+        assertThat(swept.get(0).actor()).isEqualTo("jane@example.com");
+        assertThat(swept.get(0).before()).containsEntry("balance", new BigDecimal("100.00"));
+        assertThat(swept.get(0).after()).containsEntry("balance", new BigDecimal("130.00"));
+        assertThat(sink.checkpoints).containsEntry(0, 200L);
+        assertThat(meterRegistry.get("audit.records.from_journal").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testSweep_failedWriteLeavesTheCheckpoint() {
+        sink.checkpoints.put(0, 100L);
+        sink.failures = 1;
+        UUID deposit = UUID.randomUUID();
+        UUID account = UUID.randomUUID();
+        when(journalPostingRepository.findSnapshotXmin()).thenReturn(200L);
+        when(journalPostingRepository.findKeysWrittenBetween(anyLong(), anyLong(), anyLong(), anyInt()))
+                .thenReturn(List.of(new Key(1, deposit, account)));
+        when(journalPostingRepository.findForAudit(any()))
+                .thenReturn(List.of(new Posting(1, deposit, account, "5.00", "DEPOSIT", null, null, "5.00")));
+
+        writer.sweep();
+        assertThat(sink.checkpoints).containsEntry(0, 100L);
+
+        writer.sweep();
+        assertThat(sink.checkpoints).containsEntry(0, 200L);
+        assertThat(sink.records).singleElement().satisfies(record -> {
+            assertThat(record.actor()).isEqualTo(AuditTrail.SYSTEM);
+            assertThat(record.before()).containsEntry("balance", new BigDecimal("0.00"));
+        });
+    }
+
+    @Test
+    void testRun_retriesARejectedBatchUntilItIsWritten() throws InterruptedException {
+        sink.failures = 2;
+        writer.start();
+        try {
+            trail.record(AuditAction.USER_CREATED, UUID.randomUUID(), Map.of(), Map.of("name", "Jane"));
+            trail.record(AuditAction.USER_UPDATED, UUID.randomUUID(), Map.of("name", "Jane"), Map.of("name", "Janet"));
+
+            await().atMost(5, TimeUnit.SECONDS).until(() -> sink.records.size() == 2);
+        } finally {
+            writer.stop();
+        }
+        assertThat(sink.records).extracting(AuditRecord::action)
+                .containsExactly(AuditAction.USER_CREATED, AuditAction.USER_UPDATED);
+        assertThat(meterRegistry.get("audit.writes.failed").counter().count()).isEqualTo(2);
+        assertThat(writer.backoff(1)).isEqualTo(Duration.ofMillis(10));
+        assertThat(writer.backoff(10)).isEqualTo(Duration.ofMillis(50));
+    }
+
+    @Test
+    void testAction_archivedMovementsAreNamedByTheirOtherLeg() {
+        UUID account = UUID.randomUUID();
+
+        assertThat(AuditWriter.action(new Posting(1, UUID.randomUUID(), account, "-5.00", "TRANSFER", null, null, "0")))
+                .isEqualTo(AuditAction.TRANSFER_SENT);
+        assertThat(AuditWriter.action(new Posting(1, UUID.randomUUID(), account, "1.20", "INTEREST", null, null, "0")))
+                .isEqualTo(AuditAction.INTEREST);
+        assertThat(AuditWriter.action(new Posting(1, UUID.randomUUID(), account, "1.20", null,
+                ContraAccount.INTEREST.id(), null, "0"))).isEqualTo(AuditAction.INTEREST);
+        assertThat(AuditWriter.action(new Posting(1, UUID.randomUUID(), account, "-9.00", null,
+                ContraAccount.EXTERNAL.id(), null, "0"))).isEqualTo(AuditAction.WITHDRAWAL);
+    }
+
+    private static class RecordingSink implements AuditSink {
+
+        final List<AuditRecord> records = Collections.synchronizedList(new ArrayList<>());
+        final Map<Integer, Long> checkpoints = new HashMap<>();
+        volatile int failures;
+
+        @Override
+        public String name() {
+            return "recording";
+        }
+
+        @Override
+        public synchronized void write(List<AuditRecord> batch) throws IOException {
+            if (failures > 0) {
+                failures--;
+                throw new IOException("disk full");
+            }
+            records.addAll(batch);
+        }
+
+        @Override
+        public OptionalLong checkpoint(int shard) {
+            Long position = checkpoints.get(shard);
+            return position == null ? OptionalLong.empty() : OptionalLong.of(position);
+        }
+
+        @Override
+        public void checkpoint(int shard, long position) {
+            checkpoints.put(shard, position);
+        }
+    }
+
+    private record Key(long id, UUID transactionId, UUID accountId) implements PostingKey {
+        @Override
+        public long getId() {
+            return id;
+        }
+
+        @Override
+        public UUID getTransactionId() {
+            return transactionId;
+        }
+
+        @Override
+        public UUID getAccountId() {
+            return accountId;
+        }
+    }
+
+    private record Posting(long id, UUID transactionId, UUID accountId, String amount, String type,
+                           UUID counterpartyAccountId, String actor, String balanceAfter) implements AuditPosting {
+        @Override
+        public long getId() {
+            return id;
+        }
+
+        @Override
+        public UUID getTransactionId() {
+            return transactionId;
+        }
+
+        @Override
+        public UUID getAccountId() {
+            return accountId;
+        }
+
+        @Override
+        public BigDecimal getAmount() {
+            return new BigDecimal(amount);
+        }
+
+        @Override
+        public LocalDateTime getCreatedTimestamp() {
+            return LocalDateTime.now();
+        }
+
+        @Override
+        public String getType() {
+            return type;
+        }
+
+        @Override
+        public UUID getCounterpartyAccountId() {
+            return counterpartyAccountId;
+        }
+
+        @Override
+        public String getActor() {
+            return actor;
+        }
+
+        @Override
+        public BigDecimal getBalanceAfter() {
+            return new BigDecimal(balanceAfter);
+        }
+    }
+}
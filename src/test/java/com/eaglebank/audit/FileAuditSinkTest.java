@@ -0,0 +1,99 @@
+package com.eaglebank.audit;
+
+import com.eaglebank.config.AuditProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileAuditSinkTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testWrite_appendsOneJsonLinePerRecord() throws IOException {
+        FileAuditSink sink = sink(DataSize.ofMegabytes(1));
+        UUID account = UUID.randomUUID();
+
+        sink.write(List.of(record(account, "10.00"), record(account, "20.00")));
+        sink.close();
+
+        List<String> lines = Files.readAllLines(directory.resolve(FileAuditSink.fileName(LocalDate.now(), 0)));
+        assertThat(lines).hasSize(2);
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertThat(first.get("action").asText()).isEqualTo("DEPOSIT");
+        assertThat(first.get("subjectId").asText()).isEqualTo(account.toString());
+        assertThat(first.get("after").get("balance").decimalValue()).isEqualByComparingTo("10.00");
+    }
+
+    @Test
+    void testWrite_startsANewFileOnceOneIsFull() throws IOException {
+        FileAuditSink sink = sink(DataSize.ofBytes(600));
+        UUID account = UUID.randomUUID();
+
+        for (int i = 0; i < 6; i++) {
+            sink.write(List.of(record(account, i + ".00")));
+        }
+        sink.close();
+        // A new instance carries on in the newest file rather than overwriting the first
+        FileAuditSink restarted = sink(DataSize.ofBytes(600));
+        restarted.write(List.of(record(account, "6.00")));
+        restarted.close();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> written = files.filter(file -> file.toString().endsWith(".jsonl")).sorted().toList();
+            assertThat(written).hasSizeGreaterThan(1);
+            assertThat(written).allMatch(file -> file.toFile().length() <= 600);
+            long lines = 0;
+            for (Path file : written) {
+                lines += Files.readAllLines(file).size();
+            }
+            assertThat(lines).isEqualTo(7);
+        }
+    }
+
+    @Test
+    void testCheckpoint_survivesARestart() throws IOException {
+        FileAuditSink sink = sink(DataSize.ofMegabytes(1));
+        assertThat(sink.checkpoint(0)).isEmpty();
+
+        sink.write(List.of(record(UUID.randomUUID(), "1.00")));
+        sink.checkpoint(0, 1200);
+        sink.checkpoint(1, 800);
+        sink.checkpoint(0, 1500);
+        sink.close();
+
+        FileAuditSink restarted = sink(DataSize.ofMegabytes(1));
+        assertThat(restarted.checkpoint(0)).hasValue(1500);
+        assertThat(restarted.checkpoint(1)).hasValue(800);
+        assertThat(directory.resolve(FileAuditSink.CHECKPOINT_FILE + ".tmp")).doesNotExist();
+    }
+
+    private FileAuditSink sink(DataSize maxFileSize) {
+        AuditProperties properties = new AuditProperties(true, AuditSinkType.FILE, 0, 0, null, null, null, null,
+                directory.toString(), maxFileSize, FsyncPolicy.ALWAYS, null, null);
+        return new FileAuditSink(properties, objectMapper);
+    }
+
+    private static AuditRecord record(UUID account, String balance) {
+        return new AuditRecord(LocalDateTime.now(), "jane@example.com", AuditAction.DEPOSIT, account,
+                UUID.randomUUID(), Map.of("balance", BigDecimal.ZERO), Map.of("balance", new BigDecimal(balance)), false);
+    }
+}
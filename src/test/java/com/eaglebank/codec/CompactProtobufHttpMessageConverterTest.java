@@ -0,0 +1,100 @@
+package com.eaglebank.codec;
+
+import com.eaglebank.dto.BankAccountResponse;
+import com.eaglebank.dto.TransactionResponse;
+import com.eaglebank.dto.UserResponse;
+import com.eaglebank.entity.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CompactProtobufHttpMessageConverterTest {
+
+    private static final Type TRANSACTION_LIST = new ParameterizedTypeReference<List<TransactionResponse>>() {}.getType();
+    private static final Type ACCOUNT_LIST = new ParameterizedTypeReference<List<BankAccountResponse>>() {}.getType();
+
+    private final CompactProtobufHttpMessageConverter converter = new CompactProtobufHttpMessageConverter();
+
+    @Test
+    void testRoundTrip_transactionListPreservesEveryField() throws IOException {
+        List<TransactionResponse> transactions = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            transactions.add(new TransactionResponse(
+                    UUID.randomUUID().toString(),
+                    UUID.randomUUID().toString(),
+                    UUID.randomUUID().toString(),
+                    BigDecimal.valueOf(i * 1_001L - 500_000, i % 4),
+                    LocalDateTime.of(2024, 3, 1, 12, 0).plusSeconds(i).plusNanos(i * 1_000L),
+                    TransactionType.TRANSFER.name(),
+                    // Every fifth transfer crosses currencies
+                    i % 5 == 0 ? BigDecimal.valueOf(i * 1_170L, 2) : null,
+                    i % 5 == 0 ? new BigDecimal("1.170000000000") : null,
+                    i % 3 == 0 ? "Invoice #" + i + " – café" : null));
+        }
+        // Fields can be absent, e.g. the counterparty of a deposit
+        transactions.add(new TransactionResponse(UUID.randomUUID().toString(), null,
+                UUID.randomUUID().toString(), new BigDecimal("0.00"), LocalDateTime.of(1965, 6, 1, 9, 30),
+                TransactionType.DEPOSIT.name(), null, null, null));
+        transactions.add(new TransactionResponse(UUID.randomUUID().toString(), UUID.randomUUID().toString(),
+                null, new BigDecimal("7.25"), LocalDateTime.of(2024, 3, 2, 9, 30), TransactionType.ADJUSTMENT.name(),
+                null, null, null));
+
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(transactions, TRANSACTION_LIST, CompactProtobufHttpMessageConverter.PROTOBUF, output);
+
+        Object decoded = converter.read(TRANSACTION_LIST, null, new MockHttpInputMessage(output.getBodyAsBytes()));
+
+        assertThat(output.getHeaders().getContentType()).isEqualTo(CompactProtobufHttpMessageConverter.PROTOBUF);
+        assertThat(decoded).isEqualTo(transactions);
+    }
+
+    @Test
+    void testRoundTrip_singleAccountAndAccountList() throws IOException {
+        BankAccountResponse account = new BankAccountResponse(UUID.randomUUID().toString(), "personal",
+                "10-10-10", "01234567", new BigDecimal("1234.56"), LocalDateTime.of(2024, 1, 2, 3, 4, 5), "EUR");
+
+        MockHttpOutputMessage single = new MockHttpOutputMessage();
+        converter.write(account, BankAccountResponse.class, CompactProtobufHttpMessageConverter.PROTOBUF, single);
+        MockHttpOutputMessage list = new MockHttpOutputMessage();
+        converter.write(List.of(account, account), ACCOUNT_LIST, CompactProtobufHttpMessageConverter.PROTOBUF, list);
+
+        assertThat(converter.read(BankAccountResponse.class, null, new MockHttpInputMessage(single.getBodyAsBytes())))
+                .isEqualTo(account);
+        assertThat(converter.read(ACCOUNT_LIST, null, new MockHttpInputMessage(list.getBodyAsBytes())))
+                .isEqualTo(List.of(account, account));
+    }
+
+    @Test
+    void testCanWrite_onlySchemaTypes() {
+        assertThat(converter.canWrite(TRANSACTION_LIST, List.class, CompactProtobufHttpMessageConverter.PROTOBUF)).isTrue();
+        assertThat(converter.canWrite(TransactionResponse.class, TransactionResponse.class, null)).isTrue();
+        assertThat(converter.canWrite(UserResponse.class, UserResponse.class, CompactProtobufHttpMessageConverter.PROTOBUF)).isFalse();
+        assertThat(converter.canWrite(List.class, List.class, CompactProtobufHttpMessageConverter.PROTOBUF)).isFalse();
+    }
+
+    @Test
+    void testRead_rejectsTruncatedBody() throws IOException {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(new TransactionResponse(UUID.randomUUID().toString(), null, null, BigDecimal.ONE, null, null, null, null, null),
+                TransactionResponse.class, CompactProtobufHttpMessageConverter.PROTOBUF, output);
+        byte[] body = output.getBodyAsBytes();
+        byte[] truncated = Arrays.copyOf(body, body.length - 10);
+
+        assertThrows(HttpMessageNotReadableException.class,
+                () -> converter.read(TransactionResponse.class, null, new MockHttpInputMessage(truncated)));
+    }
+}
@@ -0,0 +1,142 @@
+package com.eaglebank.codec;
+
+import com.eaglebank.config.ContentNegotiationConfig;
+import com.eaglebank.dto.TransactionResponse;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Payload size and encode/decode throughput of one 1,000-transaction page in every
+ * representation. Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class RepresentationBenchmarkTest {
+
+    private static final Type PAGE = new ParameterizedTypeReference<List<TransactionResponse>>() {}.getType();
+    private static final int PAGE_SIZE = 1_000;
+    private static final long WARMUP_NANOS = 2_000_000_000L;
+    private static final long MEASURE_NANOS = 3_000_000_000L;
+
+    @Test
+    void benchmarkTransactionPage() throws IOException {
+        List<TransactionResponse> page = page();
+
+        Map<String, GenericHttpMessageConverter<Object>> converters = new LinkedHashMap<>();
+        converters.put("json (indented)", json(true));
+        converters.put("json", json(false));
+        for (HttpMessageConverter<?> converter : ContentNegotiationConfig.binaryConverters(Jackson2ObjectMapperBuilder::json)) {
+            converters.put(converter.getSupportedMediaTypes().get(0).toString(), generic(converter));
+        }
+
+        System.out.printf("%-28s %10s %14s %14s%n", "representation", "bytes", "encode pages/s", "decode pages/s");
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        for (Map.Entry<String, GenericHttpMessageConverter<Object>> entry : converters.entrySet()) {
+            GenericHttpMessageConverter<Object> converter = entry.getValue();
+            MediaType mediaType = converter.getSupportedMediaTypes().get(0);
+            byte[] encoded = encode(converter, mediaType, page);
+            assertThat(decode(converter, encoded)).isEqualTo(page);
+
+            double encodeRate = rate(() -> encode(converter, mediaType, page));
+            double decodeRate = rate(() -> decode(converter, encoded));
+            sizes.put(entry.getKey(), encoded.length);
+            System.out.printf("%-28s %10d %14.0f %14.0f%n", entry.getKey(), encoded.length, encodeRate, decodeRate);
+        }
+
+        assertThat(sizes.get(CompactProtobufHttpMessageConverter.PROTOBUF.toString())).isLessThan(sizes.get("json") / 2);
+    }
+
+    private static List<TransactionResponse> page() {
+        Random random = new Random(7);
+        List<UUID> accounts = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            accounts.add(UUID.randomUUID());
+        }
+
+        List<TransactionResponse> page = new ArrayList<>();
+        LocalDateTime at = LocalDateTime.of(2024, 6, 1, 0, 0);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            at = at.plusSeconds(random.nextInt(600)).plusNanos(random.nextInt(1_000_000) * 1_000L);
+            page.add(new TransactionResponse(
+                    UUID.randomUUID().toString(),
+                    accounts.get(random.nextInt(accounts.size())).toString(),
+                    accounts.get(random.nextInt(accounts.size())).toString(),
+                    BigDecimal.valueOf(random.nextInt(500_000), 2),
+                    at,
+                    "TRANSFER",
+                    null,
+                    null,
+                    null));
+        }
+        return page;
+    }
+
+    private static GenericHttpMessageConverter<Object> json(boolean indent) {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        if (indent) {
+            builder.featuresToEnable(SerializationFeature.INDENT_OUTPUT);
+        }
+        return generic(new MappingJackson2HttpMessageConverter(builder.build()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static GenericHttpMessageConverter<Object> generic(HttpMessageConverter<?> converter) {
+        return (GenericHttpMessageConverter<Object>) converter;
+    }
+
+    private static byte[] encode(GenericHttpMessageConverter<Object> converter, MediaType mediaType,
+                                 List<TransactionResponse> page) throws IOException {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(page, PAGE, mediaType, output);
+        return output.getBodyAsBytes();
+    }
+
+    private static Object decode(GenericHttpMessageConverter<Object> converter, byte[] body) throws IOException {
+        return converter.read(PAGE, null, new MockHttpInputMessage(body));
+    }
+
+    private interface Operation {
+        Object run() throws IOException;
+    }
+
+    private static double rate(Operation operation) throws IOException {
+        Object sink = null;
+        long end = System.nanoTime() + WARMUP_NANOS;
+        while (System.nanoTime() < end) {
+            sink = operation.run();
+        }
+
+        long count = 0;
+        long start = System.nanoTime();
+        end = start + MEASURE_NANOS;
+        long now;
+        do {
+            sink = operation.run();
+            count++;
+            now = System.nanoTime();
+        } while (now < end);
+        assertThat(sink).isNotNull();
+        return count * 1e9 / (now - start);
+    }
+}
@@ -0,0 +1,160 @@
+package com.eaglebank.controller;
+
+import com.eaglebank.archive.TransactionArchive;
+import com.eaglebank.audit.AuditTrail;
+import com.eaglebank.entity.BankAccount;
+import com.eaglebank.entity.User;
+import com.eaglebank.fx.FxRates;
+import com.eaglebank.journal.BalanceProjection;
+import com.eaglebank.journal.Journal;
+import com.eaglebank.limits.VelocityLimiter;
+import com.eaglebank.repository.BankAccountRepository;
+import com.eaglebank.repository.ScheduledPaymentRepository;
+import com.eaglebank.repository.TransactionRepository;
+import com.eaglebank.repository.UserRepository;
+import com.eaglebank.repository.VersionStamp;
+import com.eaglebank.service.AccountDirectory;
+import com.eaglebank.service.BankAccountServiceImpl;
+import com.eaglebank.service.TransactionServiceImpl;
+import com.eaglebank.service.TransferExecutor;
+import com.eaglebank.sharding.CrossShardTransfers;
+import com.eaglebank.sharding.ShardDirectory;
+import com.eaglebank.stream.AccountStreamHub;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+class BankAccountControllerTest {
+
+    private static final LocalDateTime UPDATED = LocalDateTime.of(2024, 5, 1, 10, 15, 30);
+
+    private BankAccountRepository bankAccountRepository;
+    private UserRepository userRepository;
+    private TransactionRepository transactionRepository;
+    private TransactionArchive transactionArchive;
+    private MockMvc mockMvc;
+
+    private final Authentication auth = new UsernamePasswordAuthenticationToken("jane@example.com", null, List.of());
+    private BankAccount account;
+
+    @BeforeEach
+    void setUp() {
+        bankAccountRepository = mock(BankAccountRepository.class);
+        userRepository = mock(UserRepository.class);
+        transactionRepository = mock(TransactionRepository.class);
+        transactionArchive = mock(TransactionArchive.class);
+        AccountDirectory accountDirectory = mock(AccountDirectory.class);
+
+        // The real services, so the tests see which queries a conditional GET runs
+        BankAccountServiceImpl bankAccountService = new BankAccountServiceImpl(bankAccountRepository, userRepository,
+                transactionRepository, mock(ApplicationEventPublisher.class), mock(VelocityLimiter.class),
+                mock(ScheduledPaymentRepository.class), mock(FxRates.class), accountDirectory, mock(Journal.class),
+                mock(BalanceProjection.class), mock(ShardDirectory.class), mock(AuditTrail.class));
+        TransactionServiceImpl transactionService = new TransactionServiceImpl(transactionRepository,
+                bankAccountRepository, userRepository, transactionArchive, mock(VelocityLimiter.class),
+                mock(TransferExecutor.class), accountDirectory, mock(ShardDirectory.class),
+                mock(CrossShardTransfers.class));
+        mockMvc = MockMvcBuilders.standaloneSetup(
+                        new BankAccountController(bankAccountService, mock(AccountStreamHub.class), accountDirectory),
+                        new TransactionController(transactionService, accountDirectory))
+                .build();
+
+        User user = User.builder().id(UUID.randomUUID()).email(auth.getName()).build();
+        account = BankAccount.builder()
+                .id(UUID.randomUUID())
+                .user(user)
+                .accountNumber("01234567")
+                .balance(new BigDecimal("100.00"))
+                .currency("GBP")
+                .createdTimestamp(UPDATED)
+                .updatedTimestamp(UPDATED)
+                .build();
+        when(userRepository.findByEmail(auth.getName())).thenReturn(Optional.of(user));
+        when(bankAccountRepository.findByUserId(user.getId())).thenReturn(List.of(account));
+        when(bankAccountRepository.findByIdAndUserId(account.getId(), user.getId())).thenReturn(Optional.of(account));
+        when(bankAccountRepository.findOpenById(account.getId())).thenReturn(Optional.of(account));
+        when(bankAccountRepository.existsByIdAndUserEmail(account.getId(), auth.getName())).thenReturn(true);
+    }
+
+    @Test
+    void testGetAccounts_notModifiedWithoutLoadingTheAccountsUntilOneChanges() throws Exception {
+        when(bankAccountRepository.findVersionStampByUserEmail(auth.getName())).thenReturn(new VersionStamp(1, UPDATED));
+
+        MockHttpServletResponse first = fetch("/v1/accounts", null);
+        assertThat(first.getStatus()).isEqualTo(200);
+        String etag = first.getHeader("ETag");
+
+        assertThat(fetch("/v1/accounts", etag).getStatus()).isEqualTo(304);
+        verify(bankAccountRepository, times(1)).findByUserId(any());
+
+        // A write bumps the account's updated timestamp
+        when(bankAccountRepository.findVersionStampByUserEmail(auth.getName()))
+                .thenReturn(new VersionStamp(1, UPDATED.plusSeconds(1)));
+        MockHttpServletResponse changed = fetch("/v1/accounts", etag);
+        assertThat(changed.getStatus()).isEqualTo(200);
+        assertThat(changed.getHeader("ETag")).isNotEqualTo(etag);
+    }
+
+    @Test
+    void testGetAccountById_notModifiedWithoutLoadingTheAccountUntilItChanges() throws Exception {
+        String path = "/v1/accounts/" + account.getId();
+        when(bankAccountRepository.findUpdatedTimestamp(account.getId(), auth.getName()))
+                .thenReturn(Optional.of(UPDATED));
+
+        MockHttpServletResponse first = fetch(path, null);
+        assertThat(first.getStatus()).isEqualTo(200);
+        String etag = first.getHeader("ETag");
+
+        assertThat(fetch(path, etag).getStatus()).isEqualTo(304);
+        verify(bankAccountRepository, times(1)).findByIdAndUserId(any(), any());
+
+        when(bankAccountRepository.findUpdatedTimestamp(account.getId(), auth.getName()))
+                .thenReturn(Optional.of(UPDATED.plusNanos(1_000)));
+        MockHttpServletResponse changed = fetch(path, etag);
+        assertThat(changed.getStatus()).isEqualTo(200);
+        assertThat(changed.getHeader("ETag")).isNotEqualTo(etag);
+    }
+
+    @Test
+    void testGetTransactionsForAccount_newlyArchivedPeriodChangesTheTag() throws Exception {
+        String path = "/v1/accounts/" + account.getId() + "/transactions";
+        when(transactionRepository.findLatestSentTimestamp(List.of(account.getId()))).thenReturn(UPDATED);
+
+        MockHttpServletResponse first = fetch(path, null);
+        assertThat(first.getStatus()).isEqualTo(200);
+        String etag = first.getHeader("ETag");
+        assertThat(fetch(path, etag).getStatus()).isEqualTo(304);
+        verify(bankAccountRepository, times(1)).findOpenById(account.getId());
+
+        // No new movement, but rows before the boundary now come from the archive
+        when(transactionArchive.archivedUntil()).thenReturn(LocalDateTime.of(2024, 4, 1, 0, 0));
+        MockHttpServletResponse archived = fetch(path, etag);
+        assertThat(archived.getStatus()).isEqualTo(200);
+        assertThat(archived.getHeader("ETag")).isNotEqualTo(etag);
+    }
+
+    private MockHttpServletResponse fetch(String path, String ifNoneMatch) throws Exception {
+        var request = get(path).principal(auth).accept(MediaType.APPLICATION_JSON);
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+}
@@ -0,0 +1,171 @@
+package com.eaglebank.controller;
+
+import com.eaglebank.codec.CompactProtobufHttpMessageConverter;
+import com.eaglebank.config.ContentNegotiationConfig;
+import com.eaglebank.dto.TransactionResponse;
+import com.eaglebank.dto.TransactionSearchRequest;
+import com.eaglebank.dto.TransactionSearchResponse;
+import com.eaglebank.service.AccountDirectory;
+import com.eaglebank.service.TransactionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+class TransactionControllerTest {
+
+    private static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+    private TransactionService transactionService;
+    private AccountDirectory accountDirectory;
+    private MockMvc mockMvc;
+    private List<TransactionResponse> transactions;
+
+    @BeforeEach
+    void setUp() {
+        transactionService = mock(TransactionService.class);
+        accountDirectory = mock(AccountDirectory.class);
+
+        List<HttpMessageConverter<?>> converters = new ArrayList<>();
+        converters.add(new MappingJackson2HttpMessageConverter(Jackson2ObjectMapperBuilder.json().build()));
+        converters.addAll(ContentNegotiationConfig.binaryConverters(Jackson2ObjectMapperBuilder::json));
+        mockMvc = MockMvcBuilders.standaloneSetup(new TransactionController(transactionService, accountDirectory))
+                .setMessageConverters(converters.toArray(HttpMessageConverter[]::new))
+                .build();
+
+        UUID account = UUID.randomUUID();
+        transactions = List.of(
+                new TransactionResponse(UUID.randomUUID().toString(), account.toString(),
+                        UUID.randomUUID().toString(), new BigDecimal("12.50"), LocalDateTime.of(2024, 5, 1, 10, 15, 30), "TRANSFER",
+                        null, null, "Rent"),
+                new TransactionResponse(UUID.randomUUID().toString(), null,
+                        account.toString(), new BigDecimal("0.99"), LocalDateTime.of(2024, 5, 2, 8, 0, 0, 250_000_000),
+                        "DEPOSIT", null, null, null));
+        when(transactionService.getTransactionsVersion(any(), any(), any())).thenReturn(Optional.of("v7"));
+        when(transactionService.getTransactions(any(), any(), any())).thenReturn(transactions);
+    }
+
+    @Test
+    void testGetTransactions_servesEveryRepresentationFromTheSameEndpoint() throws Exception {
+        ObjectMapper cbor = Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+        ObjectMapper smile = Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+
+        assertThat(decode(fetch(MediaType.APPLICATION_JSON, null), json)).isEqualTo(transactions);
+        assertThat(decode(fetch(MediaType.APPLICATION_CBOR, null), cbor)).isEqualTo(transactions);
+        assertThat(decode(fetch(SMILE, null), smile)).isEqualTo(transactions);
+
+        MockHttpServletResponse protobuf = fetch(CompactProtobufHttpMessageConverter.PROTOBUF, null);
+        assertThat(protobuf.getContentType()).isEqualTo(CompactProtobufHttpMessageConverter.PROTOBUF.toString());
+        assertThat(new CompactProtobufHttpMessageConverter().read(
+                new ParameterizedTypeReference<List<TransactionResponse>>() {}.getType(), null,
+                new MockHttpInputMessage(protobuf.getContentAsByteArray())))
+                .isEqualTo(transactions);
+    }
+
+    @Test
+    void testGetTransactions_eTagVariesByRepresentation() throws Exception {
+        MockHttpServletResponse json = fetch(MediaType.APPLICATION_JSON, null);
+        MockHttpServletResponse protobuf = fetch(CompactProtobufHttpMessageConverter.PROTOBUF, null);
+
+        assertThat(json.getHeader("ETag")).isEqualTo("\"v7\"");
+        assertThat(protobuf.getHeader("ETag")).isEqualTo("\"v7-pb\"");
+        assertThat(json.getHeaders("Vary")).contains("Accept");
+
+        // A protobuf ETag must not validate a cached JSON body, and vice versa
+        assertThat(fetch(MediaType.APPLICATION_JSON, protobuf.getHeader("ETag")).getStatus()).isEqualTo(200);
+        assertThat(fetch(CompactProtobufHttpMessageConverter.PROTOBUF, protobuf.getHeader("ETag")).getStatus())
+                .isEqualTo(304);
+        verify(transactionService, times(3)).getTransactions(any(), any(), any());
+    }
+
+    @Test
+    void testSearchTransactions_bindsCriteriaAndRejectsShortText() throws Exception {
+        UUID counterparty = UUID.randomUUID();
+        when(transactionService.searchTransactions(any(), any()))
+                .thenReturn(new TransactionSearchResponse(transactions.subList(0, 1), "next"));
+
+        MockHttpServletResponse response = mockMvc.perform(get("/v1/transactions/search")
+                        .param("q", "rent")
+                        .param("counterpartyAccountId", counterparty.toString())
+                        .param("minAmount", "10.00")
+                        .param("from", "2024-05-01T00:00:00")
+                        .param("size", "20")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse();
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).contains("\"nextCursor\":\"next\"").contains("\"reference\":\"Rent\"");
+        ArgumentCaptor<TransactionSearchRequest> search = ArgumentCaptor.forClass(TransactionSearchRequest.class);
+        verify(transactionService).searchTransactions(search.capture(), any());
+        assertThat(search.getValue()).isEqualTo(new TransactionSearchRequest("rent", counterparty,
+                new BigDecimal("10.00"), null, LocalDateTime.of(2024, 5, 1, 0, 0), null, null, 20));
+
+        assertThat(mockMvc.perform(get("/v1/transactions/search").param("q", "re"))
+                .andReturn().getResponse().getStatus()).isEqualTo(400);
+    }
+
+    @Test
+    void testAccountTransactions_routeByNumberOrIdWithoutAmbiguity() throws Exception {
+        UUID accountId = UUID.fromString(transactions.get(1).toAccountId());
+        when(accountDirectory.require(null, "01234567")).thenReturn(accountId);
+        when(transactionService.getTransactionsForAccountVersion(any(), any(), any(), any())).thenReturn(Optional.empty());
+        when(transactionService.getTransactionsForAccount(any(), any(), any(), any())).thenReturn(transactions);
+
+        assertThat(mockMvc.perform(get("/v1/accounts/01234567/transactions").accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getStatus()).isEqualTo(200);
+        assertThat(mockMvc.perform(get("/v1/accounts/" + accountId + "/transactions").accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getStatus()).isEqualTo(200);
+
+        verify(transactionService, times(2)).getTransactionsForAccount(eq(accountId), any(), any(), any());
+        verify(accountDirectory).require(null, "01234567");
+    }
+
+    @Test
+    void testRepresentation_followsAcceptPreference() {
+        assertThat(ConditionalResponses.representation(null)).isEmpty();
+        assertThat(ConditionalResponses.representation("*/*")).isEmpty();
+        assertThat(ConditionalResponses.representation("application/cbor")).isEqualTo("cbor");
+        assertThat(ConditionalResponses.representation("application/json;q=0.5, application/x-protobuf"))
+                .isEqualTo("pb");
+        assertThat(ConditionalResponses.representation("application/x-jackson-smile;q=0, */*")).isEmpty();
+    }
+
+    private MockHttpServletResponse fetch(MediaType accept, String ifNoneMatch) throws Exception {
+        var request = get("/v1/transactions").accept(accept);
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+
+    private static List<TransactionResponse> decode(MockHttpServletResponse response, ObjectMapper mapper)
+            throws Exception {
+        return mapper.readValue(response.getContentAsByteArray(),
+                mapper.getTypeFactory().constructCollectionType(List.class, TransactionResponse.class));
+    }
+}
@@ -8,8 +8,13 @@ import com.eaglebank.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.time.LocalDateTime;
+import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -73,4 +78,45 @@ class UserControllerTest {
         assertEquals(expectedResponse.name(), response.getBody().name());
         verify(userService).createUser(request);
     }
+
+    @Test
+    void testGetUserById_returnsETagWithBody() {
+        // Arrange
+        UUID userId = UUID.randomUUID();
+        Authentication auth = mock(Authentication.class);
+        when(userService.getUserVersion(userId, auth)).thenReturn(Optional.of("v1"));
+        when(userService.getUserById(userId, auth)).thenReturn(expectedResponse);
+
+        // Act
+        ResponseEntity<UserResponse> response = userController.getUserById(userId, webRequest(null), auth);
+
+        // Assert
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("\"v1\"", response.getHeaders().getETag());
+        assertEquals(expectedResponse, response.getBody());
+    }
+
+    @Test
+    void testGetUserById_returnsNotModifiedWithoutLoadingUser() {
+        // Arrange
+        UUID userId = UUID.randomUUID();
+        Authentication auth = mock(Authentication.class);
+        when(userService.getUserVersion(userId, auth)).thenReturn(Optional.of("v1"));
+
+        // Act
+        ResponseEntity<UserResponse> response = userController.getUserById(userId, webRequest("\"v1\""), auth);
+
+        // Assert
+        assertEquals(304, response.getStatusCode().value());
+        assertNull(response.getBody());
+        verify(userService, never()).getUserById(any(), any());
+    }
+
+    private static ServletWebRequest webRequest(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/users");
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
 }
@@ -0,0 +1,150 @@
+package com.eaglebank.coordination;
+
+import com.eaglebank.config.CoordinationProperties;
+import com.eaglebank.repository.JobLeaseRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class JobLeasesTest {
+
+    private static final String OWNER = "node-a";
+
+    private JobLeaseRepository repository;
+    private JobLeases jobLeases;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(JobLeaseRepository.class);
+        // Renewal is driven by the tests, not the background thread
+        CoordinationProperties properties = new CoordinationProperties(true, OWNER,
+                Duration.ofHours(1), Duration.ofMinutes(59), Duration.ofMillis(10));
+        jobLeases = new JobLeases(repository, properties, mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobLeases.shutdown();
+    }
+
+    @Test
+    void testTryAcquire_grantsOneHolderAtATime() {
+        when(repository.tryAcquire(eq("archive"), eq(OWNER), anyLong())).thenReturn(1);
+        when(repository.findFencingToken("archive", OWNER)).thenReturn(7L);
+
+        Lease lease = jobLeases.tryAcquire("archive").orElseThrow();
+        assertEquals(7L, lease.fencingToken());
+        // A second thread here must not run the job alongside the first
+        assertTrue(jobLeases.tryAcquire("archive").isEmpty());
+        verify(repository, times(1)).tryAcquire(eq("archive"), eq(OWNER), anyLong());
+
+        lease.close();
+        verify(repository).release("archive", OWNER, 7L);
+        assertFalse(lease.isHeld());
+        assertTrue(jobLeases.tryAcquire("archive").isPresent());
+    }
+
+    @Test
+    void testTryAcquire_liveLeaseElsewhereIsNotTaken() {
+        when(repository.tryAcquire(eq("reconciliation"), eq(OWNER), anyLong())).thenReturn(0);
+
+        assertTrue(jobLeases.tryAcquire("reconciliation").isEmpty());
+    }
+
+    @Test
+    void testRenewAll_leaseTakenOverIsMarkedLostAndFencesWrites() {
+        when(repository.tryAcquire(eq("interest/3"), eq(OWNER), anyLong())).thenReturn(1);
+        when(repository.findFencingToken("interest/3", OWNER)).thenReturn(4L);
+        when(repository.lockFencingToken("interest/3")).thenReturn(4L);
+        Lease lease = jobLeases.tryAcquire("interest/3").orElseThrow();
+        lease.verify();
+
+        when(repository.renew(eq("interest/3"), eq(OWNER), eq(4L), anyLong())).thenReturn(0);
+        jobLeases.renewAll();
+
+        assertFalse(lease.isHeld());
+        assertThrows(LeaseLostException.class, lease::verify);
+    }
+
+    @Test
+    void testVerify_newerFencingTokenRefusesTheWrite() {
+        when(repository.tryAcquire(eq("archive"), eq(OWNER), anyLong())).thenReturn(1);
+        when(repository.findFencingToken("archive", OWNER)).thenReturn(2L);
+        Lease lease = jobLeases.tryAcquire("archive").orElseThrow();
+
+        // The lease lapsed while this instance was stalled and another took it
+        when(repository.lockFencingToken("archive")).thenReturn(3L);
+
+        assertThrows(LeaseLostException.class, lease::verify);
+        assertFalse(lease.isHeld());
+    }
+
+    @Test
+    void testExclusiveJob_runsWithTheLeaseBoundOrSkips() {
+        AtomicReference<Lease> seen = new AtomicReference<>();
+        AspectJProxyFactory factory = new AspectJProxyFactory(new NightlyJob(seen));
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new ExclusiveJobAspect(jobLeases));
+        NightlyJob job = factory.getProxy();
+
+        when(repository.tryAcquire(eq("nightly"), eq(OWNER), anyLong())).thenReturn(1, 0);
+        when(repository.findFencingToken("nightly", OWNER)).thenReturn(1L);
+
+        job.run();
+        assertThat(seen.get()).isNotNull().extracting(Lease::name).isEqualTo("nightly");
+        assertNull(Lease.current());
+
+        seen.set(null);
+        job.run();
+        assertNull(seen.get());
+    }
+
+    @Test
+    void testTryAcquire_disabledGrantsLocallyWithoutTheDatabase() {
+        JobLeases local = new JobLeases(repository, new CoordinationProperties(false, null, null, null, null),
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+
+        Optional<Lease> lease = local.tryAcquire("archive");
+
+        assertTrue(lease.isPresent());
+        lease.get().verify();
+        assertTrue(local.tryAcquire("archive").isEmpty());
+        lease.get().close();
+        verifyNoInteractions(repository);
+    }
+
+    static class NightlyJob {
+
+        private final AtomicReference<Lease> seen;
+
+        NightlyJob(AtomicReference<Lease> seen) {
+            this.seen = seen;
+        }
+
+        @ExclusiveJob("nightly")
+        public void run() {
+            seen.set(Lease.current());
+        }
+    }
+}
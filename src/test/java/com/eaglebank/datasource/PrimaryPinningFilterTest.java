@@ -0,0 +1,85 @@
+package com.eaglebank.datasource;
+
+import com.eaglebank.config.ReplicaProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrimaryPinningFilterTest {
+
+    private PrimaryPinningFilter writer;
+    private PrimaryPinningFilter reader;
+
+    @BeforeEach
+    void setUp() {
+        ReplicaProperties properties = new ReplicaProperties(true, null, null, null, Duration.ofSeconds(5), 16, "pin-secret");
+        // Two instances behind a load balancer, sharing nothing
+        writer = new PrimaryPinningFilter(new PrimaryPins(properties));
+        reader = new PrimaryPinningFilter(new PrimaryPins(properties));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("alice@example.com", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testDoFilter_pinCookieFromAWritePinsReadsOnAnotherInstance() throws Exception {
+        MockHttpServletResponse written = new MockHttpServletResponse();
+        writer.doFilter(new MockHttpServletRequest("POST", "/v1/accounts"), written, (req, res) -> { });
+
+        Cookie pin = written.getCookie(PrimaryPinningFilter.PIN_COOKIE);
+        assertThat(pin).isNotNull();
+        assertThat(pin.getMaxAge()).isEqualTo(5);
+        assertThat(pin.isHttpOnly()).isTrue();
+
+        MockHttpServletRequest read = new MockHttpServletRequest("GET", "/v1/accounts");
+        read.setCookies(pin);
+        assertThat(pinnedDuring(reader, read)).isTrue();
+        assertThat(pinnedDuring(reader, new MockHttpServletRequest("GET", "/v1/accounts"))).isFalse();
+    }
+
+    @Test
+    void testDoFilter_pinCookieOnlyPinsTheClientItWasIssuedTo() throws Exception {
+        MockHttpServletResponse written = new MockHttpServletResponse();
+        writer.doFilter(new MockHttpServletRequest("POST", "/v1/accounts"), written, (req, res) -> { });
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("mallory@example.com", null, List.of()));
+
+        MockHttpServletRequest read = new MockHttpServletRequest("GET", "/v1/accounts");
+        read.setCookies(written.getCookie(PrimaryPinningFilter.PIN_COOKIE));
+        assertThat(pinnedDuring(reader, read)).isFalse();
+    }
+
+    @Test
+    void testDoFilter_ignoresExpiredOrMalformedPinCookies() throws Exception {
+        MockHttpServletRequest expired = new MockHttpServletRequest("GET", "/v1/accounts");
+        expired.setCookies(new Cookie(PrimaryPinningFilter.PIN_COOKIE, Long.toString(System.currentTimeMillis() - 1)));
+        MockHttpServletRequest malformed = new MockHttpServletRequest("GET", "/v1/accounts");
+        malformed.setCookies(new Cookie(PrimaryPinningFilter.PIN_COOKIE, "soon"));
+
+        assertThat(pinnedDuring(reader, expired)).isFalse();
+        assertThat(pinnedDuring(reader, malformed)).isFalse();
+    }
+
+    private static boolean pinnedDuring(PrimaryPinningFilter filter, MockHttpServletRequest request) throws Exception {
+        AtomicBoolean pinned = new AtomicBoolean();
+        FilterChain chain = (req, res) -> pinned.set(PrimaryPins.isCurrentThreadPinned());
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return pinned.get();
+    }
+}
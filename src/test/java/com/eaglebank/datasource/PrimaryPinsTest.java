@@ -0,0 +1,82 @@
+package com.eaglebank.datasource;
+
+import com.eaglebank.config.ReplicaProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrimaryPinsTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicLong wallClock = new AtomicLong(1_700_000_000_000L);
+
+    @Test
+    void testIsPinned_onlyWithinWindowAfterWrite() {
+        PrimaryPins pins = new PrimaryPins(properties(16), now::get, wallClock::get);
+        assertFalse(pins.isPinned("alice@example.com"));
+
+        pins.pin("alice@example.com");
+        now.addAndGet(Duration.ofSeconds(4).toNanos());
+        assertTrue(pins.isPinned("alice@example.com"));
+        assertFalse(pins.isPinned("bob@example.com"));
+
+        now.addAndGet(Duration.ofSeconds(2).toNanos());
+        assertFalse(pins.isPinned("alice@example.com"));
+    }
+
+    @Test
+    void testPin_staysBoundedByDroppingExpiredPinsFirst() {
+        PrimaryPins pins = new PrimaryPins(properties(2), now::get, wallClock::get);
+        pins.pin("alice@example.com");
+        now.addAndGet(Duration.ofSeconds(3).toNanos());
+        pins.pin("bob@example.com");
+        now.addAndGet(Duration.ofSeconds(3).toNanos());
+
+        pins.pin("carol@example.com");
+
+        assertFalse(pins.isPinned("alice@example.com"));
+        assertTrue(pins.isPinned("bob@example.com"));
+        assertTrue(pins.isPinned("carol@example.com"));
+    }
+
+    @Test
+    void testIsPinnedBy_honoursATokenHandedOutByAnyInstance() {
+        PrimaryPins writer = new PrimaryPins(properties(16), now::get, wallClock::get);
+        PrimaryPins reader = new PrimaryPins(properties(16), now::get, wallClock::get);
+
+        String token = writer.pinToken("alice@example.com");
+        wallClock.addAndGet(Duration.ofSeconds(4).toMillis());
+        assertTrue(reader.isPinnedBy("alice@example.com", token));
+        assertFalse(reader.isPinnedBy("bob@example.com", token));
+
+        wallClock.addAndGet(Duration.ofSeconds(2).toMillis());
+        assertFalse(reader.isPinnedBy("alice@example.com", token));
+    }
+
+    @Test
+    void testIsPinnedBy_refusesTamperedOrFarFutureTokens() {
+        AtomicLong aheadClock = new AtomicLong(wallClock.get() + Duration.ofMinutes(1).toMillis());
+        PrimaryPins ahead = new PrimaryPins(properties(16), now::get, aheadClock::get);
+        PrimaryPins reader = new PrimaryPins(properties(16), now::get, wallClock::get);
+        PrimaryPins stranger = new PrimaryPins(
+                new ReplicaProperties(true, null, null, null, Duration.ofSeconds(5), 16, "another-secret"),
+                now::get, wallClock::get);
+
+        String token = reader.pinToken("alice@example.com");
+        String signature = token.substring(token.indexOf('.'));
+        long extended = wallClock.get() + Duration.ofHours(1).toMillis();
+
+        assertFalse(reader.isPinnedBy("alice@example.com", extended + signature));
+        assertFalse(reader.isPinnedBy("alice@example.com", ahead.pinToken("alice@example.com")));
+        assertFalse(stranger.isPinnedBy("alice@example.com", token));
+        assertFalse(reader.isPinnedBy("alice@example.com", Long.toString(extended)));
+    }
+
+    private static ReplicaProperties properties(int maxPinnedClients) {
+        return new ReplicaProperties(true, null, null, null, Duration.ofSeconds(5), maxPinnedClients, "pin-secret");
+    }
+}
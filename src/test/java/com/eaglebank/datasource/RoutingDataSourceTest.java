@@ -0,0 +1,98 @@
+package com.eaglebank.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RoutingDataSourceTest {
+
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection firstConnection = mock(Connection.class);
+    private final Connection secondConnection = mock(Connection.class);
+
+    private SimpleMeterRegistry meterRegistry;
+    private RoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        meterRegistry = new SimpleMeterRegistry();
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", dataSource(firstConnection));
+        replicas.put("replica-2", dataSource(secondConnection));
+        routing = new RoutingDataSource(dataSource(primaryConnection), replicas, 2_000, meterRegistry);
+        routing.updateLag("replica-1", 0);
+        routing.updateLag("replica-2", 150);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        PrimaryPins.release();
+    }
+
+    @Test
+    void testGetConnection_readWriteWorkStaysOnPrimary() throws SQLException {
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+        assertThat(routed("primary", "read_write")).isEqualTo(1);
+    }
+
+    @Test
+    void testGetConnection_readOnlyWorkTakesReplicasInTurn() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(routing.getConnection()).isSameAs(firstConnection);
+        assertThat(routing.getConnection()).isSameAs(secondConnection);
+        assertThat(routing.getConnection()).isSameAs(firstConnection);
+        assertThat(routed("replica-1", "read_only")).isEqualTo(2);
+        assertThat(meterRegistry.get("datasource.replica.lag").tag("replica", "replica-2").gauge().value())
+                .isEqualTo(150);
+    }
+
+    @Test
+    void testGetConnection_skipsReplicasTooFarBehind() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        routing.updateLag("replica-1", 5_000);
+
+        assertThat(routing.getConnection()).isSameAs(secondConnection);
+        assertThat(routing.getConnection()).isSameAs(secondConnection);
+
+        // Unmeasurable counts as too far behind
+        routing.updateLag("replica-2", -1);
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+        assertThat(routed("primary", "replicas_lagging")).isEqualTo(1);
+    }
+
+    @Test
+    void testGetConnection_pinnedClientReadsFromPrimary() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        PrimaryPins.pinCurrentThread();
+
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+        assertThat(routed("primary", "pinned")).isEqualTo(1);
+
+        PrimaryPins.release();
+        assertThat(routing.getConnection()).isSameAs(firstConnection);
+    }
+
+    private double routed(String target, String reason) {
+        return meterRegistry.get("datasource.routing").tag("target", target).tag("reason", reason).counter().count();
+    }
+
+    private static DataSource dataSource(Connection connection) throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        return dataSource;
+    }
+}
@@ -0,0 +1,79 @@
+package com.eaglebank.datasource;
+
+import com.eaglebank.sharding.Shards;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ShardRoutingDataSourceTest {
+
+    private final Connection homeConnection = mock(Connection.class);
+    private final Connection firstConnection = mock(Connection.class);
+    private final Connection secondConnection = mock(Connection.class);
+
+    private SimpleMeterRegistry meterRegistry;
+    private ShardRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        meterRegistry = new SimpleMeterRegistry();
+        routing = new ShardRoutingDataSource(
+                List.of(dataSource(homeConnection), dataSource(firstConnection), dataSource(secondConnection)),
+                List.of("shard-0", "shard-1", "shard-2"), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        Shards.bind(null);
+    }
+
+    @Test
+    void testGetConnection_unboundWorkGoesToShardZero() throws SQLException {
+        assertThat(routing.getConnection()).isSameAs(homeConnection);
+        assertThat(routed("shard-0", "unbound")).isEqualTo(1);
+    }
+
+    @Test
+    void testGetConnection_followsTheBoundShard() throws SQLException {
+        Shards.bind(2);
+        assertThat(routing.getConnection()).isSameAs(secondConnection);
+
+        Integer previous = Shards.bind(1);
+        assertThat(routing.getConnection()).isSameAs(firstConnection);
+
+        Shards.bind(previous);
+        assertThat(routing.getConnection()).isSameAs(secondConnection);
+        assertThat(routed("shard-2", "shard")).isEqualTo(2);
+        assertThat(routed("shard-1", "shard")).isEqualTo(1);
+    }
+
+    @Test
+    void testGetConnection_unknownShardFailsRatherThanFallingBack() {
+        Shards.bind(3);
+
+        assertThatThrownBy(routing::getConnection)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("shard 3");
+    }
+
+    private double routed(String target, String reason) {
+        return meterRegistry.get("datasource.routing").tag("target", target).tag("reason", reason).counter().count();
+    }
+
+    private static DataSource dataSource(Connection connection) throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        return dataSource;
+    }
+}
@@ -0,0 +1,92 @@
+package com.eaglebank.diagnostics;
+
+import com.eaglebank.dto.CreateTransactionRequest;
+import com.eaglebank.service.BankAccountService;
+import com.eaglebank.service.TransactionService;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FlightRecorderAspectTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testRecord_emitsOneEventPerMovementWithOutcomeAndFlushTime() throws Exception {
+        UUID account = UUID.randomUUID();
+        BankAccountService accounts = mock(BankAccountService.class);
+        when(accounts.deposit(eq(account), any(), any())).thenAnswer(invocation -> {
+            // Stands in for Hibernate flushing the balance update
+            DatabaseWaitListener listener = new DatabaseWaitListener();
+            listener.flushStart();
+            Thread.sleep(5);
+            listener.flushEnd(1, 0);
+            return null;
+        });
+        when(accounts.withdraw(eq(account), any(), any()))
+                .thenThrow(new IllegalArgumentException("Insufficient funds"));
+        TransactionService transactions = mock(TransactionService.class);
+
+        CreateTransactionRequest transfer = new CreateTransactionRequest(
+                account.toString(), null, new BigDecimal("12.50"), null, "10-10-10", "01234567");
+
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(MovementFlightEvent.class);
+            recording.start();
+
+            proxy(accounts, BankAccountService.class).deposit(account, new BigDecimal("100.00"), null);
+            assertThrows(IllegalArgumentException.class,
+                    () -> proxy(accounts, BankAccountService.class).withdraw(account, new BigDecimal("5000"), null));
+            proxy(transactions, TransactionService.class).createTransaction(transfer, null);
+
+            recording.stop();
+            Path file = dir.resolve("movements.jfr");
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file).stream()
+                    .filter(e -> e.getEventType().getName().equals("eaglebank.MoneyMovement"))
+                    .toList();
+        }
+
+        assertThat(events).extracting(e -> e.getString("operation"))
+                .containsExactly(FlightRecorderAspect.DEPOSIT, FlightRecorderAspect.WITHDRAWAL, FlightRecorderAspect.TRANSFER);
+
+        RecordedEvent deposit = events.get(0);
+        assertThat(deposit.getString("toAccount")).isEqualTo(account.toString());
+        assertThat(deposit.getString("amount")).isEqualTo("100.00");
+        assertThat(deposit.getString("outcome")).isEqualTo(AuthFlightEvent.OK);
+        assertThat(deposit.getDuration("flushTime").toMillis()).isGreaterThanOrEqualTo(5);
+
+        RecordedEvent withdrawal = events.get(1);
+        assertThat(withdrawal.getString("fromAccount")).isEqualTo(account.toString());
+        assertThat(withdrawal.getString("outcome")).isEqualTo("IllegalArgumentException");
+        assertThat(withdrawal.getDuration("flushTime").toNanos()).isZero();
+
+        RecordedEvent sent = events.get(2);
+        assertThat(sent.getString("toAccount")).isEqualTo("10-10-10/01234567");
+        assertThat(sent.getString("amount")).isEqualTo("12.50");
+    }
+
+    private static <T> T proxy(T target, Class<T> type) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addInterface(type);
+        factory.addAspect(FlightRecorderAspect.class);
+        return factory.getProxy();
+    }
+}
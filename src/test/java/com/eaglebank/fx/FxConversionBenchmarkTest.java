@@ -0,0 +1,107 @@
+package com.eaglebank.fx;
+
+import com.eaglebank.config.FxProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cost of one currency conversion with every core converting while the snapshot is swapped
+ * every millisecond. Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class FxConversionBenchmarkTest {
+
+    private static final String[] CURRENCIES = {"GBP", "EUR", "USD", "JPY", "CHF", "CAD", "AUD", "SEK"};
+    private static final long WARMUP_NANOS = 2_000_000_000L;
+    private static final long MEASURE_NANOS = 3_000_000_000L;
+
+    @Test
+    void benchmarkConvert() throws Exception {
+        FxRates rates = new FxRates(new FxProperties("GBP", rates(0), null, null), new SimpleMeterRegistry());
+        BigDecimal[] amounts = new BigDecimal[1_024];
+        for (int i = 0; i < amounts.length; i++) {
+            amounts[i] = BigDecimal.valueOf(i * 7_919L + 1, 2);
+        }
+
+        AtomicBoolean swapping = new AtomicBoolean(true);
+        Thread swapper = new Thread(() -> {
+            int tick = 0;
+            while (swapping.get()) {
+                rates.swap(rates(++tick));
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        swapper.setDaemon(true);
+        swapper.start();
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        run(rates, amounts, threads, WARMUP_NANOS);
+        double nanosPerCall = run(rates, amounts, threads, MEASURE_NANOS);
+        swapping.set(false);
+        swapper.join();
+
+        System.out.printf("%d threads, snapshot %d: %.0f ns per conversion%n",
+                threads, rates.current().getVersion(), nanosPerCall);
+        assertThat(nanosPerCall).isLessThan(2_000);
+    }
+
+    private static Map<String, BigDecimal> rates(int tick) {
+        BigDecimal drift = BigDecimal.valueOf(tick % 100, 4);
+        return Map.of(
+                "EUR", new BigDecimal("1.17").add(drift),
+                "USD", new BigDecimal("1.27").add(drift),
+                "JPY", new BigDecimal("191.37").add(drift),
+                "CHF", new BigDecimal("1.12").add(drift),
+                "CAD", new BigDecimal("1.73").add(drift),
+                "AUD", new BigDecimal("1.93").add(drift),
+                "SEK", new BigDecimal("13.41").add(drift));
+    }
+
+    private static double run(FxRates rates, BigDecimal[] amounts, int threads, long duration) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<double[]>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+            results.add(pool.submit(() -> {
+                long calls = 0;
+                int next = seed * 31;
+                long start = System.nanoTime();
+                long end = start + duration;
+                while (System.nanoTime() < end) {
+                    for (int i = 0; i < 1_000; i++) {
+                        next++;
+                        rates.convert(amounts[next & (amounts.length - 1)],
+                                CURRENCIES[next & 7], CURRENCIES[(next >>> 3) & 7]);
+                    }
+                    calls += 1_000;
+                }
+                return new double[]{calls, System.nanoTime() - start};
+            }));
+        }
+        double total = 0;
+        for (Future<double[]> result : results) {
+            double[] r = result.get();
+            total += r[1] / r[0];
+        }
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+        return total / threads;
+    }
+}
@@ -0,0 +1,134 @@
+package com.eaglebank.fx;
+
+import com.eaglebank.config.FxProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FxRatesTest {
+
+    private static final Map<String, BigDecimal> MORNING = Map.of(
+            "EUR", new BigDecimal("1.17"), "USD", new BigDecimal("1.27"));
+    private static final Map<String, BigDecimal> AFTERNOON = Map.of(
+            "EUR", new BigDecimal("1.20"), "USD", new BigDecimal("1.30"));
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testConvert_roundsToTheTargetCurrencysMinorUnits() {
+        FxRates rates = new FxRates(new FxProperties("GBP", Map.of("JPY", new BigDecimal("191.37")), null, null),
+                new SimpleMeterRegistry());
+
+        Conversion toYen = rates.convert(new BigDecimal("10.01"), "GBP", "JPY");
+        Conversion toPounds = rates.convert(new BigDecimal("1916"), "JPY", "GBP");
+
+        assertThat(toYen.amount()).isEqualTo(new BigDecimal("1916"));
+        assertThat(toYen.rate()).isEqualByComparingTo("191.37");
+        assertThat(toPounds.amount()).isEqualTo(new BigDecimal("10.01"));
+        assertThrows(IllegalArgumentException.class, () -> rates.convert(BigDecimal.ONE, "GBP", "CHF"));
+    }
+
+    @Test
+    void testSwap_concurrentConversionsNeverMixTwoSnapshots() throws Exception {
+        FxRates rates = new FxRates(new FxProperties("GBP", MORNING, null, null), new SimpleMeterRegistry());
+        // A torn read would pair the euro rate of one snapshot with the dollar rate of the other
+        Set<BigDecimal> allowed = Set.of(cross(MORNING), cross(AFTERNOON));
+        Set<BigDecimal> seen = ConcurrentHashMap.newKeySet();
+
+        int converters = Math.max(2, Runtime.getRuntime().availableProcessors() - 1);
+        ExecutorService pool = Executors.newFixedThreadPool(converters);
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch started = new CountDownLatch(converters);
+        List<Future<Long>> results = new ArrayList<>();
+        for (int t = 0; t < converters; t++) {
+            results.add(pool.submit(() -> {
+                started.countDown();
+                long conversions = 0;
+                while (running.get()) {
+                    Conversion conversion = rates.convert(new BigDecimal("100.00"), "EUR", "USD");
+                    assertThat(allowed).contains(conversion.rate());
+                    assertThat(conversion.amount()).isEqualTo(new BigDecimal("100.00").multiply(conversion.rate())
+                            .setScale(2, RoundingMode.HALF_EVEN));
+                    seen.add(conversion.rate());
+                    conversions++;
+                }
+                return conversions;
+            }));
+        }
+
+        started.await();
+        long firstVersion = rates.current().getVersion();
+        for (int i = 0; i < 2_000; i++) {
+            rates.swap(i % 2 == 0 ? AFTERNOON : MORNING);
+            Thread.onSpinWait();
+        }
+        running.set(false);
+
+        long conversions = 0;
+        for (Future<Long> result : results) {
+            conversions += result.get(10, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertThat(conversions).isPositive();
+        assertThat(seen).isNotEmpty().isSubsetOf(allowed);
+        assertEquals(firstVersion + 2_000, rates.current().getVersion());
+        assertThat(rates.current().rate("GBP", "EUR")).isEqualByComparingTo("1.17");
+    }
+
+    @Test
+    void testReload_swapsOnChangeAndKeepsLastGoodSnapshotOnBadFile() throws IOException {
+        Path file = dir.resolve("rates.csv");
+        Files.writeString(file, "# per 1 GBP\nEUR,1.17\nUSD,1.27\n");
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        FxRates rates = new FxRates(new FxProperties("GBP", Map.of(), file.toString(), null), meterRegistry);
+
+        rates.load();
+        FxRateSnapshot loaded = rates.current();
+        assertThat(loaded.currencies()).containsExactlyInAnyOrder("GBP", "EUR", "USD");
+
+        // Unchanged file: no new snapshot
+        rates.reload();
+        assertThat(rates.current()).isSameAs(loaded);
+
+        Files.writeString(file, "EUR,1.20\nUSD,not-a-rate\n");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(5)));
+        rates.reload();
+        assertThat(rates.current()).isSameAs(loaded);
+        assertEquals(1.0, meterRegistry.counter("fx.reload.failed").count());
+
+        Files.writeString(file, "EUR,1.20\nUSD,1.30\n");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(10)));
+        rates.reload();
+        assertThat(rates.current().getVersion()).isGreaterThan(loaded.getVersion());
+        assertThat(rates.convert(new BigDecimal("10.00"), "GBP", "EUR").amount()).isEqualTo(new BigDecimal("12.00"));
+    }
+
+    private static BigDecimal cross(Map<String, BigDecimal> rates) {
+        return rates.get("USD").divide(rates.get("EUR"), FxRateSnapshot.RATE_SCALE, RoundingMode.HALF_EVEN);
+    }
+}
@@ -0,0 +1,180 @@
+package com.eaglebank.importer;
+
+import com.eaglebank.config.FxProperties;
+import com.eaglebank.config.ImportProperties;
+import com.eaglebank.dto.ImportError;
+import com.eaglebank.dto.ImportReport;
+import com.eaglebank.entity.BankAccount;
+import com.eaglebank.entity.Transaction;
+import com.eaglebank.entity.TransactionType;
+import com.eaglebank.entity.User;
+import com.eaglebank.fx.FxRates;
+import com.eaglebank.journal.Journal;
+import com.eaglebank.repository.BankAccountRepository;
+import com.eaglebank.repository.TransactionRepository;
+import com.eaglebank.repository.UserRepository;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BulkImporterTest {
+
+    private static final String HEADER = "name,email,phoneNumber,password,line1,town,county,postcode,"
+            + "accountType,bankName,sortCode,accountNumber,balance\n";
+
+    private UserRepository userRepository;
+    private BulkImporter importer;
+
+    private final List<User> savedUsers = new ArrayList<>();
+    private final List<BankAccount> savedAccounts = new ArrayList<>();
+    private final List<Transaction> savedTransactions = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        BankAccountRepository bankAccountRepository = mock(BankAccountRepository.class);
+        TransactionRepository transactionRepository = mock(TransactionRepository.class);
+        PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+        when(passwordEncoder.encode(any())).thenAnswer(inv -> "hashed:" + inv.getArgument(0));
+
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(List.of());
+        when(userRepository.saveAll(anyIterable())).thenAnswer(inv -> {
+            List<User> users = new ArrayList<>();
+            ((Iterable<User>) inv.getArgument(0)).forEach(users::add);
+            if (users.stream().anyMatch(u -> u.getEmail().startsWith("racing"))) {
+                throw new DataIntegrityViolationException("duplicate key value violates unique constraint");
+            }
+            savedUsers.addAll(users);
+            return users;
+        });
+        when(bankAccountRepository.saveAll(anyIterable())).thenAnswer(inv -> {
+            ((Iterable<BankAccount>) inv.getArgument(0)).forEach(savedAccounts::add);
+            return List.of();
+        });
+        when(transactionRepository.saveAll(anyIterable())).thenAnswer(inv -> {
+            ((Iterable<Transaction>) inv.getArgument(0)).forEach(savedTransactions::add);
+            return List.of();
+        });
+
+        importer = new BulkImporter(userRepository, bankAccountRepository, transactionRepository, passwordEncoder,
+                Validation.buildDefaultValidatorFactory().getValidator(), JsonMapper.builder().build(),
+                new ImportProperties(false, null, 3, 2, 10),
+                new FxRates(new FxProperties(null, null, null, null), new SimpleMeterRegistry()),
+                mock(Journal.class), mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        importer.shutdown();
+    }
+
+    @Test
+    void testImportFrom_createsUsersAccountsAndOpeningMovements() throws IOException {
+        String csv = HEADER
+                + "Anna,anna@example.com,+447123456789,secret1,1 Lane,Leeds,West Yorkshire,LS1 1AA,personal,Eagle,10-20-30,11111111,100.00\n"
+                + "Bob,bob@example.com,+447123456780,secret2,2 Lane,York,North Yorkshire,YO1 1AA,personal,Eagle,10-20-30,22222222,0\n"
+                + "Cara,cara@example.com,+447123456781,secret3,3 Lane,Hull,East Yorkshire,HU1 1AA,,,,,\n"
+                + "Dan,dan@example.com,+447123456782,secret4,4 Lane,Bath,Somerset,BA1 1AA,,,,,\n";
+
+        ImportReport report = importer.importFrom(stream(csv), ImportFormat.CSV);
+
+        assertEquals(4, report.rowsRead());
+        assertEquals(4, report.usersCreated());
+        assertEquals(2, report.accountsCreated());
+        assertEquals(0, report.rowsFailed());
+        assertThat(savedUsers).extracting(User::getPassword)
+                .containsExactly("hashed:secret1", "hashed:secret2", "hashed:secret3", "hashed:secret4");
+        assertThat(savedAccounts).extracting(a -> a.getUser().getEmail())
+                .containsExactly("anna@example.com", "bob@example.com");
+        // Only the non-zero balance needs an opening movement
+        assertThat(savedTransactions).singleElement().satisfies(t -> {
+            assertEquals(TransactionType.OPENING, t.getType());
+            assertEquals("anna@example.com", t.getToAccount().getUser().getEmail());
+            assertThat(t.getAmount()).isEqualByComparingTo("100.00");
+        });
+        // Emails are checked once per batch, not once per row
+        verify(userRepository, times(2)).findExistingEmails(anyCollection());
+    }
+
+    @Test
+    void testImportFrom_reportsBadRowsAndImportsTheRest() throws IOException {
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(List.of("taken@example.com"));
+        String csv = HEADER
+                + "Anna,not-an-email,+447123456789,pw,1 Lane,Leeds,West Yorkshire,LS1 1AA,,,,,\n"
+                + "Bob,bob@example.com,+447123456780,pw,2 Lane,York,North Yorkshire,YO1 1AA,,,,,\n"
+                + "Bob Again,bob@example.com,+447123456780,pw,2 Lane,York,North Yorkshire,YO1 1AA,,,,,\n"
+                + "Tia,taken@example.com,+447123456781,pw,3 Lane,Hull,East Yorkshire,HU1 1AA,,,,,\n"
+                + "Eve,eve@example.com,+447123456782,pw,4 Lane,Bath,Somerset,BA1 1AA,personal,Eagle,10-20-30,1,lots\n";
+
+        ImportReport report = importer.importFrom(stream(csv), ImportFormat.CSV);
+
+        assertEquals(5, report.rowsRead());
+        assertEquals(1, report.usersCreated());
+        assertEquals(4, report.rowsFailed());
+        assertThat(report.errors()).extracting(ImportError::line).containsExactlyInAnyOrder(2L, 4L, 5L, 6L);
+        assertThat(report.errors()).extracting(ImportError::message).contains(
+                "user.email: Must be a valid email",
+                "Email appears earlier in the same batch",
+                "Email already registered");
+        assertThat(savedUsers).extracting(User::getEmail).containsExactly("bob@example.com");
+    }
+
+    @Test
+    void testImportFrom_retriesRowByRowWhenBatchInsertFails() throws IOException {
+        String ndjson = record("ann@example.com") + "\n" + record("racing@example.com") + "\n" + record("cy@example.com") + "\n";
+
+        ImportReport report = importer.importFrom(stream(ndjson), ImportFormat.NDJSON);
+
+        assertEquals(2, report.usersCreated());
+        assertEquals(1, report.rowsFailed());
+        assertThat(report.errors()).singleElement().satisfies(e -> {
+            assertEquals(2, e.line());
+            assertEquals("racing@example.com", e.email());
+            assertThat(e.message()).startsWith("Could not be saved");
+        });
+        assertThat(savedUsers).extracting(User::getEmail).containsExactly("ann@example.com", "cy@example.com");
+    }
+
+    @Test
+    void testImportFrom_reportsMalformedJsonLine() throws IOException {
+        String ndjson = record("ann@example.com") + "\n{\"user\": \n";
+
+        ImportReport report = importer.importFrom(stream(ndjson), ImportFormat.NDJSON);
+
+        assertEquals(1, report.usersCreated());
+        assertThat(report.errors()).singleElement().satisfies(e -> {
+            assertEquals(2, e.line());
+            assertThat(e.message()).startsWith("Malformed JSON");
+        });
+    }
+
+    private static String record(String email) {
+        return """
+                {"user": {"name": "Test", "phoneNumber": "+447123456789", "email": "%s", "password": "pw", \
+                "address": {"line1": "1 Lane", "town": "Leeds", "county": "West Yorkshire", "postcode": "LS1 1AA"}}, \
+                "accounts": [{"accountType": "personal", "bankName": "Eagle", "sortCode": "10-20-30", \
+                "accountNumber": "12345678", "balance": 5}]}""".formatted(email);
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
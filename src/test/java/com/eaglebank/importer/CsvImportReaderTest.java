@@ -0,0 +1,74 @@
+package com.eaglebank.importer;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvImportReaderTest {
+
+    private static final String HEADER = "email,name,phoneNumber,password,line1,line2,town,county,postcode,"
+            + "accountType,bankName,sortCode,accountNumber,balance\n";
+
+    @Test
+    void testNext_handlesQuotedCommasQuotesAndLineBreaks() throws IOException {
+        String csv = HEADER
+                + "a@example.com,\"Smith, Anna\",+447123456789,pw,\"1 \"\"The\"\" Lane\",\"Flat 2\nRear\",Leeds,West Yorkshire,LS1 1AA,,,,,\n"
+                + "\n"
+                + "b@example.com,Bob,+447123456780,pw,2 High St,,York,North Yorkshire,YO1 1AA,personal,Eagle,10-20-30,12345678,250.00\n";
+
+        List<ImportRow> rows = readAll(csv);
+
+        assertEquals(2, rows.size());
+        ImportRecord anna = rows.get(0).record();
+        assertEquals(2, rows.get(0).line());
+        assertEquals("Smith, Anna", anna.user().name());
+        assertEquals("1 \"The\" Lane", anna.user().address().line1());
+        assertEquals("Flat 2\nRear", anna.user().address().line2());
+        assertThat(anna.accounts()).isEmpty();
+
+        ImportRecord bob = rows.get(1).record();
+        assertEquals(5, rows.get(1).line());
+        assertThat(bob.accounts()).singleElement()
+                .satisfies(a -> assertThat(a.balance()).isEqualByComparingTo("250.00"));
+    }
+
+    @Test
+    void testNext_reportsBadBalanceAsRowError() throws IOException {
+        String csv = HEADER
+                + "a@example.com,Anna,+447123456789,pw,1 Lane,,Leeds,West Yorkshire,LS1 1AA,personal,Eagle,10-20-30,1,lots\n";
+
+        ImportRow row = readAll(csv).get(0);
+
+        assertNull(row.record());
+        assertEquals("balance: 'lots' is not a number", row.error());
+    }
+
+    @Test
+    void testOpen_rejectsHeaderWithoutRequiredColumns() {
+        String csv = "email,name\na@example.com,Anna\n";
+
+        assertThrows(IllegalArgumentException.class, () -> readAll(csv));
+    }
+
+    private static List<ImportRow> readAll(String csv) throws IOException {
+        List<ImportRow> rows = new ArrayList<>();
+        try (ImportReader reader = ImportReader.open(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+                ImportFormat.CSV, JsonMapper.builder().build())) {
+            ImportRow row;
+            while ((row = reader.next()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}
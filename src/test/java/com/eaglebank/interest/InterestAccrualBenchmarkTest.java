@@ -0,0 +1,87 @@
+package com.eaglebank.interest;
+
+import com.eaglebank.entity.InterestRun;
+import com.eaglebank.entity.InterestRunStatus;
+import com.eaglebank.entity.InterestRunType;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Accounts per second of one night's accrual and one month-end posting, run by the real job
+ * against a real database seeded with {@code eaglebank.benchmark.accounts} savings accounts
+ * (default one million). Use a scratch database; the seeded accounts are left behind:
+ *
+ * <pre>
+ * mvn test -Pbenchmark -Dtest=InterestAccrualBenchmarkTest -Deaglebank.benchmark.url=jdbc:postgresql://localhost:5432/bench
+ * </pre>
+ *
+ * {@code eaglebank.benchmark.username} and {@code eaglebank.benchmark.password} default to
+ * {@code postgres}. The figures reported are those of the {@code interest.throughput} gauge.
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "eaglebank.benchmark.url", matches = ".+")
+@SpringBootTest(properties = {
+        "spring.datasource.url=${eaglebank.benchmark.url}",
+        "spring.datasource.username=${eaglebank.benchmark.username:postgres}",
+        "spring.datasource.password=${eaglebank.benchmark.password:postgres}",
+        "eaglebank.interest.enabled=true",
+        "eaglebank.interest.cron=-",
+        "eaglebank.interest.annual-rates.savings=0.0425"
+})
+class InterestAccrualBenchmarkTest {
+
+    @Autowired
+    private InterestAccrualJob job;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void benchmarkAccrualAndPosting() {
+        int accounts = Integer.getInteger("eaglebank.benchmark.accounts", 1_000_000);
+        seed(accounts);
+        // A month end no earlier run has used, so the job does the whole run again
+        LocalDate earliest = jdbcTemplate.queryForObject("select min(business_date) from interest_runs", LocalDate.class);
+        LocalDate date = (earliest == null ? YearMonth.now() : YearMonth.from(earliest)).minusMonths(1).atEndOfMonth();
+
+        for (InterestRunType type : InterestRunType.values()) {
+            InterestRun run = job.run(type, date);
+            double throughput = meterRegistry.get("interest.throughput").gauge().value();
+            System.out.printf("%s for %s: %d accounts over %d ranges, %.0f accounts/s%n",
+                    type, date, run.getAccountsProcessed(), run.getRangeCount(), throughput);
+            assertThat(run.getStatus()).isEqualTo(InterestRunStatus.COMPLETED);
+            assertThat(run.getAccountsProcessed()).isGreaterThanOrEqualTo(accounts);
+        }
+    }
+
+    private void seed(int accounts) {
+        UUID user = UUID.randomUUID();
+        String sortCode = "bench-" + Long.toString(System.currentTimeMillis(), 36);
+        jdbcTemplate.update("""
+                insert into users (id, name, email, password, created_timestamp, updated_timestamp)
+                values (?, 'Interest Benchmark', ?, 'n/a', now(), now())
+                """, user, user + "@benchmark.invalid");
+        // Balances and a month's accrual large enough that every account has whole pence to post
+        jdbcTemplate.update("""
+                insert into bank_account (id, user_id, bank_name, account_type, sort_code, account_number,
+                                          currency, balance, accrued_interest, created_timestamp, updated_timestamp)
+                select gen_random_uuid(), ?, 'Eagle Bank', 'Savings', ?, lpad(g::text, 8, '0'),
+                       'GBP', 1000 + g % 9000, 1, now(), now()
+                from generate_series(1, ?) g
+                """, user, sortCode, accounts);
+    }
+}
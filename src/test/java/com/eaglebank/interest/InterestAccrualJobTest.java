@@ -0,0 +1,188 @@
+package com.eaglebank.interest;
+
+import com.eaglebank.config.CoordinationProperties;
+import com.eaglebank.config.InterestProperties;
+import com.eaglebank.coordination.JobLeases;
+import com.eaglebank.entity.InterestCheckpoint;
+import com.eaglebank.entity.InterestRun;
+import com.eaglebank.entity.InterestRunStatus;
+import com.eaglebank.entity.InterestRunType;
+import com.eaglebank.repository.BankAccountRepository;
+import com.eaglebank.repository.InterestCheckpointRepository;
+import com.eaglebank.repository.InterestRunRepository;
+import com.eaglebank.repository.JobLeaseRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class InterestAccrualJobTest {
+
+    private BankAccountRepository bankAccountRepository;
+    private InterestRunRepository runRepository;
+    private InterestCheckpointRepository checkpointRepository;
+    private JobLeases jobLeases;
+    private InterestProperties properties;
+    private InterestAccrualJob job;
+
+    private final Map<String, InterestRun> runs = new HashMap<>();
+    private final List<InterestCheckpoint> checkpoints = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        bankAccountRepository = mock(BankAccountRepository.class);
+        runRepository = mock(InterestRunRepository.class);
+        checkpointRepository = mock(InterestCheckpointRepository.class);
+
+        when(runRepository.findByTypeAndBusinessDate(any(), any())).thenAnswer(inv ->
+                Optional.ofNullable(runs.get(key(inv.getArgument(0), inv.getArgument(1)))));
+        when(runRepository.saveAndFlush(any())).thenAnswer(inv -> store(inv.getArgument(0)));
+        when(runRepository.save(any())).thenAnswer(inv -> store(inv.getArgument(0)));
+        when(checkpointRepository.saveAndFlush(any())).thenAnswer(inv -> {
+            synchronized (checkpoints) {
+                checkpoints.add(inv.getArgument(0));
+            }
+            return inv.getArgument(0);
+        });
+        when(bankAccountRepository.accrueInterest(any(), any(), any(), any())).thenReturn(10);
+        when(bankAccountRepository.postInterest(any(), any(), any())).thenReturn(7);
+
+        // Single instance: every lease is granted locally
+        jobLeases = new JobLeases(mock(JobLeaseRepository.class), new CoordinationProperties(false, "test", null, null, null),
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+        properties = new InterestProperties(true,
+                Map.of("Savings", new BigDecimal("0.0365"), "ISA", new BigDecimal("0.073")),
+                365, 3, 8, Duration.ofHours(1));
+        job = new InterestAccrualJob(bankAccountRepository, runRepository, checkpointRepository,
+                jobLeases, properties, mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testRun_accruesEveryRangeForEachInterestBearingType() {
+        InterestRun run = job.run(InterestRunType.ACCRUAL, LocalDate.of(2024, 3, 5));
+
+        assertEquals(InterestRunStatus.COMPLETED, run.getStatus());
+        verify(bankAccountRepository, times(8)).accrueInterest(any(), any(),
+                eq("savings"), argThat(rate -> rate.compareTo(new BigDecimal("0.0001")) == 0));
+        verify(bankAccountRepository, times(8)).accrueInterest(any(), any(),
+                eq("isa"), argThat(rate -> rate.compareTo(new BigDecimal("0.0002")) == 0));
+        verify(bankAccountRepository, never()).postInterest(any(), any(), any());
+        assertThat(checkpoints).extracting(InterestCheckpoint::getRangeIndex)
+                .containsExactlyInAnyOrder(0, 1, 2, 3, 4, 5, 6, 7);
+        assertThat(checkpoints).allSatisfy(c -> assertEquals(20, c.getAccounts()));
+        assertEquals(160, job.progress().accounts());
+    }
+
+    @Test
+    void testRun_resumesFromCheckpointsWithoutReapplyingRanges() {
+        InterestRun failed = store(InterestRun.builder()
+                .type(InterestRunType.POSTING)
+                .businessDate(LocalDate.of(2024, 2, 29))
+                .status(InterestRunStatus.FAILED)
+                .rangeCount(4)
+                .startedTimestamp(LocalDateTime.now())
+                .build());
+        when(checkpointRepository.findRangeIndexesByRunId(failed.getId())).thenReturn(List.of(0, 2));
+
+        InterestRun run = job.run(InterestRunType.POSTING, LocalDate.of(2024, 2, 29));
+
+        assertEquals(InterestRunStatus.COMPLETED, run.getStatus());
+        verify(bankAccountRepository, times(2)).postInterest(any(), any(), any());
+        assertThat(checkpoints).extracting(InterestCheckpoint::getRangeIndex).containsExactlyInAnyOrder(1, 3);
+        assertEquals(1.0, job.progress().fractionComplete());
+    }
+
+    @Test
+    void testRun_rangeFailureLeavesRunResumable() {
+        AtomicInteger calls = new AtomicInteger();
+        when(bankAccountRepository.postInterest(any(), any(), any())).thenAnswer(inv -> {
+            if (calls.incrementAndGet() == 3) {
+                throw new QueryTimeoutException("statement timeout");
+            }
+            return 7;
+        });
+
+        InterestRun run = job.run(InterestRunType.POSTING, LocalDate.of(2024, 1, 31));
+
+        assertEquals(InterestRunStatus.FAILED, run.getStatus());
+        assertThat(run.getFinishedTimestamp()).isNull();
+        assertEquals(7, job.progress().completedRanges());
+    }
+
+    @Test
+    void testApplyRange_rangeCheckpointedByAnotherWorkerIsSkipped() {
+        when(checkpointRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("uk_interest_checkpoint"));
+
+        InterestRun run = job.run(InterestRunType.ACCRUAL, LocalDate.of(2024, 3, 5));
+
+        assertEquals(InterestRunStatus.COMPLETED, run.getStatus());
+        verify(bankAccountRepository, never()).accrueInterest(any(), any(), any(), any());
+    }
+
+    @Test
+    void testRun_waitsForRangesLeasedByAnotherInstance() {
+        JobLeases shared = mock(JobLeases.class);
+        when(shared.startOffset(anyInt())).thenReturn(5);
+        when(shared.retryInterval()).thenReturn(Duration.ofMillis(10));
+        // Ranges 2 and 6 are being applied by another instance, which checkpoints them
+        when(shared.tryAcquire(anyString())).thenAnswer(inv -> {
+            String name = inv.getArgument(0);
+            return name.equals("interest/2") || name.equals("interest/6") ? Optional.empty() : jobLeases.tryAcquire(name);
+        });
+        when(checkpointRepository.findRangeIndexesByRunId(any())).thenReturn(List.of(), List.of(2, 6));
+        job = new InterestAccrualJob(bankAccountRepository, runRepository, checkpointRepository,
+                shared, properties, mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+
+        InterestRun run = job.run(InterestRunType.POSTING, LocalDate.of(2024, 3, 31));
+
+        assertEquals(InterestRunStatus.COMPLETED, run.getStatus());
+        assertThat(checkpoints).extracting(InterestCheckpoint::getRangeIndex).containsExactlyInAnyOrder(0, 1, 3, 4, 5, 7);
+        assertEquals(1.0, job.progress().fractionComplete());
+    }
+
+    @Test
+    void testCatchUp_accruesMissedDaysAndPostsAtMonthEnd() {
+        when(runRepository.findLatestBusinessDate(InterestRunType.ACCRUAL, InterestRunStatus.COMPLETED))
+                .thenReturn(LocalDate.of(2024, 1, 29));
+
+        job.catchUp(LocalDate.of(2024, 2, 1));
+
+        assertThat(runs.values()).extracting(r -> key(r.getType(), r.getBusinessDate())).containsExactlyInAnyOrder(
+                key(InterestRunType.ACCRUAL, LocalDate.of(2024, 1, 30)),
+                key(InterestRunType.ACCRUAL, LocalDate.of(2024, 1, 31)),
+                key(InterestRunType.POSTING, LocalDate.of(2024, 1, 31)),
+                key(InterestRunType.ACCRUAL, LocalDate.of(2024, 2, 1)));
+        assertThat(runs.values()).allSatisfy(r -> assertEquals(InterestRunStatus.COMPLETED, r.getStatus()));
+    }
+
+    private InterestRun store(InterestRun run) {
+        if (run.getId() == null) {
+            run.setId(UUID.randomUUID());
+        }
+        runs.put(key(run.getType(), run.getBusinessDate()), run);
+        return run;
+    }
+
+    private static String key(InterestRunType type, LocalDate date) {
+        return type + "@" + date;
+    }
+}
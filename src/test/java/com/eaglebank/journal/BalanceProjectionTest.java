@@ -0,0 +1,149 @@
+package com.eaglebank.journal;
+
+import com.eaglebank.config.JournalProperties;
+import com.eaglebank.entity.JournalPosting;
+import com.eaglebank.repository.TailPosting;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BalanceProjectionTest {
+
+    @TempDir
+    Path dir;
+
+    private BalanceProjection projection;
+    private UUID account;
+
+    @BeforeEach
+    void setUp() {
+        projection = projection();
+        account = UUID.randomUUID();
+    }
+
+    @Test
+    void testBalance_answersNothingUntilReady() {
+        projection.applyTailed(tail(1, account, 10_000, 5));
+
+        assertThat(projection.balance(account)).isEmpty();
+        assertTrue(projection.covers(account, new BigDecimal("1000000")));
+
+        projection.markReady();
+
+        assertThat(projection.balance(account)).contains(new BigDecimal("100.00"));
+        assertTrue(projection.covers(account, new BigDecimal("100.00")));
+        assertFalse(projection.covers(account, new BigDecimal("100.01")));
+        assertTrue(projection.covers(UUID.randomUUID(), new BigDecimal("100.01")));
+    }
+
+    @Test
+    void testApply_localPostingIsNotCountedAgainWhenTailed() {
+        projection.markReady();
+        projection.applyTailed(tail(1, account, 10_000, 5));
+        projection.advance(6);
+
+        projection.onPosted(new JournalPostedEvent(List.of(posting(2, account, "-25.00"))));
+        // The tail sees it on every pass until the watermark moves past its transaction
+        projection.applyTailed(tail(2, account, -2_500, 7));
+        projection.advance(6);
+        projection.applyTailed(tail(2, account, -2_500, 7));
+        projection.advance(9);
+
+        assertThat(projection.balance(account)).contains(new BigDecimal("75.00"));
+        assertThat(projection.watermark()).isEqualTo(9);
+    }
+
+    @Test
+    void testApply_lateLocalApplyAfterTheWatermarkPassedIsStillIgnored() {
+        projection.markReady();
+        projection.applyTailed(tail(1, account, 10_000, 5));
+        projection.advance(6);
+
+        onPostedAfter(tail(1, account, 10_000, 5));
+
+        assertThat(projection.balance(account)).contains(new BigDecimal("100.00"));
+    }
+
+    @Test
+    void testSnapshot_roundTripsBalancesWatermarkAndPending() throws IOException {
+        projection.markReady();
+        UUID other = UUID.randomUUID();
+        projection.applyTailed(tail(1, account, 12_345, 5));
+        projection.applyTailed(tail(2, other, -99, 8));
+        projection.advance(7);
+
+        Path file = dir.resolve("balances.snap");
+        BalanceSnapshot.write(file, projection.snapshot());
+
+        BalanceProjection restored = projection();
+        restored.restore(BalanceSnapshot.read(file));
+        restored.markReady();
+
+        assertThat(restored.watermark()).isEqualTo(7);
+        assertThat(restored.accountCount()).isEqualTo(2);
+        assertThat(restored.balance(account)).contains(new BigDecimal("123.45"));
+        assertThat(restored.balance(other)).contains(new BigDecimal("-0.99"));
+
+        // Still above the watermark, so the next pass reads it again
+        restored.applyTailed(tail(2, other, -99, 8));
+        assertThat(restored.balance(other)).contains(new BigDecimal("-0.99"));
+    }
+
+    @Test
+    void testRead_rejectsFilesThatAreNotSnapshots() throws IOException {
+        Path file = dir.resolve("balances.snap");
+        Files.write(file, new byte[64]);
+
+        assertThrows(IllegalStateException.class, () -> BalanceSnapshot.read(file));
+    }
+
+    private void onPostedAfter(TailPosting tailed) {
+        projection.onPosted(new JournalPostedEvent(List.of(
+                posting(tailed.getId(), tailed.getAccountId(), BigDecimal.valueOf(tailed.getUnits(), 2).toPlainString()))));
+    }
+
+    private static BalanceProjection projection() {
+        return new BalanceProjection(new JournalProperties(null, null, null, null, 16), new SimpleMeterRegistry());
+    }
+
+    private static JournalPosting posting(long id, UUID accountId, String amount) {
+        return JournalPosting.builder().id(id).accountId(accountId).currency("GBP").amount(new BigDecimal(amount)).build();
+    }
+
+    private static TailPosting tail(long id, UUID accountId, long units, long txid) {
+        return new TailPosting() {
+            @Override
+            public long getId() {
+                return id;
+            }
+
+            @Override
+            public UUID getAccountId() {
+                return accountId;
+            }
+
+            @Override
+            public long getUnits() {
+                return units;
+            }
+
+            @Override
+            public long getTxid() {
+                return txid;
+            }
+        };
+    }
+}
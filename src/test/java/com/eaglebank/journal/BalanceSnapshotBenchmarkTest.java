@@ -0,0 +1,89 @@
+package com.eaglebank.journal;
+
+import com.eaglebank.config.JournalProperties;
+import com.eaglebank.repository.TailPosting;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Time to save a million balances and restore them into an empty projection, which is what
+ * a restart costs before the journal tail is read. Excluded from the default build; run with
+ * {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class BalanceSnapshotBenchmarkTest {
+
+    private static final int ACCOUNTS = 1_000_000;
+    private static final int ROUNDS = 5;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void benchmarkRestore() throws Exception {
+        Random random = new Random(42);
+        BalanceProjection source = projection();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            long units = random.nextInt(100_000_000);
+            source.applyTailed(new Tailed(i, new UUID(random.nextLong(), random.nextLong()), units));
+        }
+        source.advance(1);
+        source.advance(2);
+
+        Path file = dir.resolve("balances.snap");
+        long saveNanos = Long.MAX_VALUE;
+        long restoreNanos = Long.MAX_VALUE;
+        BalanceProjection restored = null;
+        for (int round = 0; round < ROUNDS; round++) {
+            long started = System.nanoTime();
+            BalanceSnapshot.write(file, source.snapshot());
+            saveNanos = Math.min(saveNanos, System.nanoTime() - started);
+
+            restored = projection();
+            started = System.nanoTime();
+            restored.restore(BalanceSnapshot.read(file));
+            restoreNanos = Math.min(restoreNanos, System.nanoTime() - started);
+        }
+
+        System.out.printf("%d balances, %d MB: save %d ms, restore %d ms%n", ACCOUNTS,
+                Files.size(file) >> 20, saveNanos / 1_000_000, restoreNanos / 1_000_000);
+        assertThat(restored.accountCount()).isEqualTo(ACCOUNTS);
+        assertThat(restoreNanos).isLessThan(5_000_000_000L);
+    }
+
+    private static BalanceProjection projection() {
+        return new BalanceProjection(new JournalProperties(null, null, null, null, ACCOUNTS), new SimpleMeterRegistry());
+    }
+
+    private record Tailed(long id, UUID accountId, long units) implements TailPosting {
+
+        @Override
+        public long getId() {
+            return id;
+        }
+
+        @Override
+        public UUID getAccountId() {
+            return accountId;
+        }
+
+        @Override
+        public long getUnits() {
+            return units;
+        }
+
+        @Override
+        public long getTxid() {
+            return 1;
+        }
+    }
+}
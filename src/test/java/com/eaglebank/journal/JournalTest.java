@@ -0,0 +1,135 @@
+package com.eaglebank.journal;
+
+import com.eaglebank.entity.BankAccount;
+import com.eaglebank.entity.JournalPosting;
+import com.eaglebank.entity.Transaction;
+import com.eaglebank.entity.TransactionType;
+import com.eaglebank.repository.JournalPostingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class JournalTest {
+
+    private JournalPostingRepository journalPostingRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private Journal journal;
+
+    private BankAccount sterling;
+    private BankAccount euro;
+
+    @BeforeEach
+    void setUp() {
+        journalPostingRepository = mock(JournalPostingRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        journal = new Journal(journalPostingRepository, eventPublisher);
+
+        sterling = BankAccount.builder().id(UUID.randomUUID()).currency("GBP").balance(new BigDecimal("250.00")).build();
+        euro = BankAccount.builder().id(UUID.randomUUID()).currency("EUR").balance(BigDecimal.ZERO).build();
+    }
+
+    @Test
+    void testPost_transferDebitsSenderAndCreditsReceiver() {
+        journal.post(transaction(sterling, BankAccount.builder().id(UUID.randomUUID()).currency("GBP").build(),
+                TransactionType.TRANSFER, "40.00", null));
+
+        List<JournalPosting> postings = saved();
+        assertThat(postings).hasSize(2);
+        assertThat(postings.get(0).getAccountId()).isEqualTo(sterling.getId());
+        assertThat(postings.get(0).getAmount()).isEqualByComparingTo("-40.00");
+        assertBalances(postings);
+        verify(eventPublisher).publishEvent(new JournalPostedEvent(postings));
+    }
+
+    @Test
+    void testPost_crossCurrencyTransferBalancesThroughFxClearing() {
+        journal.post(transaction(sterling, euro, TransactionType.TRANSFER, "100.00", "117.00"));
+
+        List<JournalPosting> postings = saved();
+        assertThat(postings).hasSize(4);
+        assertThat(postings).filteredOn(p -> p.getAccountId().equals(ContraAccount.FX_CLEARING.id()))
+                .extracting(JournalPosting::getCurrency)
+                .containsExactly("GBP", "EUR");
+        assertThat(postings.get(3).getAccountId()).isEqualTo(euro.getId());
+        assertThat(postings.get(3).getAmount()).isEqualByComparingTo("117.00");
+        assertBalances(postings);
+    }
+
+    @Test
+    void testPostAll_oneSidedMovementsUseTheirContraAccount() {
+        journal.postAll(List.of(
+                transaction(null, sterling, TransactionType.DEPOSIT, "10.00", null),
+                transaction(null, sterling, TransactionType.INTEREST, "0.42", null),
+                transaction(sterling, null, TransactionType.WITHDRAWAL, "5.00", null)));
+
+        List<JournalPosting> postings = saved();
+        assertThat(postings).extracting(JournalPosting::getAccountId).containsExactly(
+                ContraAccount.EXTERNAL.id(), sterling.getId(),
+                ContraAccount.INTEREST.id(), sterling.getId(),
+                sterling.getId(), ContraAccount.EXTERNAL.id());
+        assertBalances(postings);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPostReceived_crossShardLegsMeetInShardClearing() {
+        journal.post(transaction(sterling, null, TransactionType.TRANSFER, "100.00", null));
+        journal.postReceived(transaction(null, euro, TransactionType.TRANSFER, "100.00", "117.00"), "GBP");
+
+        ArgumentCaptor<List<JournalPosting>> captor = ArgumentCaptor.forClass(List.class);
+        verify(journalPostingRepository, times(2)).saveAll(captor.capture());
+        List<JournalPosting> sent = captor.getAllValues().get(0);
+        List<JournalPosting> received = captor.getAllValues().get(1);
+
+        assertThat(sent).extracting(JournalPosting::getAccountId)
+                .containsExactly(sterling.getId(), ContraAccount.SHARD_CLEARING.id());
+        assertThat(received.get(0).getAccountId()).isEqualTo(ContraAccount.SHARD_CLEARING.id());
+        assertThat(received.get(0).getCurrency()).isEqualTo("GBP");
+        assertThat(received.get(0).getAmount()).isEqualByComparingTo("-100.00");
+        assertThat(received.get(3).getAmount()).isEqualByComparingTo("117.00");
+        assertBalances(sent);
+        assertBalances(received);
+    }
+
+    private Transaction transaction(BankAccount from, BankAccount to, TransactionType type, String amount,
+                                    String credited) {
+        return Transaction.builder()
+                .id(UUID.randomUUID())
+                .fromAccount(from)
+                .toAccount(to)
+                .type(type)
+                .amount(new BigDecimal(amount))
+                .creditedAmount(credited == null ? null : new BigDecimal(credited))
+                .createdTimestamp(LocalDateTime.now())
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<JournalPosting> saved() {
+        ArgumentCaptor<List<JournalPosting>> captor = ArgumentCaptor.forClass(List.class);
+        verify(journalPostingRepository).saveAll(captor.capture());
+        return captor.getValue();
+    }
+
+    private static void assertBalances(List<JournalPosting> postings) {
+        Map<String, BigDecimal> byCurrency = postings.stream().collect(Collectors.groupingBy(
+                JournalPosting::getCurrency,
+                Collectors.reducing(BigDecimal.ZERO, JournalPosting::getAmount, BigDecimal::add)));
+        assertThat(byCurrency.values()).allSatisfy(sum -> assertThat(sum).isEqualByComparingTo("0"));
+    }
+}
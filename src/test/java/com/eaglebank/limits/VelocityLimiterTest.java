@@ -0,0 +1,163 @@
+package com.eaglebank.limits;
+
+import com.eaglebank.config.LimitProperties;
+import com.eaglebank.config.ShardProperties;
+import com.eaglebank.exception.LimitExceededException;
+import com.eaglebank.repository.TransactionRepository;
+import com.eaglebank.sharding.Shards;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class VelocityLimiterTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-06-01T12:00:00Z"));
+    private final UUID account = UUID.randomUUID();
+
+    private TransactionRepository transactionRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private VelocityLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository = mock(TransactionRepository.class);
+        when(transactionRepository.streamOutgoingSince(any(), any())).thenReturn(Stream.empty());
+        when(transactionRepository.streamPayeesSince(any(), any())).thenReturn(Stream.empty());
+        meterRegistry = new SimpleMeterRegistry();
+        limiter = new VelocityLimiter(transactionRepository,
+                new LimitProperties(true, new BigDecimal("1000.00"), 3, 2, Duration.ofDays(365)),
+                mock(PlatformTransactionManager.class),
+                new Shards(new ShardProperties(false, null, 0, null, 0, null), mock(PlatformTransactionManager.class)),
+                meterRegistry, clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testReserve_enforcesDailyAmountOverSlidingDay() {
+        limiter.reserve(account, null, new BigDecimal("600.00"));
+        clock.advance(Duration.ofHours(12));
+        limiter.reserve(account, null, new BigDecimal("400.00"));
+
+        assertThatThrownBy(() -> limiter.reserve(account, null, new BigDecimal("0.01")))
+                .isInstanceOf(LimitExceededException.class)
+                .hasMessageContaining("Daily limit");
+
+        // The first withdrawal drops out a day (plus at most one bucket) after it was made
+        clock.advance(Duration.ofHours(12).plusMinutes(15));
+        assertDoesNotThrow(() -> limiter.reserve(account, null, new BigDecimal("600.00")));
+        assertEquals(1.0, meterRegistry.counter("limits.rejected", "limit", "daily_amount").count());
+    }
+
+    @Test
+    void testReserve_limitsTransfersPerMinuteButNotWithdrawals() {
+        UUID payee = UUID.randomUUID();
+        for (int i = 0; i < 3; i++) {
+            limiter.reserve(account, payee, BigDecimal.ONE);
+        }
+        limiter.reserve(account, null, BigDecimal.ONE);
+
+        assertThatThrownBy(() -> limiter.reserve(account, payee, BigDecimal.ONE))
+                .isInstanceOf(LimitExceededException.class);
+
+        clock.advance(Duration.ofSeconds(65));
+        assertDoesNotThrow(() -> limiter.reserve(account, payee, BigDecimal.ONE));
+    }
+
+    @Test
+    void testReserve_limitsNewPayeesPerHourAndRemembersCommittedOnes() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        limiter.reserve(account, first, BigDecimal.ONE);
+        limiter.reserve(account, second, BigDecimal.ONE);
+        clock.advance(Duration.ofMinutes(2));
+
+        assertThatThrownBy(() -> limiter.reserve(account, UUID.randomUUID(), BigDecimal.ONE))
+                .isInstanceOf(LimitExceededException.class)
+                .hasMessageContaining("new payees");
+        assertDoesNotThrow(() -> limiter.reserve(account, first, BigDecimal.ONE));
+    }
+
+    @Test
+    void testReserve_rollbackReleasesTheReservation() {
+        TransactionSynchronizationManager.initSynchronization();
+        limiter.reserve(account, UUID.randomUUID(), new BigDecimal("1000.00"));
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertDoesNotThrow(() -> limiter.reserve(account, null, new BigDecimal("1000.00")));
+    }
+
+    @Test
+    void testRebuild_restoresCountersFromRecentTransactions() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        UUID knownPayee = UUID.randomUUID();
+        when(transactionRepository.streamOutgoingSince(any(), any())).thenReturn(Stream.of(
+                new OutgoingMovement(account, knownPayee, new BigDecimal("900.00"), now.minusHours(3)),
+                new OutgoingMovement(account, null, new BigDecimal("500.00"), now.minusDays(2))));
+        when(transactionRepository.streamPayeesSince(any(), any())).thenReturn(Stream.of(
+                new PayeeHistory(account, knownPayee, now.minusMonths(2))));
+
+        limiter.rebuild();
+
+        // Only the movement from the last day counts
+        assertThatThrownBy(() -> limiter.reserve(account, null, new BigDecimal("100.01")))
+                .isInstanceOf(LimitExceededException.class);
+        assertDoesNotThrow(() -> limiter.reserve(account, knownPayee, new BigDecimal("100.00")));
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
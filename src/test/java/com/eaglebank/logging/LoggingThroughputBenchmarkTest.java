@@ -0,0 +1,113 @@
+package com.eaglebank.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Log lines per second from request threads with the default synchronous appender and with
+ * the bounded, non-blocking async queue the prod profile uses. Excluded from the default
+ * build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class LoggingThroughputBenchmarkTest {
+
+    private static final int MESSAGES_PER_THREAD = 200_000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void benchmarkAppenders() throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        Result sync = run(false, threads);
+        Result async = run(true, threads);
+
+        System.out.printf("%d threads, sync:  %,.0f lines/s, %,d written%n", threads, sync.perSecond(), sync.written());
+        System.out.printf("%d threads, async: %,.0f lines/s, %,d written, %,d dropped%n", threads,
+                async.perSecond(), async.written(), (long) threads * MESSAGES_PER_THREAD - async.written());
+        assertThat(sync.written()).isEqualTo((long) threads * MESSAGES_PER_THREAD);
+        assertThat(async.written()).isPositive();
+    }
+
+    private Result run(boolean async, int threads) throws Exception {
+        LoggerContext context = new LoggerContext();
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        Path file = dir.resolve((async ? "async" : "sync") + ".log");
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{ISO8601} %-5level [%thread] %logger{36} - %msg%n");
+        encoder.start();
+        FileAppender<ILoggingEvent> fileAppender = new FileAppender<>();
+        fileAppender.setContext(context);
+        fileAppender.setFile(file.toString());
+        fileAppender.setEncoder(encoder);
+        fileAppender.start();
+
+        Appender<ILoggingEvent> appender = fileAppender;
+        if (async) {
+            AsyncAppender queue = new AsyncAppender();
+            queue.setContext(context);
+            queue.setQueueSize(8192);
+            queue.setDiscardingThreshold(1638);
+            queue.setNeverBlock(true);
+            queue.addAppender(fileAppender);
+            queue.start();
+            appender = queue;
+        }
+
+        Logger logger = context.getLogger("com.eaglebank.Benchmark");
+        logger.setLevel(Level.INFO);
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long started = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                UUID account = UUID.randomUUID();
+                for (int i = 0; i < MESSAGES_PER_THREAD; i++) {
+                    logger.info("Transfer {} from account {} settled", i, account);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - started;
+        pool.shutdown();
+        context.stop();
+
+        long written;
+        try (Stream<String> lines = Files.lines(file)) {
+            written = lines.count();
+        }
+        return new Result((double) threads * MESSAGES_PER_THREAD * 1_000_000_000L / elapsed, written);
+    }
+
+    private record Result(double perSecond, long written) {}
+}
@@ -0,0 +1,109 @@
+package com.eaglebank.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.turbo.DynamicThresholdFilter;
+import ch.qos.logback.classic.turbo.MDCValueLevelPair;
+import ch.qos.logback.core.spi.FilterReply;
+import com.eaglebank.config.LoggingProperties;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestDebugFilterTest {
+
+    @Test
+    void testDoFilter_debugOnlyWithTheConfiguredToken() throws Exception {
+        RequestDebugFilter filter = new RequestDebugFilter(new LoggingProperties(null, "s3cret", 0));
+
+        assertEquals(RequestDebugFilter.DEBUG_ON, mdcDuring(filter, request("s3cret")).get(RequestDebugFilter.DEBUG_KEY));
+        assertNull(mdcDuring(filter, request("guess")).get(RequestDebugFilter.DEBUG_KEY));
+        assertNull(mdcDuring(filter, request(null)).get(RequestDebugFilter.DEBUG_KEY));
+        assertNull(MDC.get(RequestDebugFilter.DEBUG_KEY));
+    }
+
+    @Test
+    void testDoFilter_headerIgnoredWithoutTokenButSamplingApplies() throws Exception {
+        RequestDebugFilter unset = new RequestDebugFilter(new LoggingProperties(null, null, 0));
+        RequestDebugFilter sampled = new RequestDebugFilter(new LoggingProperties(null, null, 1));
+
+        assertNull(mdcDuring(unset, request("anything")).get(RequestDebugFilter.DEBUG_KEY));
+        assertEquals(RequestDebugFilter.DEBUG_ON, mdcDuring(sampled, request(null)).get(RequestDebugFilter.DEBUG_KEY));
+    }
+
+    @Test
+    void testDoFilter_tagsRequestIdAndEchoesIt() throws Exception {
+        RequestDebugFilter filter = new RequestDebugFilter(new LoggingProperties(null, null, 0));
+        MockHttpServletRequest request = request(null);
+        request.addHeader(RequestDebugFilter.REQUEST_ID_HEADER, "abc-123");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        Map<String, String> seen = new HashMap<>();
+
+        filter.doFilter(request, response, (req, res) -> seen.putAll(MDC.getCopyOfContextMap()));
+
+        assertEquals("abc-123", seen.get(RequestDebugFilter.REQUEST_ID_KEY));
+        assertEquals("abc-123", response.getHeader(RequestDebugFilter.REQUEST_ID_HEADER));
+        assertNull(MDC.get(RequestDebugFilter.REQUEST_ID_KEY));
+
+        MockHttpServletResponse generated = new MockHttpServletResponse();
+        filter.doFilter(request(null), generated, (req, res) -> { });
+        assertThat(generated.getHeader(RequestDebugFilter.REQUEST_ID_HEADER)).hasSize(36);
+    }
+
+    @Test
+    void testTurboFilter_logsDebugOnlyForMarkedRequests() {
+        // Mirrors the turbo filter in logback-spring.xml
+        LoggerContext context = new LoggerContext();
+        DynamicThresholdFilter turbo = new DynamicThresholdFilter();
+        turbo.setKey(RequestDebugFilter.DEBUG_KEY);
+        turbo.setDefaultThreshold(Level.OFF);
+        turbo.setOnHigherOrEqual(FilterReply.ACCEPT);
+        turbo.setOnLower(FilterReply.NEUTRAL);
+        MDCValueLevelPair pair = new MDCValueLevelPair();
+        pair.setValue(RequestDebugFilter.DEBUG_ON);
+        pair.setLevel(Level.DEBUG);
+        turbo.addMDCValueLevelPair(pair);
+        turbo.start();
+        context.addTurboFilter(turbo);
+
+        Logger logger = context.getLogger("com.eaglebank.Example");
+        logger.setLevel(Level.INFO);
+
+        assertFalse(logger.isDebugEnabled());
+        MDC.put(RequestDebugFilter.DEBUG_KEY, RequestDebugFilter.DEBUG_ON);
+        try {
+            assertTrue(logger.isDebugEnabled());
+            assertFalse(logger.isTraceEnabled());
+        } finally {
+            MDC.remove(RequestDebugFilter.DEBUG_KEY);
+        }
+    }
+
+    private static Map<String, String> mdcDuring(RequestDebugFilter filter, MockHttpServletRequest request)
+            throws Exception {
+        Map<String, String> seen = new HashMap<>();
+        FilterChain chain = (req, res) -> seen.putAll(MDC.getCopyOfContextMap());
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return seen;
+    }
+
+    private static MockHttpServletRequest request(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/accounts");
+        if (token != null) {
+            request.addHeader("X-Debug-Token", token);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,127 @@
+package com.eaglebank.outbox;
+
+import com.eaglebank.config.OutboxProperties;
+import com.eaglebank.config.ShardProperties;
+import com.eaglebank.entity.OutboxEvent;
+import com.eaglebank.entity.OutboxStatus;
+import com.eaglebank.repository.OutboxEventRepository;
+import com.eaglebank.sharding.Shards;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OutboxDispatcherTest {
+
+    private OutboxEventRepository outboxEventRepository;
+    private OutboxSink sink;
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository = mock(OutboxEventRepository.class);
+        sink = mock(OutboxSink.class);
+        meterRegistry = new SimpleMeterRegistry();
+
+        OutboxProperties properties = new OutboxProperties(true, 1, 10, Duration.ofMillis(100), 3,
+                Duration.ofSeconds(1), Duration.ofSeconds(30), Duration.ofDays(1), true, null);
+
+        dispatcher = new OutboxDispatcher(outboxEventRepository, List.of(sink), properties,
+                mock(PlatformTransactionManager.class),
+                new Shards(new ShardProperties(false, null, 0, null, 0, null), mock(PlatformTransactionManager.class)),
+                meterRegistry);
+    }
+
+    @Test
+    void testDispatchBatch_deliversHeadsAndFollowersInIdOrder() throws Exception {
+        UUID account = UUID.randomUUID();
+        OutboxEvent first = pending(1L, account);
+        OutboxEvent second = pending(2L, account);
+        OutboxEvent third = pending(3L, account);
+
+        when(outboxEventRepository.claimHeads(any(), eq(10))).thenReturn(List.of(first));
+        when(outboxEventRepository.lockPendingFor(anyCollection(), anyInt())).thenReturn(List.of(third, first, second));
+
+        int claimed = dispatcher.dispatchBatch();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<OutboxMessage>> captor = ArgumentCaptor.forClass(List.class);
+        verify(sink).deliver(captor.capture());
+        assertThat(captor.getValue()).extracting(OutboxMessage::id).containsExactly(1L, 2L, 3L);
+
+        assertEquals(1, claimed);
+        assertThat(List.of(first, second, third)).allMatch(e -> e.getStatus() == OutboxStatus.DELIVERED);
+        assertEquals(3.0, meterRegistry.counter("outbox.dispatch.delivered").count());
+    }
+
+    @Test
+    void testDispatchBatch_sinkFailureSchedulesRetryWithBackoff() throws Exception {
+        OutboxEvent event = pending(1L, UUID.randomUUID());
+        when(outboxEventRepository.claimHeads(any(), anyInt())).thenReturn(List.of(event));
+        doThrow(new IOException("connection refused")).when(sink).deliver(anyList());
+
+        LocalDateTime before = LocalDateTime.now();
+        dispatcher.dispatchBatch();
+
+        assertEquals(OutboxStatus.PENDING, event.getStatus());
+        assertEquals(1, event.getAttempts());
+        assertThat(event.getLastError()).contains("connection refused");
+        assertThat(event.getNextAttemptAt()).isAfterOrEqualTo(before.plusSeconds(1));
+        assertEquals(1.0, meterRegistry.counter("outbox.dispatch.failed").count());
+    }
+
+    @Test
+    void testDispatchBatch_parksEventAfterMaxAttempts() throws Exception {
+        OutboxEvent event = pending(1L, UUID.randomUUID());
+        event.setAttempts(2);
+        when(outboxEventRepository.claimHeads(any(), anyInt())).thenReturn(List.of(event));
+        doThrow(new IOException("boom")).when(sink).deliver(anyList());
+
+        dispatcher.dispatchBatch();
+
+        assertEquals(OutboxStatus.DEAD, event.getStatus());
+        assertEquals(1.0, meterRegistry.counter("outbox.dispatch.dead").count());
+    }
+
+    @Test
+    void testDispatchBatch_nothingPendingDoesNotCallSinks() throws Exception {
+        when(outboxEventRepository.claimHeads(any(), anyInt())).thenReturn(List.of());
+
+        assertEquals(0, dispatcher.dispatchBatch());
+        verify(sink, never()).deliver(anyList());
+    }
+
+    @Test
+    void testBackoff_doublesAndIsCapped() {
+        assertEquals(Duration.ofSeconds(1), dispatcher.backoff(1));
+        assertEquals(Duration.ofSeconds(8), dispatcher.backoff(4));
+        assertEquals(Duration.ofSeconds(30), dispatcher.backoff(20));
+        assertEquals(Duration.ofSeconds(30), dispatcher.backoff(200));
+    }
+
+    private OutboxEvent pending(long id, UUID account) {
+        LocalDateTime now = LocalDateTime.now();
+        return OutboxEvent.builder()
+                .id(id)
+                .aggregateId(account)
+                .eventType("DEPOSIT")
+                .payload("{}")
+                .status(OutboxStatus.PENDING)
+                .nextAttemptAt(now)
+                .createdTimestamp(now)
+                .build();
+    }
+}
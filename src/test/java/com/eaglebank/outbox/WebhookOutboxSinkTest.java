@@ -0,0 +1,81 @@
+package com.eaglebank.outbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebhookOutboxSinkTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    private HttpServer server;
+    private final AtomicReference<byte[]> received = new AtomicReference<>();
+    private final AtomicInteger status = new AtomicInteger(204);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // Local stub standing in for a downstream consumer
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/events", exchange -> {
+            received.set(exchange.getRequestBody().readAllBytes());
+            exchange.sendResponseHeaders(status.get(), -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void testDeliver_postsBatchAsJsonArrayWithRawPayloads() throws Exception {
+        UUID account = UUID.randomUUID();
+        List<OutboxMessage> messages = List.of(
+                new OutboxMessage(1, account, "DEPOSIT", LocalDateTime.now(), "{\"amount\":10.00}"),
+                new OutboxMessage(2, account, "WITHDRAWAL", LocalDateTime.now(), "{\"amount\":5.00}")
+        );
+
+        sink().deliver(messages);
+
+        JsonNode body = objectMapper.readTree(received.get());
+        assertEquals(2, body.size());
+        assertEquals(1, body.get(0).get("id").asLong());
+        assertEquals(account.toString(), body.get(0).get("aggregateId").asText());
+        assertEquals(10.0, body.get(0).get("payload").get("amount").asDouble());
+        assertEquals("WITHDRAWAL", body.get(1).get("eventType").asText());
+    }
+
+    @Test
+    void testDeliver_nonSuccessStatusFailsTheBatch() {
+        status.set(503);
+
+        List<OutboxMessage> messages = List.of(
+                new OutboxMessage(1, UUID.randomUUID(), "DEPOSIT", LocalDateTime.now(), "{}"));
+
+        IOException error = assertThrows(IOException.class, () -> sink().deliver(messages));
+        assertTrue(error.getMessage().contains("503"));
+    }
+
+    private WebhookOutboxSink sink() {
+        URI endpoint = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/events");
+        return new WebhookOutboxSink(endpoint, Duration.ofSeconds(2), objectMapper);
+    }
+}
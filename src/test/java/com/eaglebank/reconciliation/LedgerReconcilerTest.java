@@ -0,0 +1,159 @@
+package com.eaglebank.reconciliation;
+
+import com.eaglebank.archive.TransactionArchive;
+import com.eaglebank.config.ReconciliationProperties;
+import com.eaglebank.entity.BalanceDrift;
+import com.eaglebank.entity.ReconciliationRun;
+import com.eaglebank.entity.ReconciliationStatus;
+import com.eaglebank.repository.BalanceDriftRepository;
+import com.eaglebank.repository.BankAccountRepository;
+import com.eaglebank.repository.LedgerTotal;
+import com.eaglebank.repository.ReconciliationRunRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class LedgerReconcilerTest {
+
+    private BankAccountRepository bankAccountRepository;
+    private ReconciliationRunRepository runRepository;
+    private BalanceDriftRepository driftRepository;
+    private TransactionArchive archive;
+    private LedgerReconciler reconciler;
+
+    private final List<Total> totals = new ArrayList<>();
+    private final List<BalanceDrift> savedDrifts = new CopyOnWriteArrayList<>();
+
+    private record Total(UUID accountId, BigDecimal storedBalance, BigDecimal netMovement) implements LedgerTotal {
+        public UUID getAccountId() {
+            return accountId;
+        }
+
+        public BigDecimal getStoredBalance() {
+            return storedBalance;
+        }
+
+        public BigDecimal getNetMovement() {
+            return netMovement;
+        }
+    }
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        bankAccountRepository = mock(BankAccountRepository.class);
+        runRepository = mock(ReconciliationRunRepository.class);
+        driftRepository = mock(BalanceDriftRepository.class);
+        archive = mock(TransactionArchive.class);
+        when(archive.netMovement(any())).thenReturn(BigDecimal.ZERO);
+
+        when(runRepository.save(any())).thenAnswer(inv -> {
+            ReconciliationRun run = inv.getArgument(0);
+            if (run.getId() == null) {
+                run.setId(UUID.randomUUID());
+            }
+            return run;
+        });
+        when(driftRepository.saveAll(anyIterable())).thenAnswer(inv -> {
+            ((Iterable<BalanceDrift>) inv.getArgument(0)).forEach(savedDrifts::add);
+            return List.of();
+        });
+        when(bankAccountRepository.streamLedgerTotals(any(), any(), any())).thenAnswer(inv -> {
+            AccountRange range = new AccountRange(inv.getArgument(0), inv.getArgument(1));
+            return totals.stream()
+                    .filter(t -> range.contains(t.accountId()))
+                    .map(LedgerTotal.class::cast);
+        });
+
+        ReconciliationProperties properties = new ReconciliationProperties(true, 3, 16, Duration.ofHours(1), 2);
+        reconciler = new LedgerReconciler(bankAccountRepository, runRepository, driftRepository, archive,
+                properties, mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testReconcile_recordsEveryDriftedAccountOnce() {
+        Random random = new Random(11);
+        Map<UUID, BigDecimal> expectedDrift = new HashMap<>();
+        for (int i = 0; i < 500; i++) {
+            UUID id = UUID.randomUUID();
+            BigDecimal hot = BigDecimal.valueOf(random.nextInt(100_000), 2);
+            BigDecimal cold = BigDecimal.valueOf(random.nextInt(100_000), 2);
+            BigDecimal stored = hot.add(cold);
+            if (i % 25 == 0) {
+                BigDecimal drift = BigDecimal.valueOf(random.nextInt(1_000) + 1, 2);
+                stored = stored.add(drift);
+                expectedDrift.put(id, drift);
+            }
+            totals.add(new Total(id, stored, hot));
+            when(archive.netMovement(id)).thenReturn(cold);
+        }
+
+        ReconciliationRun run = reconciler.reconcile();
+
+        assertEquals(ReconciliationStatus.COMPLETED, run.getStatus());
+        assertEquals(500, run.getAccountsChecked());
+        assertEquals(expectedDrift.size(), run.getDriftedAccounts());
+        assertThat(run.getNetDrift()).isEqualByComparingTo(
+                expectedDrift.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add));
+        assertThat(savedDrifts).hasSize(expectedDrift.size());
+        for (BalanceDrift drift : savedDrifts) {
+            assertThat(drift.getRunId()).isEqualTo(run.getId());
+            assertThat(drift.getDifference()).isEqualByComparingTo(expectedDrift.get(drift.getAccountId()));
+        }
+        verify(bankAccountRepository, times(16)).streamLedgerTotals(any(), any(), any());
+        assertEquals(1.0, reconciler.progress().fractionComplete());
+    }
+
+    @Test
+    void testReconcileRange_rescansWhenArchiveAdvancesMidRange() {
+        UUID id = UUID.randomUUID();
+        totals.add(new Total(id, BigDecimal.ONE, BigDecimal.ZERO));
+        LocalDateTime boundary = LocalDateTime.of(2024, 1, 1, 0, 0);
+        when(archive.archivedUntil()).thenReturn(null, boundary, boundary, boundary);
+
+        ReconciliationProgress progress = new ReconciliationProgress(UUID.randomUUID(), 1);
+        AccountRange all = AccountRange.split(1).get(0);
+        reconciler.reconcileRange(progress, all);
+
+        verify(bankAccountRepository).streamLedgerTotals(all.first(), all.last(), LocalDateTime.of(1970, 1, 1, 0, 0));
+        verify(bankAccountRepository).streamLedgerTotals(all.first(), all.last(), boundary);
+        verify(driftRepository).deleteForRange(progress.runId(), all.first(), all.last());
+        assertEquals(1, progress.accountsChecked());
+        assertEquals(1, progress.driftedAccounts());
+        assertThat(savedDrifts).extracting(BalanceDrift::getAccountId).containsExactly(id);
+    }
+
+    @Test
+    void testSplit_rangesCoverTheIdSpaceWithoutGapsOrOverlap() {
+        List<AccountRange> ranges = AccountRange.split(7);
+
+        assertThat(ranges.get(0).first()).isEqualTo(new UUID(0, 0));
+        assertThat(ranges.get(6).last()).isEqualTo(new UUID(-1L, -1L));
+        for (int i = 1; i < ranges.size(); i++) {
+            assertEquals(ranges.get(i - 1).last().getMostSignificantBits() + 1,
+                    ranges.get(i).first().getMostSignificantBits());
+        }
+
+        for (int i = 0; i < 1_000; i++) {
+            UUID id = UUID.randomUUID();
+            assertThat(ranges.stream().filter(r -> r.contains(id))).hasSize(1);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.eaglebank.reconciliation;
+
+import com.eaglebank.archive.TransactionArchive;
+import com.eaglebank.config.ShardProperties;
+import com.eaglebank.repository.TransactionRepository;
+import com.eaglebank.sharding.Shards;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class OpeningMovementBackfillTest {
+
+    private TransactionRepository transactionRepository;
+    private TransactionArchive transactionArchive;
+    private OpeningMovementBackfill backfill;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository = mock(TransactionRepository.class);
+        transactionArchive = mock(TransactionArchive.class);
+        backfill = new OpeningMovementBackfill(transactionRepository, transactionArchive,
+                new Shards(new ShardProperties(false, null, 0, null, 0, null), mock(PlatformTransactionManager.class)),
+                new ObjectMapper());
+    }
+
+    @Test
+    void testBackfill_passesArchivedNetsByAccount() throws Exception {
+        UUID account = UUID.randomUUID();
+        when(transactionArchive.netMovements()).thenReturn(Map.of(account, new BigDecimal("-12.50")));
+
+        backfill.backfill();
+
+        verify(transactionRepository).backfillOpeningMovements("{\"" + account + "\":-12.50}");
+    }
+
+    @Test
+    void testBackfill_doesNothingOnceApplied() throws Exception {
+        when(transactionRepository.isBackfilled(OpeningMovementBackfill.NAME)).thenReturn(true);
+
+        backfill.backfill();
+
+        verifyNoInteractions(transactionArchive);
+        verify(transactionRepository, never()).backfillOpeningMovements(anyString());
+    }
+}
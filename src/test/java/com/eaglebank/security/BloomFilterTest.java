@@ -0,0 +1,56 @@
+package com.eaglebank.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    @Test
+    void testMightContain_neverMissesAnAddedKey() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.001);
+        String[] keys = new String[10_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "t:" + UUID.randomUUID();
+            filter.add(keys[i]);
+        }
+
+        for (String key : keys) {
+            assertTrue(filter.mightContain(key));
+        }
+        // A key whose bits were all set already is not counted
+        assertThat(filter.size()).isBetween(keys.length * 99 / 100, keys.length);
+    }
+
+    @Test
+    void testMightContain_falsePositiveRateStaysNearTargetAtCapacity() {
+        BloomFilter filter = BloomFilter.create(100_000, 0.001);
+        for (int i = 0; i < 100_000; i++) {
+            filter.add("u:user" + i + "@example.com");
+        }
+
+        int falsePositives = 0;
+        int probes = 200_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("t:" + UUID.randomUUID())) {
+                falsePositives++;
+            }
+        }
+
+        assertThat((double) falsePositives / probes).isLessThan(0.002);
+    }
+
+    @Test
+    void testMightContain_emptyFilterContainsNothing() {
+        BloomFilter filter = BloomFilter.create(1, 0.001);
+
+        assertFalse(filter.mightContain("u:alice@example.com"));
+        filter.add("u:alice@example.com");
+        assertTrue(filter.mightContain("u:alice@example.com"));
+        assertFalse(filter.mightContain("u:bob@example.com"));
+    }
+}
@@ -0,0 +1,68 @@
+package com.eaglebank.security;
+
+import com.eaglebank.config.ImportProperties;
+import com.eaglebank.config.ManagementProperties;
+import com.eaglebank.config.ShardProperties;
+import com.eaglebank.entity.User;
+import com.eaglebank.repository.UserRepository;
+import com.eaglebank.sharding.ShardDirectory;
+import com.eaglebank.sharding.Shards;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CustomUserDetailsServiceTest {
+
+    private UserRepository userRepository;
+    private CustomUserDetailsService service;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        ShardDirectory shardDirectory = mock(ShardDirectory.class);
+        when(shardDirectory.shardOfUser(anyString())).thenReturn(Shards.HOME);
+        service = new CustomUserDetailsService(userRepository,
+                new Shards(new ShardProperties(false, null, 0, null, 0, null), mock(PlatformTransactionManager.class)),
+                shardDirectory,
+                new ImportProperties(true, Set.of("Ops@Example.com"), 0, 0, 0),
+                new ManagementProperties(Set.of("sre@example.com")));
+    }
+
+    @Test
+    void testLoadUserByUsername_onlyOperatorsMayImport() {
+        stubUser("ops@example.com");
+        stubUser("jane@example.com");
+
+        UserDetails operator = service.loadUserByUsername("ops@example.com");
+        UserDetails customer = service.loadUserByUsername("jane@example.com");
+
+        assertThat(operator.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly(CustomUserDetailsService.IMPORT_AUTHORITY);
+        assertThat(customer.getAuthorities()).isEmpty();
+    }
+
+    @Test
+    void testLoadUserByUsername_onlyManagementOperatorsMayReadTheActuator() {
+        stubUser("sre@example.com");
+
+        UserDetails operator = service.loadUserByUsername("sre@example.com");
+
+        assertThat(operator.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly(CustomUserDetailsService.MANAGEMENT_AUTHORITY);
+    }
+
+    private void stubUser(String email) {
+        when(userRepository.findByEmail(email))
+                .thenReturn(Optional.of(User.builder().email(email).password("hashed").build()));
+    }
+}
@@ -0,0 +1,65 @@
+package com.eaglebank.security;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RateLimitFilterTest {
+
+    private RateLimiter rateLimiter;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter = mock(RateLimiter.class);
+        filter = new RateLimitFilter(rateLimiter);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testDoFilter_keysHistoryBySubjectAndLoginByAddress() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("alice@example.com", null, List.of()));
+
+        filter.doFilter(request("GET", "/v1/accounts/123/transactions"), new MockHttpServletResponse(), mock(FilterChain.class));
+        filter.doFilter(request("POST", "/auth/login"), new MockHttpServletResponse(), mock(FilterChain.class));
+
+        verify(rateLimiter).tryAcquire(RouteClass.HISTORY, "alice@example.com");
+        verify(rateLimiter).tryAcquire(RouteClass.LOGIN, "203.0.113.7");
+    }
+
+    @Test
+    void testDoFilter_rejectsWithRetryAfterWhenBucketIsEmpty() throws Exception {
+        when(rateLimiter.tryAcquire(eq(RouteClass.SIGNUP), any())).thenReturn(20L);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = mock(FilterChain.class);
+
+        filter.doFilter(request("POST", "/v1/users"), response, chain);
+
+        assertEquals(429, response.getStatus());
+        assertEquals("20", response.getHeader("Retry-After"));
+        verifyNoInteractions(chain);
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRemoteAddr("203.0.113.7");
+        return request;
+    }
+}
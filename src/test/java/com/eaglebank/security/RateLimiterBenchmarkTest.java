@@ -0,0 +1,76 @@
+package com.eaglebank.security;
+
+import com.eaglebank.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cost of one rate-limit decision with every core hammering 100,000 distinct clients.
+ * Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class RateLimiterBenchmarkTest {
+
+    private static final int CLIENTS = 100_000;
+    private static final long WARMUP_NANOS = 2_000_000_000L;
+    private static final long MEASURE_NANOS = 3_000_000_000L;
+
+    @Test
+    void benchmarkTryAcquire() throws Exception {
+        RateLimitProperties properties = new RateLimitProperties(true, 65_536,
+                Map.of(RouteClass.HISTORY, new RateLimitProperties.Limit(1_000, 1_000)));
+        RateLimiter limiter = new RateLimiter(properties, new SimpleMeterRegistry());
+        String[] clients = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            clients[i] = "user-" + i + "@example.com";
+        }
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        run(limiter, clients, threads, WARMUP_NANOS);
+        double nanosPerCall = run(limiter, clients, threads, MEASURE_NANOS);
+
+        System.out.printf("%d threads: %.0f ns per decision%n", threads, nanosPerCall);
+        assertThat(nanosPerCall).isLessThan(1_000);
+    }
+
+    private static double run(RateLimiter limiter, String[] clients, int threads, long duration) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<double[]>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+            results.add(pool.submit(() -> {
+                long calls = 0;
+                int next = seed * 7919;
+                long start = System.nanoTime();
+                long end = start + duration;
+                while (System.nanoTime() < end) {
+                    for (int i = 0; i < 1_000; i++) {
+                        next = (next + 104_729) % clients.length;
+                        limiter.tryAcquire(RouteClass.HISTORY, clients[next]);
+                    }
+                    calls += 1_000;
+                }
+                return new double[]{calls, System.nanoTime() - start};
+            }));
+        }
+        double total = 0;
+        for (Future<double[]> result : results) {
+            double[] r = result.get();
+            total += r[1] / r[0];
+        }
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+        return total / threads;
+    }
+}
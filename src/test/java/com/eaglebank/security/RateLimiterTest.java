@@ -0,0 +1,83 @@
+package com.eaglebank.security;
+
+import com.eaglebank.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RateLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final AtomicLong clock = new AtomicLong(42 * SECOND);
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testTryAcquire_allowsBurstThenRejectsWithRetryAfter() {
+        RateLimiter limiter = limiter(1024, new RateLimitProperties.Limit(3, 0.5));
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire(RouteClass.HISTORY, "alice@example.com"));
+        }
+        assertEquals(2, limiter.tryAcquire(RouteClass.HISTORY, "alice@example.com"));
+        assertEquals(1.0, meterRegistry.counter("ratelimit.rejected", "route", "history").count());
+    }
+
+    @Test
+    void testTryAcquire_refillsFromElapsedTimeUpToCapacity() {
+        RateLimiter limiter = limiter(1024, new RateLimitProperties.Limit(2, 1));
+        limiter.tryAcquire(RouteClass.HISTORY, "alice@example.com");
+        limiter.tryAcquire(RouteClass.HISTORY, "alice@example.com");
+
+        clock.addAndGet(SECOND);
+        assertEquals(0, limiter.tryAcquire(RouteClass.HISTORY, "alice@example.com"));
+        assertEquals(1, limiter.tryAcquire(RouteClass.HISTORY, "alice@example.com"));
+
+        // A long pause refills only to capacity
+        clock.addAndGet(3600 * SECOND);
+        assertEquals(0, limiter.tryAcquire(RouteClass.HISTORY, "alice@example.com"));
+        assertEquals(0, limiter.tryAcquire(RouteClass.HISTORY, "alice@example.com"));
+        assertEquals(1, limiter.tryAcquire(RouteClass.HISTORY, "alice@example.com"));
+    }
+
+    @Test
+    void testTryAcquire_keepsClientsAndRouteClassesApart() {
+        RateLimiter limiter = limiter(1024, new RateLimitProperties.Limit(1, 0.01));
+
+        assertEquals(0, limiter.tryAcquire(RouteClass.HISTORY, "alice@example.com"));
+        assertEquals(0, limiter.tryAcquire(RouteClass.HISTORY, "bob@example.com"));
+        assertEquals(0, limiter.tryAcquire(RouteClass.STANDARD, "alice@example.com"));
+        assertEquals(100, limiter.tryAcquire(RouteClass.HISTORY, "alice@example.com"));
+    }
+
+    @Test
+    void testTryAcquire_staysBoundedAndRecyclesIdleBuckets() {
+        RateLimiter limiter = limiter(8, new RateLimitProperties.Limit(1, 0.01));
+
+        limiter.tryAcquire(RouteClass.HISTORY, "first");
+        for (int i = 0; i < 10_000; i++) {
+            clock.incrementAndGet();
+            limiter.tryAcquire(RouteClass.HISTORY, "client-" + i);
+        }
+
+        // The table holds eight buckets, so the first client's was recycled long ago
+        assertEquals(0, limiter.tryAcquire(RouteClass.HISTORY, "first"));
+        assertEquals(10_000, meterRegistry.counter("ratelimit.buckets.evicted").count(), 16);
+    }
+
+    private RateLimiter limiter(int maxBuckets, RateLimitProperties.Limit limit) {
+        RateLimitProperties properties = new RateLimitProperties(true, maxBuckets,
+                Map.of(RouteClass.HISTORY, limit, RouteClass.STANDARD, limit));
+        return new RateLimiter(properties, meterRegistry, clock::get);
+    }
+}
@@ -0,0 +1,113 @@
+package com.eaglebank.security;
+
+import com.eaglebank.config.ShardProperties;
+import com.eaglebank.config.TokenRevocationProperties;
+import com.eaglebank.entity.RevocationScope;
+import com.eaglebank.entity.TokenRevocation;
+import com.eaglebank.repository.TokenRevocationRepository;
+import com.eaglebank.service.JwtService;
+import com.eaglebank.sharding.Shards;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationsTest {
+
+    private final JwtService jwtService = new JwtService();
+    private TokenRevocationRepository repository;
+    private TokenRevocations revocations;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(TokenRevocationRepository.class);
+        when(repository.findUnexpired(any())).thenReturn(List.of());
+        when(repository.findRevokedSince(any())).thenReturn(List.of());
+        revocations = new TokenRevocations(repository, new TokenRevocationProperties(1_000, 0.001, null, null),
+                jwtService, mock(PlatformTransactionManager.class),
+                new Shards(new ShardProperties(false, null, 0, null, 0, null), mock(PlatformTransactionManager.class)),
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testIsRevoked_liveTokenIsAnsweredByTheFilterAlone() {
+        revocations.rebuild();
+
+        assertFalse(revocations.isRevoked(claimsFor("alice@example.com")));
+        verify(repository, never()).existsByScopeAndRevokedKey(any(), anyString());
+        verify(repository, never()).existsByScopeAndRevokedKeyAndRevokedAtGreaterThanEqual(any(), anyString(), any());
+    }
+
+    @Test
+    void testIsRevoked_beforeTheFirstBuildChecksTheTable() {
+        Claims claims = claimsFor("alice@example.com");
+        when(repository.existsByScopeAndRevokedKey(RevocationScope.TOKEN, claims.getId())).thenReturn(true);
+
+        assertTrue(revocations.isRevoked(claims));
+    }
+
+    @Test
+    void testRevokeToken_onlyThatTokenFallsThroughToTheTable() {
+        revocations.rebuild();
+        Claims revoked = claimsFor("alice@example.com");
+        Claims other = claimsFor("alice@example.com");
+        when(repository.existsByScopeAndRevokedKey(RevocationScope.TOKEN, revoked.getId())).thenReturn(true);
+
+        revocations.revokeToken(revoked);
+
+        verify(repository).save(any(TokenRevocation.class));
+        assertTrue(revocations.isRevoked(revoked));
+        assertFalse(revocations.isRevoked(other));
+        verify(repository, never()).existsByScopeAndRevokedKey(RevocationScope.TOKEN, other.getId());
+    }
+
+    @Test
+    void testRevokeUser_coversTokensIssuedBeforeTheRevocation() {
+        revocations.rebuild();
+        Claims claims = claimsFor("alice@example.com");
+        when(repository.existsByScopeAndRevokedKeyAndRevokedAtGreaterThanEqual(
+                eq(RevocationScope.USER), eq("alice@example.com"), any())).thenReturn(true);
+
+        revocations.revokeUser("alice@example.com");
+
+        assertTrue(revocations.isRevoked(claims));
+        assertFalse(revocations.isRevoked(claimsFor("bob@example.com")));
+    }
+
+    @Test
+    void testPoll_addsRevocationsMadeOnOtherInstances() {
+        revocations.rebuild();
+        Claims claims = claimsFor("alice@example.com");
+        when(repository.findRevokedSince(any())).thenReturn(List.of(TokenRevocation.builder()
+                .scope(RevocationScope.TOKEN)
+                .revokedKey(claims.getId())
+                .revokedAt(LocalDateTime.now())
+                .expiresAt(LocalDateTime.now().plusMinutes(15))
+                .build()));
+        when(repository.existsByScopeAndRevokedKey(RevocationScope.TOKEN, claims.getId())).thenReturn(true);
+
+        assertFalse(revocations.isRevoked(claims));
+        revocations.poll();
+
+        assertTrue(revocations.isRevoked(claims));
+    }
+
+    private Claims claimsFor(String email) {
+        return jwtService.extractClaims(jwtService.generateToken(new UsernamePasswordAuthenticationToken(email, null)));
+    }
+}
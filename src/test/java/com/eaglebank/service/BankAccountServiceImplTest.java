@@ -0,0 +1,275 @@
+package com.eaglebank.service;
+
+import com.eaglebank.audit.AuditAction;
+import com.eaglebank.audit.AuditTrail;
+import com.eaglebank.dto.BankAccountResponse;
+import com.eaglebank.dto.CreateBankAccountRequest;
+import com.eaglebank.entity.BankAccount;
+import com.eaglebank.entity.Transaction;
+import com.eaglebank.entity.TransactionType;
+import com.eaglebank.entity.User;
+import com.eaglebank.event.MoneyMovementEvent;
+import com.eaglebank.event.MovementType;
+import com.eaglebank.exception.ConflictException;
+import com.eaglebank.fx.FxRates;
+import com.eaglebank.journal.BalanceProjection;
+import com.eaglebank.journal.Journal;
+import com.eaglebank.limits.VelocityLimiter;
+import com.eaglebank.repository.BankAccountRepository;
+import com.eaglebank.repository.ScheduledPaymentRepository;
+import com.eaglebank.repository.TransactionRepository;
+import com.eaglebank.repository.UserRepository;
+import com.eaglebank.sharding.ShardDirectory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.core.Authentication;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class BankAccountServiceImplTest {
+
+    @Mock
+    private BankAccountRepository bankAccountRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private VelocityLimiter velocityLimiter;
+
+    @Mock
+    private ScheduledPaymentRepository scheduledPaymentRepository;
+
+    @Mock
+    private FxRates fxRates;
+
+    @Mock
+    private AccountDirectory accountDirectory;
+
+    @Mock
+    private Journal journal;
+
+    @Mock
+    private BalanceProjection balanceProjection;
+
+    @Mock
+    private Authentication authentication;
+
+    @Mock
+    private ShardDirectory shardDirectory;
+
+    @Mock
+    private AuditTrail auditTrail;
+
+    @InjectMocks
+    private BankAccountServiceImpl bankAccountService;
+
+    private User user;
+    private BankAccount account;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        user = User.builder().id(UUID.randomUUID()).email("alice@example.com").build();
+        account = BankAccount.builder()
+                .id(UUID.randomUUID())
+                .user(user)
+                .balance(new BigDecimal("100.00"))
+                .createdTimestamp(LocalDateTime.now())
+                .updatedTimestamp(LocalDateTime.now())
+                .build();
+
+        when(fxRates.baseCurrency()).thenReturn("GBP");
+        when(balanceProjection.covers(any(), any())).thenReturn(true);
+        when(fxRates.supports(anyString())).thenAnswer(inv -> Set.of("GBP", "EUR").contains(inv.getArgument(0)));
+        when(authentication.getName()).thenReturn(user.getEmail());
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(bankAccountRepository.lockById(account.getId())).thenReturn(Optional.of(account));
+        when(bankAccountRepository.save(any(BankAccount.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(inv -> {
+            Transaction txn = inv.getArgument(0);
+            txn.setId(UUID.randomUUID());
+            return txn;
+        });
+    }
+
+    @Test
+    void testCreateAccount_recordsOpeningBalance() {
+        BankAccount created = BankAccount.builder().id(UUID.randomUUID()).build();
+        when(bankAccountRepository.save(any(BankAccount.class))).thenAnswer(inv -> {
+            BankAccount saved = inv.getArgument(0);
+            saved.setId(created.getId());
+            return saved;
+        });
+
+        bankAccountService.createAccount(new CreateBankAccountRequest("personal", "Eagle", "10-10-10",
+                "01234567", new BigDecimal("250.00"), null), authentication);
+
+        Transaction opening = capturedMovement();
+        assertEquals(TransactionType.OPENING, opening.getType());
+        assertNull(opening.getFromAccount());
+        assertEquals(created.getId(), opening.getToAccount().getId());
+        assertEquals(new BigDecimal("250.00"), opening.getAmount());
+    }
+
+    @Test
+    void testCreateAccount_defaultsToBaseCurrencyAndRejectsUnsupported() {
+        when(bankAccountRepository.save(any(BankAccount.class))).thenAnswer(inv -> {
+            BankAccount saved = inv.getArgument(0);
+            saved.setId(UUID.randomUUID());
+            return saved;
+        });
+
+        BankAccountResponse sterling = bankAccountService.createAccount(new CreateBankAccountRequest("personal",
+                "Eagle", "10-10-10", "01234567", BigDecimal.ZERO, null), authentication);
+        BankAccountResponse euro = bankAccountService.createAccount(new CreateBankAccountRequest("personal",
+                "Eagle", "10-10-10", "01234568", BigDecimal.ZERO, "EUR"), authentication);
+
+        assertEquals("GBP", sterling.currency());
+        assertEquals("EUR", euro.currency());
+        assertThrows(IllegalArgumentException.class, () -> bankAccountService.createAccount(
+                new CreateBankAccountRequest("personal", "Eagle", "10-10-10", "01234569", BigDecimal.ZERO, "XYZ"),
+                authentication));
+    }
+
+    @Test
+    void testUpdateAccount_rejectsCurrencyChange() {
+        assertThrows(IllegalArgumentException.class, () -> bankAccountService.updateAccount(account.getId(),
+                new CreateBankAccountRequest("personal", "Eagle", "10-10-10", "01234567",
+                        new BigDecimal("100.00"), "EUR"), authentication));
+        verify(bankAccountRepository, never()).save(any());
+    }
+
+    @Test
+    void testDeposit_recordsMovementAndPublishesItsId() {
+        bankAccountService.deposit(account.getId(), new BigDecimal("40.00"), authentication);
+
+        Transaction deposit = capturedMovement();
+        assertEquals(TransactionType.DEPOSIT, deposit.getType());
+        assertNull(deposit.getFromAccount());
+        assertSame(account, deposit.getToAccount());
+        assertEquals(new BigDecimal("140.00"), account.getBalance());
+
+        ArgumentCaptor<MoneyMovementEvent> event = ArgumentCaptor.forClass(MoneyMovementEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(deposit.getId(), event.getValue().transactionId());
+    }
+
+    @Test
+    void testWithdraw_recordsOutgoingMovement() {
+        bankAccountService.withdraw(account.getId(), new BigDecimal("30.00"), authentication);
+
+        Transaction withdrawal = capturedMovement();
+        assertEquals(TransactionType.WITHDRAWAL, withdrawal.getType());
+        assertSame(account, withdrawal.getFromAccount());
+        assertNull(withdrawal.getToAccount());
+    }
+
+    @Test
+    void testUpdateAccount_recordsBalanceOverwriteAsAdjustment() {
+        bankAccountService.updateAccount(account.getId(), new CreateBankAccountRequest("personal", "Eagle",
+                "10-10-10", "01234567", new BigDecimal("75.50"), null), authentication);
+
+        Transaction adjustment = capturedMovement();
+        assertEquals(TransactionType.ADJUSTMENT, adjustment.getType());
+        assertSame(account, adjustment.getFromAccount());
+        assertNull(adjustment.getToAccount());
+        assertEquals(new BigDecimal("24.50"), adjustment.getAmount());
+
+        ArgumentCaptor<MoneyMovementEvent> event = ArgumentCaptor.forClass(MoneyMovementEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(MovementType.ADJUSTMENT_DEBIT, event.getValue().type());
+        assertEquals(new BigDecimal("24.50"), event.getValue().amount());
+        verify(auditTrail).record(eq(AuditAction.ACCOUNT_UPDATED), eq(account.getId()),
+                argThat(before -> new BigDecimal("100.00").equals(before.get("balance"))),
+                argThat(after -> new BigDecimal("75.50").equals(after.get("balance"))));
+    }
+
+    @Test
+    void testUpdateAccount_unchangedBalanceRecordsNothing() {
+        bankAccountService.updateAccount(account.getId(), new CreateBankAccountRequest("savings", "Eagle",
+                "10-10-10", "01234567", new BigDecimal("100.0"), null), authentication);
+
+        verify(transactionRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testDeleteAccount_closesTheAccountAndPaysOutItsBalance() {
+        bankAccountService.deleteAccount(account.getId(), authentication);
+
+        assertThat(account.getClosedTimestamp()).isNotNull();
+        assertThat(account.getBalance()).isEqualByComparingTo("0");
+        verify(bankAccountRepository).save(account);
+        verify(bankAccountRepository, never()).delete(any());
+        Transaction payout = capturedMovement();
+        assertEquals(TransactionType.WITHDRAWAL, payout.getType());
+        assertSame(account, payout.getFromAccount());
+        assertEquals(new BigDecimal("100.00"), payout.getAmount());
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof MoneyMovementEvent movement
+                && movement.type() == MovementType.WITHDRAWAL
+                && movement.balanceAfter().signum() == 0));
+        verify(accountDirectory).evict(account.getSortCode(), account.getAccountNumber());
+        verify(auditTrail).record(eq(AuditAction.ACCOUNT_DELETED), eq(account.getId()), anyMap(), eq(Map.of()));
+    }
+
+    @Test
+    void testDeleteAccount_refusesAnOverdrawnAccount() {
+        account.setBalance(new BigDecimal("-5.00"));
+
+        assertThrows(IllegalArgumentException.class, () -> bankAccountService.deleteAccount(account.getId(), authentication));
+        assertNull(account.getClosedTimestamp());
+        verify(bankAccountRepository, never()).save(any());
+    }
+
+    @Test
+    void testCreateAccount_rejectsTakenSortCodeAndNumber() {
+        when(bankAccountRepository.existsBySortCodeAndAccountNumber("10-10-10", "01234567")).thenReturn(true);
+
+        assertThrows(ConflictException.class, () -> bankAccountService.createAccount(new CreateBankAccountRequest(
+                "personal", "Eagle", "10-10-10", "01234567", BigDecimal.ZERO, null), authentication));
+        verify(bankAccountRepository, never()).save(any());
+    }
+
+    @Test
+    void testUpdateAccount_renumberingEvictsOldNumber() {
+        account.setSortCode("10-10-10");
+        account.setAccountNumber("01234567");
+
+        bankAccountService.updateAccount(account.getId(), new CreateBankAccountRequest("personal", "Eagle",
+                "10-10-10", "01234568", new BigDecimal("100.00"), null), authentication);
+
+        verify(accountDirectory).evict("10-10-10", "01234567");
+        assertEquals("01234568", account.getAccountNumber());
+    }
+
+    private Transaction capturedMovement() {
+        ArgumentCaptor<Transaction> captor = ArgumentCaptor.forClass(Transaction.class);
+        verify(transactionRepository).save(captor.capture());
+        assertThat(captor.getValue().getCreatedTimestamp()).isNotNull();
+        return captor.getValue();
+    }
+}
@@ -1,28 +1,54 @@
 package com.eaglebank.service;
 
+import com.eaglebank.archive.ArchivedTransaction;
+import com.eaglebank.archive.TransactionArchive;
+import com.eaglebank.config.AccountProperties;
+import com.eaglebank.config.FxProperties;
+import com.eaglebank.config.JournalProperties;
 import com.eaglebank.dto.CreateTransactionRequest;
 import com.eaglebank.dto.TransactionResponse;
+import com.eaglebank.dto.TransactionSearchRequest;
+import com.eaglebank.dto.TransactionSearchResponse;
 import com.eaglebank.entity.BankAccount;
 import com.eaglebank.entity.Transaction;
+import com.eaglebank.entity.TransactionType;
 import com.eaglebank.entity.User;
+import com.eaglebank.event.MoneyMovementEvent;
 import com.eaglebank.exception.ForbiddenException;
+import com.eaglebank.exception.LimitExceededException;
 import com.eaglebank.exception.ResourceNotFoundException;
+import com.eaglebank.fx.FxRates;
+import com.eaglebank.journal.BalanceProjection;
+import com.eaglebank.journal.Journal;
+import com.eaglebank.limits.VelocityLimiter;
 import com.eaglebank.repository.BankAccountRepository;
 import com.eaglebank.repository.TransactionRepository;
 import com.eaglebank.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.eaglebank.sharding.CrossShardTransfers;
+import com.eaglebank.sharding.ShardDirectory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.Authentication;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -38,10 +64,27 @@ class TransactionServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private TransactionArchive transactionArchive;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private VelocityLimiter velocityLimiter;
+
+    @Mock
+    private Journal journal;
+
+    @Mock
+    private ShardDirectory shardDirectory;
+
+    @Mock
+    private CrossShardTransfers crossShardTransfers;
+
     @Mock
     private Authentication authentication;
 
-    @InjectMocks
     private TransactionServiceImpl transactionService;
 
     private UUID transactionId;
@@ -55,6 +98,13 @@ class TransactionServiceImplTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        FxRates fxRates = new FxRates(new FxProperties("GBP", Map.of("EUR", new BigDecimal("1.17")), null, null),
+                new SimpleMeterRegistry());
+        transactionService = new TransactionServiceImpl(transactionRepository, bankAccountRepository, userRepository,
+                transactionArchive, velocityLimiter, new TransferExecutor(transactionRepository, eventPublisher, fxRates, journal,
+                        new BalanceProjection(new JournalProperties(null, null, null, null, 0), new SimpleMeterRegistry())),
+                new AccountDirectory(bankAccountRepository, new AccountProperties(null, 0), new SimpleMeterRegistry()),
+                shardDirectory, crossShardTransfers);
 
         transactionId = UUID.randomUUID();
         senderId = UUID.randomUUID();
@@ -184,6 +234,21 @@ class TransactionServiceImplTest {
         assertThrows(ResourceNotFoundException.class, () -> transactionService.getTransactionById(transactionId, authentication));
     }
 
+    @Test
+    void testGetTransactionById_fallsBackToTheArchiveForTheCallersAccounts() {
+        ArchivedTransaction archived = new ArchivedTransaction(transactionId, receiverId, senderId,
+                BigDecimal.valueOf(40), LocalDateTime.of(2024, 2, 1, 0, 0), TransactionType.TRANSFER);
+        when(authentication.getName()).thenReturn(senderEmail);
+        when(userRepository.findByEmail(senderEmail)).thenReturn(Optional.of(User.builder().id(senderId).email(senderEmail).build()));
+        when(transactionRepository.findById(transactionId)).thenReturn(Optional.empty());
+        when(bankAccountRepository.findByUserId(senderId)).thenReturn(List.of(senderAccount));
+        when(transactionArchive.find(transactionId, Set.of(senderId))).thenReturn(Optional.of(archived));
+
+        TransactionResponse result = transactionService.getTransactionById(transactionId, authentication);
+
+        assertEquals(transactionId.toString(), result.transactionId());
+    }
+
     @Test
     void testGetTransactions_success() {
         // Arrange
@@ -249,7 +314,7 @@ class TransactionServiceImplTest {
 
         when(authentication.getName()).thenReturn(email);
         when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
-        when(bankAccountRepository.findById(accountId)).thenReturn(Optional.of(account));
+        when(bankAccountRepository.findOpenById(accountId)).thenReturn(Optional.of(account));
         when(transactionRepository.findByFromAccountIdOrToAccountId(accountId, accountId))
                 .thenReturn(List.of(txn1));
 
@@ -274,7 +339,7 @@ class TransactionServiceImplTest {
 
         when(authentication.getName()).thenReturn(authEmail);
         when(userRepository.findByEmail(authEmail)).thenReturn(Optional.of(authUser));
-        when(bankAccountRepository.findById(accountId)).thenReturn(Optional.of(otherAccount));
+        when(bankAccountRepository.findOpenById(accountId)).thenReturn(Optional.of(otherAccount));
 
         // Act & Assert
         assertThrows(ForbiddenException.class,
@@ -302,12 +367,11 @@ class TransactionServiceImplTest {
                 .build();
 
         CreateTransactionRequest request = new CreateTransactionRequest(
-                fromId.toString(), toId.toString(), amount
+                fromId.toString(), toId.toString(), amount, "Rent March", null, null
         );
 
         when(authentication.getName()).thenReturn(email);
-        when(bankAccountRepository.findById(fromId)).thenReturn(Optional.of(from));
-        when(bankAccountRepository.findById(toId)).thenReturn(Optional.of(to));
+        stubLocks(from, to);
         when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> {
             Transaction txn = invocation.getArgument(0);
             txn.setId(UUID.randomUUID());
@@ -320,10 +384,145 @@ class TransactionServiceImplTest {
         // Assert
         assertThat(response).isNotNull();
         assertThat(response.amount()).isEqualByComparingTo(amount);
+        assertThat(response.reference()).isEqualTo("Rent March");
         assertThat(from.getBalance()).isEqualByComparingTo(BigDecimal.valueOf(150.00));
         assertThat(to.getBalance()).isEqualByComparingTo(BigDecimal.valueOf(200.00));
 
         verify(transactionRepository).save(any(Transaction.class));
+        verify(eventPublisher, times(2)).publishEvent(any(MoneyMovementEvent.class));
+        verify(velocityLimiter).reserve(fromId, toId, amount);
+    }
+
+    @Test
+    void testCreateTransaction_convertsAcrossCurrenciesAndRecordsRate() {
+        receiverAccount.setCurrency("EUR");
+        when(authentication.getName()).thenReturn(senderEmail);
+        stubLocks(senderAccount, receiverAccount);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> {
+            Transaction txn = invocation.getArgument(0);
+            txn.setId(UUID.randomUUID());
+            return txn;
+        });
+
+        TransactionResponse response = transactionService.createTransaction(
+                new CreateTransactionRequest(senderId.toString(), receiverId.toString(), new BigDecimal("100.00"),
+                        null, null, null),
+                authentication);
+
+        assertThat(senderAccount.getBalance()).isEqualByComparingTo("900.00");
+        assertThat(receiverAccount.getBalance()).isEqualByComparingTo("617.00");
+        assertThat(response.amount()).isEqualByComparingTo("100.00");
+        assertThat(response.creditedAmount()).isEqualByComparingTo("117.00");
+        assertThat(response.fxRate()).isEqualByComparingTo("1.17");
+        verify(velocityLimiter).reserve(senderId, receiverId, new BigDecimal("100.00"));
+    }
+
+    @Test
+    void testCreateTransaction_resolvesPayeeByAccountNumberFromWarmDirectory() {
+        receiverAccount.setSortCode("10-10-10");
+        receiverAccount.setAccountNumber("01234567");
+        when(authentication.getName()).thenReturn(senderEmail);
+        stubLocks(senderAccount, receiverAccount);
+        when(bankAccountRepository.findIdBySortCodeAndAccountNumber("10-10-10", "01234567"))
+                .thenReturn(Optional.of(receiverId));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> {
+            Transaction txn = invocation.getArgument(0);
+            txn.setId(UUID.randomUUID());
+            return txn;
+        });
+
+        for (int i = 0; i < 3; i++) {
+            TransactionResponse response = transactionService.createTransaction(new CreateTransactionRequest(
+                    senderId.toString(), null, BigDecimal.TEN, null, null, "01234567"), authentication);
+            assertEquals(receiverId.toString(), response.toAccountId());
+        }
+
+        assertThat(receiverAccount.getBalance()).isEqualByComparingTo("530");
+        verify(bankAccountRepository, times(1)).findIdBySortCodeAndAccountNumber("10-10-10", "01234567");
+    }
+
+    @Test
+    void testCreateTransaction_rechecksPayeeRenumberedElsewhere() {
+        receiverAccount.setSortCode("10-10-10");
+        receiverAccount.setAccountNumber("01234567");
+        BankAccount newHolder = BankAccount.builder().id(UUID.randomUUID()).balance(BigDecimal.ZERO)
+                .sortCode("10-10-10").accountNumber("01234567")
+                .user(User.builder().email("carol@example.com").build()).build();
+        when(authentication.getName()).thenReturn(senderEmail);
+        stubLocks(senderAccount, receiverAccount, newHolder);
+        when(bankAccountRepository.findIdBySortCodeAndAccountNumber("10-10-10", "01234567"))
+                .thenReturn(Optional.of(receiverId), Optional.of(newHolder.getId()));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> {
+            Transaction txn = invocation.getArgument(0);
+            txn.setId(UUID.randomUUID());
+            return txn;
+        });
+        CreateTransactionRequest request = new CreateTransactionRequest(
+                senderId.toString(), null, BigDecimal.TEN, null, "10-10-10", "01234567");
+
+        transactionService.createTransaction(request, authentication);
+        // Another instance moves the number to a different account
+        receiverAccount.setAccountNumber("01999999");
+        TransactionResponse second = transactionService.createTransaction(request, authentication);
+
+        assertEquals(newHolder.getId().toString(), second.toAccountId());
+        assertThat(receiverAccount.getBalance()).isEqualByComparingTo("510");
+        assertThat(newHolder.getBalance()).isEqualByComparingTo("10");
+    }
+
+    @Test
+    void testCreateTransaction_payeeOnAnotherShardIsSentForRelay() {
+        UUID remoteId = UUID.randomUUID();
+        CrossShardTransfers.Payee payee = new CrossShardTransfers.Payee(remoteId, 2, "GBP");
+        Transaction sent = Transaction.builder().id(UUID.randomUUID()).type(TransactionType.TRANSFER)
+                .fromAccount(senderAccount).counterpartyAccountId(remoteId).amount(BigDecimal.TEN)
+                .createdTimestamp(LocalDateTime.now()).build();
+        when(authentication.getName()).thenReturn(senderEmail);
+        stubLocks(senderAccount);
+        when(shardDirectory.shardOfAccount(remoteId)).thenReturn(2);
+        when(crossShardTransfers.findPayee(2, remoteId)).thenReturn(Optional.of(payee));
+        when(crossShardTransfers.send(senderAccount, payee, BigDecimal.TEN, null)).thenReturn(sent);
+
+        TransactionResponse response = transactionService.createTransaction(new CreateTransactionRequest(
+                senderId.toString(), remoteId.toString(), BigDecimal.TEN, null, null, null), authentication);
+
+        assertEquals(senderId.toString(), response.fromAccountId());
+        assertEquals(remoteId.toString(), response.toAccountId());
+        verify(velocityLimiter).reserve(senderId, remoteId, BigDecimal.TEN);
+        verify(bankAccountRepository).lockAllById(List.of(senderId));
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    void testCreateTransaction_unknownNumberOnAnotherShardEvictsItsDirectoryEntry() {
+        when(authentication.getName()).thenReturn(senderEmail);
+        stubLocks(senderAccount);
+        when(shardDirectory.shardOfAccount("10-10-10", "01234567")).thenReturn(1);
+        when(crossShardTransfers.findPayee(1, "10-10-10", "01234567")).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> transactionService.createTransaction(
+                new CreateTransactionRequest(senderId.toString(), null, BigDecimal.TEN, null, "10-10-10", "01234567"),
+                authentication));
+
+        verify(shardDirectory).evictAccount("10-10-10", "01234567");
+        verify(crossShardTransfers, never()).send(any(), any(), any(), any());
+    }
+
+    @Test
+    void testCreateTransaction_LimitExceededLeavesBalancesAlone() {
+        CreateTransactionRequest request = new CreateTransactionRequest(
+                senderId.toString(), receiverId.toString(), BigDecimal.valueOf(100), null, null, null);
+        when(authentication.getName()).thenReturn(senderEmail);
+        stubLocks(senderAccount, receiverAccount);
+        doThrow(new LimitExceededException("Daily limit of 10000.00 exceeded"))
+                .when(velocityLimiter).reserve(senderId, receiverId, BigDecimal.valueOf(100));
+
+        assertThrows(LimitExceededException.class, () -> transactionService.createTransaction(request, authentication));
+
+        assertThat(senderAccount.getBalance()).isEqualByComparingTo("1000");
+        assertThat(receiverAccount.getBalance()).isEqualByComparingTo("500");
+        verify(transactionRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -365,7 +564,7 @@ class TransactionServiceImplTest {
 
         when(authentication.getName()).thenReturn(authEmail);
         when(userRepository.findByEmail(authEmail)).thenReturn(Optional.of(user));
-        when(bankAccountRepository.findById(accountId)).thenReturn(Optional.of(ownedAccount)); // ✅ Add this
+        when(bankAccountRepository.findOpenById(accountId)).thenReturn(Optional.of(ownedAccount)); // ✅ Add this
         when(transactionRepository.findByFromAccountIdOrToAccountId(accountId, accountId))
                 .thenReturn(List.of(txn1, txn2));
 
@@ -391,7 +590,7 @@ class TransactionServiceImplTest {
 
         when(authentication.getName()).thenReturn(authEmail);
         when(userRepository.findByEmail(authEmail)).thenReturn(Optional.of(authUser));
-        when(bankAccountRepository.findById(accountId)).thenReturn(Optional.of(account));
+        when(bankAccountRepository.findOpenById(accountId)).thenReturn(Optional.of(account));
 
         assertThrows(ForbiddenException.class, () ->
                 transactionService.getTransactionsForAccount(accountId, authentication));
@@ -407,11 +606,131 @@ class TransactionServiceImplTest {
 
         when(authentication.getName()).thenReturn(authEmail);
         when(userRepository.findByEmail(authEmail)).thenReturn(Optional.of(authUser));
-        when(bankAccountRepository.findById(accountId)).thenReturn(Optional.empty()); // Account not found
+        when(bankAccountRepository.findOpenById(accountId)).thenReturn(Optional.empty()); // Account not found
 
         assertThrows(ResourceNotFoundException.class, () ->
                 transactionService.getTransactionsForAccount(accountId, authentication));
     }
 
+    @Test
+    void testGetTransactionsForAccount_readsArchiveBeforeBoundaryAndDbAfter() {
+        UUID accountId = UUID.randomUUID();
+        String email = "archive@example.com";
+        User user = User.builder().id(UUID.randomUUID()).email(email).build();
+        BankAccount account = BankAccount.builder().id(accountId).user(user).build();
+        BankAccount other = BankAccount.builder().id(UUID.randomUUID()).user(user).build();
+
+        LocalDateTime archivedUntil = LocalDateTime.of(2024, 4, 1, 0, 0);
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+        ArchivedTransaction cold = new ArchivedTransaction(UUID.randomUUID(), accountId, other.getId(),
+                BigDecimal.valueOf(10), LocalDateTime.of(2024, 2, 1, 0, 0), TransactionType.TRANSFER);
+        Transaction hot = Transaction.builder()
+                .id(UUID.randomUUID())
+                .fromAccount(other)
+                .toAccount(account)
+                .amount(BigDecimal.valueOf(20))
+                .createdTimestamp(LocalDateTime.of(2024, 5, 1, 0, 0))
+                .build();
+
+        when(authentication.getName()).thenReturn(email);
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+        when(bankAccountRepository.findOpenById(accountId)).thenReturn(Optional.of(account));
+        when(transactionArchive.archivedUntil()).thenReturn(archivedUntil);
+        when(transactionArchive.read(accountId, from, archivedUntil)).thenReturn(List.of(cold));
+        when(transactionRepository.findForAccountBetween(eq(accountId), eq(archivedUntil), any(LocalDateTime.class)))
+                .thenReturn(List.of(hot));
+
+        List<TransactionResponse> result = transactionService.getTransactionsForAccount(accountId, from, null, authentication);
+
+        assertThat(result).extracting(TransactionResponse::transactionId)
+                .containsExactly(hot.getId().toString(), cold.id().toString());
+        verify(transactionRepository, never()).findByFromAccountIdOrToAccountId(any(), any());
+    }
+
+    @Test
+    void testGetTransactionsForAccount_skipsDbWhenRangeIsFullyArchived() {
+        UUID accountId = UUID.randomUUID();
+        String email = "archive@example.com";
+        User user = User.builder().id(UUID.randomUUID()).email(email).build();
+        BankAccount account = BankAccount.builder().id(accountId).user(user).build();
 
+        LocalDateTime archivedUntil = LocalDateTime.of(2024, 4, 1, 0, 0);
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 2, 1, 0, 0);
+
+        when(authentication.getName()).thenReturn(email);
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+        when(bankAccountRepository.findOpenById(accountId)).thenReturn(Optional.of(account));
+        when(transactionArchive.archivedUntil()).thenReturn(archivedUntil);
+
+        transactionService.getTransactionsForAccount(accountId, from, to, authentication);
+
+        verify(transactionArchive).read(accountId, from, to);
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void testSearchTransactions_pagesFromDatabaseIntoArchive() {
+        UUID other = UUID.randomUUID();
+        LocalDateTime archivedUntil = LocalDateTime.of(2024, 4, 1, 0, 0);
+        List<Transaction> hot = List.of(
+                hotTransfer(archivedUntil.plusDays(3), "Rent May"),
+                hotTransfer(archivedUntil.plusDays(2), "Rent April"));
+        ArchivedTransaction rentMarch = new ArchivedTransaction(UUID.randomUUID(), senderId, other,
+                new BigDecimal("900.00"), archivedUntil.minusDays(20), TransactionType.TRANSFER, null, null, "Rent March");
+
+        when(authentication.getName()).thenReturn(senderEmail);
+        when(bankAccountRepository.findIdsByUserEmail(senderEmail)).thenReturn(List.of(senderId));
+        when(transactionArchive.archivedUntil()).thenReturn(archivedUntil);
+        when(transactionArchive.streamNewestFirst(anyCollection(), any(), any(), eq("RENT"), any()))
+                .thenAnswer(invocation -> Stream.of(rentMarch));
+        when(transactionRepository.findBy(any(Specification.class), any())).thenReturn(hot, List.of());
+
+        TransactionSearchResponse first = transactionService.searchTransactions(
+                new TransactionSearchRequest("rent", null, null, null, null, null, null, 1), authentication);
+
+        assertThat(first.transactions()).extracting(TransactionResponse::reference).containsExactly("Rent May");
+        assertThat(first.nextCursor()).isNotNull();
+        verify(transactionArchive, never()).streamNewestFirst(anyCollection(), any(), any(), any(), any());
+
+        TransactionSearchResponse second = transactionService.searchTransactions(
+                new TransactionSearchRequest("RENT", null, null, null, null, null, first.nextCursor(), 5),
+                authentication);
+
+        assertThat(second.transactions()).extracting(TransactionResponse::reference).containsExactly("Rent March");
+        assertThat(second.nextCursor()).isNull();
+    }
+
+    @Test
+    void testSearchTransactions_rejectsMalformedCursor() {
+        when(authentication.getName()).thenReturn(senderEmail);
+        when(bankAccountRepository.findIdsByUserEmail(senderEmail)).thenReturn(List.of(senderId));
+
+        assertThrows(IllegalArgumentException.class, () -> transactionService.searchTransactions(
+                new TransactionSearchRequest(null, null, null, null, null, null, "not-a-cursor", null),
+                authentication));
+    }
+
+    private Transaction hotTransfer(LocalDateTime at, String reference) {
+        return Transaction.builder()
+                .id(UUID.randomUUID())
+                .fromAccount(senderAccount)
+                .toAccount(receiverAccount)
+                .amount(new BigDecimal("900.00"))
+                .reference(reference)
+                .createdTimestamp(at)
+                .build();
+    }
+
+    // Serves account locks from the given accounts, in id order as the locking query returns them
+    private void stubLocks(BankAccount... accounts) {
+        Map<UUID, BankAccount> byId = Arrays.stream(accounts)
+                .collect(Collectors.toMap(BankAccount::getId, Function.identity()));
+        when(bankAccountRepository.lockAllById(anyCollection())).thenAnswer(invocation -> {
+            Collection<UUID> ids = invocation.getArgument(0);
+            return ids.stream().distinct().sorted().map(byId::get).filter(Objects::nonNull).toList();
+        });
+        when(bankAccountRepository.lockById(any())).thenCallRealMethod();
+    }
 }
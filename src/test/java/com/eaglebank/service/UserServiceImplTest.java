@@ -1,5 +1,8 @@
 package com.eaglebank.service;
 
+import com.eaglebank.audit.AuditAction;
+import com.eaglebank.audit.AuditTrail;
+import com.eaglebank.config.ShardProperties;
 import com.eaglebank.dto.AddressRequest;
 import com.eaglebank.dto.CreateUserRequest;
 import com.eaglebank.dto.UserResponse;
@@ -8,14 +11,20 @@ import com.eaglebank.entity.User;
 import com.eaglebank.exception.ConflictException;
 import com.eaglebank.exception.ForbiddenException;
 import com.eaglebank.exception.ResourceNotFoundException;
+import com.eaglebank.repository.BankAccountRepository;
 import com.eaglebank.repository.UserRepository;
+import com.eaglebank.security.TokenRevocations;
+import com.eaglebank.sharding.ShardDirectory;
+import com.eaglebank.sharding.Shards;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -30,6 +39,22 @@ class UserServiceImplTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private BankAccountRepository bankAccountRepository;
+
+    @Mock
+    private TokenRevocations tokenRevocations;
+
+    @Mock
+    private ShardDirectory shardDirectory;
+
+    @Mock
+    private AuditTrail auditTrail;
+
+    @Spy
+    private Shards shards = new Shards(new ShardProperties(false, null, 0, null, 0, null),
+            mock(PlatformTransactionManager.class));
+
     @Mock
     private Authentication authentication;
 
@@ -85,6 +110,8 @@ class UserServiceImplTest {
         assertEquals("jane.smith@example.com", response.email());
         assertEquals("Jane Smith", response.name());
         verify(userRepository).save(any(User.class));
+        verify(auditTrail).record(eq(AuditAction.USER_CREATED), eq(userId), eq(Map.of()),
+                argThat(after -> "jane.smith@example.com".equals(after.get("email")) && !after.containsKey("password")));
     }
 
     @Test
@@ -93,6 +120,7 @@ class UserServiceImplTest {
 
         assertThrows(ConflictException.class, () -> userService.createUser(request));
         verify(userRepository, never()).save(any());
+        verifyNoInteractions(auditTrail);
     }
 
     @Test
@@ -138,4 +166,28 @@ class UserServiceImplTest {
 
         assertThrows(ResourceNotFoundException.class, () -> userService.getUserById(userId, authentication));
     }
+
+    @Test
+    void testDeleteUserById_revokesOutstandingTokens() {
+        when(authentication.getName()).thenReturn("jane.smith@example.com");
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(bankAccountRepository.existsByUserId(userId)).thenReturn(false);
+
+        userService.deleteUserById(userId, authentication);
+
+        verify(userRepository).delete(user);
+        verify(tokenRevocations).revokeUser("jane.smith@example.com");
+        verify(auditTrail).record(eq(AuditAction.USER_DELETED), eq(userId),
+                argThat(before -> "Jane Smith".equals(before.get("name"))), eq(Map.of()));
+    }
+
+    @Test
+    void testDeleteUserById_conflictKeepsTokens() {
+        when(authentication.getName()).thenReturn("jane.smith@example.com");
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(bankAccountRepository.existsByUserId(userId)).thenReturn(true);
+
+        assertThrows(ConflictException.class, () -> userService.deleteUserById(userId, authentication));
+        verifyNoInteractions(tokenRevocations);
+    }
 }
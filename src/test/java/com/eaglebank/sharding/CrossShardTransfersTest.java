@@ -0,0 +1,236 @@
+package com.eaglebank.sharding;
+
+import com.eaglebank.config.AccountProperties;
+import com.eaglebank.config.FxProperties;
+import com.eaglebank.config.JournalProperties;
+import com.eaglebank.config.ShardProperties;
+import com.eaglebank.entity.BankAccount;
+import com.eaglebank.entity.ShardTransfer;
+import com.eaglebank.entity.ShardTransferStatus;
+import com.eaglebank.entity.Transaction;
+import com.eaglebank.event.MoneyMovementEvent;
+import com.eaglebank.event.MovementType;
+import com.eaglebank.fx.FxRates;
+import com.eaglebank.journal.BalanceProjection;
+import com.eaglebank.journal.Journal;
+import com.eaglebank.repository.BankAccountRepository;
+import com.eaglebank.repository.ShardTransferReceiptRepository;
+import com.eaglebank.repository.ShardTransferRepository;
+import com.eaglebank.repository.TransactionRepository;
+import com.eaglebank.service.AccountDirectory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CrossShardTransfersTest {
+
+    private ShardTransferRepository shardTransferRepository;
+    private ShardTransferReceiptRepository receiptRepository;
+    private BankAccountRepository bankAccountRepository;
+    private TransactionRepository transactionRepository;
+    private Journal journal;
+    private ApplicationEventPublisher eventPublisher;
+    private SimpleMeterRegistry meterRegistry;
+    private CrossShardTransfers transfers;
+
+    private BankAccount sender;
+    private BankAccount receiver;
+    // Shard bound at each repository call that matters, in order
+    private final List<String> calls = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        shardTransferRepository = mock(ShardTransferRepository.class);
+        receiptRepository = mock(ShardTransferReceiptRepository.class);
+        bankAccountRepository = mock(BankAccountRepository.class);
+        transactionRepository = mock(TransactionRepository.class);
+        journal = mock(Journal.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        meterRegistry = new SimpleMeterRegistry();
+
+        ShardProperties properties = new ShardProperties(true,
+                List.of(new ShardProperties.Node(null, "jdbc:postgresql://one/bank", null, null),
+                        new ShardProperties.Node(null, "jdbc:postgresql://two/bank", null, null)),
+                100, Duration.ofSeconds(1), 10, Duration.ofSeconds(30));
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        FxRates fxRates = new FxRates(new FxProperties("GBP", Map.of("EUR", new BigDecimal("1.17")), null, null),
+                meterRegistry);
+
+        transfers = new CrossShardTransfers(new Shards(properties, transactionManager), shardTransferRepository,
+                receiptRepository, bankAccountRepository, transactionRepository,
+                new AccountDirectory(bankAccountRepository, new AccountProperties(null, 0), meterRegistry),
+                journal, new BalanceProjection(new JournalProperties(null, null, null, null, 0), meterRegistry),
+                fxRates, eventPublisher, properties, meterRegistry);
+
+        sender = BankAccount.builder().id(ShardIds.next(1)).currency("GBP").balance(new BigDecimal("500.00")).build();
+        receiver = BankAccount.builder().id(ShardIds.next(2)).currency("EUR").balance(new BigDecimal("10.00")).build();
+
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> {
+            Transaction txn = invocation.getArgument(0);
+            txn.setId(ShardIds.next(Shards.current()));
+            return txn;
+        });
+        when(receiptRepository.tryRecord(any(), any())).thenAnswer(invocation -> {
+            calls.add("receipt@" + Shards.current());
+            return 1;
+        });
+    }
+
+    @Test
+    void testSend_debitsTheSenderAndLeavesTheTransferPending() {
+        CrossShardTransfers.Payee payee = new CrossShardTransfers.Payee(receiver.getId(), 2, "EUR");
+
+        Transaction sent = transfers.send(sender, payee, new BigDecimal("100.00"), "Rent");
+
+        assertThat(sender.getBalance()).isEqualByComparingTo("400.00");
+        assertThat(sent.getToAccount()).isNull();
+        assertThat(sent.getCounterpartyAccountId()).isEqualTo(receiver.getId());
+        verify(journal).post(sent);
+
+        ArgumentCaptor<ShardTransfer> captor = ArgumentCaptor.forClass(ShardTransfer.class);
+        verify(shardTransferRepository).save(captor.capture());
+        ShardTransfer transfer = captor.getValue();
+        assertThat(transfer.getTransactionId()).isEqualTo(sent.getId());
+        assertThat(transfer.getToShard()).isEqualTo(2);
+        assertThat(transfer.getCurrency()).isEqualTo("GBP");
+        assertThat(transfer.getStatus()).isEqualTo(ShardTransferStatus.PENDING);
+        verify(eventPublisher).publishEvent(new MoneyMovementEvent(sent.getId(), MovementType.TRANSFER_SENT,
+                sender.getId(), receiver.getId(), new BigDecimal("100.00"), sender.getBalance(),
+                sent.getCreatedTimestamp()));
+    }
+
+    @Test
+    void testSend_insufficientFundsChangesNothing() {
+        CrossShardTransfers.Payee payee = new CrossShardTransfers.Payee(receiver.getId(), 2, "EUR");
+
+        assertThatThrownBy(() -> transfers.send(sender, payee, new BigDecimal("500.01"), null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Insufficient funds");
+
+        assertThat(sender.getBalance()).isEqualByComparingTo("500.00");
+        verifyNoInteractions(transactionRepository, shardTransferRepository, journal, eventPublisher);
+    }
+
+    @Test
+    void testRelayBatch_creditsTheReceiverOnItsOwnShard() {
+        ShardTransfer transfer = pending();
+        claims(transfer);
+        when(bankAccountRepository.lockAllById(List.of(receiver.getId()))).thenAnswer(invocation -> {
+            calls.add("lock@" + Shards.current());
+            return List.of(receiver);
+        });
+
+        assertThat(transfers.relayBatch(1)).isEqualTo(1);
+
+        assertThat(calls).containsExactly("claim@1", "receipt@2", "lock@2");
+        assertThat(transfer.getStatus()).isEqualTo(ShardTransferStatus.CREDITED);
+        assertThat(transfer.getSettledTimestamp()).isNotNull();
+        assertThat(receiver.getBalance()).isEqualByComparingTo("127.00");
+
+        ArgumentCaptor<Transaction> captor = ArgumentCaptor.forClass(Transaction.class);
+        verify(journal).postReceived(captor.capture(), eq("GBP"));
+        Transaction received = captor.getValue();
+        assertThat(received.getFromAccount()).isNull();
+        assertThat(received.getCounterpartyAccountId()).isEqualTo(sender.getId());
+        assertThat(received.getCreditedAmount()).isEqualByComparingTo("117.00");
+        verify(eventPublisher).publishEvent(any(MoneyMovementEvent.class));
+    }
+
+    @Test
+    void testRelayBatch_transferAlreadyReceivedIsOnlyMarked() {
+        ShardTransfer transfer = pending();
+        claims(transfer);
+        when(receiptRepository.tryRecord(eq(transfer.getTransactionId()), any())).thenReturn(0);
+
+        transfers.relayBatch(1);
+
+        assertThat(transfer.getStatus()).isEqualTo(ShardTransferStatus.CREDITED);
+        verify(bankAccountRepository, never()).lockAllById(any());
+        verifyNoInteractions(journal, eventPublisher);
+        assertThat(receiver.getBalance()).isEqualByComparingTo("10.00");
+    }
+
+    @Test
+    void testRelayBatch_receiverGoneRefundsTheSender() {
+        ShardTransfer transfer = pending();
+        claims(transfer);
+        when(bankAccountRepository.lockAllById(any())).thenAnswer(invocation -> {
+            List<UUID> ids = invocation.getArgument(0);
+            calls.add("lock@" + Shards.current());
+            return ids.contains(sender.getId()) ? List.of(sender) : List.of();
+        });
+
+        transfers.relayBatch(1);
+
+        assertThat(calls).containsExactly("claim@1", "receipt@2", "lock@2", "receipt@1", "lock@1");
+        assertThat(transfer.getStatus()).isEqualTo(ShardTransferStatus.RETURNED);
+        assertThat(sender.getBalance()).isEqualByComparingTo("600.00");
+
+        ArgumentCaptor<Transaction> captor = ArgumentCaptor.forClass(Transaction.class);
+        verify(journal).postReceived(captor.capture(), eq("GBP"));
+        assertThat(captor.getValue().getToAccount()).isSameAs(sender);
+        assertThat(captor.getValue().getCounterpartyAccountId()).isEqualTo(receiver.getId());
+        assertThat(captor.getValue().getCreditedAmount()).isNull();
+        assertThat(meterRegistry.get("shards.transfers.relayed").tag("outcome", "returned").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void testRelayBatch_failedCreditIsRetriedLater() {
+        ShardTransfer transfer = pending();
+        claims(transfer);
+        when(bankAccountRepository.lockAllById(any())).thenThrow(new IllegalStateException("connection refused"));
+
+        transfers.relayBatch(1);
+        LocalDateTime firstRetry = transfer.getNextAttemptAt();
+
+        assertThat(transfer.getStatus()).isEqualTo(ShardTransferStatus.PENDING);
+        assertThat(transfer.getAttempts()).isEqualTo(1);
+        assertThat(transfer.getLastError()).contains("connection refused");
+        assertThat(firstRetry).isAfter(LocalDateTime.now());
+        assertThat(transfers.backoff(2)).isEqualTo(Duration.ofSeconds(2));
+        assertThat(transfers.backoff(10)).isEqualTo(Duration.ofSeconds(30));
+    }
+
+    private ShardTransfer pending() {
+        return ShardTransfer.builder()
+                .id(1L)
+                .transactionId(ShardIds.next(1))
+                .fromAccountId(sender.getId())
+                .toAccountId(receiver.getId())
+                .toShard(2)
+                .amount(new BigDecimal("100.00"))
+                .currency("GBP")
+                .status(ShardTransferStatus.PENDING)
+                .nextAttemptAt(LocalDateTime.now())
+                .createdTimestamp(LocalDateTime.now())
+                .build();
+    }
+
+    private void claims(ShardTransfer transfer) {
+        when(shardTransferRepository.claimDue(any(), anyInt())).thenAnswer(invocation -> {
+            calls.add("claim@" + Shards.current());
+            return List.of(transfer);
+        });
+    }
+}
@@ -0,0 +1,170 @@
+package com.eaglebank.sharding;
+
+import com.eaglebank.config.AccountProperties;
+import com.eaglebank.config.ShardProperties;
+import com.eaglebank.entity.ShardAssignment;
+import com.eaglebank.entity.User;
+import com.eaglebank.exception.ConflictException;
+import com.eaglebank.repository.BankAccountRepository;
+import com.eaglebank.repository.ShardAssignmentRepository;
+import com.eaglebank.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ShardDirectoryTest {
+
+    private static final String EMAIL = "jane@example.com";
+    private static final String KEY = "user:" + EMAIL;
+
+    private ShardAssignmentRepository shardAssignmentRepository;
+    private UserRepository userRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private ShardDirectory directory;
+
+    @BeforeEach
+    void setUp() {
+        shardAssignmentRepository = mock(ShardAssignmentRepository.class);
+        userRepository = mock(UserRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        directory = directory(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testShardOfUser_readsShardZeroOnceThenServesFromCache() {
+        AtomicInteger boundShard = new AtomicInteger(-1);
+        when(shardAssignmentRepository.findById(KEY)).thenAnswer(invocation -> {
+            boundShard.set(Shards.current());
+            return Optional.of(assignment(2));
+        });
+
+        assertThat(directory.shardOfUser(EMAIL)).isEqualTo(2);
+        assertThat(directory.shardOfUser(EMAIL)).isEqualTo(2);
+
+        verify(shardAssignmentRepository, times(1)).findById(KEY);
+        assertThat(boundShard.get()).isEqualTo(Shards.HOME);
+        assertThat(meterRegistry.get("shards.directory.lookups").tag("result", "hit").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testShardOfUser_unknownEmailIsNotCached() {
+        when(shardAssignmentRepository.findById(KEY)).thenReturn(Optional.empty());
+
+        assertThat(directory.shardOfUser(EMAIL)).isEqualTo(Shards.HOME);
+        assertThat(directory.shardOfUser(EMAIL)).isEqualTo(Shards.HOME);
+
+        verify(shardAssignmentRepository, times(2)).findById(KEY);
+    }
+
+    @Test
+    void testReserveUser_conflictsWhenTheEmailIsInUseOnAnotherShard() {
+        AtomicInteger boundShard = new AtomicInteger(-1);
+        when(shardAssignmentRepository.tryAssign(KEY, 1)).thenReturn(0);
+        when(shardAssignmentRepository.findById(KEY)).thenReturn(Optional.of(assignment(2)));
+        when(userRepository.findByEmail(EMAIL)).thenAnswer(invocation -> {
+            boundShard.set(Shards.current());
+            return Optional.of(User.builder().email(EMAIL).build());
+        });
+
+        assertThatThrownBy(() -> directory.reserveUser(EMAIL, 1))
+                .isInstanceOf(ConflictException.class)
+                .hasMessage("Email already exists");
+        assertThat(boundShard.get()).isEqualTo(2);
+        verify(shardAssignmentRepository, never()).takeOver(anyString(), anyInt(), anyInt(), anyLong());
+    }
+
+    @Test
+    void testReserveUser_takesOverAReservationWhoseUserNeverCommitted() {
+        when(shardAssignmentRepository.tryAssign(KEY, 1)).thenReturn(0);
+        when(shardAssignmentRepository.findById(KEY)).thenReturn(Optional.of(assignment(2)));
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.empty());
+        when(shardAssignmentRepository.takeOver(KEY, 2, 1, ShardDirectory.ABANDONED_AFTER.toMillis())).thenReturn(1);
+
+        directory.reserveUser(EMAIL, 1);
+
+        assertThat(directory.shardOfUser(EMAIL)).isEqualTo(1);
+        assertThat(meterRegistry.get("shards.directory.abandoned").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testReserveUser_releasedWhenTheTransactionRollsBack() {
+        when(shardAssignmentRepository.tryAssign(KEY, 1)).thenReturn(1);
+        TransactionSynchronizationManager.initSynchronization();
+
+        directory.reserveUser(EMAIL, 1);
+        verify(shardAssignmentRepository, never()).release(anyString(), anyInt());
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verify(shardAssignmentRepository).release(KEY, 1);
+    }
+
+    @Test
+    void testReleaseUser_waitsForCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        directory.releaseUser(EMAIL, 1);
+        verify(shardAssignmentRepository, never()).release(anyString(), anyInt());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(shardAssignmentRepository).release(KEY, 1);
+    }
+
+    @Test
+    void testDisabled_touchesNothing() {
+        ShardDirectory disabled = directory(false);
+
+        assertThat(disabled.shardOfUser(EMAIL)).isEqualTo(Shards.HOME);
+        assertThat(disabled.shardOfAccount(ShardIds.next(2))).isEqualTo(Shards.HOME);
+        disabled.reserveUser(EMAIL, 0);
+        disabled.releaseUser(EMAIL, 0);
+
+        verifyNoInteractions(shardAssignmentRepository, userRepository);
+    }
+
+    private ShardDirectory directory(boolean enabled) {
+        ShardProperties properties = new ShardProperties(enabled,
+                List.of(new ShardProperties.Node(null, "jdbc:postgresql://one/bank", null, null),
+                        new ShardProperties.Node(null, "jdbc:postgresql://two/bank", null, null)),
+                100, null, 0, null);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        return new ShardDirectory(shardAssignmentRepository, userRepository, mock(BankAccountRepository.class),
+                new Shards(properties, transactionManager), properties, new AccountProperties(null, 0),
+                meterRegistry);
+    }
+
+    private static ShardAssignment assignment(int shard) {
+        return ShardAssignment.builder()
+                .naturalKey(KEY)
+                .shard(shard)
+                .assignedAt(LocalDateTime.now())
+                .build();
+    }
+}
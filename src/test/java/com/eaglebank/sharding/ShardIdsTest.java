@@ -0,0 +1,35 @@
+package com.eaglebank.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShardIdsTest {
+
+    @Test
+    void testNext_recordsTheShardInAVersion8Id() {
+        for (int shard : new int[]{0, 1, 7, ShardIds.MAX_SHARDS - 1}) {
+            UUID id = ShardIds.next(shard);
+
+            assertThat(id.version()).isEqualTo(8);
+            assertThat(id.variant()).isEqualTo(2);
+            assertThat(ShardIds.shardOf(id)).isEqualTo(shard);
+        }
+        assertThat(ShardIds.next(3)).isNotEqualTo(ShardIds.next(3));
+    }
+
+    @Test
+    void testShardOf_idsFromBeforeShardingLiveOnShardZero() {
+        assertThat(ShardIds.shardOf(UUID.randomUUID())).isEqualTo(Shards.HOME);
+        assertThat(ShardIds.shardOf(UUID.fromString("00000000-0000-0000-0000-000000000005"))).isEqualTo(Shards.HOME);
+    }
+
+    @Test
+    void testNext_rejectsShardsOutOfRange() {
+        assertThatThrownBy(() -> ShardIds.next(ShardIds.MAX_SHARDS)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ShardIds.next(-1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,143 @@
+package com.eaglebank.sharding;
+
+import com.eaglebank.datasource.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Write throughput of same-shard transfers through {@link ShardRoutingDataSource} as shards
+ * are added, with a fixed number of writers per shard. Each shard should add close to its
+ * own share. Needs one Postgres database per shard, for example:
+ *
+ * <pre>
+ * mvn test -Pbenchmark -Deaglebank.benchmark.shards=jdbc:postgresql://localhost:5432/bench,jdbc:postgresql://localhost:5433/bench
+ * </pre>
+ *
+ * {@code eaglebank.benchmark.username} and {@code eaglebank.benchmark.password} default to
+ * {@code postgres}.
+ */
+@Tag("benchmark")
+class ShardThroughputBenchmarkTest {
+
+    private static final int ACCOUNTS_PER_SHARD = 10_000;
+    private static final int WRITERS_PER_SHARD = 8;
+    private static final long WARMUP_NANOS = 3_000_000_000L;
+    private static final long MEASURE_NANOS = 10_000_000_000L;
+
+    @Test
+    void benchmarkTransfersAcrossShards() throws Exception {
+        String urls = System.getProperty("eaglebank.benchmark.shards");
+        assumeTrue(urls != null && !urls.isBlank(), "Set -Deaglebank.benchmark.shards to one JDBC URL per shard");
+
+        List<DataSource> pools = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        for (String url : urls.split(",")) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setJdbcUrl(url.strip());
+            pool.setUsername(System.getProperty("eaglebank.benchmark.username", "postgres"));
+            pool.setPassword(System.getProperty("eaglebank.benchmark.password", "postgres"));
+            pool.setMaximumPoolSize(WRITERS_PER_SHARD);
+            pool.setPoolName("shard-" + pools.size());
+            pools.add(pool);
+            names.add(pool.getPoolName());
+        }
+
+        try (ShardRoutingDataSource routing = new ShardRoutingDataSource(pools, names, new SimpleMeterRegistry())) {
+            for (DataSource pool : pools) {
+                seed(pool);
+            }
+
+            double single = 0;
+            for (int shards = 1; shards <= pools.size(); shards++) {
+                run(routing, shards, WARMUP_NANOS);
+                double opsPerSecond = run(routing, shards, MEASURE_NANOS);
+                if (shards == 1) {
+                    single = opsPerSecond;
+                }
+                System.out.printf("%d shards, %d writers: %.0f transfers/s (%.2f of linear)%n",
+                        shards, shards * WRITERS_PER_SHARD, opsPerSecond, opsPerSecond / (single * shards));
+                assertThat(opsPerSecond / (single * shards)).isGreaterThan(0.6);
+            }
+        }
+    }
+
+    private static void seed(DataSource pool) throws SQLException {
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists bench_accounts");
+            statement.execute("create table bench_accounts (id int primary key, balance bigint not null)");
+            statement.execute("insert into bench_accounts select g, 1000000 from generate_series(0, "
+                    + (ACCOUNTS_PER_SHARD - 1) + ") g");
+        }
+    }
+
+    private static double run(ShardRoutingDataSource routing, int shards, long duration) throws Exception {
+        int writers = shards * WRITERS_PER_SHARD;
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        List<Future<Long>> results = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int shard = w % shards;
+            results.add(pool.submit(() -> {
+                Shards.bind(shard);
+                try (Connection connection = routing.getConnection();
+                     PreparedStatement debit = connection.prepareStatement(
+                             "update bench_accounts set balance = balance - ? where id = ?");
+                     PreparedStatement credit = connection.prepareStatement(
+                             "update bench_accounts set balance = balance + ? where id = ?")) {
+                    connection.setAutoCommit(false);
+                    long transfers = 0;
+                    long end = System.nanoTime() + duration;
+                    while (System.nanoTime() < end) {
+                        int from = ThreadLocalRandom.current().nextInt(ACCOUNTS_PER_SHARD);
+                        int to = (from + 1 + ThreadLocalRandom.current().nextInt(ACCOUNTS_PER_SHARD - 1))
+                                % ACCOUNTS_PER_SHARD;
+                        // Lower id first, as lockAllById does, so writers never deadlock
+                        transfer(debit, credit, Math.min(from, to) == from, from, to);
+                        connection.commit();
+                        transfers++;
+                    }
+                    return transfers;
+                } finally {
+                    Shards.bind(null);
+                }
+            }));
+        }
+        long total = 0;
+        for (Future<Long> result : results) {
+            total += result.get();
+        }
+        pool.shutdown();
+        return total / (duration / 1e9);
+    }
+
+    private static void transfer(PreparedStatement debit, PreparedStatement credit, boolean debitFirst,
+                                 int from, int to) throws SQLException {
+        debit.setLong(1, 1);
+        debit.setInt(2, from);
+        credit.setLong(1, 1);
+        credit.setInt(2, to);
+        if (debitFirst) {
+            debit.executeUpdate();
+            credit.executeUpdate();
+        } else {
+            credit.executeUpdate();
+            debit.executeUpdate();
+        }
+    }
+}
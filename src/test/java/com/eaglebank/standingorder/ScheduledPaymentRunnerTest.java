@@ -0,0 +1,220 @@
+package com.eaglebank.standingorder;
+
+import com.eaglebank.config.FxProperties;
+import com.eaglebank.config.JournalProperties;
+import com.eaglebank.config.LimitProperties;
+import com.eaglebank.config.ScheduledPaymentProperties;
+import com.eaglebank.config.ShardProperties;
+import com.eaglebank.entity.BankAccount;
+import com.eaglebank.entity.PaymentFrequency;
+import com.eaglebank.entity.ScheduledPayment;
+import com.eaglebank.entity.ScheduledPaymentRun;
+import com.eaglebank.entity.ScheduledPaymentStatus;
+import com.eaglebank.entity.ScheduledRunOutcome;
+import com.eaglebank.entity.Transaction;
+import com.eaglebank.fx.FxRates;
+import com.eaglebank.journal.BalanceProjection;
+import com.eaglebank.journal.Journal;
+import com.eaglebank.limits.VelocityLimiter;
+import com.eaglebank.repository.BankAccountRepository;
+import com.eaglebank.repository.ScheduledPaymentRepository;
+import com.eaglebank.repository.ScheduledPaymentRunRepository;
+import com.eaglebank.repository.TransactionRepository;
+import com.eaglebank.service.TransferExecutor;
+import com.eaglebank.sharding.Shards;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class ScheduledPaymentRunnerTest {
+
+    private ScheduledPaymentRepository scheduledPaymentRepository;
+    private ScheduledPaymentRunRepository runRepository;
+    private BankAccountRepository bankAccountRepository;
+    private TransactionRepository transactionRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private ScheduledPaymentRunner runner;
+
+    private BankAccount sender;
+    private BankAccount receiver;
+
+    @BeforeEach
+    void setUp() {
+        scheduledPaymentRepository = mock(ScheduledPaymentRepository.class);
+        runRepository = mock(ScheduledPaymentRunRepository.class);
+        bankAccountRepository = mock(BankAccountRepository.class);
+        transactionRepository = mock(TransactionRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(inv -> {
+            Transaction txn = inv.getArgument(0);
+            txn.setId(UUID.randomUUID());
+            return txn;
+        });
+
+        sender = BankAccount.builder().id(UUID.randomUUID()).balance(new BigDecimal("100.00")).build();
+        receiver = BankAccount.builder().id(UUID.randomUUID()).balance(BigDecimal.ZERO).build();
+        when(bankAccountRepository.lockAllById(any())).thenReturn(List.of(sender, receiver));
+
+        ScheduledPaymentProperties properties = new ScheduledPaymentProperties(true, 1, 10,
+                Duration.ofSeconds(1), 3, Duration.ofHours(1));
+        runner = new ScheduledPaymentRunner(scheduledPaymentRepository, runRepository, bankAccountRepository,
+                new TransferExecutor(transactionRepository, mock(ApplicationEventPublisher.class),
+                        new FxRates(new FxProperties(null, null, null, null), meterRegistry),
+                        mock(Journal.class), new BalanceProjection(new JournalProperties(null, null, null, null, 0), meterRegistry)),
+                new VelocityLimiter(transactionRepository,
+                        new LimitProperties(true, new BigDecimal("550.00"), 3, 5, Duration.ofDays(1)),
+                        mock(PlatformTransactionManager.class),
+                        new Shards(new ShardProperties(false, null, 0, null, 0, null), mock(PlatformTransactionManager.class)),
+                        meterRegistry),
+                properties, mock(PlatformTransactionManager.class), meterRegistry);
+    }
+
+    @Test
+    void testRunBatch_paysDuePaymentsAndMovesThemOn() {
+        ScheduledPayment payment = payment(PaymentFrequency.MONTHLY, "40.00", LocalDate.of(2024, 1, 31));
+        when(scheduledPaymentRepository.claimDue(any(), anyInt())).thenReturn(List.of(payment));
+
+        assertEquals(1, runner.runBatch());
+
+        assertThat(sender.getBalance()).isEqualByComparingTo("60.00");
+        assertThat(receiver.getBalance()).isEqualByComparingTo("40.00");
+        assertThat(payment.getOccurrence()).isEqualTo(1);
+        assertThat(payment.getNextRunDate()).isEqualTo(LocalDate.of(2024, 2, 29));
+
+        ScheduledPaymentRun run = savedRuns().get(0);
+        assertThat(run.getOutcome()).isEqualTo(ScheduledRunOutcome.PAID);
+        assertThat(run.getRunDate()).isEqualTo(LocalDate.of(2024, 1, 31));
+        assertThat(run.getTransactionId()).isNotNull();
+
+        // Anchored to the start date, so the short month does not drag later payments earlier
+        ScheduledPaymentRunner.advance(payment, LocalDateTime.now());
+        assertThat(payment.getNextRunDate()).isEqualTo(LocalDate.of(2024, 3, 31));
+    }
+
+    @Test
+    void testRunBatch_insufficientFundsRetriesThenSkipsTheDate() {
+        ScheduledPayment payment = payment(PaymentFrequency.WEEKLY, "500.00", LocalDate.of(2024, 1, 1));
+        when(scheduledPaymentRepository.claimDue(any(), anyInt())).thenReturn(List.of(payment));
+
+        runner.runBatch();
+        assertThat(payment.getAttempts()).isEqualTo(1);
+        assertThat(payment.getLastError()).isEqualTo("Insufficient funds");
+        assertThat(payment.getNextRunDate()).isEqualTo(LocalDate.of(2024, 1, 1));
+        assertThat(payment.getNextRunAt()).isAfter(LocalDateTime.now().plusMinutes(59));
+
+        runner.runBatch();
+        runner.runBatch();
+
+        assertThat(sender.getBalance()).isEqualByComparingTo("100.00");
+        assertThat(payment.getAttempts()).isZero();
+        assertThat(payment.getNextRunDate()).isEqualTo(LocalDate.of(2024, 1, 8));
+        assertThat(payment.getStatus()).isEqualTo(ScheduledPaymentStatus.ACTIVE);
+        assertEquals(1.0, meterRegistry.counter("scheduled.payments.skipped").count());
+        assertThat(savedRuns()).extracting(ScheduledPaymentRun::getOutcome).containsExactly(ScheduledRunOutcome.SKIPPED);
+    }
+
+    @Test
+    void testRunBatch_oneOffPaymentCompletes() {
+        ScheduledPayment payment = payment(PaymentFrequency.ONCE, "10.00", LocalDate.of(2024, 5, 1));
+        when(scheduledPaymentRepository.claimDue(any(), anyInt())).thenReturn(List.of(payment));
+
+        runner.runBatch();
+
+        assertThat(payment.getStatus()).isEqualTo(ScheduledPaymentStatus.COMPLETED);
+        assertThat(payment.getNextRunAt()).isNull();
+    }
+
+    @Test
+    void testRunBatch_failedBatchFallsBackToOnePaymentAtATime() {
+        ScheduledPayment good = payment(PaymentFrequency.ONCE, "10.00", LocalDate.of(2024, 5, 1));
+        ScheduledPayment bad = payment(PaymentFrequency.ONCE, "20.00", LocalDate.of(2024, 5, 1));
+        when(scheduledPaymentRepository.claimDue(any(), anyInt())).thenReturn(List.of(good, bad));
+        when(scheduledPaymentRepository.claimDueById(eq(good.getId()), any())).thenReturn(Optional.of(good));
+        when(scheduledPaymentRepository.claimDueById(eq(bad.getId()), any()))
+                .thenThrow(new DataIntegrityViolationException("duplicate run"));
+        when(scheduledPaymentRepository.findById(bad.getId())).thenReturn(Optional.of(bad));
+        when(runRepository.saveAll(anyList()))
+                .thenThrow(new DataIntegrityViolationException("duplicate run"))
+                .thenReturn(List.of());
+
+        assertEquals(2, runner.runBatch());
+
+        verify(scheduledPaymentRepository).claimDueById(eq(good.getId()), any());
+        assertThat(good.getStatus()).isEqualTo(ScheduledPaymentStatus.COMPLETED);
+        assertThat(bad.getAttempts()).isEqualTo(1);
+        assertThat(bad.getLastError()).contains("duplicate run");
+        assertEquals(1.0, meterRegistry.counter("scheduled.payments.failed").count());
+    }
+
+    @Test
+    void testRunBatch_velocityLimitIsRetriedLikeAnyRejection() {
+        List<ScheduledPayment> due = List.of(
+                payment(PaymentFrequency.ONCE, "10.00", LocalDate.of(2024, 5, 1)),
+                payment(PaymentFrequency.ONCE, "10.00", LocalDate.of(2024, 5, 1)),
+                payment(PaymentFrequency.ONCE, "10.00", LocalDate.of(2024, 5, 1)),
+                payment(PaymentFrequency.ONCE, "10.00", LocalDate.of(2024, 5, 1)));
+        when(scheduledPaymentRepository.claimDue(any(), anyInt())).thenReturn(due);
+
+        runner.runBatch();
+
+        assertThat(sender.getBalance()).isEqualByComparingTo("70.00");
+        ScheduledPayment limited = due.get(3);
+        assertThat(limited.getStatus()).isEqualTo(ScheduledPaymentStatus.ACTIVE);
+        assertThat(limited.getAttempts()).isEqualTo(1);
+        assertThat(limited.getLastError()).contains("Too many transfers");
+    }
+
+    @Test
+    void testRunBatch_refusedPaymentDoesNotCountAgainstTheLimits() {
+        ScheduledPayment unaffordable = payment(PaymentFrequency.ONCE, "500.00", LocalDate.of(2024, 5, 1));
+        ScheduledPayment affordable = payment(PaymentFrequency.ONCE, "60.00", LocalDate.of(2024, 5, 1));
+        when(scheduledPaymentRepository.claimDue(any(), anyInt())).thenReturn(List.of(unaffordable, affordable));
+
+        runner.runBatch();
+
+        assertThat(unaffordable.getLastError()).isEqualTo("Insufficient funds");
+        assertThat(affordable.getStatus()).isEqualTo(ScheduledPaymentStatus.COMPLETED);
+        assertThat(sender.getBalance()).isEqualByComparingTo("40.00");
+    }
+
+    private ScheduledPayment payment(PaymentFrequency frequency, String amount, LocalDate start) {
+        return ScheduledPayment.builder()
+                .id(UUID.randomUUID())
+                .fromAccount(sender)
+                .toAccount(receiver)
+                .amount(new BigDecimal(amount))
+                .frequency(frequency)
+                .startDate(start)
+                .nextRunDate(start)
+                .nextRunAt(start.atStartOfDay())
+                .status(ScheduledPaymentStatus.ACTIVE)
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ScheduledPaymentRun> savedRuns() {
+        ArgumentCaptor<List<ScheduledPaymentRun>> captor = ArgumentCaptor.forClass(List.class);
+        verify(runRepository, atLeastOnce()).saveAll(captor.capture());
+        return captor.getAllValues().stream().flatMap(List::stream).toList();
+    }
+}
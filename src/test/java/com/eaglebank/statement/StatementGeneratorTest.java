@@ -0,0 +1,227 @@
+package com.eaglebank.statement;
+
+import com.eaglebank.archive.TransactionArchive;
+import com.eaglebank.config.StatementProperties;
+import com.eaglebank.reconciliation.AccountRange;
+import com.eaglebank.repository.BankAccountRepository;
+import com.eaglebank.repository.StatementAccount;
+import com.eaglebank.repository.StatementLine;
+import com.eaglebank.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class StatementGeneratorTest {
+
+    private static final YearMonth PERIOD = YearMonth.of(2024, 3);
+    private static final LocalDateTime START = PERIOD.atDay(1).atStartOfDay();
+
+    @TempDir
+    Path dir;
+
+    private BankAccountRepository bankAccountRepository;
+    private TransactionRepository transactionRepository;
+    private TransactionArchive archive;
+
+    private final List<Account> accounts = new ArrayList<>();
+    private final List<Line> lines = new ArrayList<>();
+
+    private record Account(UUID accountId, String sortCode, String accountNumber, String accountType,
+                           BigDecimal openingBalance) implements StatementAccount {
+        public UUID getAccountId() {
+            return accountId;
+        }
+
+        public String getSortCode() {
+            return sortCode;
+        }
+
+        public String getAccountNumber() {
+            return accountNumber;
+        }
+
+        public String getAccountType() {
+            return accountType;
+        }
+
+        public BigDecimal getOpeningBalance() {
+            return openingBalance;
+        }
+    }
+
+    private record Line(UUID accountId, UUID transactionId, String type, UUID counterpartyAccountId,
+                        BigDecimal amount, LocalDateTime createdTimestamp) implements StatementLine {
+        public UUID getAccountId() {
+            return accountId;
+        }
+
+        public UUID getTransactionId() {
+            return transactionId;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public UUID getCounterpartyAccountId() {
+            return counterpartyAccountId;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public LocalDateTime getCreatedTimestamp() {
+            return createdTimestamp;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        bankAccountRepository = mock(BankAccountRepository.class);
+        transactionRepository = mock(TransactionRepository.class);
+        archive = mock(TransactionArchive.class);
+
+        when(bankAccountRepository.streamStatementAccounts(any(), any(), any(), any())).thenAnswer(inv -> {
+            AccountRange range = new AccountRange(inv.getArgument(0), inv.getArgument(1));
+            return accounts.stream()
+                    .filter(a -> range.contains(a.accountId()))
+                    .sorted(Comparator.comparing(Account::accountId, AccountRange::compareUnsigned))
+                    .map(StatementAccount.class::cast);
+        });
+        when(transactionRepository.streamStatementLines(any(), any(), any(), any())).thenAnswer(inv -> {
+            AccountRange range = new AccountRange(inv.getArgument(0), inv.getArgument(1));
+            return lines.stream()
+                    .filter(l -> range.contains(l.accountId()))
+                    .sorted(Comparator.comparing(Line::accountId, AccountRange::compareUnsigned)
+                            .thenComparing(Line::createdTimestamp))
+                    .map(StatementLine.class::cast);
+        });
+    }
+
+    private StatementGenerator generator(StatementFormat format, int ranges) {
+        StatementProperties properties = new StatementProperties(true, dir.toString(), format, 2, ranges,
+                256, Duration.ofHours(1));
+        return new StatementGenerator(bankAccountRepository, transactionRepository, archive, properties,
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testGenerate_writesOpeningMovementsAndClosingForEveryAccount() throws IOException {
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        UUID idle = UUID.randomUUID();
+        UUID transfer = UUID.randomUUID();
+        accounts.add(new Account(alice, "10-20-30", "11111111", "personal", new BigDecimal("100.00")));
+        accounts.add(new Account(bob, "10-20-30", "22222222", "savings", new BigDecimal("5.00")));
+        accounts.add(new Account(idle, "10-20-30", "33333333", "personal", new BigDecimal("42.00")));
+        lines.add(new Line(alice, UUID.randomUUID(), "DEPOSIT", null, new BigDecimal("50.00"), START.plusDays(1)));
+        lines.add(new Line(alice, transfer, "TRANSFER", bob, new BigDecimal("-30.00"), START.plusDays(2)));
+        lines.add(new Line(bob, transfer, "TRANSFER", alice, new BigDecimal("30.00"), START.plusDays(2)));
+
+        StatementProgress progress = generator(StatementFormat.CSV, 4).generate(PERIOD);
+
+        assertThat(progress.isComplete()).isTrue();
+        assertEquals(3, progress.statements());
+        assertEquals(3, progress.movements());
+
+        List<String> rows = readAll(".csv");
+        assertThat(rows).contains(
+                "OPENING,2024-03," + alice + ",10-20-30,11111111,,,,,,100.00",
+                "MOVEMENT,2024-03," + alice + ",,," + START.plusDays(2) + ",TRANSFER," + transfer + "," + bob + ",-30.00,120.00",
+                "CLOSING,2024-03," + alice + ",10-20-30,11111111,,,,,,120.00",
+                "CLOSING,2024-03," + bob + ",10-20-30,22222222,,,,,,35.00",
+                "CLOSING,2024-03," + idle + ",10-20-30,33333333,,,,,,42.00");
+        assertThat(rows.indexOf("OPENING,2024-03," + alice + ",10-20-30,11111111,,,,,,100.00"))
+                .isLessThan(rows.indexOf("CLOSING,2024-03," + alice + ",10-20-30,11111111,,,,,,120.00"));
+        try (Stream<Path> files = Files.list(dir.resolve("2024-03"))) {
+            assertThat(files.map(p -> p.getFileName().toString()))
+                    .containsExactlyInAnyOrder(".ranges", "statements-0000.csv", "statements-0001.csv",
+                            "statements-0002.csv", "statements-0003.csv");
+        }
+    }
+
+    @Test
+    void testGenerate_resumesByWritingOnlyMissingRanges() throws IOException {
+        accounts.add(new Account(UUID.randomUUID(), "10-20-30", "11111111", "personal", BigDecimal.TEN));
+        Path month = Files.createDirectories(dir.resolve("2024-03"));
+        Files.writeString(month.resolve(".ranges"), "4");
+        Files.writeString(month.resolve("statements-0001.csv"), "already written");
+        Files.writeString(month.resolve("statements-0003.csv"), "already written");
+
+        // Configured differently since the month was started; the recorded count wins
+        StatementProgress progress = generator(StatementFormat.CSV, 16).generate(PERIOD);
+
+        assertThat(progress.isComplete()).isTrue();
+        verify(bankAccountRepository, times(2)).streamStatementAccounts(any(), any(), any(), any());
+        assertThat(Files.readString(month.resolve("statements-0001.csv"))).isEqualTo("already written");
+        assertThat(Files.exists(month.resolve("statements-0000.csv"))).isTrue();
+        assertThat(Files.exists(month.resolve("statements-0004.csv"))).isFalse();
+    }
+
+    @Test
+    void testGenerate_failedRangeLeavesNoFileBehind() throws IOException {
+        when(transactionRepository.streamStatementLines(any(), any(), any(), any()))
+                .thenThrow(new QueryTimeoutException("statement timeout"));
+
+        StatementProgress progress = generator(StatementFormat.CSV, 2).generate(PERIOD);
+
+        assertThat(progress.isComplete()).isFalse();
+        assertEquals(2, progress.failedRanges());
+        try (Stream<Path> files = Files.list(dir.resolve("2024-03"))) {
+            assertThat(files.map(p -> p.getFileName().toString())).containsExactly(".ranges");
+        }
+    }
+
+    @Test
+    void testGenerate_htmlEscapesCustomerSuppliedFields() throws IOException {
+        accounts.add(new Account(UUID.randomUUID(), "<b>10</b>", "1&2", "savings", BigDecimal.ONE));
+
+        generator(StatementFormat.HTML, 1).generate(PERIOD);
+
+        String html = String.join("\n", readAll(".html"));
+        assertThat(html).contains("&lt;b&gt;10&lt;/b&gt; 1&amp;2").doesNotContain("<b>10</b>");
+        assertThat(html).startsWith("<!DOCTYPE html>").endsWith("</body></html>");
+    }
+
+    @Test
+    void testGenerate_rejectsMonthsNotYetEndedOrArchived() {
+        StatementGenerator generator = generator(StatementFormat.CSV, 1);
+        when(archive.archivedUntil()).thenReturn(START.plusMonths(1));
+
+        assertThrows(IllegalArgumentException.class, () -> generator.generate(YearMonth.now()));
+        assertThrows(IllegalArgumentException.class, () -> generator.generate(PERIOD));
+    }
+
+    private List<String> readAll(String extension) throws IOException {
+        List<String> rows = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir.resolve("2024-03"))) {
+            for (Path file : files.filter(p -> p.toString().endsWith(extension)).sorted().toList()) {
+                rows.addAll(Files.readAllLines(file));
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,137 @@
+package com.eaglebank.stream;
+
+import com.eaglebank.config.StreamProperties;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AccountStreamHubTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AccountStreamHub hub;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        StreamProperties properties = new StreamProperties(Duration.ofHours(1), Duration.ofMinutes(1), 4, 16, 2);
+        hub = new AccountStreamHub(properties, JsonMapper.builder().findAndAddModules().build(), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hub.shutdown();
+    }
+
+    @Test
+    void testPublish_deliversOnlyToSubscribersOfThatAccount() {
+        UUID mine = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        CapturingEmitter emitter = new CapturingEmitter();
+        hub.subscribe(Set.of(mine), null, emitter);
+
+        hub.publish(other, "{\"n\":0}");
+        hub.publish(mine, "{\"n\":1}");
+
+        await().atMost(Duration.ofSeconds(2)).until(() -> emitter.events().size() == 1);
+        assertThat(emitter.events().get(0))
+                .contains("id:" + hub.formatId(2))
+                .contains("event:movement")
+                .contains("data:{\"n\":1}");
+    }
+
+    @Test
+    void testSubscribe_resumesFromLastEventId() {
+        UUID account = UUID.randomUUID();
+        hub.publish(account, "{\"n\":1}");
+        hub.publish(account, "{\"n\":2}");
+        hub.publish(account, "{\"n\":3}");
+
+        CapturingEmitter emitter = new CapturingEmitter();
+        hub.subscribe(Set.of(account), hub.formatId(1), emitter);
+
+        await().atMost(Duration.ofSeconds(2)).until(() -> emitter.events().size() == 2);
+        assertThat(emitter.events().get(0)).contains("data:{\"n\":2}");
+        assertThat(emitter.events().get(1)).contains("data:{\"n\":3}");
+    }
+
+    @Test
+    void testSubscribe_sendsResetWhenLastEventIdIsUnknown() {
+        UUID account = UUID.randomUUID();
+        CapturingEmitter emitter = new CapturingEmitter();
+
+        hub.subscribe(Set.of(account), "previous-run-42", emitter);
+
+        await().atMost(Duration.ofSeconds(2)).until(() -> emitter.events().size() == 1);
+        assertThat(emitter.events().get(0)).contains("event:reset");
+    }
+
+    @Test
+    void testPublish_dropsSlowConsumer() {
+        UUID account = UUID.randomUUID();
+        CountDownLatch release = new CountDownLatch(1);
+        CapturingEmitter slow = new CapturingEmitter(release);
+        hub.subscribe(Set.of(account), null, slow);
+        assertEquals(1, hub.subscriberCount());
+
+        // The sender is blocked on the first write, so the queue fills past its limit of 4
+        for (int i = 0; i < 10; i++) {
+            hub.publish(account, "{\"n\":" + i + "}");
+        }
+        release.countDown();
+
+        await().atMost(Duration.ofSeconds(2)).until(() -> hub.subscriberCount() == 0);
+        assertEquals(1.0, meterRegistry.counter("stream.subscribers.dropped").count());
+    }
+
+    /**
+     * Records every frame instead of writing to a response.
+     */
+    private static class CapturingEmitter extends SseEmitter {
+
+        private final List<String> frames = new CopyOnWriteArrayList<>();
+        private final CountDownLatch gate;
+
+        CapturingEmitter() {
+            this(new CountDownLatch(0));
+        }
+
+        CapturingEmitter(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            try {
+                gate.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            StringBuilder frame = new StringBuilder();
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                frame.append(part.getData());
+            }
+            frames.add(frame.toString());
+        }
+
+        List<String> events() {
+            return frames.stream().filter(f -> !f.startsWith(":")).toList();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.eaglebank.timing;
+
+import com.eaglebank.config.TimingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ServerTimingFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testDoFilter_sendsHeaderBeforeBodyWhenOptedIn() throws Exception {
+        ServerTimingFilter filter = new ServerTimingFilter(new TimingProperties(null, false, null), meterRegistry);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/accounts");
+        request.addHeader("X-Server-Timing", "1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        String[] headerWhenWritten = new String[1];
+
+        filter.doFilter(request, response, (req, res) -> {
+            RequestTimings timings = RequestTimings.current();
+            timings.enter(TimingPhase.SERVICE);
+            timings.enter(TimingPhase.DB);
+            timings.exit(TimingPhase.DB);
+            timings.exit(TimingPhase.SERVICE);
+            timings.enter(TimingPhase.WRITE);
+            res.getOutputStream().write("{}".getBytes(StandardCharsets.UTF_8));
+            headerWhenWritten[0] = response.getHeader(ServerTimingResponse.HEADER);
+            res.getOutputStream().write("more".getBytes(StandardCharsets.UTF_8));
+        });
+
+        assertThat(headerWhenWritten[0])
+                .matches("db;dur=\\d+\\.\\d{2}, service;dur=\\d+\\.\\d{2}, write;dur=\\d+\\.\\d{2}, total;dur=\\d+\\.\\d{2}");
+        assertEquals(headerWhenWritten[0], response.getHeader(ServerTimingResponse.HEADER));
+        assertNull(RequestTimings.current());
+    }
+
+    @Test
+    void testDoFilter_recordsHistogramsWithoutHeaderUnlessAsked() throws Exception {
+        ServerTimingFilter filter = new ServerTimingFilter(new TimingProperties(null, false, null), meterRegistry);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/v1/accounts"), response, (req, res) -> {
+            RequestTimings timings = RequestTimings.current();
+            timings.enter(TimingPhase.JWT);
+            timings.exit(TimingPhase.JWT);
+        });
+
+        assertNull(response.getHeader(ServerTimingResponse.HEADER));
+        assertEquals(1, meterRegistry.get("http.server.phase").tag("phase", "jwt").timer().count());
+        assertEquals(1, meterRegistry.get("http.server.phase").tag("phase", "total").timer().count());
+        assertEquals(0, meterRegistry.get("http.server.phase").tag("phase", "db").timer().count());
+    }
+
+    @Test
+    void testDoFilter_alwaysEmitAddsHeaderToEmptyResponses() throws Exception {
+        ServerTimingFilter filter = new ServerTimingFilter(new TimingProperties(null, true, ""), meterRegistry);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("DELETE", "/v1/accounts/01234567"), response,
+                (req, res) -> response.setStatus(204));
+
+        assertThat(response.getHeader(ServerTimingResponse.HEADER)).startsWith("total;dur=");
+    }
+
+    @Test
+    void testDoFilter_disabledLeavesRequestUntimed() throws Exception {
+        ServerTimingFilter filter = new ServerTimingFilter(new TimingProperties(false, true, null), meterRegistry);
+        FilterChain chain = (req, res) -> assertNull(RequestTimings.current());
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/v1/accounts"), new MockHttpServletResponse(), chain);
+
+        assertEquals(0, meterRegistry.get("http.server.phase").tag("phase", "total").timer().count());
+    }
+}
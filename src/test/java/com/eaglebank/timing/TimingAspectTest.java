@@ -0,0 +1,35 @@
+package com.eaglebank.timing;
+
+import com.eaglebank.service.JwtService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingAspectTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestTimings.end();
+    }
+
+    @Test
+    void testTimeJwt_countsTokenHandlingInsideRequest() {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new JwtService());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(TimingAspect.class);
+        JwtService jwtService = factory.getProxy();
+
+        // Outside a request nothing is recorded and nothing fails
+        String token = jwtService.generateToken(new UsernamePasswordAuthenticationToken("alice@example.com", null));
+
+        RequestTimings timings = RequestTimings.begin();
+        jwtService.isTokenValid(token, "alice@example.com");
+
+        assertTrue(timings.entered(TimingPhase.JWT));
+        assertFalse(timings.entered(TimingPhase.SERVICE));
+    }
+}